@@ -20,8 +20,12 @@
 
 package adams.data.compare;
 
-import adams.data.statistics.StatUtils;
 import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+import adams.data.spectrummatrix.PairwiseSimilarity;
+import adams.data.spectrummatrix.PairwiseSimilarity.SimilarityType;
+
+import java.util.List;
 
 /**
  <!-- globalinfo-start -->
@@ -139,22 +143,26 @@ public class SpectrumCorrelation
    */
   @Override
   protected Boolean doCompareObjects(Spectrum o1, Spectrum o2) {
-    boolean	result;
-    double[]	amp1;
-    double[]	amp2;
-    int		i;
-    int		len;
-    double	corr;
-
-    len  = Math.min(o1.size(), o2.size());
-    amp1 = new double[len];
-    for (i = 0; i < len; i++)
-      amp1[i] = o1.toList().get(i).getAmplitude();
-    amp2 = new double[len];
-    for (i = 0; i < len; i++)
-      amp2[i] = o2.toList().get(i).getAmplitude();
-
-    corr   = StatUtils.correlationCoefficient(amp1, amp2);
+    boolean			result;
+    List<SpectrumPoint>	points1;
+    List<SpectrumPoint>	points2;
+    double[]		amp1;
+    double[]		amp2;
+    int			i;
+    int			len;
+    double		corr;
+
+    points1 = o1.toList();
+    points2 = o2.toList();
+    len     = Math.min(points1.size(), points2.size());
+    amp1    = new double[len];
+    amp2    = new double[len];
+    for (i = 0; i < len; i++) {
+      amp1[i] = points1.get(i).getAmplitude();
+      amp2[i] = points2.get(i).getAmplitude();
+    }
+
+    corr   = PairwiseSimilarity.similarity(amp1, amp2, SimilarityType.CORRELATION);
     result = (corr >= m_Minimum);
     if (isLoggingEnabled())
       getLogger().info(corr + " >= " + m_Minimum + "? " + result);
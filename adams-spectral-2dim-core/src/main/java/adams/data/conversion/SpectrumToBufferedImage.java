@@ -15,20 +15,22 @@
 
 /*
  * SpectrumToBufferedImage.java
- * Copyright (C) 2019-2022 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2019-2026 University of Waikato, Hamilton, NZ
  */
 
 package adams.data.conversion;
 
 import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+import adams.data.spectrumfft.FFTPlan;
 import adams.gui.visualization.core.BiColorGenerator;
 import adams.gui.visualization.core.ColorGradientGenerator;
-import com.musicg.wave.Wave;
 import gnu.trove.map.TIntIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.util.List;
 
 /**
  <!-- globalinfo-start -->
@@ -87,6 +89,15 @@ public class SpectrumToBufferedImage
   /** the lookup table. */
   protected transient TIntIntMap m_ColorLookup;
 
+  /** the (Hamming) window for the FFT frames. */
+  protected transient double[] m_Window;
+
+  /** the buffer for the real parts of a frame. */
+  protected transient double[] m_FrameRe;
+
+  /** the buffer for the imaginary parts of a frame. */
+  protected transient double[] m_FrameIm;
+
   /**
    * Returns a string describing the object.
    *
@@ -127,6 +138,9 @@ public class SpectrumToBufferedImage
 
     m_GradientColors = null;
     m_ColorLookup    = null;
+    m_Window         = null;
+    m_FrameRe        = null;
+    m_FrameIm        = null;
   }
 
   /**
@@ -272,49 +286,162 @@ public class SpectrumToBufferedImage
   }
 
   /**
-   * Performs the actual conversion.
+   * Returns the Hamming window for the FFT sample size.
    *
-   * @return		the converted data
-   * @throws Exception	if something goes wrong with the conversion
+   * @return		the window
    */
-  @Override
-  protected Object doConvert() throws Exception {
-    // Defer to SpectrumToWave to get the WAV representation
-    // of the spectrum
-    SpectrumToWave spectrumToWave = new SpectrumToWave();
-    spectrumToWave.setInput((Spectrum) m_Input);
-    Wave wave = (Wave) spectrumToWave.doConvert();
-
-    // Convert the WAV to a buffered image
-    return waveToBufferedImage(wave);
+  protected double[] getWindow() {
+    int		i;
+
+    if (m_Window == null) {
+      m_Window = new double[m_FFTSampleSize];
+      for (i = 0; i < m_FFTSampleSize; i++)
+	m_Window[i] = 0.54 - 0.46 * Math.cos(2 * Math.PI * i / (m_FFTSampleSize - 1));
+    }
+
+    return m_Window;
+  }
+
+  /**
+   * Turns the spectrum into 16bit audio samples, normalized by the
+   * maximum amplitude (like {@link SpectrumToWave}).
+   *
+   * @param spectrum	the spectrum to convert
+   * @return		the samples
+   */
+  protected short[] toSamples(Spectrum spectrum) {
+    short[]		result;
+    List<SpectrumPoint>	points;
+    float		norm;
+    int			i;
+
+    points = spectrum.toList();
+    points.sort(spectrum.getComparator());
+    norm   = spectrum.getMaxAmplitude().getAmplitude();
+    result = new short[points.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = (short) (Short.MAX_VALUE * (points.get(i).getAmplitude() / norm));
+
+    return result;
   }
 
   /**
-   * Converts a WAV to an image of its spectrogram.
+   * Computes the normalized spectrogram (frames x frequency units, values
+   * 0-1, logarithmic scale) of the samples.
    *
-   * @param wave    The WAV to create an image for.
-   * @return        The image of the WAV's spectrogram.
+   * @param samples	the samples to process
+   * @return		the spectrogram
    */
-  private BufferedImage waveToBufferedImage(Wave wave) {
-    // Turn the wave into a spectrogram
-    com.musicg.wave.extension.Spectrogram spectrogram =
-      new com.musicg.wave.extension.Spectrogram(wave, m_FFTSampleSize, m_OverlapFactor);
-
-    // Get the spectrogram data
-    double[][] data = spectrogram.getNormalizedSpectrogramData();
-
-    // Get the colour lookup
-    TIntIntMap colors = getColorLookup();
-
-    // Create the image
-    BufferedImage img = new BufferedImage(data.length, data[0].length, BufferedImage.TYPE_INT_RGB);
-    for (int i = 0; i < data.length; i++) {
-      for (int n = 0; n < data[i].length; n++) {
-        int colorIndex = (int) (data[i][n] * (colors.size() - 1));
-        img.setRGB(i, img.getHeight() - n - 1, colors.get(colorIndex));
+  protected double[][] computeSpectrogram(short[] samples) {
+    double[][]	result;
+    double[][]	magnitudes;
+    short[]	overlapped;
+    double[]	window;
+    FFTPlan	plan;
+    int		numSamples;
+    int		numFrames;
+    int		numUnits;
+    int		backSamples;
+    int		pointer;
+    int		start;
+    int		i;
+    int		n;
+    double	maxAmp;
+    double	minAmp;
+    double	diff;
+    final double minValidAmp = 0.00000000001F;
+
+    // overlapping
+    numSamples = samples.length;
+    if (m_OverlapFactor > 1) {
+      overlapped  = new short[numSamples * m_OverlapFactor];
+      backSamples = m_FFTSampleSize * (m_OverlapFactor - 1) / m_OverlapFactor;
+      pointer     = 0;
+      for (i = 0; (i < samples.length) && (pointer < overlapped.length); i++) {
+	overlapped[pointer++] = samples[i];
+	if (pointer % m_FFTSampleSize == 0)
+	  i -= backSamples;
+      }
+      numSamples = overlapped.length;
+      samples    = overlapped;
+    }
+
+    numFrames = numSamples / m_FFTSampleSize;
+    if (numFrames == 0)
+      throw new IllegalStateException("Not enough data points for FFT sample size " + m_FFTSampleSize + ": " + numSamples);
+
+    // the (real) frame gets treated as m_FFTSampleSize/2 complex numbers,
+    // of which the positive frequencies (first half) are used
+    window   = getWindow();
+    plan     = FFTPlan.getPlan(Math.max(1, m_FFTSampleSize / 2));
+    numUnits = plan.getLength() / 2;
+    if (numUnits == 0)
+      throw new IllegalStateException("FFT sample size too small: " + m_FFTSampleSize);
+    if (m_FrameRe == null) {
+      m_FrameRe = new double[plan.getLength()];
+      m_FrameIm = new double[plan.getLength()];
+    }
+    magnitudes = new double[numFrames][numUnits];
+    maxAmp     = Double.MIN_VALUE;
+    minAmp     = Double.MAX_VALUE;
+    for (i = 0; i < numFrames; i++) {
+      start = i * m_FFTSampleSize;
+      for (n = 0; n < plan.getLength(); n++) {
+	m_FrameRe[n] = samples[start + 2*n] * window[2*n];
+	m_FrameIm[n] = samples[start + 2*n + 1] * window[2*n + 1];
+      }
+      plan.forward(m_FrameRe, m_FrameIm);
+      for (n = 0; n < numUnits; n++) {
+	magnitudes[i][n] = Math.sqrt(m_FrameRe[n] * m_FrameRe[n] + m_FrameIm[n] * m_FrameIm[n]);
+	if (magnitudes[i][n] > maxAmp)
+	  maxAmp = magnitudes[i][n];
+	else if (magnitudes[i][n] < minAmp)
+	  minAmp = magnitudes[i][n];
+      }
+    }
+
+    // normalization
+    if (minAmp == 0)
+      minAmp = minValidAmp;
+    diff   = Math.log10(maxAmp / minAmp);
+    result = new double[numFrames][numUnits];
+    for (i = 0; i < numFrames; i++) {
+      for (n = 0; n < numUnits; n++) {
+	if (magnitudes[i][n] < minValidAmp)
+	  result[i][n] = 0;
+	else
+	  result[i][n] = Math.log10(magnitudes[i][n] / minAmp) / diff;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Performs the actual conversion.
+   *
+   * @return		the converted data
+   * @throws Exception	if something goes wrong with the conversion
+   */
+  @Override
+  protected Object doConvert() throws Exception {
+    double[][]		data;
+    TIntIntMap		colors;
+    BufferedImage	img;
+    int			colorIndex;
+    int			i;
+    int			n;
+
+    data   = computeSpectrogram(toSamples((Spectrum) m_Input));
+    colors = getColorLookup();
+    img    = new BufferedImage(data.length, data[0].length, BufferedImage.TYPE_INT_RGB);
+    for (i = 0; i < data.length; i++) {
+      for (n = 0; n < data[i].length; n++) {
+	colorIndex = (int) (data[i][n] * (colors.size() - 1));
+	img.setRGB(i, img.getHeight() - n - 1, colors.get(colorIndex));
       }
     }
 
     return img;
   }
-}
\ No newline at end of file
+}
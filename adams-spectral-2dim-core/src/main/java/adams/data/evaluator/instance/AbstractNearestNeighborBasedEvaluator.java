@@ -21,19 +21,31 @@
 package adams.data.evaluator.instance;
 
 import adams.core.ObjectCopyHelper;
+import adams.core.Performance;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
+import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.neighboursearch.NearestNeighbourSearch;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.logging.Level;
 
 /**
  * Ancestor for evaluators that use a nearest neighbor search.
+ * <br>
+ * Batch evaluation preprocesses the data only once and distributes the
+ * instances across threads, each using its own copy of the search algorithm
+ * (as these are not thread-safe). The copies get created once after building
+ * and are reused by subsequent batches.
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  * @version $Revision$
  */
 public abstract class AbstractNearestNeighborBasedEvaluator
-  extends AbstractSerializableEvaluator {
+  extends AbstractSerializableEvaluator
+  implements BatchEvaluator {
 
   private static final long serialVersionUID = 8219254664592725340L;
 
@@ -49,6 +61,12 @@ public abstract class AbstractNearestNeighborBasedEvaluator
   /** the header of the training data. */
   protected Instances m_Header;
 
+  /** the number of threads to use for batch evaluation. */
+  protected int m_NumThreads;
+
+  /** the search algorithms for batch evaluation, one per thread (the first one is the actual search). */
+  protected transient NearestNeighbourSearch[] m_BatchSearches;
+
   /**
    * Adds options to the internal list of options.
    */
@@ -59,6 +77,10 @@ public abstract class AbstractNearestNeighborBasedEvaluator
     m_OptionManager.add(
       "search", "search",
       getDefaultSearch());
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1);
   }
 
   /**
@@ -97,6 +119,36 @@ public abstract class AbstractNearestNeighborBasedEvaluator
     return "The nearest neighbor search to use.";
   }
 
+  /**
+   * Sets the number of threads to use for batch evaluation.
+   *
+   * @param value 	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads    = value;
+    m_BatchSearches = null;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for batch evaluation.
+   *
+   * @return 		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the explorer/experimenter gui
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp() + "; only used for batch evaluation.";
+  }
+
   /**
    * Returns the default value in case of missing evaluations.
    *
@@ -133,10 +185,126 @@ public abstract class AbstractNearestNeighborBasedEvaluator
       m_ActualSearch = null;
       getLogger().log(Level.SEVERE, "Failed to initialize search algorithm with training data!", e);
     }
+    m_BatchSearches = null;
+    if (m_ActualSearch != null)
+      getBatchSearches();
 
     return true;
   }
 
+  /**
+   * Returns the search algorithms for batch evaluation, one per thread.
+   * The copies of the actual search algorithm get created only if not yet
+   * available or if the actual search algorithm has changed (e.g., after
+   * building or loading a serialized setup).
+   *
+   * @return		the search algorithms, the first one is the actual one
+   */
+  protected synchronized NearestNeighbourSearch[] getBatchSearches() {
+    NearestNeighbourSearch[]	result;
+    int				i;
+
+    if ((m_BatchSearches != null) && (m_BatchSearches[0] == m_ActualSearch))
+      return m_BatchSearches;
+
+    result    = new NearestNeighbourSearch[SpectrumMatrixHelper.determineNumThreads(m_NumThreads)];
+    result[0] = m_ActualSearch;
+    for (i = 1; i < result.length; i++) {
+      result[i] = ObjectCopyHelper.copyObject(m_ActualSearch);
+      if (result[i] == null)
+	throw new IllegalStateException("Failed to create copy of search algorithm!");
+    }
+    m_BatchSearches = result;
+
+    return result;
+  }
+
+  /**
+   * Filters the data before evaluating it in batch mode.
+   * <br><br>
+   * Default implementation returns the data as is.
+   *
+   * @param data	the data to filter
+   * @return		the filtered data
+   * @throws Exception	if filtering fails
+   */
+  protected Instances filterBatch(Instances data) throws Exception {
+    return data;
+  }
+
+  /**
+   * Performs the actual evaluation of the (already filtered) instance
+   * using the provided search algorithm.
+   *
+   * @param data	the instance to check
+   * @param search	the search algorithm to use
+   * @return		evaluation metric
+   */
+  protected abstract Float performEvaluate(Instance data, NearestNeighbourSearch search);
+
+  /**
+   * Evaluates all the instances of the dataset. The data gets filtered only
+   * once and the instances are distributed across the threads.
+   *
+   * @param data	the instances to evaluate
+   * @return		the evaluation metrics, one map per instance
+   */
+  @Override
+  public List<HashMap<String,Float>> evaluateBatch(final Instances data) {
+    List<HashMap<String,Float>>		result;
+    final Instances			filtered;
+    final Float[]			evals;
+    final NearestNeighbourSearch[]	searches;
+    final int				threads;
+    HashMap<String,Float>		eval;
+    Instances				tmp;
+    int					i;
+
+    preCheck(data);
+    result = new ArrayList<>();
+    if (data.numInstances() == 0)
+      return result;
+    // checks class and loads serialized setup
+    preCheck(data.instance(0));
+    if (m_ActualSearch == null)
+      throw new IllegalStateException("Evaluator not built yet!");
+
+    evals = new Float[data.numInstances()];
+    try {
+      tmp = filterBatch(data);
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to filter data!", e);
+      tmp = null;
+    }
+    if ((tmp != null) && (tmp.numInstances() != data.numInstances())) {
+      getLogger().severe("Filter changed number of instances: " + data.numInstances() + " != " + tmp.numInstances());
+      tmp = null;
+    }
+    filtered = tmp;
+
+    if (filtered != null) {
+      searches = getBatchSearches();
+      threads  = Math.min(searches.length, data.numInstances());
+      SpectrumMatrixHelper.parallel(threads, threads, (t) -> {
+	for (int n = t; n < data.numInstances(); n += threads) {
+	  if (!data.instance(n).classIsMissing())
+	    evals[n] = performEvaluate(filtered.instance(n), searches[t]);
+	}
+      });
+    }
+
+    for (i = 0; i < data.numInstances(); i++) {
+      eval = new HashMap<>();
+      if (data.instance(i).classIsMissing())
+	getLogger().warning("No class value, cannot evaluate ('" + data.classAttribute().name() + "')!");
+      eval.put(DEFAULT_METRIC, (evals[i] == null) ? m_MissingEvaluation : evals[i]);
+      result.add(eval);
+    }
+
+    return result;
+  }
+
   /**
    * Regenerates all the objects that are necessary for serialization.
    */
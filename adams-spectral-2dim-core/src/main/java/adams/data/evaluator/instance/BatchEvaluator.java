@@ -0,0 +1,45 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * BatchEvaluator.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.evaluator.instance;
+
+import weka.core.Instances;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Interface for evaluators that can evaluate a whole dataset more efficiently
+ * than instance by instance, e.g., by filtering the data only once.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface BatchEvaluator
+  extends Evaluator {
+
+  /**
+   * Evaluates all the instances of the dataset.
+   *
+   * @param data	the instances to evaluate
+   * @return		the evaluation metrics, one map per instance, see
+   * 			{@link #evaluate(weka.core.Instance)}
+   */
+  public List<HashMap<String,Float>> evaluateBatch(Instances data);
+}
@@ -32,7 +32,12 @@ import weka.core.SelectedTag;
 import weka.core.neighboursearch.LinearNNSearch;
 import weka.core.neighboursearch.NearestNeighbourSearch;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.logging.Level;
 
 /**
@@ -68,6 +73,14 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;default: weka.core.neighboursearch.LinearNNSearch -A \"weka.core.EuclideanDistance -R first-last\"
  * </pre>
  * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used); only used for batch evaluation.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
  * <pre>-classifier &lt;weka.classifiers.Classifier&gt; (property: classifier)
  * &nbsp;&nbsp;&nbsp;The classifier to evaluate on the neighborhood.
  * &nbsp;&nbsp;&nbsp;default: weka.classifiers.functions.LinearRegression -S 1 -C -R 1.0E-8 -num-decimal-places 4
@@ -125,8 +138,8 @@ public class CrossValidatedNeighborHood
   /** whether the execution was stopped. */
   protected boolean m_Stopped;
 
-  /** the current evaluation. */
-  protected transient StoppableEvaluation m_Evaluation;
+  /** the evaluations currently running. */
+  protected transient Set<StoppableEvaluation> m_Evaluations;
 
   /**
    * Returns a string describing the object.
@@ -393,29 +406,68 @@ public class CrossValidatedNeighborHood
    * 			the class value is missing
    */
   protected Float performEvaluate(Instance data) {
+    m_Stopped = false;
+    return performEvaluate(data, m_ActualSearch);
+  }
+
+  /**
+   * Evaluates all the instances of the dataset, cross-validating the
+   * neighborhoods in parallel.
+   *
+   * @param data	the instances to evaluate
+   * @return		the evaluation metrics, one map per instance
+   */
+  @Override
+  public List<HashMap<String,Float>> evaluateBatch(Instances data) {
+    m_Stopped = false;
+    return super.evaluateBatch(data);
+  }
+
+  /**
+   * Performs the actual evaluation of the instance using the provided
+   * search algorithm.
+   *
+   * @param data	the instance to check
+   * @param search	the search algorithm to use
+   * @return		evaluation metric
+   */
+  @Override
+  protected Float performEvaluate(Instance data, NearestNeighbourSearch search) {
     float			result;
     Instances			neighbors;
     int				folds;
+    StoppableEvaluation		evaluation;
 
-    m_Stopped = false;
+    if (m_Stopped)
+      return m_MissingEvaluation;
 
+    evaluation = null;
     try {
       // get neighborhood
-      neighbors = m_ActualSearch.kNearestNeighbours(data, m_NumNeighbors);
+      neighbors = search.kNearestNeighbours(data, m_NumNeighbors);
       if (m_Folds < 2)
 	folds = neighbors.numInstances();
       else
         folds = Math.min(m_Folds, neighbors.numInstances());
-      m_Evaluation = new StoppableEvaluation(neighbors);
-      m_Evaluation.crossValidateModel(m_Classifier, neighbors, folds, new Random(m_Seed));
-      result = (float) EvaluationHelper.getValue(m_Evaluation, m_Statistic, 0);
+      evaluation = new StoppableEvaluation(neighbors);
+      synchronized(this) {
+	if (m_Evaluations == null)
+	  m_Evaluations = new HashSet<>();
+	m_Evaluations.add(evaluation);
+      }
+      evaluation.crossValidateModel(m_Classifier, neighbors, folds, new Random(m_Seed));
+      result = (float) EvaluationHelper.getValue(evaluation, m_Statistic, 0);
     }
     catch (Exception e) {
       getLogger().log(Level.SEVERE, "Failed to cross-validate neighborhood!", e);
       result = m_MissingEvaluation;
     }
 
-    m_Evaluation = null;
+    if (evaluation != null) {
+      synchronized(this) {
+	m_Evaluations.remove(evaluation);
+      }
+    }
     if (m_Stopped)
       result = m_MissingEvaluation;
 
@@ -427,9 +479,14 @@ public class CrossValidatedNeighborHood
    */
   @Override
   public void stopExecution() {
-    if (m_Evaluation != null)
-      m_Evaluation.stopExecution();
+    List<StoppableEvaluation>	evaluations;
+
     m_Stopped = true;
+    synchronized(this) {
+      evaluations = (m_Evaluations == null) ? new ArrayList<>() : new ArrayList<>(m_Evaluations);
+    }
+    for (StoppableEvaluation evaluation: evaluations)
+      evaluation.stopExecution();
   }
 
   /**
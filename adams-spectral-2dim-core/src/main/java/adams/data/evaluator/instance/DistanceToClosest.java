@@ -62,6 +62,14 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;default: weka.core.neighboursearch.LinearNNSearch -A \"weka.core.EuclideanDistance -R first-last\"
  * </pre>
  * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used); only used for batch evaluation.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
  * <pre>-filter &lt;weka.filters.Filter&gt; (property: filter)
  * &nbsp;&nbsp;&nbsp;The filter to apply to the data.
  * &nbsp;&nbsp;&nbsp;default: weka.filters.AllFilter
@@ -220,19 +228,50 @@ public class DistanceToClosest
    * 			the class value is missing
    */
   protected Float performEvaluate(Instance data) {
+    try {
+      // filter instance
+      m_ActualFilter.input(data);
+      data = m_ActualFilter.output();
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to filter instance!", e);
+      return m_MissingEvaluation;
+    }
+
+    return performEvaluate(data, m_ActualSearch);
+  }
+
+  /**
+   * Filters the data before evaluating it in batch mode.
+   *
+   * @param data	the data to filter
+   * @return		the filtered data
+   * @throws Exception	if filtering fails
+   */
+  @Override
+  protected Instances filterBatch(Instances data) throws Exception {
+    return Filter.useFilter(data, m_ActualFilter);
+  }
+
+  /**
+   * Performs the actual evaluation of the (already filtered) instance
+   * using the provided search algorithm.
+   *
+   * @param data	the instance to check
+   * @param search	the search algorithm to use
+   * @return		evaluation metric
+   */
+  @Override
+  protected Float performEvaluate(Instance data, NearestNeighbourSearch search) {
     float	result;
     double[]	dist;
 
     result = m_MissingEvaluation;
 
     try {
-      // filter instance
-      m_ActualFilter.input(data);
-      data = m_ActualFilter.output();
-
       // get closest
-      m_ActualSearch.kNearestNeighbours(data, 1);
-      dist = m_ActualSearch.getDistances();
+      search.kNearestNeighbours(data, 1);
+      dist = search.getDistances();
       if (dist.length > 0)
 	result = (float) dist[0];
     }
@@ -21,21 +21,27 @@
 package adams.data.evaluator.instance;
 
 import adams.core.ObjectCopyHelper;
+import adams.core.Performance;
 import adams.core.Randomizable;
 import adams.core.StoppableWithFeedback;
+import adams.core.ThreadLimiter;
 import adams.core.logging.LoggingHelper;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
 import weka.classifiers.Classifier;
 import weka.classifiers.StoppableEvaluation;
 import weka.classifiers.functions.LinearRegressionJ;
 import weka.core.Instance;
 import weka.core.Instances;
 
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 
 /**
  <!-- globalinfo-start -->
  * Builds an ensemble of classifiers on the training data to determine the MAE per classifier, to be used as normalization factor.<br>
- * At evaluation time, each classifier makes a prediction on the instance and the classification is divided by the normalization factor for this classifier. The range between min&#47;max normalized prediction is the evaluation output.
+ * At evaluation time, each classifier makes a prediction on the instance and the classification is divided by the normalization factor for this classifier. The range between min&#47;max normalized prediction is the evaluation output.<br>
+ * Training and scoring of the ensemble members can be performed in parallel.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -77,13 +83,22 @@ import java.util.Random;
  * &nbsp;&nbsp;&nbsp;minimum: 2
  * </pre>
  * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used); used for training and scoring
+ * &nbsp;&nbsp;&nbsp;the ensemble members.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class EnsembleEvaluator
   extends AbstractSerializableEvaluator
-  implements Randomizable, StoppableWithFeedback {
+  implements Randomizable, StoppableWithFeedback, ThreadLimiter {
 
   private static final long serialVersionUID = -4254958807591488789L;
 
@@ -111,8 +126,11 @@ public class EnsembleEvaluator
   /** whether the execution was stopped. */
   protected boolean m_Stopped;
 
-  /** the current evaluation. */
-  protected transient StoppableEvaluation m_Evaluation;
+  /** the number of threads to use for parallel execution. */
+  protected int m_NumThreads;
+
+  /** the evaluations currently running. */
+  protected transient Set<StoppableEvaluation> m_Evaluations;
 
   /**
    * Returns a string describing the object.
@@ -127,7 +145,8 @@ public class EnsembleEvaluator
 	+ "At evaluation time, each classifier makes a prediction on the "
 	+ "instance and the classification is divided by the normalization "
 	+ "factor for this classifier. The range between min/max normalized "
-	+ "prediction is the evaluation output.";
+	+ "prediction is the evaluation output.\n"
+	+ "Training and scoring of the ensemble members can be performed in parallel.";
   }
 
   /**
@@ -148,6 +167,10 @@ public class EnsembleEvaluator
     m_OptionManager.add(
       "num-folds", "numFolds",
       10, 2, null);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1);
   }
 
   /**
@@ -252,6 +275,94 @@ public class EnsembleEvaluator
     return "The number of folds to use for evaluating the classifiers.";
   }
 
+  /**
+   * Sets the number of threads to use.
+   *
+   * @param value 	the number of threads, see Performance.determineNumThreads(int)
+   */
+  @Override
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use.
+   *
+   * @return 		the number of threads, see Performance.determineNumThreads(int)
+   */
+  @Override
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp() + "; used for training and scoring the ensemble members.";
+  }
+
+  /**
+   * Returns the number of threads to use for the ensemble members.
+   *
+   * @return		the number of threads
+   */
+  protected int determineNumThreads() {
+    return Math.max(1, Math.min(Performance.determineNumThreads(m_NumThreads), m_Classifiers.length));
+  }
+
+  /**
+   * Adds the evaluation to the currently running ones.
+   *
+   * @param eval	the evaluation to add
+   */
+  protected synchronized void addEvaluation(StoppableEvaluation eval) {
+    if (m_Evaluations == null)
+      m_Evaluations = new HashSet<>();
+    m_Evaluations.add(eval);
+  }
+
+  /**
+   * Removes the evaluation from the currently running ones.
+   *
+   * @param eval	the evaluation to remove
+   */
+  protected synchronized void removeEvaluation(StoppableEvaluation eval) {
+    if (m_Evaluations != null)
+      m_Evaluations.remove(eval);
+  }
+
+  /**
+   * Trains the specified ensemble member and determines its normalization
+   * factor.
+   *
+   * @param index	the index of the member
+   * @param data	the training data
+   * @throws Exception	if training or cross-validation fails
+   */
+  protected void buildMember(int index, Instances data) throws Exception {
+    StoppableEvaluation	eval;
+
+    m_ActualClassifiers[index] = ObjectCopyHelper.copyObject(m_Classifiers[index]);
+    m_ActualClassifiers[index].buildClassifier(data);
+    if (m_Stopped)
+      return;
+    // determine normalization factor
+    eval = new StoppableEvaluation(data);
+    addEvaluation(eval);
+    try {
+      eval.crossValidateModel(m_Classifiers[index], data, m_NumFolds, new Random(m_Seed));
+      m_Normalize[index] = eval.meanAbsoluteError();
+    }
+    finally {
+      removeEvaluation(eval);
+    }
+  }
+
   /**
    * Builds the evaluator.
    *
@@ -259,8 +370,9 @@ public class EnsembleEvaluator
    * @return		true if build successful
    */
   @Override
-  protected boolean performBuild(Instances data) {
-    int		i;
+  protected boolean performBuild(final Instances data) {
+    final Exception[]	errors;
+    int			i;
 
     if (data == null)
       return false;
@@ -270,27 +382,62 @@ public class EnsembleEvaluator
     m_Header            = new Instances(data, 0);
     m_ActualClassifiers = new Classifier[m_Classifiers.length];
     m_Normalize         = new double[m_Classifiers.length];
-    for (i = 0; i < m_Classifiers.length; i++) {
+    errors              = new Exception[m_Classifiers.length];
+    SpectrumMatrixHelper.parallel(determineNumThreads(), m_Classifiers.length, (n) -> {
       if (m_Stopped)
-	return false;
+	return;
       try {
-	m_ActualClassifiers[i] = ObjectCopyHelper.copyObject(m_Classifiers[i]);
-	m_ActualClassifiers[i].buildClassifier(data);
-	// determine normalization factor
-	m_Evaluation = new StoppableEvaluation(data);
-	m_Evaluation.crossValidateModel(m_Classifiers[i], data, m_NumFolds, new Random(m_Seed));
-	m_Normalize[i] = m_Evaluation.meanAbsoluteError();
+	buildMember(n, data);
       }
       catch (Exception e) {
-	LoggingHelper.handleException(this, "Failed to train classifier #" + (i+1) + "!", e);
+	errors[n] = e;
+      }
+    });
+    for (i = 0; i < errors.length; i++) {
+      if (errors[i] != null) {
+	LoggingHelper.handleException(this, "Failed to train classifier #" + (i+1) + "!", errors[i]);
 	return false;
       }
-      m_Evaluation = null;
     }
+    if (m_Stopped)
+      return false;
     m_SerializableObjectHelper.saveSetup();
     return true;
   }
 
+  /**
+   * Obtains the predictions of all ensemble members for the instance,
+   * divided by their normalization factors.
+   *
+   * @param data	the instance to make predictions for
+   * @return		the normalized predictions
+   * @throws Exception	if a prediction fails
+   */
+  protected double[] normalizedPredictions(final Instance data) throws Exception {
+    final double[]	result;
+    final Exception[]	errors;
+    int			threads;
+    int			i;
+
+    result  = new double[m_ActualClassifiers.length];
+    errors  = new Exception[m_ActualClassifiers.length];
+    threads = determineNumThreads();
+    SpectrumMatrixHelper.parallel(threads, m_ActualClassifiers.length, (n) -> {
+      try {
+	result[n] = m_ActualClassifiers[n].classifyInstance(data) / m_Normalize[n];
+      }
+      catch (Exception e) {
+	errors[n] = e;
+      }
+    });
+    for (i = 0; i < errors.length; i++) {
+      if (errors[i] != null)
+	throw errors[i];
+    }
+
+    return result;
+  }
+
   /**
    * Performs the actual evaluation. Returns the range of the first confidence
    * interval (upper - lower).
@@ -308,14 +455,12 @@ public class EnsembleEvaluator
     int		i;
 
     try {
-      preds = new double[m_ActualClassifiers.length];
+      preds = normalizedPredictions(data);
       min   = Double.MAX_VALUE;
       max   = Double.MIN_VALUE;
-      for (i = 0; i < m_ActualClassifiers.length; i++) {
-	preds[i]  = m_ActualClassifiers[i].classifyInstance(data);
-	preds[i] /= m_Normalize[i];
-	min       = Math.min(min, preds[i]);
-	max       = Math.max(max, preds[i]);
+      for (i = 0; i < preds.length; i++) {
+	min = Math.min(min, preds[i]);
+	max = Math.max(max, preds[i]);
       }
       result = (float) (max - min);
     }
@@ -368,9 +513,13 @@ public class EnsembleEvaluator
    */
   @Override
   public void stopExecution() {
-    if (m_Evaluation != null)
-      m_Evaluation.stopExecution();
     m_Stopped = true;
+    synchronized(this) {
+      if (m_Evaluations != null) {
+	for (StoppableEvaluation eval: m_Evaluations)
+	  eval.stopExecution();
+      }
+    }
   }
 
   /**
@@ -19,10 +19,13 @@
  */
 package adams.data.evaluator.instance;
 
+import adams.core.Performance;
 import adams.core.Randomizable;
 import adams.core.StoppableUtils;
 import adams.core.StoppableWithFeedback;
+import adams.core.ThreadLimiter;
 import adams.core.option.OptionUtils;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
 import adams.flow.core.EvaluationHelper;
 import adams.flow.core.EvaluationStatistic;
 import weka.classifiers.Classifier;
@@ -38,7 +41,8 @@ import java.util.logging.Level;
 
 /**
  <!-- globalinfo-start -->
- * Multi-classifier based evaluator. Generates predictions for each of the classifiers on an incoming instance. Outputs info on the range of the predictions, and uses base classifier MAE to normalise the RESULT_SCORE
+ * Multi-classifier based evaluator. Generates predictions for each of the classifiers on an incoming instance. Outputs info on the range of the predictions, and uses base classifier MAE to normalise the RESULT_SCORE<br>
+ * The classifiers get trained and queried in parallel if more than one thread is used.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -85,6 +89,15 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;minimum: 2
  * </pre>
  * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used); used for training and querying
+ * &nbsp;&nbsp;&nbsp;the classifiers.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author dale
@@ -92,7 +105,7 @@ import java.util.logging.Level;
  */
 public class MultiClassifierEvaluator
   extends AbstractSerializableEvaluator
-  implements Randomizable, StoppableWithFeedback {
+  implements Randomizable, StoppableWithFeedback, ThreadLimiter {
 
   /** serial uid	 */
   private static final long serialVersionUID = -1524226172394611174L;
@@ -121,6 +134,9 @@ public class MultiClassifierEvaluator
   /** whether the execution was stopped. */
   protected boolean m_Stopped;
 
+  /** the number of threads to use for parallel execution. */
+  protected int m_NumThreads;
+
   /**
    * Global info.
    */
@@ -128,7 +144,8 @@ public class MultiClassifierEvaluator
   public String globalInfo() {
     return "Multi-classifier based evaluator. Generates predictions for each of the classifiers" +
       " on an incoming instance. Outputs info on the range of the predictions, and uses base classifier MAE "+
-      "to normalise the RESULT_SCORE";
+      "to normalise the RESULT_SCORE.\n" +
+      "The classifiers get trained and queried in parallel if more than one thread is used.";
   }
 
   /**
@@ -153,6 +170,10 @@ public class MultiClassifierEvaluator
     m_OptionManager.add(
       "folds", "folds",
       10, 2, null);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1);
   }
 
   /**
@@ -283,6 +304,78 @@ public class MultiClassifierEvaluator
     return "The number of folds to use";
   }
 
+  /**
+   * Sets the number of threads to use.
+   *
+   * @param value 	the number of threads, see Performance.determineNumThreads(int)
+   */
+  @Override
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use.
+   *
+   * @return 		the number of threads, see Performance.determineNumThreads(int)
+   */
+  @Override
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp() + "; used for training and querying the classifiers.";
+  }
+
+  /**
+   * Returns the number of threads to use for querying the classifiers.
+   *
+   * @return		the number of threads
+   */
+  protected int determineNumThreads() {
+    return Math.max(1, Math.min(Performance.determineNumThreads(m_NumThreads), m_Classifiers.length));
+  }
+
+  /**
+   * Obtains the predictions of all the classifiers for the instance.
+   *
+   * @param data	the instance to make predictions for
+   * @return		the predictions
+   * @throws Exception	if a prediction fails
+   */
+  protected double[] predictions(final Instance data) throws Exception {
+    final double[]	result;
+    final Exception[]	errors;
+    int			threads;
+    int			i;
+
+    result  = new double[m_Classifiers.length];
+    errors  = new Exception[m_Classifiers.length];
+    threads = determineNumThreads();
+    SpectrumMatrixHelper.parallel(threads, m_Classifiers.length, (n) -> {
+      try {
+	result[n] = m_Classifiers[n].classifyInstance(data);
+      }
+      catch (Exception e) {
+	errors[n] = e;
+      }
+    });
+    for (i = 0; i < errors.length; i++) {
+      if (errors[i] != null)
+	throw errors[i];
+    }
+
+    return result;
+  }
+
   /**
    * Set training data.
    *
@@ -311,7 +404,6 @@ public class MultiClassifierEvaluator
     HashMap<String,Float> 	result;
     double 			min;
     double 			max;
-    double 			res;
     double 			mae;
 
     result = new HashMap<>();
@@ -319,8 +411,7 @@ public class MultiClassifierEvaluator
     try {
       min = Double.MAX_VALUE;
       max = Double.NEGATIVE_INFINITY;
-      for (Classifier c: m_Classifiers) {
-	res = c.classifyInstance(data);
+      for (double res: predictions(data)) {
 	min = Math.min(min, res);
 	max = Math.max(max, res);
       }
@@ -350,14 +441,12 @@ public class MultiClassifierEvaluator
     float	result;
     double 	min;
     double 	max;
-    double 	res;
     double 	mae;
 
     try {
       min = Double.MAX_VALUE;
       max = Double.MIN_VALUE;
-      for (Classifier c: m_Classifiers) {
-	res = c.classifyInstance(data);
+      for (double res: predictions(data)) {
 	min = Math.min(min, res);
 	max = Math.max(max, res);
       }
@@ -415,31 +504,51 @@ public class MultiClassifierEvaluator
    * @return		true if build successful
    */
   @Override
-  protected boolean performBuild(Instances data) {
+  protected boolean performBuild(final Instances data) {
+    final Exception[]	errors;
+    int			i;
+
     setData(data);
 
     m_Stopped = false;
 
+    // cross-validation of base classifier and training of the classifiers
+    // are independent of each other, the former being the first task
     try {
       m_CrossvalidationResults = new StoppableEvaluation(data);
-      m_CrossvalidationResults.crossValidateModel(m_Base, data, m_Folds, new Random(m_Seed));
     }
     catch (Exception e) {
       getLogger().log(Level.SEVERE, "Failed to cross-validate classifier: " + OptionUtils.getCommandLine(m_Base), e);
       return false;
     }
+    errors = new Exception[m_Classifiers.length + 1];
+    SpectrumMatrixHelper.parallel(m_NumThreads, errors.length, (n) -> {
+      if (m_Stopped)
+	return;
+      try {
+	if (n == 0)
+	  m_CrossvalidationResults.crossValidateModel(m_Base, data, m_Folds, new Random(m_Seed));
+	else
+	  m_Classifiers[n - 1].buildClassifier(data);
+      }
+      catch (Exception e) {
+	errors[n] = e;
+      }
+    });
+
+    if (errors[0] != null) {
+      getLogger().log(Level.SEVERE, "Failed to cross-validate classifier: " + OptionUtils.getCommandLine(m_Base), errors[0]);
+      return false;
+    }
 
     if (m_Stopped)
       return false;
 
     m_Header = new Instances(m_TrainingData, 0);
 
-    for (Classifier c: m_Classifiers) {
-      try {
-	c.buildClassifier(data);
-      }
-      catch (Exception e) {
-	getLogger().log(Level.SEVERE, "Failed to build classifier: " + OptionUtils.getCommandLine(c), e);
+    for (i = 1; i < errors.length; i++) {
+      if (errors[i] != null) {
+	getLogger().log(Level.SEVERE, "Failed to build classifier: " + OptionUtils.getCommandLine(m_Classifiers[i - 1]), errors[i]);
 	return false;
       }
     }
@@ -31,6 +31,7 @@ import adams.db.SpectrumF;
 import weka.core.Attribute;
 import weka.core.DenseInstance;
 import weka.core.Instance;
+import weka.core.Instances;
 import weka.core.SelectedTag;
 import weka.filters.Filter;
 import weka.filters.unsupervised.attribute.Add;
@@ -59,6 +60,15 @@ public abstract class AbstractSpectrumBasedInstanceGenerator
   /** whether to load the sample data if only dummy. */
   protected boolean m_LoadSampleData;
 
+  /** the output header that the attribute indices were determined for. */
+  protected transient Instances m_PlanHeader;
+
+  /** the attribute index of the sample ID. */
+  protected transient int m_SampleIDIndex;
+
+  /** the attribute indices of the notes. */
+  protected transient int[] m_NoteIndices;
+
   /**
    * Adds options to the internal list of options.
    */
@@ -254,41 +264,106 @@ public abstract class AbstractSpectrumBasedInstanceGenerator
   }
 
   /**
-   * Adds the IDs, notes, additional fields to the data.
+   * Determines the attribute indices in the output header once, rather than
+   * looking them up by name for each spectrum.
    *
-   * @param data	the input data
-   * @param inst	the generated instance
-   * @return		the processed instance
+   * @param data	the spectrum the header was generated from
    */
-  @Override
-  protected Instance postProcessOutput(Spectrum data, Instance inst) {
-    Instance	result;
+  protected void compilePlan(Spectrum data) {
     int		i;
-    double[]	values;
-    String	valueStr;
-    int		index;
 
-    inst   = super.postProcessOutput(data, inst);
-    values = inst.toDoubleArray();
+    m_SampleIDIndex = -1;
+    if (m_AddSampleID)
+      m_SampleIDIndex = m_OutputHeader.attribute(ArffUtils.getSampleIDName()).index();
 
-    if (m_AddSampleID) {
-      index         = m_OutputHeader.attribute(ArffUtils.getSampleIDName()).index();
-      values[index] = m_OutputHeader.attribute(index).addStringValue(data.getID().replaceAll("'", ""));
+    m_NoteIndices = new int[m_Notes.length];
+    for (i = 0; i < m_Notes.length; i++)
+      m_NoteIndices[i] = m_OutputHeader.attribute(ArffUtils.getNoteName(m_Notes[i].stringValue())).index();
+  }
+
+  /**
+   * Determines the attribute indices if the output header has changed.
+   *
+   * @param data	the current spectrum
+   * @see		#compilePlan(Spectrum)
+   */
+  protected void updatePlan(Spectrum data) {
+    if (m_PlanHeader != m_OutputHeader) {
+      compilePlan(data);
+      m_PlanHeader = m_OutputHeader;
     }
+  }
+
+  /**
+   * Adds the sample ID and notes to the values of the generated instance.
+   *
+   * @param data	the input data
+   * @param values	the values of the instance to update
+   */
+  protected void postProcessValues(Spectrum data, double[] values) {
+    int		i;
+    String	valueStr;
+
+    if (m_AddSampleID)
+      values[m_SampleIDIndex] = m_OutputHeader.attribute(m_SampleIDIndex).addStringValue(data.getID().replaceAll("'", ""));
 
     // notes fields
     for (i = 0; i < m_Notes.length; i++) {
       valueStr = data.getNotes().getPrefixSubset(m_Notes[i].stringValue()).toString();
-      index    = m_OutputHeader.attribute(ArffUtils.getNoteName(m_Notes[i].stringValue())).index();
       if (valueStr == null)
-	values[index] = weka.core.Utils.missingValue();
+	values[m_NoteIndices[i]] = weka.core.Utils.missingValue();
       else
-	values[index] = m_OutputHeader.attribute(index).addStringValue(valueStr);
+	values[m_NoteIndices[i]] = m_OutputHeader.attribute(m_NoteIndices[i]).addStringValue(valueStr);
     }
+  }
+
+  /**
+   * Adds the IDs, notes, additional fields to the values generated by
+   * {@link #generateOutput(Spectrum)} and wraps them in an instance.
+   *
+   * @param data	the input data
+   * @param values	the values generated from the spectrum
+   * @return		the instance
+   * @see		#postProcessValues(Spectrum, double[])
+   */
+  protected Instance newInstance(Spectrum data, double[] values) {
+    Instance	result;
+
+    updatePlan(data);
+    postProcessValues(data, values);
 
     result = new DenseInstance(1.0, values);
     result.setDataset(m_OutputHeader);
 
     return result;
   }
+
+  /**
+   * Generates a dataset from the spectra.
+   *
+   * @param data	the spectra to convert
+   * @return		the generated dataset
+   */
+  public Instances generate(Spectrum[] data) {
+    Instances	result;
+    Instance	inst;
+
+    if (data.length == 0)
+      throw new IllegalArgumentException("No spectra provided!");
+
+    result = null;
+    for (Spectrum sp: data) {
+      inst = generate(sp);
+      if (inst == null)
+	continue;
+      if (result == null)
+	result = new Instances(inst.dataset(), data.length);
+      result.add(inst);
+    }
+    if (result == null)
+      throw new IllegalStateException("Failed to generate any instances!");
+    result.compactify();
+
+    return result;
+  }
 }
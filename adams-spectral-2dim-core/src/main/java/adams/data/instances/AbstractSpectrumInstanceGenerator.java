@@ -24,13 +24,13 @@ import adams.data.report.DataType;
 import adams.data.report.Field;
 import adams.data.sampledata.SampleData;
 import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
 import weka.core.Attribute;
-import weka.core.DenseInstance;
-import weka.core.Instance;
 import weka.core.SelectedTag;
 import weka.filters.Filter;
 import weka.filters.unsupervised.attribute.Add;
 
+import java.util.List;
 import java.util.logging.Level;
 
 /**
@@ -59,6 +59,18 @@ public abstract class AbstractSpectrumInstanceGenerator
   /** drops the prefix for the additional fields. */
   protected boolean m_NoAdditionalFieldsPrefix;
 
+  /** the attribute indices of the additional fields. */
+  protected transient int[] m_AdditionalFieldIndices;
+
+  /** the attribute indices of the amplitudes (per wave index). */
+  protected transient int[] m_AmplitudeIndices;
+
+  /** the attribute indices of the wave numbers (per wave index), null if not output. */
+  protected transient int[] m_WaveNumberIndices;
+
+  /** the wave numbers the indices were determined for, null if attribute names are index-based. */
+  protected transient float[] m_PlanWaveNumbers;
+
   /**
    * Adds options to the internal list of options.
    */
@@ -315,32 +327,117 @@ public abstract class AbstractSpectrumInstanceGenerator
   }
 
   /**
-   * Adds the IDs, notes, additional fields to the data.
+   * Determines the attribute indices in the output header once, rather than
+   * looking them up by name for each spectrum.
+   *
+   * @param data	the spectrum the header was generated from
+   */
+  @Override
+  protected void compilePlan(Spectrum data) {
+    String	prefix;
+    int		i;
+
+    super.compilePlan(data);
+
+    if (getNoAdditionalFieldsPrefix())
+      prefix = "";
+    else
+      prefix = getAdditionalFieldsPrefix();
+    m_AdditionalFieldIndices = new int[m_AdditionalFields.length];
+    for (i = 0; i < m_AdditionalFields.length; i++)
+      m_AdditionalFieldIndices[i] = m_OutputHeader.attribute(prefix + m_AdditionalFields[i].getName()).index();
+  }
+
+  /**
+   * Determines the attribute indices of the wave numbers and amplitudes.
+   *
+   * @param data		the spectrum the header was generated from
+   * @param addWaveNumber	whether wave number attributes are output
+   * @param waveNumberAsSuffix	whether the wave number is used as suffix instead of the index
+   */
+  protected void compileWavePlan(Spectrum data, boolean addWaveNumber, boolean waveNumberAsSuffix) {
+    List<SpectrumPoint>	points;
+    float		waveno;
+    int			i;
+
+    points              = data.toList();
+    m_AmplitudeIndices  = new int[points.size()];
+    m_WaveNumberIndices = addWaveNumber ? new int[points.size()] : null;
+    m_PlanWaveNumbers   = waveNumberAsSuffix ? new float[points.size()] : null;
+    for (i = 0; i < points.size(); i++) {
+      waveno = points.get(i).getWaveNumber();
+      if (m_PlanWaveNumbers != null)
+	m_PlanWaveNumbers[i] = waveno;
+      if (addWaveNumber)
+	m_WaveNumberIndices[i] = m_OutputHeader.attribute(waveNumberAsSuffix ? ArffUtils.getWaveNumberName(m_WaveNumberPrefix, waveno) : ArffUtils.getWaveNumberName(m_WaveNumberPrefix, i)).index();
+      m_AmplitudeIndices[i] = m_OutputHeader.attribute(waveNumberAsSuffix ? ArffUtils.getAmplitudeName(m_AmplitudePrefix, waveno) : ArffUtils.getAmplitudeName(m_AmplitudePrefix, i)).index();
+    }
+  }
+
+  /**
+   * Determines the index of the attribute with the given name.
+   *
+   * @param name	the name of the attribute
+   * @return		the index
+   * @throws IllegalStateException	if the attribute is not present in the output header
+   */
+  protected int attributeIndex(String name) {
+    if (m_OutputHeader.attribute(name) == null)
+      throw new IllegalStateException("Attribute '" + name + "' not present in output header!");
+    return m_OutputHeader.attribute(name).index();
+  }
+
+  /**
+   * Fills in wave numbers and amplitudes using the attribute indices
+   * determined by {@link #compileWavePlan(Spectrum, boolean, boolean)}.
+   * Wave numbers that differ from the ones the indices were determined for,
+   * or points beyond the length of the compiled plan, get looked up by name.
+   *
+   * @param data	the spectrum to get the values from
+   * @param values	the values to fill in
+   */
+  protected void fillWaves(Spectrum data, double[] values) {
+    List<SpectrumPoint>	points;
+    SpectrumPoint	point;
+    float		waveno;
+    boolean		asSuffix;
+    int			i;
+
+    points   = data.toList();
+    asSuffix = (m_PlanWaveNumbers != null);
+    for (i = 0; i < points.size(); i++) {
+      point  = points.get(i);
+      waveno = point.getWaveNumber();
+      if ((i >= m_AmplitudeIndices.length) || (asSuffix && (waveno != m_PlanWaveNumbers[i]))) {
+	if (m_WaveNumberIndices != null)
+	  values[attributeIndex(asSuffix ? ArffUtils.getWaveNumberName(m_WaveNumberPrefix, waveno) : ArffUtils.getWaveNumberName(m_WaveNumberPrefix, i))] = waveno;
+	values[attributeIndex(asSuffix ? ArffUtils.getAmplitudeName(m_AmplitudePrefix, waveno) : ArffUtils.getAmplitudeName(m_AmplitudePrefix, i))] = point.getAmplitude();
+	continue;
+      }
+      if (m_WaveNumberIndices != null)
+	values[m_WaveNumberIndices[i]] = waveno;
+      values[m_AmplitudeIndices[i]] = point.getAmplitude();
+    }
+  }
+
+  /**
+   * Adds the IDs, notes, additional fields to the values of the generated instance.
    *
    * @param data	the input data
-   * @param inst	the generated instance
-   * @return		the processed instance
+   * @param values	the values of the instance to update
    */
   @Override
-  protected Instance postProcessOutput(Spectrum data, Instance inst) {
-    Instance	result;
+  protected void postProcessValues(Spectrum data, double[] values) {
     int		i;
-    double[]	values;
     int		index;
     SampleData	sampledata;
-    String	prefix;
     Object	obj;
 
-    values     = inst.toDoubleArray();
     sampledata = data.getReport();
 
     // additional sample data fields
-    if (getNoAdditionalFieldsPrefix())
-      prefix = "";
-    else
-      prefix = getAdditionalFieldsPrefix();
     for (i = 0; i < m_AdditionalFields.length; i++) {
-      index         = m_OutputHeader.attribute(prefix + m_AdditionalFields[i].getName()).index();
+      index         = m_AdditionalFieldIndices[i];
       values[index] = weka.core.Utils.missingValue();
       if ((sampledata != null) && sampledata.hasValue(m_AdditionalFields[i])) {
 	if (m_AdditionalFields[i].getDataType() == DataType.NUMERIC) {
@@ -359,11 +456,6 @@ public abstract class AbstractSpectrumInstanceGenerator
       }
     }
 
-    result = new DenseInstance(1.0, values);
-    result.setDataset(m_OutputHeader);
-
-    result = super.postProcessOutput(data, result);
-
-    return result;
+    super.postProcessValues(data, values);
   }
 }
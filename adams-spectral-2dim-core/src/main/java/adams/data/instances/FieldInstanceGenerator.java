@@ -25,7 +25,6 @@ import adams.data.report.Field;
 import adams.data.sampledata.SampleData;
 import adams.data.spectrum.Spectrum;
 import weka.core.Attribute;
-import weka.core.DenseInstance;
 import weka.core.Instance;
 import weka.core.Instances;
 
@@ -183,7 +182,6 @@ public class FieldInstanceGenerator
    * @return		the generated data
    */
   protected Instance generateOutput(Spectrum data) {
-    Instance		result;
     double[]		values;
     int			index;
     SampleData		report;
@@ -215,9 +213,6 @@ public class FieldInstanceGenerator
       }
     }
 
-    result = new DenseInstance(1.0, values);
-    result.setDataset(m_OutputHeader);
-
-    return result;
+    return newInstance(data, values);
   }
 }
@@ -26,7 +26,6 @@ import adams.data.report.Field;
 import adams.data.sampledata.SampleData;
 import adams.data.spectrum.Spectrum;
 import weka.core.Attribute;
-import weka.core.DenseInstance;
 import weka.core.Instance;
 import weka.core.Instances;
 
@@ -121,7 +120,6 @@ public class FieldInstanceGeneratorWithClass
    */
   @Override
   protected Instance generateOutput(Spectrum data) {
-    Instance		result;
     double[]		values;
     int			index;
     SampleData 		report;
@@ -172,9 +170,6 @@ public class FieldInstanceGeneratorWithClass
       }
     }
 
-    result = new DenseInstance(1.0, values);
-    result.setDataset(m_OutputHeader);
-
-    return result;
+    return newInstance(data, values);
   }
 }
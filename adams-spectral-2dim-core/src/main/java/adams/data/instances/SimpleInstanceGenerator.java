@@ -24,9 +24,7 @@ import adams.core.base.BaseString;
 import adams.data.report.DataType;
 import adams.data.sampledata.SampleData;
 import adams.data.spectrum.Spectrum;
-import adams.data.spectrum.SpectrumPoint;
 import weka.core.Attribute;
-import weka.core.DenseInstance;
 import weka.core.Instance;
 import weka.core.Instances;
 
@@ -285,6 +283,18 @@ public class SimpleInstanceGenerator
     m_OutputHeader.setClassIndex(m_OutputHeader.numAttributes() - 1);
   }
 
+  /**
+   * Determines the attribute indices in the output header once, rather than
+   * looking them up by name for each spectrum.
+   *
+   * @param data	the spectrum the header was generated from
+   */
+  @Override
+  protected void compilePlan(Spectrum data) {
+    super.compilePlan(data);
+    compileWavePlan(data, m_AddWaveNumber, m_WaveNumberAsSuffix);
+  }
+
   /**
    * Generates the actual data.
    *
@@ -292,31 +302,16 @@ public class SimpleInstanceGenerator
    * @return		the generated data
    */
   protected Instance generateOutput(Spectrum data) {
-    Instance		result;
-    int			i;
     double[]		values;
-    List<SpectrumPoint>	points;
-    SpectrumPoint	point;
-    int			index;
     SampleData		report;
-    float		waveno;
     Object		obj;
 
     values = new double[m_OutputHeader.numAttributes()];
     report = data.getReport();
 
     // spectrum
-    points = data.toList();
-    for (i = 0; i < points.size(); i++) {
-      point  = points.get(i);
-      waveno = point.getWaveNumber();
-      if (m_AddWaveNumber) {
-	index         = m_OutputHeader.attribute(m_WaveNumberAsSuffix ? ArffUtils.getWaveNumberName(m_WaveNumberPrefix, waveno) : ArffUtils.getWaveNumberName(m_WaveNumberPrefix, i)).index();
-	values[index] = point.getWaveNumber();
-      }
-      index         = m_OutputHeader.attribute(m_WaveNumberAsSuffix ? ArffUtils.getAmplitudeName(m_AmplitudePrefix, waveno) : ArffUtils.getAmplitudeName(m_AmplitudePrefix, i)).index();
-      values[index] = point.getAmplitude();
-    }
+    updatePlan(data);
+    fillWaves(data, values);
 
     // field
     if (data.hasReport()) {
@@ -341,9 +336,6 @@ public class SimpleInstanceGenerator
       }
     }
 
-    result = new DenseInstance(1.0, values);
-    result.setDataset(m_OutputHeader);
-
-    return result;
+    return newInstance(data, values);
   }
 }
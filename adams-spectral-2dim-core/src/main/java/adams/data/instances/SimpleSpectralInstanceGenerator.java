@@ -21,14 +21,11 @@
 package adams.data.instances;
 
 import adams.data.spectrum.Spectrum;
-import adams.data.spectrum.SpectrumPoint;
 import weka.core.Attribute;
-import weka.core.DenseInstance;
 import weka.core.Instance;
 import weka.core.Instances;
 
 import java.util.ArrayList;
-import java.util.List;
 
 /**
  <!-- globalinfo-start -->
@@ -248,6 +245,18 @@ public class SimpleSpectralInstanceGenerator
     m_OutputHeader.setClassIndex(-1);
   }
 
+  /**
+   * Determines the attribute indices in the output header once, rather than
+   * looking them up by name for each spectrum.
+   *
+   * @param data	the spectrum the header was generated from
+   */
+  @Override
+  protected void compilePlan(Spectrum data) {
+    super.compilePlan(data);
+    compileWavePlan(data, m_AddWaveNumber, m_WaveNumberAsSuffix);
+  }
+
   /**
    * Generates the actual data.
    *
@@ -255,30 +264,14 @@ public class SimpleSpectralInstanceGenerator
    * @return		the generated data
    */
   protected Instance generateOutput(Spectrum data) {
-    Instance		result;
-    int			i;
     double[]		values;
-    List<SpectrumPoint>	points;
-    int			index;
-    float		waveno;
 
     values = new double[m_OutputHeader.numAttributes()];
 
     // spectrum
-    points = data.toList();
-    for (i = 0; i < data.size(); i++) {
-      waveno = data.toList().get(i).getWaveNumber();
-      if (m_AddWaveNumber) {
-	index         = m_OutputHeader.attribute(m_WaveNumberAsSuffix ? ArffUtils.getWaveNumberName(m_WaveNumberPrefix, waveno) : ArffUtils.getWaveNumberName(m_WaveNumberPrefix, i)).index();
-	values[index] = points.get(i).getWaveNumber();
-      }
-      index         = m_OutputHeader.attribute(m_WaveNumberAsSuffix ? ArffUtils.getAmplitudeName(m_AmplitudePrefix, waveno) : ArffUtils.getAmplitudeName(m_AmplitudePrefix, i)).index();
-      values[index] = points.get(i).getAmplitude();
-    }
-
-    result = new DenseInstance(1.0, values);
-    result.setDataset(m_OutputHeader);
+    updatePlan(data);
+    fillWaves(data, values);
 
-    return result;
+    return newInstance(data, values);
   }
 }
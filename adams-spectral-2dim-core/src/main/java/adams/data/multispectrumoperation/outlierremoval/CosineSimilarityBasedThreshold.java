@@ -21,13 +21,16 @@
 package adams.data.multispectrumoperation.outlierremoval;
 
 import adams.core.MessageCollection;
+import adams.core.Performance;
 import adams.core.QuickInfoHelper;
 import adams.core.Utils;
 import adams.data.filter.Filter;
 import adams.data.filter.PassThrough;
 import adams.data.spectrum.MultiSpectrum;
 import adams.data.spectrum.Spectrum;
-import adams.data.statistics.StatUtils;
+import adams.data.spectrummatrix.PairwiseSimilarity;
+import adams.data.spectrummatrix.PairwiseSimilarity.SimilarityType;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -53,6 +56,9 @@ public class CosineSimilarityBasedThreshold
   /** the threshold for below CS counts for rejecting spectra. */
   protected int m_BelowCountThreshold;
 
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
   /**
    * Returns a string describing the object.
    *
@@ -83,6 +89,10 @@ public class CosineSimilarityBasedThreshold
     m_OptionManager.add(
       "below-count-threshold", "belowCountThreshold",
       -1);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      0);
   }
 
   /**
@@ -180,6 +190,35 @@ public class CosineSimilarityBasedThreshold
 	     + "if <= 0 this number gets subtracted from the incoming number of spectra to determine the actual count threshold.";
   }
 
+  /**
+   * Sets the number of threads to use for computing the similarities.
+   *
+   * @param value	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for computing the similarities.
+   *
+   * @return		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp();
+  }
+
   /**
    * Returns a quick info about the object, which can be displayed in the GUI.
    *
@@ -208,10 +247,10 @@ public class CosineSimilarityBasedThreshold
     MultiSpectrum	result;
     List<Spectrum>	original;
     List<Spectrum> 	spectra;
-    double[][]		ampl;
+    double[][]		normalized;
+    double[][]		sim;
     int			i;
     int			n;
-    double cs;
     int[]		count;
     int 		countThreshold;
 
@@ -234,27 +273,28 @@ public class CosineSimilarityBasedThreshold
 	spectra.set(i, (Spectrum) m_PreFilter.filter(spectra.get(i)));
     }
 
-    // get amplitudes
-    ampl = new double[spectra.size()][];
-    for (i = 0; i < spectra.size(); i++) {
-      ampl[i] = new double[spectra.get(i).size()];
-      for (n = 0; n < spectra.get(i).size(); n++)
-	ampl[i][n] = spectra.get(i).toList().get(n).getAmplitude();
-    }
+    // normalize amplitudes
+    normalized = PairwiseSimilarity.normalize(
+      SpectrumMatrixHelper.toMatrix(spectra.toArray(new Spectrum[0])),
+      SimilarityType.COSINE, m_NumThreads);
 
     // compute cosine similarity
-    count = new int[ampl.length];
-    for (i = 0; i < ampl.length; i++) {
-      for (n = 0; n < ampl.length; n++) {
-	if (n == i)
-	  continue;
-	cs = StatUtils.cosineSimilarity(ampl[i], ampl[n]);
-	if (cs < m_Threshold)
-	  count[i]++;
-	if (isLoggingEnabled())
-	  getLogger().info(i + " vs " + n + ": cs/" + cs + " < threshold/" + m_Threshold + " = " + (cs < m_Threshold));
+    if (isLoggingEnabled()) {
+      sim   = PairwiseSimilarity.similarities(normalized, m_NumThreads);
+      count = new int[normalized.length];
+      for (i = 0; i < normalized.length; i++) {
+	for (n = 0; n < normalized.length; n++) {
+	  if (n == i)
+	    continue;
+	  if (sim[i][n] < m_Threshold)
+	    count[i]++;
+	  getLogger().info(i + " vs " + n + ": cs/" + sim[i][n] + " < threshold/" + m_Threshold + " = " + (sim[i][n] < m_Threshold));
+	}
       }
     }
+    else {
+      count = PairwiseSimilarity.countBelow(normalized, m_Threshold, m_NumThreads);
+    }
     if (isLoggingEnabled())
       getLogger().info("Below threshold counts (#spectra=" + spectra.size() + ", count threshold=" + countThreshold + "): " + Utils.arrayToString(count));
 
@@ -26,7 +26,9 @@ import adams.data.filter.Filter;
 import adams.data.filter.PassThrough;
 import adams.data.spectrum.MultiSpectrum;
 import adams.data.spectrum.Spectrum;
-import adams.data.statistics.StatUtils;
+import adams.data.spectrummatrix.PairwiseSimilarity;
+import adams.data.spectrummatrix.PairwiseSimilarity.SimilarityType;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -168,8 +170,7 @@ public class MeanSpectrumCosineSimilarityBasedThreshold
     List<Spectrum> 	spectra;
     double[][]		ampl;
     int			i;
-    int			n;
-    double 		cs;
+    double[] 		cs;
     double[]		mean;
 
     original = multi.toList();
@@ -187,24 +188,18 @@ public class MeanSpectrumCosineSimilarityBasedThreshold
     }
 
     // get amplitudes, calculate mean spectrum
-    ampl = new double[spectra.size()][];
-    mean = new double[spectra.get(0).size()];
-    for (i = 0; i < spectra.size(); i++) {
-      ampl[i] = new double[spectra.get(i).size()];
-      for (n = 0; n < spectra.get(i).size(); n++) {
-	ampl[i][n] = spectra.get(i).toList().get(n).getAmplitude();
-	mean[n] += ampl[i][n];
-      }
-      mean[n] /= spectra.size();
-    }
+    ampl = SpectrumMatrixHelper.toMatrix(spectra.toArray(new Spectrum[0]));
+    mean = SpectrumMatrixHelper.columnMeans(ampl, 1);
 
     // calculate cosine similarity
+    cs     = PairwiseSimilarity.similarities(
+      PairwiseSimilarity.normalize(ampl, SimilarityType.COSINE, 1),
+      PairwiseSimilarity.normalize(mean, SimilarityType.COSINE), 1);
     result = (MultiSpectrum) multi.getHeader();
     for (i = 0; i < ampl.length; i++) {
-      cs = StatUtils.cosineSimilarity(mean, ampl[i]);
       if (isLoggingEnabled())
-	getLogger().info("mean vs " + i + ": cs/" + cs + " >= threshold/" + m_Threshold + " = " + (cs >= m_Threshold));
-      if (cs >= m_Threshold)
+	getLogger().info("mean vs " + i + ": cs/" + cs[i] + " >= threshold/" + m_Threshold + " = " + (cs[i] >= m_Threshold));
+      if (cs[i] >= m_Threshold)
 	result.add((Spectrum) original.get(i).getClone());
     }
 
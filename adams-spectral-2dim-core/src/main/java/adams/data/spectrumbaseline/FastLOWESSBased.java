@@ -0,0 +1,139 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FastLOWESSBased.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.spectrumbaseline;
+
+import adams.data.filter.AbstractLOWESS;
+import adams.data.spectrumfilter.FastLOWESS;
+
+/**
+ <!-- globalinfo-start -->
+ * A baseline correction scheme that uses LOWESS smoothing to determine the baseline.<br>
+ * Uses the adams.data.spectrumfilter.FastLOWESS filter, which slides the window along the sorted wave numbers.<br>
+ * <br>
+ * For more information see:<br>
+ * <br>
+ * WikiPedia. Local Regression. URL http:&#47;&#47;en.wikipedia.org&#47;wiki&#47;Lowess.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-window-size &lt;int&gt; (property: windowSize)
+ * &nbsp;&nbsp;&nbsp;The window size to use, must be at least 1.
+ * &nbsp;&nbsp;&nbsp;default: 20
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-robustness-iterations &lt;int&gt; (property: robustnessIterations)
+ * &nbsp;&nbsp;&nbsp;The number of robustness iterations to perform (0 = none).
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FastLOWESSBased
+  extends LOWESSBased {
+
+  /** for serialization. */
+  private static final long serialVersionUID = 8157453542372893127L;
+
+  /** the number of robustness iterations. */
+  protected int m_RobustnessIterations;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 		a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "A baseline correction scheme that uses LOWESS smoothing to determine the baseline.\n"
+	+ "Uses the " + FastLOWESS.class.getName() + " filter, which slides the "
+	+ "window along the sorted wave numbers.\n\n"
+	+ "For more information see:\n\n"
+	+ getTechnicalInformation().toString();
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "robustness-iterations", "robustnessIterations",
+      0, 0, null);
+  }
+
+  /**
+   * Sets the number of robustness iterations.
+   *
+   * @param value	the iterations
+   */
+  public void setRobustnessIterations(int value) {
+    if (getOptionManager().isValid("robustnessIterations", value)) {
+      m_RobustnessIterations = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of robustness iterations.
+   *
+   * @return		the iterations
+   */
+  public int getRobustnessIterations() {
+    return m_RobustnessIterations;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the gui
+   */
+  public String robustnessIterationsTipText() {
+    return "The number of robustness iterations to perform (0 = none).";
+  }
+
+  /**
+   * Returns a new instance of a LOWESS filter.
+   *
+   * @return		the filter
+   */
+  @Override
+  protected AbstractLOWESS getFilter() {
+    FastLOWESS	result;
+
+    result = new FastLOWESS();
+    result.setRobustnessIterations(m_RobustnessIterations);
+
+    return result;
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FFTPlan.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumfft;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed twiddle factors and bit-reversal permutation for an in-place
+ * radix-2 complex FFT of a fixed (power of 2) length.
+ * Plans are immutable and get cached per length, use {@link #getPlan(int)}
+ * to obtain one.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FFTPlan {
+
+  /** the cached plans (length - plan). */
+  protected static final Map<Integer,FFTPlan> m_Plans = new ConcurrentHashMap<>();
+
+  /** the length. */
+  protected int m_Length;
+
+  /** the cosine table: cos(2*pi*k/n), k &lt; n/2. */
+  protected double[] m_Cos;
+
+  /** the sine table: sin(2*pi*k/n), k &lt; n/2. */
+  protected double[] m_Sin;
+
+  /** the bit-reversal permutation. */
+  protected int[] m_Reverse;
+
+  /**
+   * Initializes the plan.
+   *
+   * @param length	the length, must be a power of 2
+   */
+  protected FFTPlan(int length) {
+    int		i;
+    int		bits;
+
+    if ((length < 1) || (Integer.bitCount(length) != 1))
+      throw new IllegalArgumentException("Length must be a power of 2, provided: " + length);
+
+    m_Length  = length;
+    m_Cos     = new double[Math.max(1, length / 2)];
+    m_Sin     = new double[Math.max(1, length / 2)];
+    for (i = 0; i < length / 2; i++) {
+      m_Cos[i] = Math.cos(2.0 * Math.PI * i / length);
+      m_Sin[i] = Math.sin(2.0 * Math.PI * i / length);
+    }
+
+    m_Reverse = new int[length];
+    bits      = Integer.numberOfTrailingZeros(length);
+    for (i = 0; i < length; i++)
+      m_Reverse[i] = (bits == 0) ? 0 : (Integer.reverse(i) >>> (32 - bits));
+  }
+
+  /**
+   * Returns the length this plan is for.
+   *
+   * @return		the length
+   */
+  public int getLength() {
+    return m_Length;
+  }
+
+  /**
+   * Returns cos(2*pi*k/n).
+   *
+   * @param k		the index, 0 &lt;= k &lt; n/2
+   * @return		the cosine
+   */
+  public double cos(int k) {
+    return m_Cos[k];
+  }
+
+  /**
+   * Returns sin(2*pi*k/n).
+   *
+   * @param k		the index, 0 &lt;= k &lt; n/2
+   * @return		the sine
+   */
+  public double sin(int k) {
+    return m_Sin[k];
+  }
+
+  /**
+   * Performs an in-place complex transform.
+   *
+   * @param re		the real parts
+   * @param im		the imaginary parts
+   * @param sign	-1 for exp(-2*pi*i*jk/n), +1 for exp(+2*pi*i*jk/n)
+   */
+  protected void transform(double[] re, double[] im, int sign) {
+    int		i;
+    int		j;
+    int		k;
+    int		size;
+    int		half;
+    int		step;
+    double	wr;
+    double	wi;
+    double	tr;
+    double	ti;
+    double	tmp;
+
+    if ((re.length < m_Length) || (im.length < m_Length))
+      throw new IllegalArgumentException("Arrays must have at least length " + m_Length + ", provided: " + re.length + "/" + im.length);
+
+    // bit reversal
+    for (i = 0; i < m_Length; i++) {
+      j = m_Reverse[i];
+      if (j > i) {
+	tmp   = re[i];
+	re[i] = re[j];
+	re[j] = tmp;
+	tmp   = im[i];
+	im[i] = im[j];
+	im[j] = tmp;
+      }
+    }
+
+    // butterflies
+    for (size = 2; size <= m_Length; size *= 2) {
+      half = size / 2;
+      step = m_Length / size;
+      for (i = 0; i < m_Length; i += size) {
+	for (k = 0; k < half; k++) {
+	  wr = m_Cos[k * step];
+	  wi = sign * m_Sin[k * step];
+	  j  = i + k + half;
+	  tr = wr * re[j] - wi * im[j];
+	  ti = wr * im[j] + wi * re[j];
+	  re[j]         = re[i + k] - tr;
+	  im[j]         = im[i + k] - ti;
+	  re[i + k]    += tr;
+	  im[i + k]    += ti;
+	}
+      }
+    }
+  }
+
+  /**
+   * Performs an in-place forward transform: X_k = sum_j x_j * exp(-2*pi*i*jk/n).
+   *
+   * @param re		the real parts
+   * @param im		the imaginary parts
+   */
+  public void forward(double[] re, double[] im) {
+    transform(re, im, -1);
+  }
+
+  /**
+   * Performs an in-place inverse transform: x_j = 1/n * sum_k X_k * exp(2*pi*i*jk/n).
+   *
+   * @param re		the real parts
+   * @param im		the imaginary parts
+   */
+  public void inverse(double[] re, double[] im) {
+    int		i;
+
+    transform(re, im, 1);
+    for (i = 0; i < m_Length; i++) {
+      re[i] /= m_Length;
+      im[i] /= m_Length;
+    }
+  }
+
+  /**
+   * Returns the (cached) plan for the specified length.
+   *
+   * @param length	the length, must be a power of 2
+   * @return		the plan
+   */
+  public static FFTPlan getPlan(int length) {
+    return m_Plans.computeIfAbsent(length, FFTPlan::new);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FFTUtils.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumfft;
+
+/**
+ * Helper methods for real-valued FFTs, using cached {@link FFTPlan}s and
+ * per-thread scratch buffers.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FFTUtils {
+
+  /** the index of the scratch buffer for the packed real part. */
+  protected final static int PACKED_RE = 0;
+
+  /** the index of the scratch buffer for the packed imaginary part. */
+  protected final static int PACKED_IM = 1;
+
+  /** the scratch buffers per thread. */
+  protected static final ThreadLocal<double[][]> m_Scratch = ThreadLocal.withInitial(() -> new double[2][0]);
+
+  /**
+   * Returns the scratch buffer for the current thread, making sure that it
+   * has at least the specified length.
+   *
+   * @param index	the index of the buffer
+   * @param length	the minimum length
+   * @return		the buffer, content is undefined
+   */
+  protected static double[] getScratch(int index, int length) {
+    double[][]	scratch;
+
+    scratch = m_Scratch.get();
+    if (scratch[index].length < length)
+      scratch[index] = new double[length];
+
+    return scratch[index];
+  }
+
+  /**
+   * Performs a forward transform of real data, X_k = sum_j x_j * exp(-2*pi*i*jk/n),
+   * by packing the data into a complex transform of half the length.
+   * The full spectrum of length n is returned, with the second half being
+   * the complex conjugate of the first.
+   *
+   * @param data	the data, length must be a power of 2
+   * @param re		for storing the real parts, at least length n
+   * @param im		for storing the imaginary parts, at least length n
+   */
+  public static void realForward(double[] data, double[] re, double[] im) {
+    FFTPlan	plan;
+    FFTPlan	half;
+    double[]	zr;
+    double[]	zi;
+    int		n;
+    int		h;
+    int		k;
+    int		m;
+    double	er;
+    double	ei;
+    double	or;
+    double	oi;
+    double	wr;
+    double	wi;
+
+    n = data.length;
+    if (n == 1) {
+      re[0] = data[0];
+      im[0] = 0.0;
+      return;
+    }
+
+    plan = FFTPlan.getPlan(n);
+    h    = n / 2;
+    half = FFTPlan.getPlan(h);
+    zr   = getScratch(PACKED_RE, h);
+    zi   = getScratch(PACKED_IM, h);
+    for (k = 0; k < h; k++) {
+      zr[k] = data[2*k];
+      zi[k] = data[2*k + 1];
+    }
+    half.forward(zr, zi);
+
+    for (k = 0; k <= h; k++) {
+      m  = (h - k) % h;
+      er = (zr[k % h] + zr[m]) / 2;
+      ei = (zi[k % h] - zi[m]) / 2;
+      or = (zi[k % h] + zi[m]) / 2;
+      oi = -(zr[k % h] - zr[m]) / 2;
+      if (k < h) {
+	wr = plan.cos(k);
+	wi = -plan.sin(k);
+      }
+      else {
+	wr = -1.0;
+	wi = 0.0;
+      }
+      re[k] = er + wr * or - wi * oi;
+      im[k] = ei + wr * oi + wi * or;
+    }
+    // exact zeros for the purely real bins
+    im[0] = 0.0;
+    im[h] = 0.0;
+    for (k = 1; k < h; k++) {
+      re[n - k] = re[k];
+      im[n - k] = -im[k];
+    }
+  }
+}
@@ -15,15 +15,17 @@
 
 /*
  * FFT.java
- * Copyright (C) 2014 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2014-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
 
 import adams.data.container.DataPoint;
 import adams.data.filter.AbstractFFT;
+import adams.data.padding.PaddingHelper;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
+import adams.data.spectrumfft.FFTUtils;
 
 import java.util.List;
 
@@ -110,4 +112,57 @@ public class FFT
   protected DataPoint newDataPoint(List<DataPoint> points, int index, double y) {
     return new SpectrumPoint(index, (float) y);
   }
+
+  /**
+   * Performs the actual filtering. Uses a real-valued transform with cached
+   * plans, operating directly on the amplitudes.
+   *
+   * @param data	the data to filter
+   * @return		the filtered data
+   */
+  @Override
+  protected Spectrum processData(Spectrum data) {
+    Spectrum		result;
+    List<SpectrumPoint>	points;
+    float[]		amps;
+    double[]		values;
+    double[]		re;
+    double[]		im;
+    int			n;
+    int			i;
+
+    result = data.getHeader();
+    points = data.toList();
+    amps   = new float[points.size()];
+    for (i = 0; i < points.size(); i++)
+      amps[i] = points.get(i).getAmplitude();
+    amps   = PaddingHelper.padPow2(amps, getPaddingType(), false);
+
+    n      = amps.length;
+    values = new double[n];
+    for (i = 0; i < n; i++)
+      values[i] = amps[i];
+    re = new double[n];
+    im = new double[n];
+    FFTUtils.realForward(values, re, im);
+
+    // the forward transform uses exp(+2*pi*i*jk/n), hence the complex
+    // conjugate of the real-valued transform; the inverse one uses
+    // exp(-2*pi*i*jk/n) and scales by 1/n
+    for (i = 0; i < n; i++) {
+      if (getInverseTransform()) {
+	re[i] /= n;
+	im[i] /= n;
+      }
+      else {
+	im[i] = 0.0 - im[i];  // avoids -0.0
+      }
+      if (getReal())
+	result.add(new SpectrumPoint(i, (float) re[i]));
+      else
+	result.add(new SpectrumPoint(i, (float) im[i]));
+    }
+
+    return result;
+  }
 }
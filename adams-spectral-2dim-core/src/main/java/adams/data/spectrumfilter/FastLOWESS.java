@@ -0,0 +1,356 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FastLOWESS.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumfilter;
+
+import adams.data.container.DataPoint;
+import adams.data.filter.AbstractLOWESS;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ <!-- globalinfo-start -->
+ * A filter that applies LOWESS smoothing.<br>
+ * Exploits the sorted wave numbers of spectra: the window of nearest neighbors gets slid along the wave numbers rather than being determined for each point from scratch, i.e., O(n*w) with n the number of wave numbers and w the window size. Optionally performs robustness iterations (bisquare weights on the residuals).<br>
+ * <br>
+ * For more information see:<br>
+ * <br>
+ * WikiPedia. Local Regression. URL http:&#47;&#47;en.wikipedia.org&#47;wiki&#47;Lowess.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- technical-bibtex-start -->
+ * <pre>
+ * &#64;misc{missing_id,
+ *    author = {WikiPedia},
+ *    title = {Local Regression},
+ *    URL = {http:&#47;&#47;en.wikipedia.org&#47;wiki&#47;Lowess}
+ * }
+ * </pre>
+ * <br><br>
+ <!-- technical-bibtex-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-no-id-update &lt;boolean&gt; (property: dontUpdateID)
+ * &nbsp;&nbsp;&nbsp;If enabled, suppresses updating the ID of adams.data.id.IDHandler data containers.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-window-size &lt;int&gt; (property: windowSize)
+ * &nbsp;&nbsp;&nbsp;The window size to use, must be at least 20.
+ * &nbsp;&nbsp;&nbsp;default: 20
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-robustness-iterations &lt;int&gt; (property: robustnessIterations)
+ * &nbsp;&nbsp;&nbsp;The number of robustness iterations to perform (0 = none).
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FastLOWESS
+  extends AbstractLOWESS<Spectrum> {
+
+  /** for serialization. */
+  private static final long serialVersionUID = 2609870839357262818L;
+
+  /** the number of robustness iterations. */
+  protected int m_RobustnessIterations;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 		a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "A filter that applies LOWESS smoothing.\n"
+	+ "Exploits the sorted wave numbers of spectra: the window of nearest "
+	+ "neighbors gets slid along the wave numbers rather than being determined "
+	+ "for each point from scratch, i.e., O(n*w) with n the number of wave "
+	+ "numbers and w the window size. Optionally performs robustness iterations "
+	+ "(bisquare weights on the residuals).\n\n"
+	+ "For more information see:\n\n"
+	+ getTechnicalInformation().toString();
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "robustness-iterations", "robustnessIterations",
+      0, 0, null);
+  }
+
+  /**
+   * Sets the number of robustness iterations.
+   *
+   * @param value	the iterations
+   */
+  public void setRobustnessIterations(int value) {
+    if (getOptionManager().isValid("robustnessIterations", value)) {
+      m_RobustnessIterations = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of robustness iterations.
+   *
+   * @return		the iterations
+   */
+  public int getRobustnessIterations() {
+    return m_RobustnessIterations;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the gui
+   */
+  public String robustnessIterationsTipText() {
+    return "The number of robustness iterations to perform (0 = none).";
+  }
+
+  /**
+   * Returns the X/Y values of the DataPoint as Point2D.
+   *
+   * @param point	the point to get the X/Y values from
+   * @return		the X/Y values as Point2D
+   */
+  @Override
+  protected Point2D convert(DataPoint point) {
+    SpectrumPoint	sp;
+
+    sp = (SpectrumPoint) point;
+
+    return new Point2D.Float(sp.getWaveNumber(), sp.getAmplitude());
+  }
+
+  /**
+   * Creates a new DataPoint from the smoothed one.
+   *
+   * @param smoothed	the smoothed data point
+   * @return		the new DataPoint
+   */
+  @Override
+  protected DataPoint newDataPoint(Point2D smoothed) {
+    return new SpectrumPoint((float) smoothed.getX(), (float) smoothed.getY());
+  }
+
+  /**
+   * Fits a weighted linear regression (tricube weights, optionally multiplied
+   * with robustness weights) to the points in the window and returns the
+   * fitted value at the center.
+   *
+   * @param x		the wave numbers
+   * @param y		the amplitudes
+   * @param robust	the robustness weights
+   * @param lo		the first index of the window (incl)
+   * @param hi		the last index of the window (incl)
+   * @param center	the index of the point to smooth
+   * @param dist	the maximum distance in the window
+   * @return		the smoothed value
+   */
+  protected double fit(double[] x, double[] y, double[] robust, int lo, int hi, int center, double dist) {
+    double	sw;
+    double	swx;
+    double	swy;
+    double	swxx;
+    double	swxy;
+    double	dx;
+    double	u;
+    double	w;
+    double	den;
+    double	slope;
+    int		j;
+
+    sw   = 0.0;
+    swx  = 0.0;
+    swy  = 0.0;
+    swxx = 0.0;
+    swxy = 0.0;
+    for (j = lo; j <= hi; j++) {
+      // centered on the point to smooth for numerical stability
+      dx = x[j] - x[center];
+      if (dist > 0) {
+	u = Math.abs(dx) / dist;
+	if (u >= 1.0)
+	  continue;
+	w = 1.0 - u*u*u;
+	w = w*w*w;
+      }
+      else {
+	w = 1.0;
+      }
+      w    *= robust[j];
+      sw   += w;
+      swx  += w * dx;
+      swy  += w * y[j];
+      swxx += w * dx * dx;
+      swxy += w * dx * y[j];
+    }
+
+    if (sw <= 0)
+      return y[center];
+
+    den = sw * swxx - swx * swx;
+    if (Math.abs(den) <= 1e-12 * sw * swxx)
+      return swy / sw;
+
+    slope = (sw * swxy - swx * swy) / den;
+
+    return (swy - slope * swx) / sw;
+  }
+
+  /**
+   * Smoothes the data, sliding the window of nearest neighbors along the
+   * sorted wave numbers.
+   *
+   * @param x		the wave numbers
+   * @param y		the amplitudes
+   * @param robust	the robustness weights
+   * @param smoothed	for storing the smoothed values
+   */
+  protected void smooth(double[] x, double[] y, double[] robust, double[] smoothed) {
+    int		n;
+    int		lo;
+    int		hi;
+    int		i;
+
+    n  = x.length;
+    lo = 0;
+    hi = Math.min(getWindowSize(), n) - 1;
+    for (i = 0; i < n; i++) {
+      // ties are resolved in favor of the left neighbors
+      while ((hi + 1 < n) && (x[hi + 1] - x[i] < x[i] - x[lo])) {
+	lo++;
+	hi++;
+      }
+      smoothed[i] = fit(x, y, robust, lo, hi, i, Math.max(x[i] - x[lo], x[hi] - x[i]));
+    }
+  }
+
+  /**
+   * Updates the robustness weights using the bisquare function on the
+   * residuals.
+   *
+   * @param y		the amplitudes
+   * @param smoothed	the smoothed values
+   * @param robust	the robustness weights to update
+   * @return		false if the residuals are all zero
+   */
+  protected boolean updateRobustnessWeights(double[] y, double[] smoothed, double[] robust) {
+    double[]	residuals;
+    double[]	sorted;
+    double	median;
+    double	u;
+    int		n;
+    int		i;
+
+    n         = y.length;
+    residuals = new double[n];
+    for (i = 0; i < n; i++)
+      residuals[i] = Math.abs(y[i] - smoothed[i]);
+    sorted = residuals.clone();
+    Arrays.sort(sorted);
+    if (n % 2 == 0)
+      median = (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    else
+      median = sorted[n / 2];
+    if (median == 0)
+      return false;
+
+    for (i = 0; i < n; i++) {
+      u = residuals[i] / (6.0 * median);
+      if (u < 1.0)
+	robust[i] = (1.0 - u*u) * (1.0 - u*u);
+      else
+	robust[i] = 0.0;
+    }
+
+    return true;
+  }
+
+  /**
+   * Performs the actual filtering.
+   *
+   * @param data	the data to filter
+   * @return		the filtered data
+   */
+  @Override
+  protected Spectrum processData(Spectrum data) {
+    Spectrum		result;
+    List<SpectrumPoint>	points;
+    double[]		x;
+    double[]		y;
+    double[]		robust;
+    double[]		smoothed;
+    int			i;
+
+    result = data.getHeader();
+    points = data.toList();
+    if (points.isEmpty())
+      return result;
+
+    x        = new double[points.size()];
+    y        = new double[points.size()];
+    robust   = new double[points.size()];
+    smoothed = new double[points.size()];
+    for (i = 0; i < points.size(); i++) {
+      x[i] = points.get(i).getWaveNumber();
+      y[i] = points.get(i).getAmplitude();
+    }
+    Arrays.fill(robust, 1.0);
+
+    smooth(x, y, robust, smoothed);
+    for (i = 0; i < m_RobustnessIterations; i++) {
+      if (isLoggingEnabled())
+	getLogger().info("Robustness iteration " + (i + 1) + "/" + m_RobustnessIterations);
+      if (!updateRobustnessWeights(y, smoothed, robust))
+	break;
+      smooth(x, y, robust, smoothed);
+    }
+
+    for (i = 0; i < points.size(); i++)
+      result.add(new SpectrumPoint(points.get(i).getWaveNumber(), (float) smoothed[i]));
+
+    return result;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * IncrementallyTrainableSpectrumFilter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumfilter;
+
+import adams.data.filter.TrainableBatchFilter;
+import adams.data.spectrum.Spectrum;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Interface for trainable filters that can be trained on chunks of spectra,
+ * e.g., obtained from a {@link adams.db.SpectrumIterator}, rather than
+ * requiring all the training data in memory at once.
+ * <br>
+ * Usage: {@link #resetFilter()}, then {@link #updateFilter(Spectrum[])} for
+ * each chunk and finally {@link #finishTraining()}.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface IncrementallyTrainableSpectrumFilter
+  extends TrainableBatchFilter<Spectrum> {
+
+  /**
+   * Updates the internal statistics with the chunk of spectra.
+   *
+   * @param data	the chunk of spectra
+   */
+  public void updateFilter(Spectrum[] data);
+
+  /**
+   * Finishes the incremental training, i.e., builds the model from the
+   * statistics collected so far.
+   */
+  public void finishTraining();
+
+  /**
+   * Trains the filter on the spectra provided by the iterator, processing
+   * them in chunks.
+   *
+   * @param iter	the spectra to train with
+   * @param chunkSize	the number of spectra per chunk
+   */
+  public default void trainFilter(Iterator<Spectrum> iter, int chunkSize) {
+    List<Spectrum>	chunk;
+
+    if (chunkSize < 1)
+      throw new IllegalArgumentException("Chunk size must be at least 1, provided: " + chunkSize);
+
+    resetFilter();
+    chunk = new ArrayList<>();
+    while (iter.hasNext()) {
+      chunk.add(iter.next());
+      if (chunk.size() == chunkSize) {
+	updateFilter(chunk.toArray(new Spectrum[0]));
+	chunk.clear();
+      }
+    }
+    if (!chunk.isEmpty())
+      updateFilter(chunk.toArray(new Spectrum[0]));
+    finishTraining();
+  }
+}
@@ -20,17 +20,21 @@
 
 package adams.data.spectrumfilter;
 
+import adams.core.Performance;
 import adams.data.container.DataContainer;
 import adams.data.filter.AbstractBatchFilter;
 import adams.data.filter.BatchFilter;
 import adams.data.filter.Filter;
 import adams.data.filter.PassThrough;
 import adams.data.spectrum.Spectrum;
-import adams.data.spectrum.SpectrumPoint;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * Batch filter that applies the Kennard-stone algorithm to select a subset of spectra
@@ -53,6 +57,12 @@ public class KennardStone
   /** whether to invert the selection. */
   protected boolean m_Invert;
 
+  /** whether to avoid caching the distance matrix. */
+  protected boolean m_MemoryLight;
+
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
   @Override
   public String globalInfo() {
     return "Apply the Kennard-Stone algorithm to the array of spectra. Each spectrum has the pre filter applied"
@@ -77,6 +87,14 @@ public class KennardStone
     m_OptionManager.add(
       "invert", "invert",
       false);
+
+    m_OptionManager.add(
+      "memory-light", "memoryLight",
+      false);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      0);
   }
 
   /**
@@ -191,117 +209,299 @@ public class KennardStone
     return "If enabled, the remaining spectra are returned rather than the chosen ones.";
   }
 
-  @Override
-  protected DataContainer[] processBatchData(DataContainer[] data) {
-    List<Spectrum> result;
-    Spectrum[] preFiltered;
-    int numSpectraInitial = data.length;
-    if(m_NumberInSubset == -1) {
-      return data;
+  /**
+   * Set whether to calculate distances on demand rather than caching the
+   * distance matrix.
+   *
+   * @param value       true if to avoid the distance matrix
+   */
+  public void setMemoryLight(boolean value) {
+    m_MemoryLight = value;
+    reset();
+  }
+
+  /**
+   * Get whether to calculate distances on demand rather than caching the
+   * distance matrix.
+   *
+   * @return      true if to avoid the distance matrix
+   */
+  public boolean getMemoryLight() {
+    return m_MemoryLight;
+  }
+
+  /**
+   * Description for this property.
+   *
+   * @return      Description for displaying in the GUI
+   */
+  public String memoryLightTipText() {
+    return
+      "If enabled, the distances get calculated on demand rather than caching "
+	+ "the n*(n-1)/2 distances between all spectra; requires less memory for "
+	+ "large numbers of spectra at the expense of re-calculating the distances "
+	+ "to each newly chosen spectrum.";
+  }
+
+  /**
+   * Sets the number of threads to use for calculating the distances.
+   *
+   * @param value	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for calculating the distances.
+   *
+   * @return		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Description for this property.
+   *
+   * @return      Description for displaying in the GUI
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp();
+  }
+
+  /**
+   * Computes the euclidean distance between the two amplitude vectors.
+   *
+   * @param x1		the first vector
+   * @param x2		the second vector
+   * @return		the distance
+   */
+  protected double calculateDistance(double[] x1, double[] x2) {
+    double	sum;
+    double	d;
+    int		i;
+
+    sum = 0.0;
+    for (i = 0; i < x1.length; i++) {
+      d    = x1[i] - x2[i];
+      sum += d * d;
     }
-    else {
-      //copy of original un-filtered spectra
-      preFiltered = new Spectrum[numSpectraInitial];
-      for (int i = 0; i < numSpectraInitial; i++) {
-	preFiltered[i] = (Spectrum) data[i];
-      }
 
-      //Apply the prefilter
-      for (int i = 0; i < numSpectraInitial; i++) {
-	data[i] = processData(data[i]);
-      }
+    return Math.sqrt(sum);
+  }
 
-      //Apply the batch filter
-      data = m_BatchFilter.batchFilter(data);
-
-      //calculate the intersample matrix once
-      double distanceInitial;
-      Double[] distArraySingle;
-      Double[][] distances2D = new Double[numSpectraInitial][numSpectraInitial];
-      for (int i = 0; i < numSpectraInitial - 1; i++) {
-	Spectrum s = (Spectrum) data[i];
-	distArraySingle = new Double[numSpectraInitial];
-	for (int j = i + 1; j < numSpectraInitial; j++) {
-	  Spectrum s1 = (Spectrum) data[j];
-	  distanceInitial = calculateDistance(s, s1);
-	  distArraySingle[j] = distanceInitial;
-	}
-	distances2D[i] = distArraySingle;
-      }
+  /**
+   * Executes the task for the indices 0 to num-1, using the executor shared
+   * by all parallel computations.
+   *
+   * @param num		the number of indices
+   * @param task	the task to execute for each index
+   */
+  protected void parallel(int num, IntConsumer task) {
+    SpectrumMatrixHelper.parallel(m_NumThreads, num, task);
+  }
 
-      //Keep a record of chosen and remaining indices
-      ArrayList<Integer> chosen = new ArrayList<>();
-      ArrayList<Integer> remaining = new ArrayList<>();
-      for (int i = 0; i < numSpectraInitial; i++) {
-	remaining.add(i);
-      }
+  /**
+   * Computes the upper triangle of the distance matrix: row i contains the
+   * distances to the spectra i+1 to n-1.
+   *
+   * @param x		the amplitude matrix
+   * @return		the distances
+   */
+  protected double[][] calculateDistances(final double[][] x) {
+    final double[][]	result;
+
+    result = new double[x.length][];
+    parallel(x.length, (i) -> {
+      double[] row = new double[x.length - i - 1];
+      for (int j = i + 1; j < x.length; j++)
+	row[j - i - 1] = calculateDistance(x[i], x[j]);
+      result[i] = row;
+    });
+
+    return result;
+  }
+
+  /**
+   * Returns the distance between the two spectra, either from the cached
+   * distances or calculating it.
+   *
+   * @param x		the amplitude matrix
+   * @param distances	the cached distances, null if not available
+   * @param i		the index of the first spectrum
+   * @param j		the index of the second spectrum
+   * @return		the distance
+   */
+  protected double getDistance(double[][] x, double[][] distances, int i, int j) {
+    int		min;
+    int		max;
+
+    if (distances == null)
+      return calculateDistance(x[i], x[j]);
+
+    min = Math.min(i, j);
+    max = Math.max(i, j);
+    return distances[min][max - min - 1];
+  }
 
-      //find 2 samples that are furthest apart using uniform distance
-      double maxDistance = 0;
-      distanceInitial = -1;
-
-      int chosen1 = -1;
-      int chosen2 = -1;
-      for (int i = 0; i < numSpectraInitial - 1; i++) {
-	for (int j = i + 1; j < numSpectraInitial; j++) {
-	  distanceInitial = distances2D[i][j];
-	  if (distanceInitial > maxDistance) {
-	    maxDistance = distanceInitial;
-	    chosen1 = i;
-	    chosen2 = j;
-	  }
+  /**
+   * Determines the two spectra that are furthest apart. Ties are resolved
+   * in favor of the lowest indices.
+   *
+   * @param x		the amplitude matrix
+   * @param distances	the cached distances, null if not available
+   * @return		the two indices, -1 if none found
+   */
+  protected int[] findFurthestPair(final double[][] x, final double[][] distances) {
+    final int[]		bestIndex;
+    final double[]	bestDist;
+    int[]		result;
+    double		max;
+    int			i;
+
+    // best partner per row
+    bestIndex = new int[x.length];
+    bestDist  = new double[x.length];
+    parallel(x.length, (r) -> {
+      double dist;
+      bestIndex[r] = -1;
+      bestDist[r]  = 0;
+      for (int c = r + 1; c < x.length; c++) {
+	dist = getDistance(x, distances, r, c);
+	if (dist > bestDist[r]) {
+	  bestDist[r]  = dist;
+	  bestIndex[r] = c;
 	}
       }
-      chosen.add(chosen1);
-      chosen.add(chosen2);
-      remaining.remove(remaining.indexOf(chosen1));
-      remaining.remove(remaining.indexOf(chosen2));
-
-      int indexTest;
-      int indexExisting;
-      double maxDistanceTest;
-      double lowestDistanceSingle;
-      int bestIndex;
-      double thisDistance;
-
-      //Loop through until the right amount are found.
-      for (int m = 3; m <= m_NumberInSubset; m++) {
-	maxDistanceTest = 0;
-	bestIndex = -1;
-	for (int i = 0; i < remaining.size(); i++) {
-	  lowestDistanceSingle = Double.POSITIVE_INFINITY;
-	  indexTest = remaining.get(i);
-	  for (int j = 0; j < chosen.size(); j++) {
-	    indexExisting = chosen.get(j);
-	    thisDistance = distances2D[Math.min(indexTest, indexExisting)][Math.max(indexTest, indexExisting)];
-	    if (thisDistance < lowestDistanceSingle) {
-	      lowestDistanceSingle = thisDistance;
-	    }
-	  }
-	  if (lowestDistanceSingle > maxDistanceTest) {
-	    maxDistanceTest = lowestDistanceSingle;
-	    bestIndex = indexTest;
-	  }
-	}
-	chosen.add(bestIndex);
-	remaining.remove(remaining.indexOf(bestIndex));
+    });
+
+    result = new int[]{-1, -1};
+    max    = 0;
+    for (i = 0; i < x.length; i++) {
+      if (bestDist[i] > max) {
+	max       = bestDist[i];
+	result[0] = i;
+	result[1] = bestIndex[i];
       }
+    }
+
+    return result;
+  }
+
+  @Override
+  protected DataContainer[] processBatchData(DataContainer[] data) {
+    List<Spectrum> 	result;
+    Spectrum[] 		preFiltered;
+    Spectrum[] 		filtered;
+    final double[][]	x;
+    final double[][]	distances;
+    final double[]	minDist;
+    final boolean[]	selected;
+    TIntList		chosen;
+    int[]		pair;
+    int 		numSpectraInitial;
+    int			best;
+    double		max;
+    int			i;
+
+    if (m_NumberInSubset == -1)
+      return data;
 
-      if (m_Invert) {
-        result = new ArrayList<>();
-        HashSet<Integer> chosenSet = new HashSet<>(chosen);
-        for (int i = 0; i < preFiltered.length; i++) {
-          if (!chosenSet.contains(i))
-            result.add(preFiltered[i]);
+    //copy of original un-filtered spectra
+    numSpectraInitial = data.length;
+    preFiltered = new Spectrum[numSpectraInitial];
+    for (i = 0; i < numSpectraInitial; i++)
+      preFiltered[i] = (Spectrum) data[i];
+
+    //Apply the prefilter
+    for (i = 0; i < numSpectraInitial; i++)
+      data[i] = processData(data[i]);
+
+    //Apply the batch filter
+    data = m_BatchFilter.batchFilter(data);
+
+    //amplitude matrix and (optional) intersample distances
+    filtered = new Spectrum[data.length];
+    for (i = 0; i < data.length; i++)
+      filtered[i] = (Spectrum) data[i];
+    x = SpectrumMatrixHelper.toMatrix(filtered);
+    if (m_MemoryLight)
+      distances = null;
+    else
+      distances = calculateDistances(x);
+
+    //find 2 samples that are furthest apart using uniform distance
+    pair = findFurthestPair(x, distances);
+    if (pair[0] == -1)
+      throw new IllegalStateException("Failed to determine two spectra that are furthest apart!");
+    chosen   = new TIntArrayList();
+    selected = new boolean[x.length];
+    minDist  = new double[x.length];
+    Arrays.fill(minDist, Double.POSITIVE_INFINITY);
+    best = -1;
+    for (i = 0; i < 2; i++) {
+      best = pair[i];
+      chosen.add(best);
+      selected[best] = true;
+      updateMinDistances(x, distances, minDist, selected, best);
+    }
+
+    //Loop through until the right amount are found, picking the spectrum
+    //with the largest distance to its closest chosen one
+    while (chosen.size() < m_NumberInSubset) {
+      max  = 0;
+      best = -1;
+      for (i = 0; i < x.length; i++) {
+	if (!selected[i] && (minDist[i] > max)) {
+	  max  = minDist[i];
+	  best = i;
 	}
       }
-      else {
-	result = new ArrayList<>();
-	for (int i = 0; i < chosen.size(); i++)
-	  result.add(preFiltered[chosen.get(i)]);
+      if (best == -1) {
+	getLogger().warning("No more spectra to choose from, stopping at " + chosen.size() + " spectra!");
+	break;
+      }
+      chosen.add(best);
+      selected[best] = true;
+      updateMinDistances(x, distances, minDist, selected, best);
+    }
+
+    result = new ArrayList<>();
+    if (m_Invert) {
+      for (i = 0; i < preFiltered.length; i++) {
+	if (!selected[i])
+	  result.add(preFiltered[i]);
       }
-      return result.toArray(new Spectrum[0]);
     }
+    else {
+      for (i = 0; i < chosen.size(); i++)
+	result.add(preFiltered[chosen.get(i)]);
+    }
+
+    return result.toArray(new Spectrum[0]);
+  }
+
+  /**
+   * Updates the distances of the not yet selected spectra to their closest
+   * chosen spectrum with the newly chosen one.
+   *
+   * @param x		the amplitude matrix
+   * @param distances	the cached distances, null if not available
+   * @param minDist	the distances to the closest chosen spectrum to update
+   * @param selected	the flags whether a spectrum has been chosen already
+   * @param chosen	the newly chosen spectrum
+   */
+  protected void updateMinDistances(final double[][] x, final double[][] distances, final double[] minDist, final boolean[] selected, final int chosen) {
+    parallel(x.length, (i) -> {
+      double dist;
+      if (selected[i])
+	return;
+      dist = getDistance(x, distances, i, chosen);
+      if (dist < minDist[i])
+	minDist[i] = dist;
+    });
   }
 
   /**
@@ -312,26 +512,10 @@ public class KennardStone
    * @return		the distance
    */
   protected double calculateDistance(Spectrum spec1, Spectrum spec2) {
-    Object[] specPoint1 = spec1.toArray();
-    Object[] specPoint2 = spec2.toArray();
-
-    double[] spec1Array = new double[spec1.size()];
-    double[] spec2Array = new double[spec2.size()];
-    double val1 = -1;
-    double val2 = -1;
-
-    for(int i = 0; i < spec1.size(); i++) {
-      val1 = ((SpectrumPoint)specPoint1[i]).getAmplitude();
-      val2 = ((SpectrumPoint)specPoint2[i]).getAmplitude();
-      spec1Array[i] = val1;
-      spec2Array[i] = val2;
-    }
-
-    double toReturn = -1;
-    org.apache.commons.math3.ml.distance.EuclideanDistance eD = new org.apache.commons.math3.ml.distance.EuclideanDistance();
-    toReturn = eD.compute(spec1Array, spec2Array);
+    double[][]	x;
 
-    return toReturn;
+    x = SpectrumMatrixHelper.toMatrix(new Spectrum[]{spec1, spec2});
+    return calculateDistance(x[0], x[1]);
   }
 
   @Override
@@ -24,14 +24,13 @@ import adams.core.AdditionalDataProvider;
 import adams.data.filter.AbstractFilter;
 import adams.data.filter.Filter;
 import adams.data.filter.PassThrough;
-import adams.data.filter.TrainableBatchFilter;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
 import adams.data.spectrumfilter.multiplicativescattercorrection.AbstractMultiplicativeScatterCorrection;
 import adams.data.spectrumfilter.multiplicativescattercorrection.RangeBased;
-import adams.data.statistics.StatUtils;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -39,7 +38,8 @@ import java.util.Map;
  * Performs Multiplicative Scatter Correction.<br>
  * Assumes that all spectra have the same wave numbers.<br>
  * The 'pre-filter' gets only applied internally.<br>
- * Intercept and slope get stored in the report, for each defined range (using prefixes Intercept. and Slope.)
+ * Intercept and slope get stored in the report, for each defined range (using prefixes Intercept. and Slope.)<br>
+ * Can be trained incrementally on chunks of spectra.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -72,7 +72,7 @@ import java.util.Map;
  */
 public class MultiplicativeScatterCorrection
   extends AbstractFilter<Spectrum>
-  implements TrainableBatchFilter<Spectrum>, AdditionalDataProvider {
+  implements IncrementallyTrainableSpectrumFilter, AdditionalDataProvider {
 
   private static final long serialVersionUID = 4945613765460222457L;
 
@@ -91,6 +91,15 @@ public class MultiplicativeScatterCorrection
   /** the average spectrum. */
   protected Spectrum m_Average;
 
+  /** the wave numbers collected during incremental training. */
+  protected float[] m_WaveNumbers;
+
+  /** the sums of the amplitudes collected during incremental training. */
+  protected double[] m_Sums;
+
+  /** the number of spectra collected during incremental training. */
+  protected long m_Count;
+
   /**
    * Returns a string describing the object.
    *
@@ -104,7 +113,8 @@ public class MultiplicativeScatterCorrection
 	+ "The 'pre-filter' gets only applied internally.\n"
 	+ "Intercept and slope get stored in the report, for "
 	+ "each defined range (using prefixes " + PREFIX_INTERCEPT
-	+ " and " + PREFIX_SLOPE + ")";
+	+ " and " + PREFIX_SLOPE + ")\n"
+	+ "Can be trained incrementally on chunks of spectra.";
   }
 
   /**
@@ -199,7 +209,10 @@ public class MultiplicativeScatterCorrection
    */
   @Override
   public void resetFilter() {
-    m_Average = null;
+    m_Average     = null;
+    m_WaveNumbers = null;
+    m_Sums        = null;
+    m_Count       = 0;
   }
 
   /**
@@ -207,39 +220,73 @@ public class MultiplicativeScatterCorrection
    */
   @Override
   public void trainFilter(Spectrum[] data) {
-    int			i;
-    int			n;
-    double[]		ampl;
-    Spectrum[]		filtered;
-
     if (data.length == 0)
       throw new IllegalStateException("No spectra provided for training!");
 
     if (isLoggingEnabled())
       getLogger().info("Training on " + data.length + " spectra");
 
-    m_Average = new Spectrum();
-    m_Average.setID("avg(" + data.length + " spectra)");
+    resetFilter();
+    updateFilter(data);
+    finishTraining();
+  }
 
-    // pre-filter data
-    if (m_PreFilter instanceof PassThrough) {
-      filtered = data;
-    }
-    else {
-      filtered = new Spectrum[data.length];
-      for (i = 0; i < data.length; i++)
-	filtered[i] = (Spectrum) m_PreFilter.filter(data[i]);
+  /**
+   * Updates the sums of the amplitudes with the chunk of spectra.
+   *
+   * @param data	the chunk of spectra
+   */
+  @Override
+  public void updateFilter(Spectrum[] data) {
+    int			i;
+    int			n;
+    Spectrum		filtered;
+    List<SpectrumPoint>	points;
+
+    for (n = 0; n < data.length; n++) {
+      // pre-filter data
+      if (m_PreFilter instanceof PassThrough)
+	filtered = data[n];
+      else
+	filtered = (Spectrum) m_PreFilter.filter(data[n]);
+      points = filtered.toList();
+
+      if (m_Sums == null) {
+	m_WaveNumbers = new float[points.size()];
+	m_Sums        = new double[points.size()];
+	for (i = 0; i < points.size(); i++)
+	  m_WaveNumbers[i] = points.get(i).getWaveNumber();
+      }
+      else if (points.size() != m_Sums.length) {
+	throw new IllegalStateException(
+	  "Different number of wave numbers (collected vs filtered input): "
+	    + m_Sums.length + " != " + points.size());
+      }
+
+      for (i = 0; i < points.size(); i++)
+	m_Sums[i] += points.get(i).getAmplitude();
+      m_Count++;
     }
+  }
 
-    ampl = new double[filtered.length];
-    for (i = 0; i < filtered[0].size(); i++) {
-      for (n = 0; n < filtered.length; n++)
-	ampl[n] = filtered[n].toList().get(i).getAmplitude();
-      m_Average.add(
-	new SpectrumPoint(
-	  filtered[0].toList().get(i).getWaveNumber(),
-	  (float) StatUtils.mean(ampl)));
-    }
+  /**
+   * Computes the average spectrum from the collected sums.
+   */
+  @Override
+  public void finishTraining() {
+    int		i;
+
+    if (m_Count == 0)
+      throw new IllegalStateException("No spectra provided for training!");
+
+    m_Average = new Spectrum();
+    m_Average.setID("avg(" + m_Count + " spectra)");
+    for (i = 0; i < m_Sums.length; i++)
+      m_Average.add(new SpectrumPoint(m_WaveNumbers[i], (float) (m_Sums[i] / m_Count)));
+
+    m_WaveNumbers = null;
+    m_Sums        = null;
+    m_Count       = 0;
   }
 
   /**
@@ -20,11 +20,14 @@
 
 package adams.data.spectrumfilter;
 
+import adams.core.Performance;
 import adams.data.filter.AbstractBatchFilter;
 import adams.data.instances.AbstractInstanceGenerator;
 import adams.data.instances.SimpleInstanceGenerator;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
+import adams.data.spectrummatrix.DensePCA;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
 import weka.core.Instance;
 import weka.core.Instances;
 import weka.filters.unsupervised.attribute.PublicPrincipalComponents;
@@ -33,7 +36,8 @@ import weka.filters.unsupervised.attribute.PublicPrincipalComponents;
  <!-- globalinfo-start -->
  * Turns the spectra internally into instances and transforms them using principal component analysis (PCA).<br>
  * The generated output is then converted back into spectra.<br>
- * Only works as batch filter, not in single spectrum mode.
+ * Only works as batch filter, not in single spectrum mode.<br>
+ * Can also be trained (incrementally) on chunks of spectra, always using the direct matrix implementation; once trained, the model gets applied to batches and single spectra alike.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -72,11 +76,28 @@ import weka.filters.unsupervised.attribute.PublicPrincipalComponents;
  * &nbsp;&nbsp;&nbsp;minimum: -1
  * </pre>
  * 
+ * <pre>-direct &lt;boolean&gt; (property: direct)
+ * &nbsp;&nbsp;&nbsp;If enabled, the amplitudes of the spectra are turned directly into a 
+ * &nbsp;&nbsp;&nbsp;matrix and the principal components get computed on it (standardized 
+ * &nbsp;&nbsp;&nbsp;data, correlation matrix) without converting to Weka data; the generator 
+ * &nbsp;&nbsp;&nbsp;and max attribute names get ignored.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used); only used in direct mode.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * </pre>
+ * 
  <!-- options-end -->
  *
  */
 public class PCA
-  extends AbstractBatchFilter<Spectrum> {
+  extends AbstractBatchFilter<Spectrum>
+  implements IncrementallyTrainableSpectrumFilter {
 
   private static final long serialVersionUID = 8266258749271797113L;
 
@@ -92,6 +113,15 @@ public class PCA
   /** the maximum number of attribute names. */
   protected int m_MaxAttributeNames;
 
+  /** whether to operate directly on the amplitude matrix. */
+  protected boolean m_Direct;
+
+  /** the number of threads to use in direct mode. */
+  protected int m_NumThreads;
+
+  /** the trained model. */
+  protected DensePCA m_Model;
+
   /**
    * Returns a string describing the object.
    *
@@ -102,7 +132,10 @@ public class PCA
     return
       "Turns the spectra internally into instances and transforms them using principal component analysis (PCA).\n"
         + "The generated output is then converted back into spectra.\n"
-	+ "Only works as batch filter, not in single spectrum mode.";
+	+ "Only works as batch filter, not in single spectrum mode.\n"
+	+ "Can also be trained (incrementally) on chunks of spectra, always using "
+	+ "the direct matrix implementation; once trained, the model gets applied "
+	+ "to batches and single spectra alike.";
   }
 
   /**
@@ -127,6 +160,23 @@ public class PCA
     m_OptionManager.add(
       "max-attribute-names", "maxAttributeNames",
       5, -1, null);
+
+    m_OptionManager.add(
+      "direct", "direct",
+      false);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      0);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    resetFilter();
   }
 
   /**
@@ -250,6 +300,158 @@ public class PCA
     return "The maximum number of attribute names.";
   }
 
+  /**
+   * Sets whether to operate directly on the amplitude matrix.
+   *
+   * @param value	true if direct
+   */
+  public void setDirect(boolean value) {
+    m_Direct = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to operate directly on the amplitude matrix.
+   *
+   * @return		true if direct
+   */
+  public boolean getDirect() {
+    return m_Direct;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String directTipText() {
+    return
+      "If enabled, the amplitudes of the spectra are turned directly into a "
+	+ "matrix and the principal components get computed on it (standardized "
+	+ "data, correlation matrix) without converting to Weka data; the "
+	+ "generator and max attribute names get ignored.";
+  }
+
+  /**
+   * Sets the number of threads to use in direct mode.
+   *
+   * @param value	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use in direct mode.
+   *
+   * @return		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp() + "; only used in direct mode.";
+  }
+
+  /**
+   * Resets the filter, i.e., flags it as "not trained".
+   *
+   * @see		#isTrained()
+   */
+  @Override
+  public void resetFilter() {
+    m_Model = null;
+  }
+
+  /**
+   * Trains the filter with the specified data.
+   *
+   * @param data	the data to train with
+   */
+  @Override
+  public void trainFilter(Spectrum[] data) {
+    if (data.length == 0)
+      throw new IllegalStateException("No spectra provided for training!");
+
+    resetFilter();
+    updateFilter(data);
+    finishTraining();
+  }
+
+  /**
+   * Updates the running means and cross products with the chunk of spectra.
+   *
+   * @param data	the chunk of spectra
+   */
+  @Override
+  public void updateFilter(Spectrum[] data) {
+    if (data.length == 0)
+      return;
+
+    if (m_Model == null) {
+      m_Model = new DensePCA();
+      m_Model.setVariance(m_Variance);
+      m_Model.setMaxComponents(m_MaxAttributes);
+      m_Model.setNumThreads(m_NumThreads);
+    }
+    m_Model.update(SpectrumMatrixHelper.toMatrix(data));
+  }
+
+  /**
+   * Builds the loadings from the collected statistics.
+   */
+  @Override
+  public void finishTraining() {
+    if (m_Model == null)
+      throw new IllegalStateException("No spectra provided for training!");
+
+    if (isLoggingEnabled())
+      getLogger().info("Training on " + m_Model.getCount() + " spectra");
+    m_Model.finish();
+    if (isLoggingEnabled())
+      getLogger().info("Retained components: " + m_Model.getEigenvalues().length);
+  }
+
+  /**
+   * Returns whether the filter has been trained already and is ready to use.
+   *
+   * @return		true if already trained
+   */
+  @Override
+  public boolean isTrained() {
+    return (m_Model != null) && m_Model.isBuilt();
+  }
+
+  /**
+   * Performs the batch filtering directly on the amplitude matrix.
+   *
+   * @param data	the data to filter
+   * @return		the filtered data
+   */
+  protected Spectrum[] processBatchDataDirect(Spectrum[] data) {
+    DensePCA	pca;
+    double[][]	scores;
+
+    pca = new DensePCA();
+    pca.setVariance(m_Variance);
+    pca.setMaxComponents(m_MaxAttributes);
+    pca.setNumThreads(m_NumThreads);
+    scores = pca.fitTransform(SpectrumMatrixHelper.toMatrix(data));
+    if (isLoggingEnabled())
+      getLogger().info("Retained components: " + pca.getEigenvalues().length);
+
+    return SpectrumMatrixHelper.toSpectra(data, scores);
+  }
+
   /**
    * Performs the actual batch filtering.
    *
@@ -267,6 +469,11 @@ public class PCA
     int				n;
     SpectrumPoint point;
 
+    if (isTrained())
+      return SpectrumMatrixHelper.toSpectra(data, m_Model.transform(SpectrumMatrixHelper.toMatrix(data)));
+    if (m_Direct)
+      return processBatchDataDirect(data);
+
     // generate Instances
     insts = null;
     for (i = 0; i < data.length; i++) {
@@ -320,13 +527,16 @@ public class PCA
   }
 
   /**
-   * Does nothing.
+   * Applies the trained model, otherwise does nothing.
    *
    * @param data	the data to filter
    * @return		the filtered data
    */
   @Override
   protected Spectrum processData(Spectrum data) {
-    return data;
+    if (!isTrained())
+      return data;
+
+    return processBatchData(new Spectrum[]{data})[0];
   }
 }
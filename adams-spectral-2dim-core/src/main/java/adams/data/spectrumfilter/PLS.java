@@ -20,18 +20,27 @@
 
 package adams.data.spectrumfilter;
 
+import adams.core.Performance;
 import adams.data.filter.AbstractBatchFilter;
 import adams.data.instances.AbstractInstanceGenerator;
+import adams.data.instances.InstanceGeneratorWithTargetField;
 import adams.data.instances.SimpleInstanceGenerator;
 import adams.data.instancesanalysis.pls.AbstractPLS;
 import adams.data.instancesanalysis.pls.PLS1;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
+import adams.data.spectrummatrix.DensePLS;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
+import gnu.trove.list.TDoubleList;
 import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TDoubleArrayList;
 import gnu.trove.list.array.TIntArrayList;
 import weka.core.Instance;
 import weka.core.Instances;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  <!-- globalinfo-start -->
  * Turns the spectra internally into instances and transforms them using the specified PLS algorithm. The generated output is then converted back into spectra.<br>
@@ -61,6 +70,22 @@ import weka.core.Instances;
  * &nbsp;&nbsp;&nbsp;default: adams.data.instancesanalysis.pls.PLS1
  * </pre>
  * 
+ * <pre>-direct &lt;boolean&gt; (property: direct)
+ * &nbsp;&nbsp;&nbsp;If enabled, the amplitudes of the spectra are turned directly into a 
+ * &nbsp;&nbsp;&nbsp;matrix and transformed using mean-centered PLS1 (NIPALS) without converting 
+ * &nbsp;&nbsp;&nbsp;to Weka data; only the number of components of the algorithm and the 
+ * &nbsp;&nbsp;&nbsp;target field of the generator get used.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ * 
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used); only used in direct mode.
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * </pre>
+ * 
  <!-- options-end -->
  *
  */
@@ -75,6 +100,12 @@ public class PLS
   /** the PLS algorithm. */
   protected AbstractPLS m_Algorithm;
 
+  /** whether to operate directly on the amplitude matrix. */
+  protected boolean m_Direct;
+
+  /** the number of threads to use in direct mode. */
+  protected int m_NumThreads;
+
   /**
    * Returns a string describing the object.
    *
@@ -103,6 +134,14 @@ public class PLS
     m_OptionManager.add(
       "algorithm", "algorithm",
       new PLS1());
+
+    m_OptionManager.add(
+      "direct", "direct",
+      false);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      0);
   }
 
   /**
@@ -161,6 +200,110 @@ public class PLS
     return "The PLS algorithm to use";
   }
 
+  /**
+   * Sets whether to operate directly on the amplitude matrix.
+   *
+   * @param value	true if direct
+   */
+  public void setDirect(boolean value) {
+    m_Direct = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to operate directly on the amplitude matrix.
+   *
+   * @return		true if direct
+   */
+  public boolean getDirect() {
+    return m_Direct;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String directTipText() {
+    return
+      "If enabled, the amplitudes of the spectra are turned directly into a "
+	+ "matrix and transformed using mean-centered PLS1 (NIPALS) without converting "
+	+ "to Weka data; only the number of components of the algorithm and the "
+	+ "target field of the generator get used.";
+  }
+
+  /**
+   * Sets the number of threads to use in direct mode.
+   *
+   * @param value	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use in direct mode.
+   *
+   * @return		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp() + "; only used in direct mode.";
+  }
+
+  /**
+   * Performs the batch filtering directly on the amplitude matrix.
+   *
+   * @param data	the data to filter
+   * @return		the filtered data
+   */
+  protected Spectrum[] processBatchDataDirect(Spectrum[] data) {
+    DensePLS		pls;
+    double[]		target;
+    double[][]		scores;
+    List<Spectrum>	valid;
+    TDoubleList		values;
+    int			i;
+
+    if (!(m_Generator instanceof InstanceGeneratorWithTargetField))
+      throw new IllegalStateException(
+	"Generator does not support target field: " + m_Generator.getClass().getName());
+
+    // skip spectra without reference value
+    target = SpectrumMatrixHelper.toTarget(data, ((InstanceGeneratorWithTargetField) m_Generator).getField());
+    valid  = new ArrayList<>();
+    values = new TDoubleArrayList();
+    for (i = 0; i < data.length; i++) {
+      if (Double.isNaN(target[i])) {
+	getLogger().warning("Spectrum #" + (i+1) + "(" + data[i] + ") had no reference value?");
+	continue;
+      }
+      valid.add(data[i]);
+      values.add(target[i]);
+    }
+    if (valid.isEmpty())
+      throw new IllegalStateException("No spectra with reference value: " + m_Algorithm.toCommandLine());
+    data = valid.toArray(new Spectrum[0]);
+
+    pls = new DensePLS();
+    pls.setNumComponents(m_Algorithm.getNumComponents());
+    pls.setNumThreads(m_NumThreads);
+    scores = pls.fitTransform(SpectrumMatrixHelper.toMatrix(data), values.toArray());
+
+    return SpectrumMatrixHelper.toSpectra(data, scores);
+  }
+
   /**
    * Performs the actual batch filtering.
    *
@@ -178,6 +321,9 @@ public class PLS
     int			n;
     SpectrumPoint 	point;
 
+    if (m_Direct)
+      return processBatchDataDirect(data);
+
     // generate Instances
     insts   = null;
     indices = new TIntArrayList();
@@ -15,7 +15,7 @@
 
 /*
  * PadPower2.java
- * Copyright (C) 2015 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2015-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
@@ -263,6 +263,7 @@ public class PadPower2
     float[]			values;
     int				i;
     float			inc;
+    double			sum;
 
     result = data.getHeader();
 
@@ -282,7 +283,14 @@ public class PadPower2
       values = PaddingHelper.padPow2(values, m_PaddingType, m_PadLeft);
 
     // pad wave numbers
-    if (m_WaveNumberStepSize <= 0)
+    if ((m_WaveNumberStepSize <= 0) && (waves.length > 1)) {
+      // mean delta wave number, without computing all the statistics
+      sum = 0.0;
+      for (i = 1; i < waves.length; i++)
+	sum += waves[i] - waves[i - 1];
+      inc = (float) (sum / (waves.length - 1));
+    }
+    else if (m_WaveNumberStepSize <= 0)
       inc = (float) data.toStatistic().getStatistic(SpectrumStatistic.MEAN_DELTA_WAVE_NUMBER);
     else
       inc = m_WaveNumberStepSize;
@@ -15,20 +15,22 @@
 
 /*
  * StandardiseByInterpolation.java
- * Copyright (C) 2015-2016 University of Waikato, Hamilton, New Zealand
+ * Copyright (C) 2015-2026 University of Waikato, Hamilton, New Zealand
  */
 
 package adams.data.spectrumfilter;
 
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
-import adams.data.spectrum.SpectrumUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  <!-- globalinfo-start -->
- * Standardises spectrum to start-end with given step.
+ * Standardises spectrum to start-end with given step.<br>
+ * The interpolation indices and weights get cached and re-used as long as the wave numbers of the incoming spectra don't change.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -74,13 +76,28 @@ public class StandardiseByInterpolation
 
   protected int m_Polynomial;
 
+  /** the wave numbers the cached plan was generated for. */
+  protected float[] m_PlanWaveNumbers;
+
+  /** the output wave numbers of the cached plan. */
+  protected double[] m_PlanOutput;
+
+  /** the indices of the input points to use for each output wave number. */
+  protected int[][] m_PlanIndices;
+
+  /** the interpolation weights for each output wave number. */
+  protected double[][] m_PlanWeights;
+
   /**
    * Returns a string describing the object.
    *
    * @return 		a description suitable for displaying in the gui
    */
   public String globalInfo() {
-    return "Standardises spectrum to start-end with given step.";
+    return
+      "Standardises spectrum to start-end with given step.\n"
+	+ "The interpolation indices and weights get cached and re-used as long "
+	+ "as the wave numbers of the incoming spectra don't change.";
   }
 
   /**
@@ -94,6 +111,19 @@ public class StandardiseByInterpolation
       2, 2, null);
   }
 
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+
+    m_PlanWaveNumbers = null;
+    m_PlanOutput      = null;
+    m_PlanIndices     = null;
+    m_PlanWeights     = null;
+  }
+
 
   /**
    * Sets the polynomial for interpolation
@@ -126,35 +156,127 @@ public class StandardiseByInterpolation
     return "The polynomial for interpolation.";
   }
 
-  protected List<SpectrumPoint> getClosestPoints(double waveno, List<SpectrumPoint> data, int numpoints){
-    Spectrum sp=new Spectrum();
-    int found=0;
-    int pos= SpectrumUtils.findClosestWaveNumber(data, (float)waveno);
-    sp.add((SpectrumPoint)data.get(pos).getClone());
-    int foundmin=pos,foundmax=pos;
-    found++;
+  /**
+   * Returns the indices of the points closest to the wave number, in the
+   * order they get picked.
+   *
+   * @param waveno	the wave number to interpolate
+   * @param wavenos	the (sorted) wave numbers of the input data
+   * @param closest	the index of the point closest to the wave number
+   * @param numpoints	the number of points to collect
+   * @return		the indices
+   */
+  protected int[] getClosestIndices(double waveno, float[] wavenos, int closest, int numpoints) {
+    int[]	result;
+    int		found;
+    int		foundmin;
+    int		foundmax;
+    double	minusposdiff;
+    double	plusposdiff;
 
+    result    = new int[numpoints];
+    result[0] = closest;
+    foundmin  = closest;
+    foundmax  = closest;
+    found     = 1;
 
     while (found < numpoints) {
-      double minusposdiff=Double.MAX_VALUE;
-      double plusposdiff=Double.MAX_VALUE;
-      if (foundmin -1 > 0) {
-	minusposdiff=Math.abs(waveno-data.get(foundmin-1).getWaveNumber());
-      }
-      if ( foundmax+1 < data.size()){
-	plusposdiff=Math.abs(waveno-data.get(foundmax+1).getWaveNumber());
-      }
-      if (minusposdiff < plusposdiff){
-	sp.add((SpectrumPoint)data.get(foundmin-1).getClone());
+      minusposdiff = Double.MAX_VALUE;
+      plusposdiff  = Double.MAX_VALUE;
+      if (foundmin - 1 > 0)
+	minusposdiff = Math.abs(waveno - wavenos[foundmin - 1]);
+      if (foundmax + 1 < wavenos.length)
+	plusposdiff = Math.abs(waveno - wavenos[foundmax + 1]);
+      if (minusposdiff < plusposdiff) {
 	foundmin--;
-      } else {
-	sp.add((SpectrumPoint)data.get(foundmax+1).getClone());
+	result[found] = foundmin;
+      }
+      else {
 	foundmax++;
+	if (foundmax >= wavenos.length)
+	  throw new IllegalStateException(
+	    "Not enough data points for interpolation with polynomial " + getPolynomial() + ": " + wavenos.length);
+	result[found] = foundmax;
       }
       found++;
     }
 
-    return(sp.toList());
+    return result;
+  }
+
+  /**
+   * Computes the Lagrange weights for the given wave number and points.
+   *
+   * @param waveno	the wave number to interpolate
+   * @param wavenos	the wave numbers of the input data
+   * @param indices	the indices of the points to use
+   * @return		the weights, one per index
+   */
+  protected double[] getWeights(double waveno, float[] wavenos, int[] indices) {
+    double[]	result;
+    double	num;
+    double	den;
+    int		m;
+    int		k;
+
+    result = new double[indices.length];
+    for (m = 0; m < indices.length; m++) {
+      num = 1;
+      den = 1;
+      for (k = 0; k < indices.length; k++) {
+	if (k == m)
+	  continue;
+	num *= waveno - (double) wavenos[indices[k]];
+      }
+      for (k = 0; k < indices.length; k++) {
+	if (k == m)
+	  continue;
+	den *= (double) wavenos[indices[m]] - (double) wavenos[indices[k]];
+      }
+      result[m] = num / den;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates the interpolation plan (indices and weights per output wave
+   * number) for the given input wave numbers. Input and output grids get
+   * swept with two pointers, since both are sorted.
+   *
+   * @param wavenos	the (sorted) wave numbers of the input data
+   */
+  protected void generatePlan(float[] wavenos) {
+    List<Double>	output;
+    double		int_point;
+    float		wave;
+    int			pos;
+    int			i;
+
+    output    = new ArrayList<>();
+    int_point = m_First;
+    while (true) {
+      output.add(int_point);
+      int_point += getStep();
+      if (int_point > m_Last + .0001)
+	break;
+    }
+
+    m_PlanWaveNumbers = wavenos.clone();
+    m_PlanOutput      = new double[output.size()];
+    m_PlanIndices     = new int[output.size()][];
+    m_PlanWeights     = new double[output.size()][];
+    pos               = 0;
+    for (i = 0; i < output.size(); i++) {
+      int_point = output.get(i);
+      wave      = (float) int_point;
+      // ties go to the lower index
+      while ((pos + 1 < wavenos.length) && (Math.abs(wave - wavenos[pos + 1]) < Math.abs(wave - wavenos[pos])))
+	pos++;
+      m_PlanOutput[i]  = int_point;
+      m_PlanIndices[i] = getClosestIndices(int_point, wavenos, pos, getPolynomial() + 1);
+      m_PlanWeights[i] = getWeights(int_point, wavenos, m_PlanIndices[i]);
+    }
   }
 
   /**
@@ -166,24 +288,40 @@ public class StandardiseByInterpolation
   protected Spectrum processData(Spectrum data) {
     Spectrum		result;
     List<SpectrumPoint>	list;
+    float[]		wavenos;
+    float[]		amps;
+    double		amp;
+    int[]		indices;
+    double[]		weights;
+    int			i;
+    int			n;
 
     if (m_Last < m_First)
       throw new IllegalStateException("last < first!");
+    if (data.size() == 0)
+      throw new IllegalStateException("No data points to interpolate!");
 
-    list = data.toList();
-    result=data.getHeader();
-    double int_point=m_First;
-    boolean cont=true;
-
-    while (cont){
-      List<SpectrumPoint> lsp=getClosestPoints(int_point,list,getPolynomial()+1);
-      double amp=interp(int_point,lsp,lsp.size()-1);
-      result.add(new SpectrumPoint((float)int_point,(float)amp));
-      int_point+=getStep();
-      if (int_point > m_Last +.0001){
-	break;
-      }
+    list    = data.toList();
+    wavenos = new float[list.size()];
+    amps    = new float[list.size()];
+    for (i = 0; i < list.size(); i++) {
+      wavenos[i] = list.get(i).getWaveNumber();
+      amps[i]    = list.get(i).getAmplitude();
     }
+
+    if ((m_PlanWaveNumbers == null) || !Arrays.equals(m_PlanWaveNumbers, wavenos))
+      generatePlan(wavenos);
+
+    result = data.getHeader();
+    for (i = 0; i < m_PlanOutput.length; i++) {
+      indices = m_PlanIndices[i];
+      weights = m_PlanWeights[i];
+      amp     = 0;
+      for (n = 0; n < indices.length; n++)
+	amp += weights[n] * amps[indices[n]];
+      result.add(new SpectrumPoint((float) m_PlanOutput[i], (float) amp));
+    }
+
     return result;
   }
 }
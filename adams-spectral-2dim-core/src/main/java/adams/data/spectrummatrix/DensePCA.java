@@ -0,0 +1,410 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DensePCA.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrummatrix;
+
+import weka.core.matrix.EigenvalueDecomposition;
+import weka.core.matrix.Matrix;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Principal components analysis on a dense amplitude matrix. Like Weka's
+ * PrincipalComponents, the data gets standardized (correlation matrix) unless
+ * only centering is requested (covariance matrix) and as many components are
+ * retained as necessary to cover the specified variance.
+ * The preprocessing is performed in-place on the provided matrices.
+ * <br>
+ * The model can also be built incrementally from chunks of rows, using
+ * {@link #update(double[][])} and {@link #finish()}: the means and the
+ * centered cross products get merged chunk by chunk (Chan et al.), i.e., only
+ * a p x p matrix is kept in memory rather than all the rows.
+ * <br>
+ * All the matrix operations of a single call share the same executor.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DensePCA
+  implements Serializable {
+
+  private static final long serialVersionUID = -4474098446466463950L;
+
+  /** the variance to cover. */
+  protected double m_Variance = 0.95;
+
+  /** the maximum number of components (-1 for unlimited). */
+  protected int m_MaxComponents = -1;
+
+  /** whether to center only rather than standardize. */
+  protected boolean m_Center = false;
+
+  /** the number of threads to use. */
+  protected int m_NumThreads = 0;
+
+  /** the column means. */
+  protected double[] m_Means;
+
+  /** the column standard deviations (null if only centering). */
+  protected double[] m_StdDevs;
+
+  /** the eigenvalues of the retained components. */
+  protected double[] m_Eigenvalues;
+
+  /** the eigenvectors of the retained components (p x k). */
+  protected double[][] m_Eigenvectors;
+
+  /** the number of rows collected during incremental training. */
+  protected long m_Count;
+
+  /** the running means collected during incremental training. */
+  protected double[] m_RunningMeans;
+
+  /** the centered cross products collected during incremental training. */
+  protected double[][] m_RunningCrossProducts;
+
+  /**
+   * Sets the variance to cover.
+   *
+   * @param value	the variance (0-1)
+   */
+  public void setVariance(double value) {
+    m_Variance = value;
+  }
+
+  /**
+   * Returns the variance to cover.
+   *
+   * @return		the variance (0-1)
+   */
+  public double getVariance() {
+    return m_Variance;
+  }
+
+  /**
+   * Sets the maximum number of components to retain.
+   *
+   * @param value	the maximum, -1 for unlimited
+   */
+  public void setMaxComponents(int value) {
+    m_MaxComponents = value;
+  }
+
+  /**
+   * Returns the maximum number of components to retain.
+   *
+   * @return		the maximum, -1 for unlimited
+   */
+  public int getMaxComponents() {
+    return m_MaxComponents;
+  }
+
+  /**
+   * Sets whether to only center the data rather than standardize it.
+   *
+   * @param value	true if to center only
+   */
+  public void setCenter(boolean value) {
+    m_Center = value;
+  }
+
+  /**
+   * Returns whether to only center the data rather than standardize it.
+   *
+   * @return		true if to center only
+   */
+  public boolean getCenter() {
+    return m_Center;
+  }
+
+  /**
+   * Sets the number of threads to use.
+   *
+   * @param value	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+  }
+
+  /**
+   * Returns the number of threads to use.
+   *
+   * @return		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns whether the model has been built.
+   *
+   * @return		true if built
+   */
+  public boolean isBuilt() {
+    return (m_Eigenvectors != null);
+  }
+
+  /**
+   * Returns the eigenvalues of the retained components.
+   *
+   * @return		the eigenvalues, null if not built
+   */
+  public double[] getEigenvalues() {
+    return m_Eigenvalues;
+  }
+
+  /**
+   * Returns the eigenvectors (= loadings) of the retained components.
+   *
+   * @return		the eigenvectors (p x k), null if not built
+   */
+  public double[][] getEigenvectors() {
+    return m_Eigenvectors;
+  }
+
+  /**
+   * Builds the model from the covariance/correlation matrix.
+   *
+   * @param cov		the matrix (p x p)
+   */
+  protected void build(double[][] cov) {
+    EigenvalueDecomposition	eig;
+    double[]			values;
+    double[][]			vectors;
+    Integer[]			order;
+    double			total;
+    double			sum;
+    int				num;
+    int				i;
+    int				j;
+
+    // eigen decomposition
+    eig     = new Matrix(cov).eig();
+    values  = eig.getRealEigenvalues();
+    vectors = eig.getV().getArray();
+    order   = new Integer[values.length];
+    total   = 0.0;
+    for (i = 0; i < values.length; i++) {
+      if (values[i] < 0)
+	values[i] = 0.0;
+      total   += values[i];
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(values[b], values[a]));
+
+    // determine components to retain
+    num = 0;
+    sum = 0.0;
+    for (i = 0; i < order.length; i++) {
+      num++;
+      sum += values[order[i]];
+      if ((total == 0) || (sum / total >= m_Variance))
+	break;
+    }
+    if ((m_MaxComponents > 0) && (num > m_MaxComponents))
+      num = m_MaxComponents;
+
+    m_Eigenvalues  = new double[num];
+    m_Eigenvectors = new double[cov.length][num];
+    for (i = 0; i < num; i++) {
+      m_Eigenvalues[i] = values[order[i]];
+      for (j = 0; j < cov.length; j++)
+	m_Eigenvectors[j][i] = vectors[j][order[i]];
+    }
+  }
+
+  /**
+   * Builds the model and returns the scores of the data.
+   * The matrix gets standardized/centered in-place.
+   *
+   * @param x		the data matrix (n x p)
+   * @return		the scores (n x k)
+   */
+  public double[][] fitTransform(double[][] x) {
+    ExecutorService	executor;
+    double[][]		cov;
+    int			threads;
+    int			i;
+    int			j;
+
+    if (x.length < 2)
+      throw new IllegalStateException("At least two rows required, provided: " + x.length);
+
+    threads  = SpectrumMatrixHelper.determineNumThreads(m_NumThreads);
+    executor = SpectrumMatrixHelper.getExecutor();
+
+    // preprocess
+    m_Means   = SpectrumMatrixHelper.columnMeans(x, executor, threads);
+    m_StdDevs = m_Center ? null : SpectrumMatrixHelper.columnStdDevs(x, m_Means, executor, threads);
+    SpectrumMatrixHelper.standardize(x, m_Means, m_StdDevs, executor, threads);
+
+    // covariance/correlation
+    cov = SpectrumMatrixHelper.crossProduct(x, executor, threads);
+    for (i = 0; i < cov.length; i++) {
+      for (j = 0; j < cov.length; j++)
+	cov[i][j] /= (x.length - 1);
+    }
+
+    build(cov);
+
+    return SpectrumMatrixHelper.multiply(x, m_Eigenvectors, executor, threads);
+  }
+
+  /**
+   * Discards the statistics collected during incremental training and the
+   * model built so far.
+   */
+  public void clear() {
+    m_Means                = null;
+    m_StdDevs              = null;
+    m_Eigenvalues          = null;
+    m_Eigenvectors         = null;
+    m_Count                = 0;
+    m_RunningMeans         = null;
+    m_RunningCrossProducts = null;
+  }
+
+  /**
+   * Returns the number of rows collected during incremental training so far.
+   *
+   * @return		the number of rows
+   */
+  public long getCount() {
+    return m_Count;
+  }
+
+  /**
+   * Merges the chunk of rows into the running means and centered cross
+   * products. The chunk does not get modified.
+   *
+   * @param x		the chunk (n x p)
+   */
+  public void update(double[][] x) {
+    ExecutorService	executor;
+    double[][]		centered;
+    double[]		means;
+    double[][]		cross;
+    double[]		delta;
+    double		factor;
+    long		total;
+    int			threads;
+    int			i;
+    int			j;
+
+    if (x.length == 0)
+      return;
+    if ((m_RunningMeans != null) && (x[0].length != m_RunningMeans.length))
+      throw new IllegalStateException("Number of columns differ: " + x[0].length + " != " + m_RunningMeans.length);
+
+    // statistics of chunk
+    threads  = SpectrumMatrixHelper.determineNumThreads(m_NumThreads);
+    executor = SpectrumMatrixHelper.getExecutor();
+    means    = SpectrumMatrixHelper.columnMeans(x, executor, threads);
+    centered = new double[x.length][];
+    for (i = 0; i < x.length; i++)
+      centered[i] = x[i].clone();
+    SpectrumMatrixHelper.standardize(centered, means, null, executor, threads);
+    cross = SpectrumMatrixHelper.crossProduct(centered, executor, threads);
+
+    if (m_RunningMeans == null) {
+      m_Count                = x.length;
+      m_RunningMeans         = means;
+      m_RunningCrossProducts = cross;
+      return;
+    }
+
+    // merge
+    total  = m_Count + x.length;
+    delta  = new double[means.length];
+    for (j = 0; j < means.length; j++)
+      delta[j] = means[j] - m_RunningMeans[j];
+    factor = (double) m_Count * x.length / total;
+    for (i = 0; i < means.length; i++) {
+      for (j = 0; j < means.length; j++)
+	m_RunningCrossProducts[i][j] += cross[i][j] + delta[i] * delta[j] * factor;
+    }
+    for (j = 0; j < means.length; j++)
+      m_RunningMeans[j] += delta[j] * x.length / total;
+    m_Count = total;
+  }
+
+  /**
+   * Builds the model from the statistics collected with {@link #update(double[][])}.
+   */
+  public void finish() {
+    double[][]	cov;
+    double[]	scale;
+    int		i;
+    int		j;
+
+    if (m_Count < 2)
+      throw new IllegalStateException("At least two rows required, provided: " + m_Count);
+
+    m_Means = m_RunningMeans;
+    cov     = m_RunningCrossProducts;
+    scale   = new double[m_Means.length];
+    if (m_Center) {
+      m_StdDevs = null;
+      Arrays.fill(scale, 1.0);
+    }
+    else {
+      m_StdDevs = new double[m_Means.length];
+      for (i = 0; i < m_Means.length; i++) {
+	m_StdDevs[i] = Math.sqrt(cov[i][i] / (m_Count - 1));
+	scale[i]     = (m_StdDevs[i] > 0) ? m_StdDevs[i] : 1.0;
+      }
+    }
+    for (i = 0; i < cov.length; i++) {
+      for (j = 0; j < cov.length; j++)
+	cov[i][j] /= (m_Count - 1) * scale[i] * scale[j];
+    }
+
+    build(cov);
+
+    m_Count                = 0;
+    m_RunningMeans         = null;
+    m_RunningCrossProducts = null;
+  }
+
+  /**
+   * Returns the scores of the data using the built model.
+   * The matrix gets standardized/centered in-place.
+   *
+   * @param x		the data matrix (n x p)
+   * @return		the scores (n x k)
+   */
+  public double[][] transform(double[][] x) {
+    ExecutorService	executor;
+    int			threads;
+
+    if (!isBuilt())
+      throw new IllegalStateException("Model not built yet!");
+    if (x.length == 0)
+      return new double[0][];
+    if (x[0].length != m_Means.length)
+      throw new IllegalStateException("Number of columns differ: " + x[0].length + " != " + m_Means.length);
+
+    threads  = SpectrumMatrixHelper.determineNumThreads(m_NumThreads);
+    executor = SpectrumMatrixHelper.getExecutor();
+    SpectrumMatrixHelper.standardize(x, m_Means, m_StdDevs, executor, threads);
+    return SpectrumMatrixHelper.multiply(x, m_Eigenvectors, executor, threads);
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DensePLS.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrummatrix;
+
+
+import java.io.Serializable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * PLS1 (NIPALS) on a dense, mean-centered amplitude matrix with a single
+ * numeric target. The matrix gets centered and deflated in-place.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DensePLS
+  implements Serializable {
+
+  private static final long serialVersionUID = 1925420384108187416L;
+
+  /** the number of components. */
+  protected int m_NumComponents = 20;
+
+  /** the number of threads to use. */
+  protected int m_NumThreads = 0;
+
+  /** the column means. */
+  protected double[] m_Means;
+
+  /** the target mean. */
+  protected double m_TargetMean;
+
+  /** the weights (k x p). */
+  protected double[][] m_Weights;
+
+  /** the loadings (k x p). */
+  protected double[][] m_Loadings;
+
+  /** the regression coefficients of the target per component. */
+  protected double[] m_TargetLoadings;
+
+  /**
+   * Sets the number of components to compute.
+   *
+   * @param value	the number of components
+   */
+  public void setNumComponents(int value) {
+    m_NumComponents = value;
+  }
+
+  /**
+   * Returns the number of components to compute.
+   *
+   * @return		the number of components
+   */
+  public int getNumComponents() {
+    return m_NumComponents;
+  }
+
+  /**
+   * Sets the number of threads to use.
+   *
+   * @param value	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+  }
+
+  /**
+   * Returns the number of threads to use.
+   *
+   * @return		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the weights.
+   *
+   * @return		the weights (k x p), null if not built
+   */
+  public double[][] getWeights() {
+    return m_Weights;
+  }
+
+  /**
+   * Returns the loadings.
+   *
+   * @return		the loadings (k x p), null if not built
+   */
+  public double[][] getLoadings() {
+    return m_Loadings;
+  }
+
+  /**
+   * Returns the regression coefficients of the target per component.
+   *
+   * @return		the coefficients, null if not built
+   */
+  public double[] getTargetLoadings() {
+    return m_TargetLoadings;
+  }
+
+  /**
+   * Returns the target mean.
+   *
+   * @return		the mean
+   */
+  public double getTargetMean() {
+    return m_TargetMean;
+  }
+
+  /**
+   * Builds the model and returns the scores of the data.
+   * The matrix gets centered and deflated in-place, the target array is not
+   * modified.
+   *
+   * @param x		the data matrix (n x p)
+   * @param y		the target values (n)
+   * @return		the scores (n x k)
+   */
+  public double[][] fitTransform(double[][] x, double[] y) {
+    if (x.length != y.length)
+      throw new IllegalStateException("Number of rows and target values differ: " + x.length + " != " + y.length);
+    if (x.length == 0)
+      throw new IllegalStateException("No data provided!");
+
+    return fitTransform(x, y, SpectrumMatrixHelper.getExecutor(), SpectrumMatrixHelper.determineNumThreads(m_NumThreads));
+  }
+
+  /**
+   * Builds the model and returns the scores of the data, using the same
+   * executor for all the components.
+   *
+   * @param x		the data matrix (n x p)
+   * @param y		the target values (n)
+   * @param executor	the executor to use, null if threads is at most 1
+   * @param threads	the number of threads to distribute the work across
+   * @return		the scores (n x k)
+   */
+  protected double[][] fitTransform(double[][] x, double[] y, ExecutorService executor, int threads) {
+    double[][]	result;
+    double[]	target;
+    double[]	w;
+    double[]	t;
+    double[]	p;
+    double	norm;
+    double	tt;
+    double	q;
+    int		numComp;
+    int		cols;
+    int		a;
+    int		i;
+    int		j;
+
+    cols    = x[0].length;
+    numComp = Math.min(m_NumComponents, cols);
+
+    // center
+    m_Means = SpectrumMatrixHelper.columnMeans(x, executor, threads);
+    SpectrumMatrixHelper.standardize(x, m_Means, null, executor, threads);
+    m_TargetMean = 0.0;
+    for (i = 0; i < y.length; i++)
+      m_TargetMean += y[i];
+    m_TargetMean /= y.length;
+    target = new double[y.length];
+    for (i = 0; i < y.length; i++)
+      target[i] = y[i] - m_TargetMean;
+
+    result           = new double[x.length][numComp];
+    m_Weights        = new double[numComp][];
+    m_Loadings       = new double[numComp][];
+    m_TargetLoadings = new double[numComp];
+    for (a = 0; a < numComp; a++) {
+      // weights
+      w    = SpectrumMatrixHelper.multiplyTransposed(x, target, executor, threads);
+      norm = 0.0;
+      for (j = 0; j < cols; j++)
+	norm += w[j] * w[j];
+      norm = Math.sqrt(norm);
+      if (norm > 0) {
+	for (j = 0; j < cols; j++)
+	  w[j] /= norm;
+      }
+
+      // scores
+      t  = SpectrumMatrixHelper.multiply(x, w, executor, threads);
+      tt = 0.0;
+      q  = 0.0;
+      for (i = 0; i < t.length; i++) {
+	tt += t[i] * t[i];
+	q  += target[i] * t[i];
+      }
+
+      // loadings
+      p = SpectrumMatrixHelper.multiplyTransposed(x, t, executor, threads);
+      if (tt > 0) {
+	for (j = 0; j < cols; j++)
+	  p[j] /= tt;
+	q /= tt;
+      }
+      else {
+	q = 0.0;
+      }
+
+      // deflate
+      final double[] fp = p;
+      final double[] ft = t;
+      SpectrumMatrixHelper.parallel(executor, threads, x.length, (r) -> {
+	double[] row = x[r];
+	double tr = ft[r];
+	for (int c = 0; c < row.length; c++)
+	  row[c] -= tr * fp[c];
+      });
+      for (i = 0; i < target.length; i++)
+	target[i] -= q * t[i];
+
+      for (i = 0; i < t.length; i++)
+	result[i][a] = t[i];
+      m_Weights[a]        = w;
+      m_Loadings[a]       = p;
+      m_TargetLoadings[a] = q;
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PairwiseSimilarity.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrummatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes cosine similarities or correlation coefficients between the rows
+ * of an amplitude matrix. The rows get normalized once (centered for
+ * correlation, scaled to unit length), turning each similarity into a
+ * simple dot product. Only the upper triangle gets computed, in square
+ * tiles of rows that are distributed across threads.
+ * Rows with zero length (or zero variance for correlation) result in NaN.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PairwiseSimilarity {
+
+  /** the default number of rows per tile. */
+  public final static int TILE_SIZE = 64;
+
+  /**
+   * The type of similarity.
+   */
+  public enum SimilarityType {
+    /** cosine similarity. */
+    COSINE,
+    /** Pearson correlation coefficient. */
+    CORRELATION,
+  }
+
+  /**
+   * Returns a normalized copy of the vector.
+   *
+   * @param x		the vector to normalize
+   * @param type	the type of similarity to normalize for
+   * @return		the normalized vector
+   */
+  public static double[] normalize(double[] x, SimilarityType type) {
+    double[]	result;
+    double	mean;
+    double	norm;
+    int		i;
+
+    result = x.clone();
+    if (type == SimilarityType.CORRELATION) {
+      mean = 0.0;
+      for (i = 0; i < result.length; i++)
+	mean += result[i];
+      mean /= result.length;
+      for (i = 0; i < result.length; i++)
+	result[i] -= mean;
+    }
+
+    norm = 0.0;
+    for (i = 0; i < result.length; i++)
+      norm += result[i] * result[i];
+    norm = Math.sqrt(norm);
+    for (i = 0; i < result.length; i++)
+      result[i] = (norm > 0) ? result[i] / norm : Double.NaN;
+
+    return result;
+  }
+
+  /**
+   * Returns normalized copies of the rows.
+   *
+   * @param x		the matrix to normalize
+   * @param type	the type of similarity to normalize for
+   * @param numThreads	the number of threads, see Performance.determineNumThreads(int)
+   * @return		the normalized matrix
+   */
+  public static double[][] normalize(final double[][] x, final SimilarityType type, int numThreads) {
+    final double[][]	result;
+
+    result = new double[x.length][];
+    SpectrumMatrixHelper.parallel(numThreads, x.length, (i) -> result[i] = normalize(x[i], type));
+
+    return result;
+  }
+
+  /**
+   * Computes the similarity between the two vectors.
+   *
+   * @param x1		the first vector
+   * @param x2		the second vector
+   * @param type	the type of similarity
+   * @return		the similarity
+   */
+  public static double similarity(double[] x1, double[] x2, SimilarityType type) {
+    return dot(normalize(x1, type), normalize(x2, type));
+  }
+
+  /**
+   * Computes the dot product of the two (normalized) vectors.
+   *
+   * @param x1		the first vector
+   * @param x2		the second vector
+   * @return		the dot product
+   */
+  public static double dot(double[] x1, double[] x2) {
+    double	result;
+    int		i;
+
+    result = 0.0;
+    for (i = 0; i < x1.length; i++)
+      result += x1[i] * x2[i];
+
+    return result;
+  }
+
+  /**
+   * Generates the tiles of the upper triangle (incl diagonal tiles).
+   *
+   * @param numRows	the number of rows
+   * @param tileSize	the number of rows per tile
+   * @return		the tiles, each consisting of the start row of the
+   * 			vertical and horizontal block
+   */
+  protected static List<int[]> tiles(int numRows, int tileSize) {
+    List<int[]>	result;
+    int		i;
+    int		j;
+
+    result = new ArrayList<>();
+    for (i = 0; i < numRows; i += tileSize) {
+      for (j = i; j < numRows; j += tileSize)
+	result.add(new int[]{i, j});
+    }
+
+    return result;
+  }
+
+  /**
+   * Computes the full (symmetric) similarity matrix from the normalized rows.
+   * The diagonal contains the similarities of the rows with themselves.
+   *
+   * @param normalized	the normalized rows
+   * @param numThreads	the number of threads, see Performance.determineNumThreads(int)
+   * @return		the similarities
+   */
+  public static double[][] similarities(final double[][] normalized, int numThreads) {
+    final double[][]	result;
+    final List<int[]>	tiles;
+    final int		n;
+
+    n      = normalized.length;
+    result = new double[n][n];
+    tiles  = tiles(n, TILE_SIZE);
+    SpectrumMatrixHelper.parallel(numThreads, tiles.size(), (t) -> {
+      int[] tile = tiles.get(t);
+      for (int i = tile[0]; i < Math.min(n, tile[0] + TILE_SIZE); i++) {
+	for (int j = Math.max(i, tile[1]); j < Math.min(n, tile[1] + TILE_SIZE); j++) {
+	  result[i][j] = dot(normalized[i], normalized[j]);
+	  result[j][i] = result[i][j];
+	}
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Counts for each row how many other rows it has a similarity below the
+   * threshold with, without materializing the similarity matrix.
+   *
+   * @param normalized	the normalized rows
+   * @param threshold	the threshold
+   * @param numThreads	the number of threads, see Performance.determineNumThreads(int)
+   * @return		the counts per row
+   */
+  public static int[] countBelow(final double[][] normalized, final double threshold, int numThreads) {
+    final int[]		result;
+    final List<int[]>	tiles;
+    final int		n;
+
+    n      = normalized.length;
+    result = new int[n];
+    tiles  = tiles(n, TILE_SIZE);
+    SpectrumMatrixHelper.parallel(numThreads, tiles.size(), (t) -> {
+      int[] tile = tiles.get(t);
+      int[] countsRows = new int[TILE_SIZE];
+      int[] countsCols = new int[TILE_SIZE];
+      for (int i = tile[0]; i < Math.min(n, tile[0] + TILE_SIZE); i++) {
+	for (int j = Math.max(i + 1, tile[1]); j < Math.min(n, tile[1] + TILE_SIZE); j++) {
+	  if (dot(normalized[i], normalized[j]) < threshold) {
+	    countsRows[i - tile[0]]++;
+	    countsCols[j - tile[1]]++;
+	  }
+	}
+      }
+      synchronized (result) {
+	for (int i = 0; i < TILE_SIZE; i++) {
+	  if (tile[0] + i < n)
+	    result[tile[0] + i] += countsRows[i];
+	  if (tile[1] + i < n)
+	    result[tile[1] + i] += countsCols[i];
+	}
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Computes the similarities of the normalized rows with the (normalized)
+   * reference vector.
+   *
+   * @param normalized	the normalized rows
+   * @param reference	the normalized reference
+   * @param numThreads	the number of threads, see Performance.determineNumThreads(int)
+   * @return		the similarities
+   */
+  public static double[] similarities(double[][] normalized, double[] reference, int numThreads) {
+    return SpectrumMatrixHelper.multiply(normalized, reference, numThreads);
+  }
+}
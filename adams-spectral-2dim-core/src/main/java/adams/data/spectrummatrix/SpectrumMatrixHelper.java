@@ -0,0 +1,479 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectrumMatrixHelper.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrummatrix;
+
+import adams.core.Performance;
+import adams.data.report.Field;
+import adams.data.sampledata.SampleData;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Helper methods for turning spectra into dense amplitude matrices (one row
+ * per spectrum) and for (multi-threaded) matrix kernels operating on them.
+ * Matrices are plain row-major <code>double[][]</code> arrays.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectrumMatrixHelper {
+
+  /** the executor shared by all parallel computations. */
+  protected static ExecutorService m_Executor;
+
+  /** the number of threads of the shared executor. */
+  protected static int m_ExecutorThreads;
+
+  /** whether the current thread belongs to the shared executor. */
+  protected static final ThreadLocal<Boolean> m_InExecutor = ThreadLocal.withInitial(() -> false);
+
+  /**
+   * Turns the amplitudes of the spectra into a matrix, one row per spectrum.
+   *
+   * @param data	the spectra to convert, must all have the same number of points
+   * @return		the matrix
+   */
+  public static double[][] toMatrix(Spectrum[] data) {
+    double[][]		result;
+    List<SpectrumPoint>	points;
+    int			i;
+    int			n;
+
+    if (data.length == 0)
+      throw new IllegalStateException("No spectra provided?");
+
+    result = new double[data.length][];
+    for (i = 0; i < data.length; i++) {
+      points = data[i].toList();
+      if ((i > 0) && (points.size() != result[0].length))
+	throw new IllegalStateException(
+	  "Spectrum #" + (i+1) + " (" + data[i] + ") has different number of points: "
+	    + points.size() + " != " + result[0].length);
+      result[i] = new double[points.size()];
+      for (n = 0; n < points.size(); n++)
+	result[i][n] = points.get(n).getAmplitude();
+    }
+
+    return result;
+  }
+
+  /**
+   * Extracts the numeric target values from the reports of the spectra.
+   *
+   * @param data	the spectra to get the values from
+   * @param field	the field to extract
+   * @return		the values, NaN if not available
+   */
+  public static double[] toTarget(Spectrum[] data, Field field) {
+    double[]	result;
+    SampleData	report;
+    Double	value;
+    int		i;
+
+    result = new double[data.length];
+    for (i = 0; i < data.length; i++) {
+      result[i] = Double.NaN;
+      if (!data[i].hasReport())
+	continue;
+      report = data[i].getReport();
+      if (!report.hasValue(field))
+	continue;
+      value = report.getDoubleValue(field);
+      if (value != null)
+	result[i] = value;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the executor shared by all parallel computations, bounded by the
+   * number of CPUs/cores. Its threads are daemon threads, i.e., the executor
+   * does not need shutting down.
+   *
+   * @return		the executor
+   */
+  public static synchronized ExecutorService getExecutor() {
+    final AtomicInteger	count;
+
+    if (m_Executor == null) {
+      count             = new AtomicInteger();
+      m_ExecutorThreads = Performance.determineNumThreads(-1);
+      m_Executor        = Executors.newFixedThreadPool(m_ExecutorThreads, (Runnable r) -> {
+	Thread thread = new Thread(() -> {
+	  m_InExecutor.set(true);
+	  r.run();
+	}, SpectrumMatrixHelper.class.getSimpleName() + "-" + count.incrementAndGet());
+	thread.setDaemon(true);
+	return thread;
+      });
+    }
+
+    return m_Executor;
+  }
+
+  /**
+   * Determines the number of threads to use with the shared executor, i.e.,
+   * bounded by the size of the executor. Calls from within a task of the
+   * shared executor get limited to a single thread.
+   *
+   * @param numThreads	the number of threads, see Performance.determineNumThreads(int)
+   * @return		the number of threads to use
+   */
+  public static int determineNumThreads(int numThreads) {
+    int		result;
+
+    result = Performance.determineNumThreads(numThreads);
+    if ((result <= 1) || m_InExecutor.get())
+      return 1;
+    getExecutor();
+
+    return Math.min(result, m_ExecutorThreads);
+  }
+
+  /**
+   * Executes the task for the indices 0 to num-1, distributing the indices
+   * across the specified number of threads in round-robin fashion.
+   * The threads get taken from an executor shared by all calls, rather than
+   * creating a new thread pool each time. Calls from within a task of the
+   * shared executor get executed sequentially.
+   *
+   * @param numThreads	the number of threads, see Performance.determineNumThreads(int)
+   * @param num		the number of indices
+   * @param task	the task to execute for each index
+   */
+  public static void parallel(int numThreads, int num, IntConsumer task) {
+    int		threads;
+
+    threads = determineNumThreads(numThreads);
+    parallel((threads > 1) ? getExecutor() : null, threads, num, task);
+  }
+
+  /**
+   * Executes the task for the indices 0 to num-1 using the supplied executor,
+   * which gets left running. Indices get distributed across the threads in
+   * round-robin fashion. Calls from within a task of the shared executor get
+   * executed sequentially.
+   *
+   * @param executor	the executor to use, can be null if threads is at most 1
+   * @param threads	the number of threads to distribute the indices across
+   * @param num		the number of indices
+   * @param task	the task to execute for each index
+   */
+  public static void parallel(ExecutorService executor, int threads, int num, IntConsumer task) {
+    List<Future<?>>	futures;
+    int			i;
+
+    threads = Math.min(threads, num);
+    if ((threads <= 1) || (executor == null) || m_InExecutor.get()) {
+      for (i = 0; i < num; i++)
+	task.accept(i);
+      return;
+    }
+    futures = new ArrayList<>();
+    try {
+      for (i = 0; i < threads; i++) {
+	final int offset = i;
+	final int step   = threads;
+	futures.add(executor.submit(() -> {
+	  for (int n = offset; n < num; n += step)
+	    task.accept(n);
+	}));
+      }
+      for (Future<?> future: futures)
+	future.get();
+    }
+    catch (InterruptedException e) {
+      for (Future<?> future: futures)
+	future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for parallel computation!", e);
+    }
+    catch (ExecutionException e) {
+      for (Future<?> future: futures)
+	future.cancel(true);
+      throw new IllegalStateException("Failed to perform parallel computation!", e.getCause());
+    }
+  }
+
+  /**
+   * Computes the column means.
+   *
+   * @param x		the matrix
+   * @param numThreads	the number of threads
+   * @return		the means
+   */
+  public static double[] columnMeans(double[][] x, int numThreads) {
+    int		threads;
+
+    threads = determineNumThreads(numThreads);
+    return columnMeans(x, (threads > 1) ? getExecutor() : null, threads);
+  }
+
+  /**
+   * Computes the column means.
+   *
+   * @param x		the matrix
+   * @param executor	the executor to use, null if threads is at most 1
+   * @param threads	the number of threads to distribute the work across
+   * @return		the means
+   */
+  public static double[] columnMeans(double[][] x, ExecutorService executor, int threads) {
+    final double[]	result;
+    final int		rows;
+
+    rows   = x.length;
+    result = new double[x[0].length];
+    parallel(executor, threads, result.length, (j) -> {
+      double sum = 0.0;
+      for (int i = 0; i < rows; i++)
+	sum += x[i][j];
+      result[j] = sum / rows;
+    });
+
+    return result;
+  }
+
+  /**
+   * Computes the (sample) standard deviations of the columns.
+   *
+   * @param x		the matrix
+   * @param means	the column means
+   * @param executor	the executor to use, null if threads is at most 1
+   * @param threads	the number of threads to distribute the work across
+   * @return		the standard deviations
+   */
+  public static double[] columnStdDevs(double[][] x, double[] means, ExecutorService executor, int threads) {
+    final double[]	result;
+    final int		rows;
+
+    rows   = x.length;
+    result = new double[x[0].length];
+    if (rows < 2)
+      return result;
+    parallel(executor, threads, result.length, (j) -> {
+      double sum = 0.0;
+      double d;
+      for (int i = 0; i < rows; i++) {
+	d    = x[i][j] - means[j];
+	sum += d * d;
+      }
+      result[j] = Math.sqrt(sum / (rows - 1));
+    });
+
+    return result;
+  }
+
+  /**
+   * Subtracts the means and (optionally) divides by the standard deviations,
+   * in-place. Columns with a standard deviation of zero only get centered.
+   *
+   * @param x		the matrix to update
+   * @param means	the column means
+   * @param stdevs	the column standard deviations, null to only center
+   * @param executor	the executor to use, null if threads is at most 1
+   * @param threads	the number of threads to distribute the work across
+   */
+  public static void standardize(double[][] x, double[] means, double[] stdevs, ExecutorService executor, int threads) {
+    parallel(executor, threads, x.length, (i) -> {
+      double[] row = x[i];
+      for (int j = 0; j < row.length; j++) {
+	row[j] -= means[j];
+	if ((stdevs != null) && (stdevs[j] > 0))
+	  row[j] /= stdevs[j];
+      }
+    });
+  }
+
+  /**
+   * Computes the cross product X^T X. Threads work on different rows of the
+   * symmetric result, streaming through the rows of X.
+   *
+   * @param x		the matrix
+   * @param executor	the executor to use, null if threads is at most 1
+   * @param threads	the number of threads to distribute the work across
+   * @return		the cross product
+   */
+  public static double[][] crossProduct(double[][] x, ExecutorService executor, int threads) {
+    final double[][]	result;
+    final int		cols;
+
+    cols   = x[0].length;
+    result = new double[cols][cols];
+    parallel(executor, threads, cols, (j) -> {
+      double[] acc = result[j];
+      double xj;
+      for (double[] row: x) {
+	xj = row[j];
+	if (xj == 0)
+	  continue;
+	for (int k = j; k < cols; k++)
+	  acc[k] += xj * row[k];
+      }
+    });
+
+    // mirror upper triangle
+    for (int j = 0; j < cols; j++) {
+      for (int k = j + 1; k < cols; k++)
+	result[k][j] = result[j][k];
+    }
+
+    return result;
+  }
+
+  /**
+   * Computes X * V.
+   *
+   * @param x		the matrix (n x p)
+   * @param v		the matrix (p x k)
+   * @param numThreads	the number of threads
+   * @return		the product (n x k)
+   */
+  public static double[][] multiply(double[][] x, double[][] v, int numThreads) {
+    int		threads;
+
+    threads = determineNumThreads(numThreads);
+    return multiply(x, v, (threads > 1) ? getExecutor() : null, threads);
+  }
+
+  /**
+   * Computes X * V.
+   *
+   * @param x		the matrix (n x p)
+   * @param v		the matrix (p x k)
+   * @param executor	the executor to use, null if threads is at most 1
+   * @param threads	the number of threads to distribute the work across
+   * @return		the product (n x k)
+   */
+  public static double[][] multiply(double[][] x, double[][] v, ExecutorService executor, int threads) {
+    final double[][]	result;
+    final int		cols;
+
+    cols   = v[0].length;
+    result = new double[x.length][cols];
+    parallel(executor, threads, x.length, (i) -> {
+      double[] row = x[i];
+      double[] out = result[i];
+      double xj;
+      for (int j = 0; j < row.length; j++) {
+	xj = row[j];
+	if (xj == 0)
+	  continue;
+	for (int k = 0; k < cols; k++)
+	  out[k] += xj * v[j][k];
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Computes X * v.
+   *
+   * @param x		the matrix (n x p)
+   * @param v		the vector (p)
+   * @param executor	the executor to use, null if threads is at most 1
+   * @param threads	the number of threads to distribute the work across
+   * @return		the product (n)
+   */
+  public static double[] multiply(double[][] x, double[] v, ExecutorService executor, int threads) {
+    final double[]	result;
+
+    result = new double[x.length];
+    parallel(executor, threads, x.length, (i) -> {
+      double[] row = x[i];
+      double sum = 0.0;
+      for (int j = 0; j < row.length; j++)
+	sum += row[j] * v[j];
+      result[i] = sum;
+    });
+
+    return result;
+  }
+
+  /**
+   * Computes X^T * v. Threads work on contiguous blocks of columns.
+   *
+   * @param x		the matrix (n x p)
+   * @param v		the vector (n)
+   * @param executor	the executor to use, null if threads is at most 1
+   * @param threads	the number of threads to distribute the work across
+   * @return		the product (p)
+   */
+  public static double[] multiplyTransposed(double[][] x, double[] v, ExecutorService executor, int threads) {
+    final double[]	result;
+    final int		cols;
+    final int		blocks;
+    final int		blockSize;
+
+    cols      = x[0].length;
+    result    = new double[cols];
+    blocks    = Math.max(1, Math.min(cols, threads));
+    blockSize = (cols + blocks - 1) / blocks;
+    parallel(executor, threads, blocks, (b) -> {
+      int start = b * blockSize;
+      int end   = Math.min(cols, start + blockSize);
+      double vi;
+      for (int i = 0; i < x.length; i++) {
+	vi = v[i];
+	if (vi == 0)
+	  continue;
+	for (int j = start; j < end; j++)
+	  result[j] += x[i][j] * vi;
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Turns the matrix (eg scores) back into spectra, using 1-based wave numbers.
+   * ID and report of the original spectra get transferred.
+   *
+   * @param data	the original spectra
+   * @param matrix	the matrix to convert, same number of rows as spectra
+   * @return		the generated spectra
+   */
+  public static Spectrum[] toSpectra(Spectrum[] data, double[][] matrix) {
+    Spectrum[]	result;
+    int		i;
+    int		n;
+
+    result = new Spectrum[data.length];
+    for (i = 0; i < data.length; i++) {
+      result[i] = new Spectrum();
+      result[i].setID(data[i].getID());
+      result[i].getReport().mergeWith(data[i].getReport());
+      for (n = 0; n < matrix[i].length; n++)
+	result[i].add(new SpectrumPoint(n+1, (float) matrix[i][n]));
+    }
+
+    return result;
+  }
+}
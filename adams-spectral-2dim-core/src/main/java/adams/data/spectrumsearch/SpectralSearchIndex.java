@@ -0,0 +1,736 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectralSearchIndex.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumsearch;
+
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+import adams.data.spectrummatrix.PairwiseSimilarity;
+import adams.data.spectrummatrix.PairwiseSimilarity.SimilarityType;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Vantage-point tree for k-nearest neighbour searches in spectral libraries.
+ * <br>
+ * The amplitudes of the spectra get normalized to unit length (and centered
+ * beforehand in case of correlation), which turns cosine similarity,
+ * correlation and spectral angle into functions of the angular distance
+ * between the normalized vectors. Since the angular distance is a metric,
+ * the tree can prune whole subtrees using the triangle inequality while still
+ * returning the exact neighbours.
+ * <br>
+ * Spectra with zero length (or zero variance for correlation) cannot be
+ * compared and are not added to the index.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectralSearchIndex
+  implements Serializable {
+
+  private static final long serialVersionUID = 4109482312907163275L;
+
+  /** the tolerance for comparing distances when pruning. acos amplifies the
+   * rounding errors of dot products close to 1 to about 1e-8 radians, hence
+   * the tolerance needs to be well above that. */
+  public final static double EPSILON = 1e-6;
+
+  /** the minimum number of rows to compute distances for in parallel. */
+  protected final static int MIN_PARALLEL = 10000;
+
+  /**
+   * The measure to search with.
+   */
+  public enum Measure {
+    /** cosine similarity (larger is closer). */
+    COSINE,
+    /** Pearson correlation coefficient (larger is closer). */
+    CORRELATION,
+    /** spectral angle in radians (smaller is closer). */
+    SPECTRAL_ANGLE,
+  }
+
+  /**
+   * Node of the tree. Internal nodes have a vantage point, leaves a range of
+   * the ordered rows.
+   */
+  protected static class Node
+    implements Serializable {
+
+    private static final long serialVersionUID = -1842087453226071393L;
+
+    /** the row of the vantage point, -1 for leaves. */
+    public int vantage = -1;
+
+    /** the median distance to the vantage point. */
+    public double radius;
+
+    /** the rows closer than the radius. */
+    public Node inner;
+
+    /** the rows at least as far as the radius. */
+    public Node outer;
+
+    /** the start of the leaf range (incl). */
+    public int start;
+
+    /** the end of the leaf range (excl). */
+    public int end;
+  }
+
+  /**
+   * Container for a single neighbour.
+   */
+  public static class SearchResult
+    implements Serializable {
+
+    private static final long serialVersionUID = 7236098120932487654L;
+
+    /** the index of the spectrum in the library. */
+    protected int m_Index;
+
+    /** the ID of the spectrum. */
+    protected String m_ID;
+
+    /** the value of the measure. */
+    protected double m_Value;
+
+    /**
+     * Initializes the result.
+     *
+     * @param index	the index of the spectrum in the library
+     * @param id	the ID of the spectrum
+     * @param value	the value of the measure
+     */
+    public SearchResult(int index, String id, double value) {
+      m_Index = index;
+      m_ID    = id;
+      m_Value = value;
+    }
+
+    /**
+     * Returns the index of the spectrum in the library (0-based, in the
+     * order the spectra were provided).
+     *
+     * @return		the index
+     */
+    public int getIndex() {
+      return m_Index;
+    }
+
+    /**
+     * Returns the ID of the spectrum.
+     *
+     * @return		the ID
+     */
+    public String getID() {
+      return m_ID;
+    }
+
+    /**
+     * Returns the value of the measure.
+     *
+     * @return		the value
+     */
+    public double getValue() {
+      return m_Value;
+    }
+
+    /**
+     * Returns a short description of the result.
+     *
+     * @return		the description
+     */
+    @Override
+    public String toString() {
+      return "index=" + m_Index + ", id=" + m_ID + ", value=" + m_Value;
+    }
+  }
+
+  /** the measure. */
+  protected Measure m_Measure = Measure.COSINE;
+
+  /** the maximum number of rows in a leaf. */
+  protected int m_LeafSize = 16;
+
+  /** the seed for picking the vantage points. */
+  protected long m_Seed = 1;
+
+  /** the number of threads to use for building/batch searches. */
+  protected int m_NumThreads = 0;
+
+  /** the wave numbers of the library spectra. */
+  protected float[] m_WaveNumbers;
+
+  /** the normalized amplitudes. */
+  protected double[][] m_Vectors;
+
+  /** the index of the rows in the library. */
+  protected int[] m_Indices;
+
+  /** the IDs of the rows. */
+  protected String[] m_IDs;
+
+  /** the order of the rows, leaves refer to ranges in this array. */
+  protected int[] m_Order;
+
+  /** the number of spectra that were skipped. */
+  protected int m_NumSkipped;
+
+  /** the root of the tree. */
+  protected Node m_Root;
+
+  /**
+   * Sets the measure to use.
+   *
+   * @param value	the measure
+   */
+  public void setMeasure(Measure value) {
+    m_Measure = value;
+  }
+
+  /**
+   * Returns the measure in use.
+   *
+   * @return		the measure
+   */
+  public Measure getMeasure() {
+    return m_Measure;
+  }
+
+  /**
+   * Sets the maximum number of rows in a leaf.
+   *
+   * @param value	the size
+   */
+  public void setLeafSize(int value) {
+    m_LeafSize = value;
+  }
+
+  /**
+   * Returns the maximum number of rows in a leaf.
+   *
+   * @return		the size
+   */
+  public int getLeafSize() {
+    return m_LeafSize;
+  }
+
+  /**
+   * Sets the seed for picking the vantage points.
+   *
+   * @param value	the seed
+   */
+  public void setSeed(long value) {
+    m_Seed = value;
+  }
+
+  /**
+   * Returns the seed for picking the vantage points.
+   *
+   * @return		the seed
+   */
+  public long getSeed() {
+    return m_Seed;
+  }
+
+  /**
+   * Sets the number of threads to use.
+   *
+   * @param value	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+  }
+
+  /**
+   * Returns the number of threads to use.
+   *
+   * @return		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns whether the index has been built.
+   *
+   * @return		true if built
+   */
+  public boolean isBuilt() {
+    return (m_Root != null);
+  }
+
+  /**
+   * Returns the number of spectra in the index.
+   *
+   * @return		the number of spectra
+   */
+  public int size() {
+    return (m_Vectors == null) ? 0 : m_Vectors.length;
+  }
+
+  /**
+   * Returns the number of spectra that could not be added to the index.
+   *
+   * @return		the number of skipped spectra
+   */
+  public int getNumSkipped() {
+    return m_NumSkipped;
+  }
+
+  /**
+   * Returns the wave numbers of the library spectra.
+   *
+   * @return		the wave numbers, null if not built
+   */
+  public float[] getWaveNumbers() {
+    return m_WaveNumbers;
+  }
+
+  /**
+   * Returns the similarity type used for normalizing the amplitudes.
+   *
+   * @return		the type
+   */
+  protected SimilarityType getSimilarityType() {
+    return (m_Measure == Measure.CORRELATION) ? SimilarityType.CORRELATION : SimilarityType.COSINE;
+  }
+
+  /**
+   * Returns the amplitudes of the spectrum.
+   *
+   * @param data	the spectrum
+   * @return		the amplitudes
+   */
+  protected double[] toAmplitudes(Spectrum data) {
+    double[]		result;
+    List<SpectrumPoint>	points;
+    int			i;
+
+    points = data.toList();
+    result = new double[points.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = points.get(i).getAmplitude();
+
+    return result;
+  }
+
+  /**
+   * Returns the wave numbers of the spectrum.
+   *
+   * @param data	the spectrum
+   * @return		the wave numbers
+   */
+  protected float[] toWaveNumbers(Spectrum data) {
+    float[]		result;
+    List<SpectrumPoint>	points;
+    int			i;
+
+    points = data.toList();
+    result = new float[points.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = points.get(i).getWaveNumber();
+
+    return result;
+  }
+
+  /**
+   * Normalizes the amplitudes of the spectrum.
+   *
+   * @param data	the spectrum
+   * @return		the normalized amplitudes, null if they cannot be normalized
+   */
+  protected double[] normalize(Spectrum data) {
+    double[]	result;
+
+    result = PairwiseSimilarity.normalize(toAmplitudes(data), getSimilarityType());
+    if ((result.length == 0) || Double.isNaN(result[0]))
+      return null;
+
+    return result;
+  }
+
+  /**
+   * Returns the angular distance between the two normalized vectors.
+   *
+   * @param x1		the first vector
+   * @param x2		the second vector
+   * @return		the distance in radians
+   */
+  protected static double distance(double[] x1, double[] x2) {
+    double	dot;
+
+    dot = PairwiseSimilarity.dot(x1, x2);
+    if (dot > 1.0)
+      dot = 1.0;
+    else if (dot < -1.0)
+      dot = -1.0;
+
+    return Math.acos(dot);
+  }
+
+  /**
+   * Turns the angular distance into the value of the measure.
+   *
+   * @param distance	the distance in radians
+   * @return		the value
+   */
+  protected double toValue(double distance) {
+    if (m_Measure == Measure.SPECTRAL_ANGLE)
+      return distance;
+    else
+      return Math.cos(distance);
+  }
+
+  /**
+   * Builds the index from the spectra.
+   *
+   * @param data	the spectra to index
+   */
+  public void build(Spectrum[] data) {
+    build(Arrays.asList(data).iterator());
+  }
+
+  /**
+   * Builds the index from the spectra.
+   *
+   * @param data	the spectra to index
+   */
+  public void build(List<Spectrum> data) {
+    build(data.iterator());
+  }
+
+  /**
+   * Builds the index from the spectra provided by the iterator, e.g.,
+   * a {@link adams.db.SpectrumIterator}. Only the normalized amplitudes and
+   * the IDs of the spectra are kept.
+   *
+   * @param iter	the spectra to index
+   */
+  public void build(Iterator<Spectrum> iter) {
+    List<double[]>	vectors;
+    List<String>	ids;
+    List<Integer>	indices;
+    Spectrum		sp;
+    double[]		vector;
+    int			index;
+    int			i;
+
+    if (m_LeafSize < 1)
+      throw new IllegalStateException("Leaf size must be at least 1, provided: " + m_LeafSize);
+
+    m_Root        = null;
+    m_WaveNumbers = null;
+    m_NumSkipped  = 0;
+    vectors       = new ArrayList<>();
+    ids           = new ArrayList<>();
+    indices       = new ArrayList<>();
+    index         = 0;
+    while (iter.hasNext()) {
+      sp = iter.next();
+      if (m_WaveNumbers == null)
+	m_WaveNumbers = toWaveNumbers(sp);
+      else if (sp.size() != m_WaveNumbers.length)
+	throw new IllegalStateException(
+	  "Spectrum #" + (index+1) + " (" + sp + ") has different number of points: "
+	    + sp.size() + " != " + m_WaveNumbers.length);
+      vector = normalize(sp);
+      if (vector == null) {
+	m_NumSkipped++;
+      }
+      else {
+	vectors.add(vector);
+	ids.add(sp.getID());
+	indices.add(index);
+      }
+      index++;
+    }
+
+    if (vectors.isEmpty())
+      throw new IllegalStateException("No spectra to index provided!");
+
+    m_Vectors = vectors.toArray(new double[0][]);
+    m_IDs     = ids.toArray(new String[0]);
+    m_Indices = new int[indices.size()];
+    m_Order   = new int[indices.size()];
+    for (i = 0; i < m_Indices.length; i++) {
+      m_Indices[i] = indices.get(i);
+      m_Order[i]   = i;
+    }
+
+    m_Root = build(0, m_Order.length, new Random(m_Seed));
+  }
+
+  /**
+   * Builds the (sub)tree for the range of ordered rows.
+   *
+   * @param start	the start of the range (incl)
+   * @param end		the end of the range (excl)
+   * @param random	for picking the vantage points
+   * @return		the node
+   */
+  protected Node build(int start, int end, Random random) {
+    Node		result;
+    final double[]	dists;
+    final double[]	vantage;
+    double[]		sorted;
+    double		dtmp;
+    int			pick;
+    int			tmp;
+    int			left;
+    int			i;
+
+    result = new Node();
+    if (end - start <= m_LeafSize) {
+      result.start = start;
+      result.end   = end;
+      return result;
+    }
+
+    // vantage point
+    pick           = start + random.nextInt(end - start);
+    tmp            = m_Order[start];
+    m_Order[start] = m_Order[pick];
+    m_Order[pick]  = tmp;
+    vantage        = m_Vectors[m_Order[start]];
+
+    // distances of remaining rows
+    dists = new double[end - start - 1];
+    if (dists.length >= MIN_PARALLEL)
+      SpectrumMatrixHelper.parallel(m_NumThreads, dists.length, (n) -> dists[n] = distance(vantage, m_Vectors[m_Order[start + 1 + n]]));
+    else
+      for (i = 0; i < dists.length; i++)
+	dists[i] = distance(vantage, m_Vectors[m_Order[start + 1 + i]]);
+    sorted = dists.clone();
+    Arrays.sort(sorted);
+    result.radius = sorted[sorted.length / 2];
+
+    // partition: closer than radius to the left
+    left = 0;
+    for (i = 0; i < dists.length; i++) {
+      if (dists[i] < result.radius) {
+	tmp                        = m_Order[start + 1 + left];
+	m_Order[start + 1 + left]  = m_Order[start + 1 + i];
+	m_Order[start + 1 + i]     = tmp;
+	dtmp                       = dists[left];
+	dists[left]                = dists[i];
+	dists[i]                   = dtmp;
+	left++;
+      }
+    }
+
+    // all rows at the same distance, cannot split
+    if (left == 0) {
+      result.start = start;
+      result.end   = end;
+      return result;
+    }
+
+    result.vantage = m_Order[start];
+    result.inner   = build(start + 1, start + 1 + left, random);
+    result.outer   = build(start + 1 + left, end, random);
+
+    return result;
+  }
+
+  /**
+   * Adds the row to the candidates if closer than the current k-th neighbour.
+   *
+   * @param queue	the candidates, farthest first
+   * @param k		the number of neighbours
+   * @param row		the row
+   * @param dist	the distance of the row
+   */
+  protected void offer(PriorityQueue<double[]> queue, int k, int row, double dist) {
+    if (queue.size() < k) {
+      queue.add(new double[]{dist, row});
+    }
+    else if (dist < queue.peek()[0]) {
+      queue.poll();
+      queue.add(new double[]{dist, row});
+    }
+  }
+
+  /**
+   * Returns the distance of the current k-th neighbour.
+   *
+   * @param queue	the candidates, farthest first
+   * @param k		the number of neighbours
+   * @return		the distance, infinity if less than k candidates
+   */
+  protected double tau(PriorityQueue<double[]> queue, int k) {
+    if (queue.size() < k)
+      return Double.POSITIVE_INFINITY;
+    return queue.peek()[0];
+  }
+
+  /**
+   * Searches the (sub)tree for the neighbours of the query.
+   *
+   * @param node	the node to search
+   * @param query	the normalized query
+   * @param k		the number of neighbours
+   * @param queue	the candidates, farthest first
+   */
+  protected void search(Node node, double[] query, int k, PriorityQueue<double[]> queue) {
+    double	dist;
+    int		i;
+
+    if (node == null)
+      return;
+
+    if (node.vantage == -1) {
+      for (i = node.start; i < node.end; i++)
+	offer(queue, k, m_Order[i], distance(query, m_Vectors[m_Order[i]]));
+      return;
+    }
+
+    dist = distance(query, m_Vectors[node.vantage]);
+    offer(queue, k, node.vantage, dist);
+    if (dist < node.radius) {
+      search(node.inner, query, k, queue);
+      if (dist + tau(queue, k) + EPSILON >= node.radius)
+	search(node.outer, query, k, queue);
+    }
+    else {
+      search(node.outer, query, k, queue);
+      if (dist - tau(queue, k) - EPSILON < node.radius)
+	search(node.inner, query, k, queue);
+    }
+  }
+
+  /**
+   * Returns the k nearest neighbours of the spectrum, closest first.
+   *
+   * @param query	the spectrum to search for
+   * @param k		the number of neighbours
+   * @return		the neighbours
+   */
+  public List<SearchResult> search(Spectrum query, int k) {
+    List<SearchResult>		result;
+    PriorityQueue<double[]>	queue;
+    double[]			vector;
+    double[][]			sorted;
+    int				row;
+    int				i;
+
+    if (!isBuilt())
+      throw new IllegalStateException("Index not built yet!");
+    if (k < 1)
+      throw new IllegalArgumentException("Number of neighbours must be at least 1, provided: " + k);
+    if (query.size() != m_WaveNumbers.length)
+      throw new IllegalArgumentException(
+	"Spectrum " + query + " has different number of points than library: "
+	  + query.size() + " != " + m_WaveNumbers.length);
+
+    vector = normalize(query);
+    if (vector == null)
+      throw new IllegalArgumentException("Spectrum " + query + " cannot be normalized for " + m_Measure + "!");
+
+    queue = new PriorityQueue<>((a, b) -> Double.compare(b[0], a[0]));
+    search(m_Root, vector, k, queue);
+
+    sorted = queue.toArray(new double[0][]);
+    Arrays.sort(sorted, (a, b) -> Double.compare(a[0], b[0]));
+    result = new ArrayList<>();
+    for (i = 0; i < sorted.length; i++) {
+      row = (int) sorted[i][1];
+      result.add(new SearchResult(m_Indices[row], m_IDs[row], toValue(sorted[i][0])));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the k nearest neighbours for each of the spectra, closest first.
+   * The queries get distributed across threads.
+   *
+   * @param queries	the spectra to search for
+   * @param k		the number of neighbours
+   * @return		the neighbours per query
+   */
+  public List<SearchResult>[] search(Spectrum[] queries, int k) {
+    return search(queries, k, m_NumThreads);
+  }
+
+  /**
+   * Returns the k nearest neighbours for each of the spectra, closest first.
+   * The queries get distributed across the specified number of threads.
+   *
+   * @param queries	the spectra to search for
+   * @param k		the number of neighbours
+   * @param numThreads	the number of threads, see Performance.determineNumThreads(int)
+   * @return		the neighbours per query
+   */
+  public List<SearchResult>[] search(final Spectrum[] queries, final int k, int numThreads) {
+    final List<SearchResult>[]	result;
+
+    result = new List[queries.length];
+    SpectrumMatrixHelper.parallel(numThreads, queries.length, (i) -> result[i] = search(queries[i], k));
+
+    return result;
+  }
+
+  /**
+   * Writes the index to the specified file.
+   *
+   * @param file	the file to write to
+   * @throws Exception	if writing fails
+   */
+  public void write(File file) throws Exception {
+    try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file.getAbsoluteFile())))) {
+      oos.writeObject(this);
+    }
+  }
+
+  /**
+   * Reads an index from the specified file.
+   *
+   * @param file	the file to read from
+   * @return		the index
+   * @throws Exception	if reading fails or file does not contain an index
+   */
+  public static SpectralSearchIndex read(File file) throws Exception {
+    Object	obj;
+
+    try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file.getAbsoluteFile())))) {
+      obj = ois.readObject();
+    }
+    if (!(obj instanceof SpectralSearchIndex))
+      throw new IllegalStateException("File does not contain a " + SpectralSearchIndex.class.getName() + ": " + file);
+
+    return (SpectralSearchIndex) obj;
+  }
+}
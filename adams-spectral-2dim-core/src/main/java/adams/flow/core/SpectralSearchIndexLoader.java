@@ -0,0 +1,78 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectralSearchIndexLoader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.core;
+
+import adams.core.MessageCollection;
+import adams.core.Utils;
+import adams.core.logging.LoggingHelper;
+import adams.data.spectrumsearch.SpectralSearchIndex;
+import adams.flow.container.AbstractContainer;
+
+/**
+ * Model loader for {@link SpectralSearchIndex} objects.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectralSearchIndexLoader
+  extends AbstractModelLoader<SpectralSearchIndex> {
+
+  private static final long serialVersionUID = 3378165409192841620L;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return "Manages " + Utils.classToString(SpectralSearchIndex.class) + " objects.";
+  }
+
+  /**
+   * Deserializes the model file.
+   *
+   * @param errors	for collecting errors
+   * @return		the object read from the file, null if failed
+   */
+  @Override
+  protected Object deserializeFile(MessageCollection errors) {
+    try {
+      return SpectralSearchIndex.read(m_ModelFile);
+    }
+    catch (Exception e) {
+      errors.add("Failed to read search index from: " + m_ModelFile + "\n" + LoggingHelper.throwableToString(e));
+      return null;
+    }
+  }
+
+  /**
+   * Retrieves the model from the container.
+   *
+   * @param cont	the container to get the model from
+   * @param errors	for collecting errors
+   * @return		the model, null if not in container
+   */
+  @Override
+  protected SpectralSearchIndex getModelFromContainer(AbstractContainer cont, MessageCollection errors) {
+    unhandledContainer(cont, errors);
+    return null;
+  }
+}
@@ -30,6 +30,7 @@ import adams.core.logging.LoggingLevel;
 import adams.core.option.OptionUtils;
 import adams.data.InPlaceProcessing;
 import adams.data.evaluator.instance.AbstractEvaluator;
+import adams.data.evaluator.instance.BatchEvaluator;
 import adams.data.evaluator.instance.NullEvaluator;
 import adams.data.instance.WekaInstanceContainer;
 import adams.data.report.Report;
@@ -47,14 +48,20 @@ import adams.multiprocess.JobRunnerSupporter;
 import weka.core.Instance;
 import weka.core.Instances;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
  <!-- globalinfo-start -->
  * If input is Instances, build this Evaluator. If Instance, use the built Evaluator.<br>
- * The name of this evaluator is used for storing the evaluation result.
+ * The name of this evaluator is used for storing the evaluation result.<br>
+ * In batch evaluation mode, Instances get evaluated with the built Evaluator instead, outputting one container per instance. Evaluators that support batch evaluation (adams.data.evaluator.instance.BatchEvaluator) process all instances at once.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -176,6 +183,12 @@ import java.util.Map;
  * &nbsp;&nbsp;&nbsp;default: false
  * </pre>
  *
+ * <pre>-batch-evaluation &lt;boolean&gt; (property: batchEvaluation)
+ * &nbsp;&nbsp;&nbsp;If enabled, Instances get evaluated with the built evaluator rather than
+ * &nbsp;&nbsp;&nbsp;used for building it, outputting one container per instance.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author  dale (dale at waikato dot ac dot nz)
@@ -314,6 +327,12 @@ public class Evaluator
   /** the JobRunnerInstance to use. */
   protected transient JobRunnerInstance m_JobRunnerInstance;
 
+  /** whether to evaluate Instances rather than build the evaluator. */
+  protected boolean m_BatchEvaluation;
+
+  /** the containers generated in batch evaluation mode. */
+  protected Deque<EvaluationContainer> m_Queue;
+
   /**
    * Returns a string describing the object.
    *
@@ -324,7 +343,11 @@ public class Evaluator
     return
       "If input is Instances, build this Evaluator. If Instance, use the "
 	+ "built Evaluator.\n"
-	+ "The name of this evaluator is used for storing the evaluation result.";
+	+ "The name of this evaluator is used for storing the evaluation result.\n"
+	+ "In batch evaluation mode, Instances get evaluated with the built "
+	+ "Evaluator instead, outputting one container per instance. Evaluators "
+	+ "that support batch evaluation (" + Utils.classToString(BatchEvaluator.class) + ") "
+	+ "process all instances at once.";
   }
 
   /**
@@ -381,6 +404,10 @@ public class Evaluator
     m_OptionManager.add(
       "prefer-jobrunner", "preferJobRunner",
       false);
+
+    m_OptionManager.add(
+      "batch-evaluation", "batchEvaluation",
+      false);
   }
 
   /**
@@ -392,6 +419,7 @@ public class Evaluator
 
     m_ModelLoader = new EvaluatorModelLoader();
     m_ModelLoader.setFlowContext(this);
+    m_Queue       = new ArrayDeque<>();
   }
 
   /**
@@ -764,6 +792,39 @@ public class Evaluator
     return "If enabled, tries to offload the processing onto a " + Utils.classToString(JobRunnerInstance.class) + "; applies only to training.";
   }
 
+  /**
+   * Sets whether to evaluate Instances rather than use them for building
+   * the evaluator.
+   *
+   * @param value	true if to evaluate
+   */
+  public void setBatchEvaluation(boolean value) {
+    m_BatchEvaluation = value;
+    reset();
+  }
+
+  /**
+   * Returns whether to evaluate Instances rather than use them for building
+   * the evaluator.
+   *
+   * @return		true if to evaluate
+   */
+  public boolean getBatchEvaluation() {
+    return m_BatchEvaluation;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchEvaluationTipText() {
+    return
+      "If enabled, Instances get evaluated with the built evaluator rather "
+	+ "than used for building it, outputting one container per instance.";
+  }
+
   /**
    * Returns a quick info about the actor, which will be displayed in the GUI.
    *
@@ -779,6 +840,7 @@ public class Evaluator
     result += QuickInfoHelper.toString(this, "noCopy", (m_NoCopy ? "no copy" : "copy"), ", ");
     result += QuickInfoHelper.toString(this, "cleanAfterBuild", (m_CleanAfterBuild ? "clean" : "keep"), ", ");
     result += QuickInfoHelper.toString(this, "preferJobRunner", m_PreferJobRunner, ", jobrunner");
+    result += QuickInfoHelper.toString(this, "batchEvaluation", m_BatchEvaluation, ", batch");
 
     return result;
   }
@@ -834,6 +896,7 @@ public class Evaluator
 
     m_ActualEvaluator = null;
     m_ModelLoader.reset();
+    m_Queue.clear();
   }
 
   /**
@@ -912,6 +975,81 @@ public class Evaluator
       m_ResetEvaluator = true;
   }
 
+  /**
+   * Generates the output container.
+   *
+   * @param cont	the input container, can be null
+   * @param noCopy	whether to update the input container rather than a copy
+   * @param data	the dataset, can be null
+   * @param inst	the instance, can be null
+   * @param evals	the evaluations so far
+   * @param eval	the evaluations to add, can be null
+   * @param report	the report, can be null
+   * @return		the container
+   */
+  protected EvaluationContainer createContainer(EvaluationContainer cont, boolean noCopy, Instances data, Instance inst, Map<String,Object> evals, HashMap<String,Float> eval, Report report) {
+    EvaluationContainer		result;
+
+    if (cont != null) {
+      if (noCopy)
+	result = cont;
+      else
+	result = (EvaluationContainer) cont.getClone();
+    }
+    else {
+      result = new EvaluationContainer();
+    }
+    result.setValue(EvaluationContainer.VALUE_EVALUATOR, m_ActualEvaluator);
+    if (data != null)
+      result.setValue(EvaluationContainer.VALUE_INSTANCES, data);
+    if (inst != null)
+      result.setValue(EvaluationContainer.VALUE_INSTANCE, inst);
+    if (eval != null) {
+      if (eval.size() == 1) {
+	evals.put(getName(), eval.get(AbstractEvaluator.DEFAULT_METRIC));
+      }
+      else {
+	for (String name : eval.keySet())
+	  evals.put(getName() + "." + name, eval.get(name));
+      }
+    }
+    result.setValue(EvaluationContainer.VALUE_EVALUATIONS, evals);
+    if (report != null)
+      result.setValue(EvaluationContainer.VALUE_REPORT, report.getClone());
+    if (!m_Component.isEmpty())
+      result.setValue(EvaluationContainer.VALUE_COMPONENT, m_Component);
+    if (!m_Version.isEmpty())
+      result.setValue(EvaluationContainer.VALUE_VERSION, m_Version);
+
+    return result;
+  }
+
+  /**
+   * Creates a (shallow) copy of the container without the dataset, for the
+   * per-instance containers generated in batch evaluation mode.
+   *
+   * @param cont	the container to copy, can be null
+   * @return		the copy, null if no container provided
+   */
+  protected EvaluationContainer copyWithoutInstances(EvaluationContainer cont) {
+    EvaluationContainer	result;
+    Iterator<String>	names;
+    String		name;
+
+    if (cont == null)
+      return null;
+
+    result = new EvaluationContainer();
+    names  = cont.names();
+    while (names.hasNext()) {
+      name = names.next();
+      if (!name.equals(EvaluationContainer.VALUE_INSTANCES) && cont.hasValue(name))
+	result.setValue(name, cont.getValue(name));
+    }
+
+    return result;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -924,10 +1062,11 @@ public class Evaluator
     Instance			inst;
     Report			report;
     EvaluationContainer		cont;
-    EvaluationContainer		newCont;
     Map<String,Object> 		evals;
     HashMap<String,Float>       eval;
-    EvaluateJob job;
+    List<HashMap<String,Float>>	batch;
+    EvaluateJob 		job;
+    int				i;
 
     result = null;
 
@@ -948,7 +1087,8 @@ public class Evaluator
 	    data = cont.getValue(EvaluationContainer.VALUE_INSTANCES, Instances.class);
 	  else if (cont.hasValue(EvaluationContainer.VALUE_INSTANCE))
 	    inst = cont.getValue(EvaluationContainer.VALUE_INSTANCE, Instance.class);
-	  evals = (Map<String, Object>) cont.getValue(EvaluationContainer.VALUE_EVALUATIONS);
+	  if (cont.hasValue(EvaluationContainer.VALUE_EVALUATIONS))
+	    evals = (Map<String, Object>) cont.getValue(EvaluationContainer.VALUE_EVALUATIONS);
 	  if (cont.hasValue(EvaluationContainer.VALUE_REPORT))
 	    report = cont.getValue(EvaluationContainer.VALUE_REPORT, Report.class);
 	}
@@ -969,8 +1109,19 @@ public class Evaluator
 
 	// process data
 	synchronized(m_ActualEvaluator) {
-	  eval = null;
-	  if (data != null) {
+	  eval  = null;
+	  batch = null;
+	  if ((data != null) && m_BatchEvaluation) {
+	    if (m_ActualEvaluator instanceof BatchEvaluator) {
+	      batch = ((BatchEvaluator) m_ActualEvaluator).evaluateBatch(data);
+	    }
+	    else {
+	      batch = new ArrayList<>();
+	      for (i = 0; i < data.numInstances(); i++)
+		batch.add(m_ActualEvaluator.evaluate(data.instance(i)));
+	    }
+	  }
+	  else if (data != null) {
 	    if (m_JobRunnerInstance != null) {
 	      job    = new EvaluateJob(m_ActualEvaluator, data);
 	      result = m_JobRunnerInstance.executeJob(job);
@@ -988,40 +1139,17 @@ public class Evaluator
 	}
 
 	// generate output
-	if (cont != null) {
-	  if (m_NoCopy)
-	    newCont = cont;
-	  else
-	    newCont = (EvaluationContainer) cont.getClone();
+	if (batch != null) {
+	  for (i = 0; i < batch.size(); i++)
+	    m_Queue.add(createContainer(copyWithoutInstances(cont), true, null, data.instance(i), new HashMap<>(evals), batch.get(i), report));
 	}
 	else {
-	  newCont = new EvaluationContainer();
-	}
-	newCont.setValue(EvaluationContainer.VALUE_EVALUATOR, m_ActualEvaluator);
-	if (data != null)
-	  newCont.setValue(EvaluationContainer.VALUE_INSTANCES, data);
-	if (inst != null)
-	  newCont.setValue(EvaluationContainer.VALUE_INSTANCE, inst);
-	if (eval != null) {
-	  if (eval.size() == 1) {
-	    evals.put(getName(), eval.get(AbstractEvaluator.DEFAULT_METRIC));
-	  }
-	  else {
-	    for (String name : eval.keySet())
-	      evals.put(getName() + "." + name, eval.get(name));
-	  }
+	  m_OutputToken = new Token(createContainer(cont, m_NoCopy, data, inst, evals, eval, report));
 	}
-	newCont.setValue(EvaluationContainer.VALUE_EVALUATIONS, evals);
-	if (report != null)
-	  newCont.setValue(EvaluationContainer.VALUE_REPORT, report.getClone());
-	if (!m_Component.isEmpty())
-	  newCont.setValue(EvaluationContainer.VALUE_COMPONENT, m_Component);
-	if (!m_Version.isEmpty())
-	  newCont.setValue(EvaluationContainer.VALUE_VERSION, m_Version);
-	m_OutputToken = new Token(newCont);
       }
       catch (Exception e) {
 	m_OutputToken = null;
+	m_Queue.clear();
 	result = handleException("Failed to evaluate:\n" + m_Evaluator.toString(m_InputToken.getPayload()), e);
       }
     }
@@ -1036,6 +1164,29 @@ public class Evaluator
     return result;
   }
 
+  /**
+   * Checks whether there is pending output to be collected after
+   * executing the flow item.
+   *
+   * @return		true if there is pending output
+   */
+  @Override
+  public boolean hasPendingOutput() {
+    return !m_Queue.isEmpty() || super.hasPendingOutput();
+  }
+
+  /**
+   * Returns the generated token.
+   *
+   * @return		the generated token
+   */
+  @Override
+  public Token output() {
+    if (!m_Queue.isEmpty())
+      return new Token(m_Queue.poll());
+    return super.output();
+  }
+
   /**
    * Stops the execution. No message set.
    */
@@ -26,17 +26,26 @@ import adams.core.TechnicalInformationHandler;
 import adams.core.base.BaseString;
 import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumPoint;
-import adams.data.statistics.SpectralAngleMapperUtils;
+import adams.data.spectrummatrix.PairwiseSimilarity;
+import adams.data.spectrummatrix.PairwiseSimilarity.SimilarityType;
+import adams.data.spreadsheet.DataRow;
+import adams.data.spreadsheet.DefaultSpreadSheet;
+import adams.data.spreadsheet.HeaderRow;
+import adams.data.spreadsheet.SpreadSheet;
 import adams.flow.control.Storage;
 import adams.flow.control.StorageName;
 import adams.flow.control.StorageUser;
 import adams.flow.core.Token;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
  <!-- globalinfo-start -->
  * Performs Spectral Angle Mapping on a set of spectra. Each spectrum is treated as a vector in band-space (where each spectral band is considered a basis), and the angle between the input and reference spectra is calculated to determine similarity. Emits an array of angles, one for each reference spectrum provided.<br>
+ * Spectrum arrays get processed as batch, emitting a matrix of angles (one row per input spectrum).<br>
+ * When only the top-k closest references are requested, a spreadsheet with the index, ID and angle of these references is output instead.<br>
+ * The unit-normalized amplitudes of the reference spectra get cached until a different reference array is stored; the array gets compared by identity, i.e., changes to the stored spectra themselves go unnoticed.<br>
  * <br>
  * For more information see:<br>
  * <br>
@@ -109,7 +118,9 @@ import java.util.Iterator;
  * </pre>
  *
  * <pre>-references &lt;adams.flow.control.StorageName&gt; (property: references)
- * &nbsp;&nbsp;&nbsp;The name of the storage location where the reference spectra are stored.
+ * &nbsp;&nbsp;&nbsp;The name of the storage location where the reference spectra are stored;
+ * &nbsp;&nbsp;&nbsp;the references get cached as long as the same array is stored, so store
+ * &nbsp;&nbsp;&nbsp;a new array rather than modifying the spectra in place.
  * &nbsp;&nbsp;&nbsp;default: storage
  * </pre>
  *
@@ -129,6 +140,14 @@ import java.util.Iterator;
  * &nbsp;&nbsp;&nbsp;default: false
  * </pre>
  *
+ * <pre>-top-k &lt;int&gt; (property: topK)
+ * &nbsp;&nbsp;&nbsp;The number of closest references to output (as spreadsheet with index,
+ * &nbsp;&nbsp;&nbsp;ID and angle of the references, sorted by angle); -1 to output the angles
+ * &nbsp;&nbsp;&nbsp;for all references.
+ * &nbsp;&nbsp;&nbsp;default: -1
+ * &nbsp;&nbsp;&nbsp;minimum: -1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author Corey Sterling (csterlin at waikato dot ac dot nz)
@@ -152,6 +171,18 @@ public class SpectralAngleMapper
   /** Whether to use the modified algorithm described in Oshigami et al. */
   protected boolean m_UseModifiedAlgorithm;
 
+  /** The number of closest references to output (-1 for all). */
+  protected int m_TopK;
+
+  /** The reference spectra that the cached data was generated from. */
+  protected transient Spectrum[] m_CachedReferences;
+
+  /** The cached unit-normalized amplitudes of the reference spectra. */
+  protected transient double[][] m_ReferenceMatrix;
+
+  /** The wave numbers shared by all reference spectra, null if they differ. */
+  protected transient float[] m_ReferenceWaveNumbers;
+
   /**
    * Returns a string describing the object.
    *
@@ -163,7 +194,14 @@ public class SpectralAngleMapper
       "is treated as a vector in band-space (where each spectral band is considered a " +
       "basis), and the angle between the input and reference spectra is calculated to " +
       "determine similarity. Emits an array of angles, one for each reference spectrum " +
-      "provided.\n\n"
+      "provided.\n" +
+      "Spectrum arrays get processed as batch, emitting a matrix of angles (one row " +
+      "per input spectrum).\n" +
+      "When only the top-k closest references are requested, a spreadsheet with the " +
+      "index, ID and angle of these references is output instead.\n" +
+      "The unit-normalized amplitudes of the reference spectra get cached until a " +
+      "different reference array is stored; the array gets compared by identity, i.e., " +
+      "changes to the stored spectra themselves go unnoticed.\n\n"
       + "For more information see:\n\n"
       + getTechnicalInformation().toString();
   }
@@ -183,6 +221,20 @@ public class SpectralAngleMapper
       "checkWaveNumberAlignment", true);
 
     m_OptionManager.add("modified", "modified", false);
+
+    m_OptionManager.add("top-k", "topK", -1, -1, null);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_CachedReferences     = null;
+    m_ReferenceMatrix      = null;
+    m_ReferenceWaveNumbers = null;
   }
 
   /**
@@ -210,7 +262,9 @@ public class SpectralAngleMapper
    * @return  The tip-text as a string.
    */
   public String referencesTipText() {
-    return "The name of the storage location where the reference spectra are stored.";
+    return "The name of the storage location where the reference spectra are stored; "
+      + "the references get cached as long as the same array is stored, so store a new "
+      + "array rather than modifying the spectra in place.";
   }
 
   /**
@@ -298,6 +352,38 @@ public class SpectralAngleMapper
     return "Whether to use the modified algorithm described in Oshigami et al.";
   }
 
+  /**
+   * Gets the number of closest references to output.
+   *
+   * @return The number of references, -1 for all.
+   */
+  public int getTopK() {
+    return m_TopK;
+  }
+
+  /**
+   * Sets the number of closest references to output.
+   *
+   * @param value The number of references, -1 for all.
+   */
+  public void setTopK(int value) {
+    if (getOptionManager().isValid("topK", value)) {
+      m_TopK = value;
+      reset();
+    }
+  }
+
+  /**
+   * Gets the tip-text for the topK option.
+   *
+   * @return  The tip-text as a string.
+   */
+  public String topKTipText() {
+    return "The number of closest references to output (as spreadsheet with index, ID " +
+      "and angle of the references, sorted by angle); -1 to output the angles for all " +
+      "references.";
+  }
+
   /**
    * Returns a quick info about the actor, which will be displayed in the GUI.
    * <br><br>
@@ -313,6 +399,8 @@ public class SpectralAngleMapper
 
     if (m_UseModifiedAlgorithm) info += QuickInfoHelper.toString(this, "modified", m_UseModifiedAlgorithm, "modified", ", ");
 
+    if (m_TopK > 0) info += QuickInfoHelper.toString(this, "topK", m_TopK, ", top-k: ");
+
     return info;
   }
 
@@ -329,16 +417,21 @@ public class SpectralAngleMapper
   }
 
   /**
-   * Gets the input spectrum from the input token.
+   * Gets the input spectra from the input token.
    *
-   * @return The input spectrum.
+   * @return The input spectra.
    */
-  protected Spectrum getInput() {
-    // Get the input spectrum from the input token
-    Spectrum input = (Spectrum) m_InputToken.getPayload();
+  protected Spectrum[] getInput() {
+    // Get the input spectra from the input token
+    Spectrum[] input;
+    if (m_InputToken.getPayload() instanceof Spectrum[])
+      input = (Spectrum[]) m_InputToken.getPayload();
+    else
+      input = new Spectrum[]{(Spectrum) m_InputToken.getPayload()};
 
     // Check the input for validity
-    checkInput(input);
+    for (Spectrum spectrum : input)
+      checkInput(spectrum);
 
     return input;
   }
@@ -421,6 +514,35 @@ public class SpectralAngleMapper
     }
   }
 
+  /**
+   * Converts the references into the matrix of unit-normalized amplitudes and
+   * determines whether they share the same wave numbers. Only gets performed
+   * if the reference array differs from the one cached (compared by identity).
+   *
+   * @param references  The reference spectra.
+   */
+  protected void updateCache(Spectrum[] references) {
+    if (references == m_CachedReferences)
+      return;
+
+    if (isLoggingEnabled())
+      getLogger().info("Caching " + references.length + " reference spectra");
+
+    m_ReferenceMatrix = new double[references.length][];
+    for (int i = 0; i < references.length; i++)
+      m_ReferenceMatrix[i] = PairwiseSimilarity.normalize(toDoubleArray(references[i]), SimilarityType.COSINE);
+
+    m_ReferenceWaveNumbers = toWaveNumbers(references[0]);
+    for (int i = 1; i < references.length; i++) {
+      if (!Arrays.equals(m_ReferenceWaveNumbers, toWaveNumbers(references[i]))) {
+        m_ReferenceWaveNumbers = null;
+        break;
+      }
+    }
+
+    m_CachedReferences = references;
+  }
+
   /**
    * Checks that the input and the references are able to be angle-mapped.
    *
@@ -428,6 +550,13 @@ public class SpectralAngleMapper
    * @param references  The reference spectra.
    */
   protected void checkInputVersusReferences(Spectrum input, Spectrum[] references) {
+    // All references share the same wave-numbers (and size), only need to check the input against these
+    if ((m_ReferenceWaveNumbers != null) && (m_ReferenceWaveNumbers.length == input.size())) {
+      if (m_CheckWaveNumberAlignment && !Arrays.equals(m_ReferenceWaveNumbers, toWaveNumbers(input)))
+        checkWaveNumberAlignment(input, references);  // generates the detailed error message
+      return;
+    }
+
     // Check all spectra are the same size
     for (Spectrum reference : references) {
       if (reference.size() != input.size())
@@ -476,24 +605,65 @@ public class SpectralAngleMapper
 
   /**
    * Performs the calculation of spectral angles between the input spectrum and
-   * each reference spectrum.
+   * each reference spectrum. The references must have been cached already
+   * with {@link #updateCache(Spectrum[])}.
    *
    * @param input The input spectrum.
    * @param references  The reference spectra.
    * @return  An array of angles, one for each reference spectrum.
    */
   protected double[] calculateSpectralAngles(Spectrum input, Spectrum[] references) {
-    // Convert the input into a double array
-    double[] inputArray = toDoubleArray(input);
+    // Convert the input into a unit-normalized double array
+    double[] inputArray = PairwiseSimilarity.normalize(toDoubleArray(input), SimilarityType.COSINE);
+
+    // The cosine of the angle is the dot product of the unit vectors
+    double[] result = new double[m_ReferenceMatrix.length];
+    for (int i = 0; i < result.length; i++) {
+      double cos = PairwiseSimilarity.dot(inputArray, m_ReferenceMatrix[i]);
+      result[i] = Math.acos(Math.max(-1.0, Math.min(1.0, cos)));
+      if (m_UseModifiedAlgorithm)
+        result[i] = 1.0 - 2.0 * result[i] / Math.PI;
+    }
 
-    // Convert the references into a double array
-    double[][] referenceArrays = new double[references.length][];
-    for (int i = 0; i < references.length; i++) {
-      referenceArrays[i] = toDoubleArray(references[i]);
+    return result;
+  }
+
+  /**
+   * Determines the indices of the k references with the smallest angles.
+   *
+   * @param angles  The angles of all references.
+   * @param k The number of references to return.
+   * @return  The indices, sorted by angle.
+   */
+  protected int[] topK(double[] angles, int k) {
+    Integer[] indices = new Integer[angles.length];
+    for (int i = 0; i < indices.length; i++)
+      indices[i] = i;
+    Arrays.sort(indices, (a, b) -> Double.compare(angles[a], angles[b]));
+
+    int[] result = new int[Math.min(k, indices.length)];
+    for (int i = 0; i < result.length; i++)
+      result[i] = indices[i];
+
+    return result;
+  }
+
+  /**
+   * Converts a spectrum into a float array of its wave numbers.
+   *
+   * @param spectrum  The spectrum to convert.
+   * @return  The array of wave numbers.
+   */
+  protected float[] toWaveNumbers(Spectrum spectrum) {
+    float[] result = new float[spectrum.size()];
+
+    int i = 0;
+    for (SpectrumPoint point : spectrum) {
+      result[i] = point.getWaveNumber();
+      i++;
     }
 
-    // Defer to the utility class
-    return SpectralAngleMapperUtils.sam(inputArray, referenceArrays, m_UseModifiedAlgorithm);
+    return result;
   }
 
   /**
@@ -529,6 +699,46 @@ public class SpectralAngleMapper
     m_OutputToken.setPayload(angles);
   }
 
+  /**
+   * Sets the output token to the given angles, one row per input spectrum.
+   *
+   * @param angles The angles to output.
+   */
+  protected void setOutput(double[][] angles) {
+    m_OutputToken = new Token();
+    m_OutputToken.setPayload(angles);
+  }
+
+  /**
+   * Sets the output token to a spreadsheet with the top-k closest references.
+   *
+   * @param input The input spectra.
+   * @param references  The reference spectra.
+   * @param angles The angles to output, one row per input spectrum.
+   */
+  protected void setOutput(Spectrum[] input, Spectrum[] references, double[][] angles) {
+    SpreadSheet sheet = new DefaultSpreadSheet();
+    HeaderRow header = sheet.getHeaderRow();
+    header.addCell("I").setContentAsString("Input");
+    header.addCell("R").setContentAsString("Rank");
+    header.addCell("X").setContentAsString("Index");
+    header.addCell("D").setContentAsString("ID");
+    header.addCell("A").setContentAsString("Angle");
+    for (int i = 0; i < input.length; i++) {
+      int[] indices = topK(angles[i], m_TopK);
+      for (int n = 0; n < indices.length; n++) {
+        DataRow row = sheet.addRow();
+        row.addCell("I").setContentAsString(input[i].getID());
+        row.addCell("R").setContent(n + 1);
+        row.addCell("X").setContent(indices[n] + 1);
+        row.addCell("D").setContentAsString(references[indices[n]].getID());
+        row.addCell("A").setContent(angles[i][indices[n]]);
+      }
+    }
+
+    m_OutputToken = new Token(sheet);
+  }
+
   /**
    * Executes the flow item.
    *
@@ -538,17 +748,28 @@ public class SpectralAngleMapper
   protected String doExecute() {
     try {
       // Get the input and references
-      Spectrum input = getInput();
+      Spectrum[] input = getInput();
       Spectrum[] references = getReferences(m_ReferencesStorage, m_Cache.stringValue());
 
-      // Check the input matched the references
-      checkInputVersusReferences(input, references);
+      // Convert the references (only if they changed)
+      updateCache(references);
 
-      // Calculate the spectral angles between input and references
-      double[] angles = calculateSpectralAngles(input, references);
+      double[][] angles = new double[input.length][];
+      for (int i = 0; i < input.length; i++) {
+        // Check the input matched the references
+        checkInputVersusReferences(input[i], references);
+
+        // Calculate the spectral angles between input and references
+        angles[i] = calculateSpectralAngles(input[i], references);
+      }
 
       // Emit the calculated angles
-      setOutput(angles);
+      if (m_TopK > 0)
+        setOutput(input, references, angles);
+      else if (m_InputToken.getPayload() instanceof Spectrum[])
+        setOutput(angles);
+      else
+        setOutput(angles[0]);
 
       return null;
     } catch (Exception e) {
@@ -563,7 +784,7 @@ public class SpectralAngleMapper
    */
   @Override
   public Class[] accepts() {
-    return new Class[] { Spectrum.class };
+    return new Class[] { Spectrum.class, Spectrum[].class };
   }
 
   /**
@@ -573,7 +794,10 @@ public class SpectralAngleMapper
    */
   @Override
   public Class[] generates() {
-    return new Class[] { double[].class };
+    if (m_TopK > 0)
+      return new Class[] { SpreadSheet.class };
+    else
+      return new Class[] { double[].class, double[][].class };
   }
 
   /**
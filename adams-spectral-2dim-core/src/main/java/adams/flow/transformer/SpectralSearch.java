@@ -0,0 +1,608 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectralSearch.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer;
+
+import adams.core.ClassCrossReference;
+import adams.core.MessageCollection;
+import adams.core.Performance;
+import adams.core.QuickInfoHelper;
+import adams.core.io.PlaceholderFile;
+import adams.core.logging.LoggingLevel;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrumsearch.SpectralSearchIndex;
+import adams.data.spectrumsearch.SpectralSearchIndex.SearchResult;
+import adams.data.spreadsheet.DataRow;
+import adams.data.spreadsheet.DefaultSpreadSheet;
+import adams.data.spreadsheet.HeaderRow;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.flow.control.StorageName;
+import adams.flow.core.AbstractModelLoader.ModelLoadingType;
+import adams.flow.core.CallableActorReference;
+import adams.flow.core.ModelLoaderSupporter;
+import adams.flow.core.SpectralSearchIndexLoader;
+import adams.flow.core.Token;
+
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ <!-- globalinfo-start -->
+ * Looks up the k nearest neighbours of the incoming spectra in a spectral library, using a search index generated by adams.flow.transformer.SpectralSearchIndexBuilder.<br>
+ * Outputs a spreadsheet with the index (1-based), ID and value of the measure (cosine similarity, correlation or spectral angle) of the neighbours, closest first.<br>
+ * The index gets loaded only once, until the actor gets reset.<br>
+ * <br>
+ * See also:<br>
+ * adams.flow.transformer.SpectralSearchIndexBuilder<br>
+ * adams.flow.transformer.SpectralAngleMapper
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- flow-summary-start -->
+ * Input&#47;output:<br>
+ * - accepts:<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.spectrum.Spectrum<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.spectrum.Spectrum[]<br>
+ * - generates:<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.spreadsheet.SpreadSheet<br>
+ * <br><br>
+ <!-- flow-summary-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-name &lt;java.lang.String&gt; (property: name)
+ * &nbsp;&nbsp;&nbsp;The name of the actor.
+ * &nbsp;&nbsp;&nbsp;default: SpectralSearch
+ * </pre>
+ *
+ * <pre>-annotation &lt;adams.core.base.BaseAnnotation&gt; (property: annotations)
+ * &nbsp;&nbsp;&nbsp;The annotations to attach to this actor.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-skip &lt;boolean&gt; (property: skip)
+ * &nbsp;&nbsp;&nbsp;If set to true, transformation is skipped and the input token is just forwarded
+ * &nbsp;&nbsp;&nbsp;as it is.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-stop-flow-on-error &lt;boolean&gt; (property: stopFlowOnError)
+ * &nbsp;&nbsp;&nbsp;If set to true, the flow execution at this level gets stopped in case this
+ * &nbsp;&nbsp;&nbsp;actor encounters an error; the error gets propagated; useful for critical
+ * &nbsp;&nbsp;&nbsp;actors.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-silent &lt;boolean&gt; (property: silent)
+ * &nbsp;&nbsp;&nbsp;If enabled, then no errors are output in the console; Note: the enclosing
+ * &nbsp;&nbsp;&nbsp;actor handler must have this enabled as well.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-model-loading-type &lt;AUTO|FILE|SOURCE_ACTOR|STORAGE&gt; (property: modelLoadingType)
+ * &nbsp;&nbsp;&nbsp;Determines how to load the model, in case of AUTO, first the model file
+ * &nbsp;&nbsp;&nbsp;is checked, then the callable actor and then the storage.
+ * &nbsp;&nbsp;&nbsp;default: AUTO
+ * </pre>
+ *
+ * <pre>-model &lt;adams.core.io.PlaceholderFile&gt; (property: modelFile)
+ * &nbsp;&nbsp;&nbsp;The file to load the model from, ignored if pointing to a directory.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ * <pre>-model-actor &lt;adams.flow.core.CallableActorReference&gt; (property: modelActor)
+ * &nbsp;&nbsp;&nbsp;The callable actor (source) to obtain the model from, ignored if not present.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-model-storage &lt;adams.flow.control.StorageName&gt; (property: modelStorage)
+ * &nbsp;&nbsp;&nbsp;The storage item to obtain the model from, ignored if not present.
+ * &nbsp;&nbsp;&nbsp;default: storage
+ * </pre>
+ *
+ * <pre>-num-neighbors &lt;int&gt; (property: numNeighbors)
+ * &nbsp;&nbsp;&nbsp;The number of nearest neighbours to look up.
+ * &nbsp;&nbsp;&nbsp;default: 5
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used); only used for spectrum arrays.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectralSearch
+  extends AbstractTransformer
+  implements ModelLoaderSupporter, ClassCrossReference {
+
+  private static final long serialVersionUID = -6406257146617357510L;
+
+  /** the key for storing the current index in the backup. */
+  public final static String BACKUP_INDEX = "index";
+
+  /** the model loader. */
+  protected SpectralSearchIndexLoader m_ModelLoader;
+
+  /** the number of neighbours to look up. */
+  protected int m_NumNeighbors;
+
+  /** the number of threads to use for spectrum arrays. */
+  protected int m_NumThreads;
+
+  /** the search index in use. */
+  protected SpectralSearchIndex m_Index;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return "Looks up the k nearest neighbours of the incoming spectra in a spectral "
+      + "library, using a search index generated by "
+      + SpectralSearchIndexBuilder.class.getName() + ".\n"
+      + "Outputs a spreadsheet with the index (1-based), ID and value of the "
+      + "measure (cosine similarity, correlation or spectral angle) of the "
+      + "neighbours, closest first.\n"
+      + "The index gets loaded only once, until the actor gets reset.";
+  }
+
+  /**
+   * Returns the cross-referenced classes.
+   *
+   * @return		the classes
+   */
+  public Class[] getClassCrossReferences() {
+    return new Class[]{SpectralSearchIndexBuilder.class, SpectralAngleMapper.class};
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "model-loading-type", "modelLoadingType",
+      ModelLoadingType.AUTO);
+
+    m_OptionManager.add(
+      "model", "modelFile",
+      new PlaceholderFile("."));
+
+    m_OptionManager.add(
+      "model-actor", "modelActor",
+      new CallableActorReference());
+
+    m_OptionManager.add(
+      "model-storage", "modelStorage",
+      new StorageName());
+
+    m_OptionManager.add(
+      "num-neighbors", "numNeighbors",
+      5, 1, null);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1);
+  }
+
+  /**
+   * Initializes the members.
+   */
+  @Override
+  protected void initialize() {
+    super.initialize();
+
+    m_ModelLoader = new SpectralSearchIndexLoader();
+    m_ModelLoader.setFlowContext(this);
+  }
+
+  /**
+   * Sets the logging level.
+   *
+   * @param value 	the level
+   */
+  @Override
+  public synchronized void setLoggingLevel(LoggingLevel value) {
+    super.setLoggingLevel(value);
+    m_ModelLoader.setLoggingLevel(value);
+  }
+
+  /**
+   * Sets the loading type. In case of {@link ModelLoadingType#AUTO}, first
+   * file, then callable actor, then storage.
+   *
+   * @param value	the type
+   */
+  public void setModelLoadingType(ModelLoadingType value) {
+    m_ModelLoader.setModelLoadingType(value);
+    reset();
+  }
+
+  /**
+   * Returns the loading type. In case of {@link ModelLoadingType#AUTO}, first
+   * file, then callable actor, then storage.
+   *
+   * @return		the type
+   */
+  public ModelLoadingType getModelLoadingType() {
+    return m_ModelLoader.getModelLoadingType();
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String modelLoadingTypeTipText() {
+    return m_ModelLoader.modelLoadingTypeTipText();
+  }
+
+  /**
+   * Sets the file to load the index from.
+   *
+   * @param value	the index file
+   */
+  public void setModelFile(PlaceholderFile value) {
+    m_ModelLoader.setModelFile(value);
+    reset();
+  }
+
+  /**
+   * Returns the file to load the index from.
+   *
+   * @return		the index file
+   */
+  public PlaceholderFile getModelFile() {
+    return m_ModelLoader.getModelFile();
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String modelFileTipText() {
+    return m_ModelLoader.modelFileTipText();
+  }
+
+  /**
+   * Sets the index source actor.
+   *
+   * @param value	the source
+   */
+  public void setModelActor(CallableActorReference value) {
+    m_ModelLoader.setModelActor(value);
+    reset();
+  }
+
+  /**
+   * Returns the index source actor.
+   *
+   * @return		the source
+   */
+  public CallableActorReference getModelActor() {
+    return m_ModelLoader.getModelActor();
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String modelActorTipText() {
+    return m_ModelLoader.modelActorTipText();
+  }
+
+  /**
+   * Sets the index storage item.
+   *
+   * @param value	the storage item
+   */
+  public void setModelStorage(StorageName value) {
+    m_ModelLoader.setModelStorage(value);
+    reset();
+  }
+
+  /**
+   * Returns the index storage item.
+   *
+   * @return		the storage item
+   */
+  public StorageName getModelStorage() {
+    return m_ModelLoader.getModelStorage();
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String modelStorageTipText() {
+    return m_ModelLoader.modelStorageTipText();
+  }
+
+  /**
+   * Sets the number of nearest neighbours to look up.
+   *
+   * @param value	the number of neighbours
+   */
+  public void setNumNeighbors(int value) {
+    if (getOptionManager().isValid("numNeighbors", value)) {
+      m_NumNeighbors = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of nearest neighbours to look up.
+   *
+   * @return		the number of neighbours
+   */
+  public int getNumNeighbors() {
+    return m_NumNeighbors;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numNeighborsTipText() {
+    return "The number of nearest neighbours to look up.";
+  }
+
+  /**
+   * Sets the number of threads to use for spectrum arrays.
+   *
+   * @param value	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for spectrum arrays.
+   *
+   * @return		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp() + "; only used for spectrum arrays.";
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String	result;
+
+    result  = m_ModelLoader.getQuickInfo(this);
+    result += QuickInfoHelper.toString(this, "numNeighbors", m_NumNeighbors, ", k: ");
+
+    return result;
+  }
+
+  /**
+   * Removes entries from the backup.
+   */
+  @Override
+  protected void pruneBackup() {
+    super.pruneBackup();
+
+    pruneBackup(BACKUP_INDEX);
+  }
+
+  /**
+   * Backs up the current state of the actor before update the variables.
+   *
+   * @return		the backup
+   */
+  @Override
+  protected Hashtable<String,Object> backupState() {
+    Hashtable<String,Object>	result;
+
+    result = super.backupState();
+
+    if (m_Index != null)
+      result.put(BACKUP_INDEX, m_Index);
+
+    return result;
+  }
+
+  /**
+   * Restores the state of the actor before the variables got updated.
+   *
+   * @param state	the backup of the state to restore from
+   */
+  @Override
+  protected void restoreState(Hashtable<String,Object> state) {
+    if (state.containsKey(BACKUP_INDEX)) {
+      m_Index = (SpectralSearchIndex) state.get(BACKUP_INDEX);
+      state.remove(BACKUP_INDEX);
+    }
+
+    super.restoreState(state);
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_Index = null;
+    m_ModelLoader.reset();
+  }
+
+  /**
+   * Returns the class that the consumer accepts.
+   *
+   * @return		the Class of objects that can be processed
+   */
+  public Class[] accepts() {
+    return new Class[]{Spectrum.class, Spectrum[].class};
+  }
+
+  /**
+   * Returns the class of objects that it generates.
+   *
+   * @return		the Class of the generated tokens
+   */
+  public Class[] generates() {
+    return new Class[]{SpreadSheet.class};
+  }
+
+  /**
+   * Tries to obtain the search index.
+   *
+   * @return		null if everything worked, otherwise an error message
+   */
+  protected String setUpIndex() {
+    String		result;
+    MessageCollection	errors;
+
+    result  = null;
+    errors  = new MessageCollection();
+    m_Index = m_ModelLoader.getModel(errors);
+    if (m_Index == null) {
+      result = "Failed to obtain search index!";
+      if (!errors.isEmpty())
+	result += "\n" + errors;
+    }
+    else if (!m_Index.isBuilt()) {
+      result  = "Search index has not been built!";
+      m_Index = null;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the name of the column for the values of the measure.
+   *
+   * @return		the column name
+   */
+  protected String getValueColumn() {
+    switch (m_Index.getMeasure()) {
+      case COSINE:
+	return "Cosine";
+      case CORRELATION:
+	return "Correlation";
+      case SPECTRAL_ANGLE:
+	return "Angle";
+      default:
+	throw new IllegalStateException("Unhandled measure: " + m_Index.getMeasure());
+    }
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    String			result;
+    Spectrum[]			input;
+    List<SearchResult>[]	neighbors;
+    SpreadSheet			sheet;
+    HeaderRow			header;
+    DataRow			row;
+    int				i;
+    int				n;
+
+    result = null;
+
+    if (m_Index == null)
+      result = setUpIndex();
+
+    if (result == null) {
+      try {
+	if (m_InputToken.getPayload() instanceof Spectrum[])
+	  input = (Spectrum[]) m_InputToken.getPayload();
+	else
+	  input = new Spectrum[]{(Spectrum) m_InputToken.getPayload()};
+	if (input.length == 1)
+	  neighbors = new List[]{m_Index.search(input[0], m_NumNeighbors)};
+	else
+	  neighbors = m_Index.search(input, m_NumNeighbors, m_NumThreads);
+
+	sheet  = new DefaultSpreadSheet();
+	header = sheet.getHeaderRow();
+	header.addCell("I").setContentAsString("Input");
+	header.addCell("R").setContentAsString("Rank");
+	header.addCell("X").setContentAsString("Index");
+	header.addCell("D").setContentAsString("ID");
+	header.addCell("V").setContentAsString(getValueColumn());
+	for (i = 0; i < input.length; i++) {
+	  for (n = 0; n < neighbors[i].size(); n++) {
+	    row = sheet.addRow();
+	    row.addCell("I").setContentAsString(input[i].getID());
+	    row.addCell("R").setContent(n + 1);
+	    row.addCell("X").setContent(neighbors[i].get(n).getIndex() + 1);
+	    row.addCell("D").setContentAsString(neighbors[i].get(n).getID());
+	    row.addCell("V").setContent(neighbors[i].get(n).getValue());
+	  }
+	}
+
+	m_OutputToken = new Token(sheet);
+      }
+      catch (Exception e) {
+	result = handleException("Failed to search index!", e);
+      }
+    }
+
+    return result;
+  }
+}
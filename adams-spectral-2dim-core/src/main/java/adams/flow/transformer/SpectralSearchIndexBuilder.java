@@ -0,0 +1,410 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectralSearchIndexBuilder.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer;
+
+import adams.core.ClassCrossReference;
+import adams.core.Performance;
+import adams.core.QuickInfoHelper;
+import adams.core.io.PlaceholderFile;
+import adams.data.spectrum.MultiSpectrum;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrumsearch.SpectralSearchIndex;
+import adams.data.spectrumsearch.SpectralSearchIndex.Measure;
+import adams.flow.core.Token;
+
+/**
+ <!-- globalinfo-start -->
+ * Builds a search index (vantage-point tree) from the incoming spectra, which can be used for fast k-nearest neighbour searches by cosine similarity, correlation or spectral angle.<br>
+ * The index can be saved to a file, to be used by the adams.flow.transformer.SpectralSearch transformer.<br>
+ * <br>
+ * See also:<br>
+ * adams.flow.transformer.SpectralSearch<br>
+ * adams.flow.transformer.SpectrumFileReader
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- flow-summary-start -->
+ * Input&#47;output:<br>
+ * - accepts:<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.spectrum.MultiSpectrum<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.spectrum.Spectrum[]<br>
+ * - generates:<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.spectrumsearch.SpectralSearchIndex<br>
+ * <br><br>
+ <!-- flow-summary-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-name &lt;java.lang.String&gt; (property: name)
+ * &nbsp;&nbsp;&nbsp;The name of the actor.
+ * &nbsp;&nbsp;&nbsp;default: SpectralSearchIndexBuilder
+ * </pre>
+ *
+ * <pre>-annotation &lt;adams.core.base.BaseAnnotation&gt; (property: annotations)
+ * &nbsp;&nbsp;&nbsp;The annotations to attach to this actor.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-skip &lt;boolean&gt; (property: skip)
+ * &nbsp;&nbsp;&nbsp;If set to true, transformation is skipped and the input token is just forwarded
+ * &nbsp;&nbsp;&nbsp;as it is.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-stop-flow-on-error &lt;boolean&gt; (property: stopFlowOnError)
+ * &nbsp;&nbsp;&nbsp;If set to true, the flow execution at this level gets stopped in case this
+ * &nbsp;&nbsp;&nbsp;actor encounters an error; the error gets propagated; useful for critical
+ * &nbsp;&nbsp;&nbsp;actors.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-silent &lt;boolean&gt; (property: silent)
+ * &nbsp;&nbsp;&nbsp;If enabled, then no errors are output in the console; Note: the enclosing
+ * &nbsp;&nbsp;&nbsp;actor handler must have this enabled as well.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-measure &lt;COSINE|CORRELATION|SPECTRAL_ANGLE&gt; (property: measure)
+ * &nbsp;&nbsp;&nbsp;The measure to search with.
+ * &nbsp;&nbsp;&nbsp;default: COSINE
+ * </pre>
+ *
+ * <pre>-leaf-size &lt;int&gt; (property: leafSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of spectra in a leaf of the tree.
+ * &nbsp;&nbsp;&nbsp;default: 16
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-seed &lt;long&gt; (property: seed)
+ * &nbsp;&nbsp;&nbsp;The seed value for picking the vantage points.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used).
+ * &nbsp;&nbsp;&nbsp;default: 0
+ * </pre>
+ *
+ * <pre>-output &lt;adams.core.io.PlaceholderFile&gt; (property: output)
+ * &nbsp;&nbsp;&nbsp;The file to save the index to; ignored if pointing to a directory.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectralSearchIndexBuilder
+  extends AbstractTransformer
+  implements ClassCrossReference {
+
+  private static final long serialVersionUID = 5863011926734051823L;
+
+  /** the measure. */
+  protected Measure m_Measure;
+
+  /** the maximum number of spectra per leaf. */
+  protected int m_LeafSize;
+
+  /** the seed for picking the vantage points. */
+  protected long m_Seed;
+
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
+  /** the file to save the index to. */
+  protected PlaceholderFile m_Output;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return "Builds a search index (vantage-point tree) from the incoming spectra, "
+      + "which can be used for fast k-nearest neighbour searches by cosine "
+      + "similarity, correlation or spectral angle.\n"
+      + "The index can be saved to a file, to be used by the "
+      + SpectralSearch.class.getName() + " transformer.";
+  }
+
+  /**
+   * Returns the cross-referenced classes.
+   *
+   * @return		the classes
+   */
+  public Class[] getClassCrossReferences() {
+    return new Class[]{SpectralSearch.class, SpectrumFileReader.class};
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "measure", "measure",
+      Measure.COSINE);
+
+    m_OptionManager.add(
+      "leaf-size", "leafSize",
+      16, 1, null);
+
+    m_OptionManager.add(
+      "seed", "seed",
+      1L);
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      0);
+
+    m_OptionManager.add(
+      "output", "output",
+      new PlaceholderFile("."));
+  }
+
+  /**
+   * Sets the measure to search with.
+   *
+   * @param value	the measure
+   */
+  public void setMeasure(Measure value) {
+    m_Measure = value;
+    reset();
+  }
+
+  /**
+   * Returns the measure to search with.
+   *
+   * @return		the measure
+   */
+  public Measure getMeasure() {
+    return m_Measure;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String measureTipText() {
+    return "The measure to search with.";
+  }
+
+  /**
+   * Sets the maximum number of spectra in a leaf of the tree.
+   *
+   * @param value	the size
+   */
+  public void setLeafSize(int value) {
+    if (getOptionManager().isValid("leafSize", value)) {
+      m_LeafSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of spectra in a leaf of the tree.
+   *
+   * @return		the size
+   */
+  public int getLeafSize() {
+    return m_LeafSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String leafSizeTipText() {
+    return "The maximum number of spectra in a leaf of the tree.";
+  }
+
+  /**
+   * Sets the seed value for picking the vantage points.
+   *
+   * @param value	the seed
+   */
+  public void setSeed(long value) {
+    m_Seed = value;
+    reset();
+  }
+
+  /**
+   * Returns the seed value for picking the vantage points.
+   *
+   * @return		the seed
+   */
+  public long getSeed() {
+    return m_Seed;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String seedTipText() {
+    return "The seed value for picking the vantage points.";
+  }
+
+  /**
+   * Sets the number of threads to use.
+   *
+   * @param value	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use.
+   *
+   * @return		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp();
+  }
+
+  /**
+   * Sets the file to save the index to.
+   *
+   * @param value	the file, ignored if directory
+   */
+  public void setOutput(PlaceholderFile value) {
+    m_Output = value;
+    reset();
+  }
+
+  /**
+   * Returns the file to save the index to.
+   *
+   * @return		the file, ignored if directory
+   */
+  public PlaceholderFile getOutput() {
+    return m_Output;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String outputTipText() {
+    return "The file to save the index to; ignored if pointing to a directory.";
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String	result;
+
+    result  = QuickInfoHelper.toString(this, "measure", m_Measure, "measure: ");
+    result += QuickInfoHelper.toString(this, "leafSize", m_LeafSize, ", leaf: ");
+    result += QuickInfoHelper.toString(this, "output", m_Output, ", output: ");
+
+    return result;
+  }
+
+  /**
+   * Returns the class that the consumer accepts.
+   *
+   * @return		the Class of objects that can be processed
+   */
+  public Class[] accepts() {
+    return new Class[]{MultiSpectrum.class, Spectrum[].class};
+  }
+
+  /**
+   * Returns the class of objects that it generates.
+   *
+   * @return		the Class of the generated tokens
+   */
+  public Class[] generates() {
+    return new Class[]{SpectralSearchIndex.class};
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    String			result;
+    SpectralSearchIndex		index;
+
+    result = null;
+
+    index = new SpectralSearchIndex();
+    index.setMeasure(m_Measure);
+    index.setLeafSize(m_LeafSize);
+    index.setSeed(m_Seed);
+    index.setNumThreads(m_NumThreads);
+
+    try {
+      if (m_InputToken.getPayload() instanceof MultiSpectrum)
+	index.build(((MultiSpectrum) m_InputToken.getPayload()).toList());
+      else
+	index.build((Spectrum[]) m_InputToken.getPayload());
+      if (isLoggingEnabled())
+	getLogger().info("Indexed " + index.size() + " spectra, skipped " + index.getNumSkipped());
+      if (!m_Output.isDirectory())
+	index.write(m_Output);
+      m_OutputToken = new Token(index);
+    }
+    catch (Exception e) {
+      result = handleException("Failed to build search index!", e);
+    }
+
+    return result;
+  }
+}
@@ -20,9 +20,16 @@
 
 package adams.opt.genetic;
 
+import adams.core.Performance;
 import adams.core.Properties;
 import adams.core.Utils;
+import adams.core.io.FileUtils;
+import adams.core.io.PlaceholderFile;
 import adams.core.option.OptionUtils;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.Evaluation;
 import weka.classifiers.functions.GPD;
 import weka.classifiers.meta.FilteredClassifier;
 import weka.classifiers.meta.SpectrumClassifier;
@@ -35,11 +42,17 @@ import weka.filters.unsupervised.attribute.SavitzkyGolayRange;
 import weka.filters.unsupervised.attribute.SegmentedSavitzkyGolay;
 import weka.filters.unsupervised.attribute.SpectrumFilter;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.logging.Level;
 
 /**
  <!-- globalinfo-start -->
- * Ron Weasley.
+ * Ron Weasley.<br>
+ * The Savitzky-Golay filtered datasets get cached (keyed by the segment setup), so that chromosomes that only differ in the number of PLS components do not have to filter the data again. Fitness values can be stored in a file, allowing restarted runs to continue where they stopped.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -172,6 +185,29 @@ import java.util.logging.Level;
  * &nbsp;&nbsp;&nbsp;default: 64
  * </pre>
  * 
+ * <pre>-sg-cache-size &lt;int&gt; (property: SGCacheSize)
+ * &nbsp;&nbsp;&nbsp;The maximum number of s-g filtered datasets to cache (0 = no caching).
+ * &nbsp;&nbsp;&nbsp;default: 10
+ * &nbsp;&nbsp;&nbsp;minimum: 0
+ * </pre>
+ * 
+ * <pre>-num-fold-threads &lt;int&gt; (property: numFoldThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for parallel execution; &gt; 0: specific number
+ * &nbsp;&nbsp;&nbsp;of cores to use (capped by actual number of cores available, 1 = sequential
+ * &nbsp;&nbsp;&nbsp;execution); = 0: number of cores; &lt; 0: number of free cores (eg -2 means
+ * &nbsp;&nbsp;&nbsp;2 free cores; minimum of one core is used); used for training the folds
+ * &nbsp;&nbsp;&nbsp;of the cross-validation of a single chromosome.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ * 
+ * <pre>-fitness-store &lt;adams.core.io.PlaceholderFile&gt; (property: fitnessStore)
+ * &nbsp;&nbsp;&nbsp;The file for storing the fitness values of the evaluated setups, loaded
+ * &nbsp;&nbsp;&nbsp;at the start of a run; ignored if pointing to a directory. The first line
+ * &nbsp;&nbsp;&nbsp;records the setup (dataset, evaluation, classifier, encoding of the weights),
+ * &nbsp;&nbsp;&nbsp;a store created for a different setup gets discarded.
+ * &nbsp;&nbsp;&nbsp;default: ${CWD}
+ * </pre>
+ * 
  <!-- options-end -->
  *
  * @author Dale (dale at cs dot waikato dot ac dot nz)
@@ -183,6 +219,9 @@ public class RonWeasley
 
   private static final long serialVersionUID = -4982024446995877986L;
 
+  /** the prefix of the setup line in the fitness store. */
+  public final static String FITNESS_STORE_SETUP = "# ";
+
   protected int m_numSegments;
 
   protected int m_minPLSComponents;
@@ -197,6 +236,21 @@ public class RonWeasley
 
   protected int numatts;
 
+  /** the maximum number of s-g filtered datasets to cache. */
+  protected int m_SGCacheSize;
+
+  /** the number of threads for the cross-validation folds. */
+  protected int m_NumFoldThreads;
+
+  /** the file for storing the fitness values. */
+  protected PlaceholderFile m_FitnessStore;
+
+  /** the cached s-g filtered datasets (s-g setup - data). */
+  protected transient Map<String,Instances> m_SGCache;
+
+  /** the fitness values loaded from the store (weights - fitness). */
+  protected transient Map<String,Double> m_StoredFitness;
+
   /**
    * A job class specific to Ron Weasley.
    *
@@ -209,6 +263,9 @@ public class RonWeasley
     /** for serialization. */
     private static final long serialVersionUID = 8259167463381721274L;
 
+    /** whether cross-validation is performed (ie no test set). */
+    protected boolean m_CrossValidation;
+
     /**
      * Initializes the job.
      *
@@ -220,6 +277,7 @@ public class RonWeasley
      */
     public RonWeasleyJob(RonWeasley g, int num, int[] w, Instances data, Instances testData) {
       super(g, num, w, data, testData);
+      m_CrossValidation = (testData == null);
     }
 
     /**
@@ -240,6 +298,116 @@ public class RonWeasley
       return out;
     }
 
+    /**
+     * Returns the number of points for the s-g segments.
+     *
+     * @return		the blank-separated list of points
+     */
+    public String getSGNumPoints() {
+      StringBuilder	result;
+      int		i;
+
+      result = new StringBuilder();
+      for (i = 0; i < getOwner().getSegments(); i++) {
+	if (i > 0)
+	  result.append(" ");
+	result.append(getOwner().getSGFromWeights(i, m_Weights));
+      }
+
+      return result.toString();
+    }
+
+    /**
+     * Generates the classifier, applying PLS and GPD.
+     *
+     * @param sg	the s-g filter to apply first, null if data is already filtered
+     * @return		the classifier
+     */
+    protected SpectrumClassifier newClassifier(Filter sg) {
+      SpectrumClassifier	result;
+      FilteredClassifier	fc;
+      GPD			gpd;
+      MultiFilter		mf;
+      PLSFilter			pls;
+
+      result = new SpectrumClassifier();
+      fc     = new FilteredClassifier();
+      result.setClassifier(fc);
+      gpd = new GPD();
+      gpd.setGamma(.01);
+      gpd.setNoise(.01);
+      fc.setClassifier(gpd);
+      pls = new PLSFilter();
+      pls.setNumComponents(getOwner().getPLSComponentFromWeights(m_Weights));
+      if (sg == null) {
+	fc.setFilter(pls);
+      }
+      else {
+	mf = new MultiFilter();
+	mf.setFilters(new Filter[]{sg, pls});
+	fc.setFilter(mf);
+      }
+
+      return result;
+    }
+
+    /**
+     * Cross-validates the classifier, training the folds in parallel.
+     * Generates the same folds as {@link Evaluation#crossValidateModel(Classifier, Instances, int, Random, Object...)}.
+     *
+     * @param cls	the classifier to evaluate
+     * @param data	the data to use
+     * @return		the fitness
+     * @throws Exception	if evaluation fails
+     */
+    protected Double crossValidate(final Classifier cls, Instances data) throws Exception {
+      final Instances[]		train;
+      final Instances[]		test;
+      final Classifier[]	models;
+      final Exception[]		errors;
+      Evaluation		eval;
+      Random			random;
+      int			folds;
+      int			i;
+
+      folds  = getFolds();
+      eval   = new Evaluation(data);
+      random = new Random(getSeed());
+      data   = new Instances(data);
+      data.randomize(random);
+      if (data.classAttribute().isNominal())
+	data.stratify(folds);
+      train = new Instances[folds];
+      test  = new Instances[folds];
+      for (i = 0; i < folds; i++) {
+	train[i] = data.trainCV(folds, i, random);
+	test[i]  = data.testCV(folds, i);
+      }
+
+      models = new Classifier[folds];
+      errors = new Exception[folds];
+      SpectrumMatrixHelper.parallel(getOwner().getNumFoldThreads(), folds, (n) -> {
+	try {
+	  models[n] = AbstractClassifier.makeCopy(cls);
+	  models[n].buildClassifier(train[n]);
+	}
+	catch (Exception e) {
+	  errors[n] = e;
+	}
+      });
+      for (i = 0; i < folds; i++) {
+	if (errors[i] != null)
+	  throw errors[i];
+      }
+
+      for (i = 0; i < folds; i++) {
+	eval.setPriors(train[i]);
+	eval.evaluateModel(models[i], test[i]);
+      }
+
+      return getMeasure().extract(eval, true);
+    }
+
     /**
      * Calculates the new fitness.
      */
@@ -258,42 +426,32 @@ public class RonWeasley
 
 	Instances newInstances = new Instances(getInstances());
 
-	SpectrumFilter sf=new SpectrumFilter();
-	String out="PLS:";
-	out+= getOwner().getPLSComponentFromWeights(m_Weights)+" ";
-	SegmentedSavitzkyGolay ssg=new SegmentedSavitzkyGolay();
-	ssg.setDerivativeOrder(0);
-	String ints=""+ getOwner().getSGFromWeights(0, m_Weights);
-	for (int i=1;i< getOwner().getSegments();i++) {
-	  int val= getOwner().getSGFromWeights(i, m_Weights);
-	  out += val+" ";
-	  ints+=" "+val;
-	}
-	ssg.setNumPoints(ints);
-	sf.setFilter(ssg);
+	String ints = getSGNumPoints();
+	SpectrumFilter sf = getOwner().newSGFilter(ints);
 
 	if (isLoggingEnabled())
-	  getLogger().info(out);
+	  getLogger().info("PLS:" + getOwner().getPLSComponentFromWeights(m_Weights) + " " + ints);
 	// obtain classifier
-	SpectrumClassifier newClassifier = new SpectrumClassifier();
-	FilteredClassifier fc=new FilteredClassifier();
-	newClassifier.setClassifier(fc);
-	GPD gpd=new GPD();
-	gpd.setGamma(.01);
-	gpd.setNoise(.01);
-	fc.setClassifier(gpd);
-	MultiFilter mf=new MultiFilter();
-
-	Filter[] f=new Filter[2];PLSFilter pls=new PLSFilter();
-	pls.setNumComponents(getOwner().getPLSComponentFromWeights(m_Weights));
-	f[0]=sf;
-	f[1]=pls;
-
-	mf.setFilters(f);
-	fc.setFilter(mf);
+	SpectrumClassifier newClassifier = newClassifier(sf);
 
 	// evaluate classifier
-	m_Fitness = evaluateClassifier(newClassifier, newInstances, getFolds(), getSeed());
+	Double stored = getOwner().getStoredFitness(weightsToString());
+	if (stored != null) {
+	  if (isLoggingEnabled())
+	    getLogger().info("Stored fitness: " + stored);
+	  m_Fitness = stored;
+	}
+	else if (m_CrossValidation) {
+	  // s-g is applied per spectrum, so filtering the full dataset upfront is equivalent
+	  Instances filtered = getOwner().getSGFiltered(ints, getInstances());
+	  if (Performance.determineNumThreads(getOwner().getNumFoldThreads()) > 1)
+	    m_Fitness = crossValidate(newClassifier(null), filtered);
+	  else
+	    m_Fitness = evaluateClassifier(newClassifier(null), filtered, getFolds(), getSeed());
+	}
+	else {
+	  m_Fitness = evaluateClassifier(newClassifier, newInstances, getFolds(), getSeed());
+	}
 
 	// process fitness
 	if (getOwner().setNewFitness(m_Fitness, newClassifier, m_Chromosome, m_Weights)) {
@@ -303,6 +461,8 @@ public class RonWeasley
 	}
 
 	getOwner().addResult(weightsToString(), m_Fitness);
+	if (stored == null)
+	  getOwner().storeFitness(weightsToString(), m_Fitness);
       }
       catch(Exception e) {
 	getLogger().log(Level.SEVERE, "Error: ", e);
@@ -318,7 +478,12 @@ public class RonWeasley
    */
   @Override
   public String globalInfo() {
-    return "Ron Weasley.";
+    return "Ron Weasley.\n"
+      + "The Savitzky-Golay filtered datasets get cached (keyed by the segment "
+      + "setup), so that chromosomes that only differ in the number of PLS "
+      + "components do not have to filter the data again. Fitness values can "
+      + "be stored in a file, allowing restarted runs to continue where they "
+      + "stopped.";
   }
 
   /**
@@ -347,6 +512,18 @@ public class RonWeasley
     m_OptionManager.add(
       "maxSG", "maxSG",
       64);
+
+    m_OptionManager.add(
+      "sg-cache-size", "SGCacheSize",
+      10, 0, null);
+
+    m_OptionManager.add(
+      "num-fold-threads", "numFoldThreads",
+      1);
+
+    m_OptionManager.add(
+      "fitness-store", "fitnessStore",
+      new PlaceholderFile("."));
   }
 
   /**
@@ -492,6 +669,240 @@ public class RonWeasley
     return "The max sg smoothing window.";
   }
 
+  /**
+   * Sets the maximum number of s-g filtered datasets to cache.
+   *
+   * @param value	the cache size, 0 to turn off caching
+   */
+  public void setSGCacheSize(int value) {
+    if (getOptionManager().isValid("SGCacheSize", value)) {
+      m_SGCacheSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of s-g filtered datasets to cache.
+   *
+   * @return		the cache size, 0 if caching is turned off
+   */
+  public int getSGCacheSize() {
+    return m_SGCacheSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String SGCacheSizeTipText() {
+    return "The maximum number of s-g filtered datasets to cache (0 = no caching).";
+  }
+
+  /**
+   * Sets the number of threads to use for the folds of the cross-validation.
+   *
+   * @param value 	the number of threads, see Performance.determineNumThreads(int)
+   */
+  public void setNumFoldThreads(int value) {
+    m_NumFoldThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for the folds of the cross-validation.
+   *
+   * @return 		the number of threads, see Performance.determineNumThreads(int)
+   */
+  public int getNumFoldThreads() {
+    return m_NumFoldThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numFoldThreadsTipText() {
+    return Performance.getNumThreadsHelp() + "; used for training the folds of the cross-validation of a single chromosome.";
+  }
+
+  /**
+   * Sets the file for storing the fitness values.
+   *
+   * @param value	the file, ignored if a directory
+   */
+  public void setFitnessStore(PlaceholderFile value) {
+    m_FitnessStore = value;
+    reset();
+  }
+
+  /**
+   * Returns the file for storing the fitness values.
+   *
+   * @return		the file, ignored if a directory
+   */
+  public PlaceholderFile getFitnessStore() {
+    return m_FitnessStore;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String fitnessStoreTipText() {
+    return "The file for storing the fitness values of the evaluated setups, loaded at the start of a run; ignored if pointing to a directory. "
+      + "The first line records the setup (dataset, evaluation, classifier, encoding of the weights), "
+      + "a store created for a different setup gets discarded.";
+  }
+
+  /**
+   * Creates the s-g filter for the spectral attributes.
+   *
+   * @param numPoints	the blank-separated number of points per segment
+   * @return		the filter
+   */
+  protected SpectrumFilter newSGFilter(String numPoints) {
+    SpectrumFilter		result;
+    SegmentedSavitzkyGolay	ssg;
+
+    ssg = new SegmentedSavitzkyGolay();
+    ssg.setDerivativeOrder(0);
+    ssg.setNumPoints(numPoints);
+    result = new SpectrumFilter();
+    result.setFilter(ssg);
+
+    return result;
+  }
+
+  /**
+   * Returns the s-g filtered data, either from the cache or freshly filtered.
+   *
+   * @param numPoints	the blank-separated number of points per segment
+   * @param data	the data to filter
+   * @return		the filtered data
+   * @throws Exception	if filtering fails
+   */
+  protected Instances getSGFiltered(String numPoints, Instances data) throws Exception {
+    Instances		result;
+    SpectrumFilter	filter;
+
+    synchronized(m_SGCache) {
+      result = m_SGCache.get(numPoints);
+    }
+
+    if (result == null) {
+      filter = newSGFilter(numPoints);
+      filter.setInputFormat(data);
+      result = Filter.useFilter(data, filter);
+      if (m_SGCacheSize > 0) {
+	synchronized(m_SGCache) {
+	  m_SGCache.put(numPoints, result);
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the setup that the fitness values in the store are valid for:
+   * the dataset, the evaluation, the classifier and the encoding of the
+   * weights.
+   *
+   * @return		the setup
+   */
+  protected String getFitnessStoreSetup() {
+    Instances	data;
+
+    data = getInstances();
+    return "relation=" + data.relationName()
+      + ", instances=" + data.numInstances()
+      + ", attributes=" + data.numAttributes()
+      + ", class=" + data.classIndex()
+      + ", folds=" + getFolds()
+      + ", cv-seed=" + getCrossValidationSeed()
+      + ", measure=" + getMeasure()
+      + ", classifier=" + OptionUtils.getCommandLine(getClassifier())
+      + ", segments=" + getSegments()
+      + ", pls=" + m_minPLSComponents + "-" + m_maxPLSComponents
+      + ", sg=" + m_minSG + "-" + m_maxSG
+      + ", bits-per-gene=" + getBitsPerGene();
+  }
+
+  /**
+   * Loads the fitness values from the store, if any. A store that was
+   * created for a different setup gets discarded and a new one started.
+   */
+  protected void loadFitnessStore() {
+    List<String>	lines;
+    String[]		parts;
+    String		setup;
+    int			i;
+
+    m_StoredFitness = new HashMap<>();
+    if (m_FitnessStore.isDirectory())
+      return;
+
+    setup = FITNESS_STORE_SETUP + getFitnessStoreSetup();
+    if (m_FitnessStore.exists()) {
+      lines = FileUtils.loadFromFile(m_FitnessStore);
+      if (lines == null) {
+	getLogger().severe("Failed to load fitness store: " + m_FitnessStore);
+	return;
+      }
+      if (!lines.isEmpty() && lines.get(0).equals(setup)) {
+	for (i = 1; i < lines.size(); i++) {
+	  parts = lines.get(i).split("\t");
+	  if (parts.length != 2)
+	    continue;
+	  try {
+	    m_StoredFitness.put(parts[0], Double.parseDouble(parts[1]));
+	  }
+	  catch (Exception e) {
+	    getLogger().warning("Invalid fitness store entry: " + lines.get(i));
+	  }
+	}
+	if (isLoggingEnabled())
+	  getLogger().info("Loaded " + m_StoredFitness.size() + " fitness value(s) from: " + m_FitnessStore);
+	return;
+      }
+      getLogger().warning("Fitness store was created for a different setup, discarding: " + m_FitnessStore);
+    }
+
+    if (!FileUtils.writeToFile(m_FitnessStore.getAbsolutePath(), setup, false))
+      getLogger().severe("Failed to initialize fitness store: " + m_FitnessStore);
+  }
+
+  /**
+   * Returns the fitness from the store.
+   *
+   * @param weights	the weights to look up
+   * @return		the fitness, null if not available
+   */
+  protected synchronized Double getStoredFitness(String weights) {
+    if (m_StoredFitness == null)
+      return null;
+    return m_StoredFitness.get(weights);
+  }
+
+  /**
+   * Appends the fitness to the store, if one is used.
+   *
+   * @param weights	the weights
+   * @param fitness	the fitness
+   */
+  protected synchronized void storeFitness(String weights, Double fitness) {
+    if ((fitness == null) || m_FitnessStore.isDirectory())
+      return;
+    if (!FileUtils.writeToFile(m_FitnessStore.getAbsolutePath(), weights + "\t" + fitness, true))
+      getLogger().severe("Failed to append to fitness store: " + m_FitnessStore);
+  }
+
   protected int getPLSBits() {
     int range=m_maxPLSComponents-m_minPLSComponents;
     return((int)(Math.floor(Utils.log2(range))+1));
@@ -580,5 +991,15 @@ public class RonWeasley
 
     // setup structures
     init(20, (getPLSBits() + (getSGBits() * getSegments())) * m_BitsPerGene);
+
+    // caches
+    m_SGCache = new LinkedHashMap<String,Instances>(16, 0.75f, true) {
+      private static final long serialVersionUID = 2651894178519312545L;
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String,Instances> eldest) {
+	return size() > m_SGCacheSize;
+      }
+    };
+    loadFitnessStore();
   }
 }
@@ -27,6 +27,7 @@ import weka.classifiers.StoppableSingleClassifierEnhancer;
 import weka.core.BatchPredictor;
 import weka.core.Capabilities;
 import weka.core.Capabilities.Capability;
+import weka.core.DenseInstance;
 import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.RevisionUtils;
@@ -36,7 +37,8 @@ import weka.filters.unsupervised.attribute.Remove;
 
 /**
  <!-- globalinfo-start -->
- * Automatically removes some IDs from the dataset before training the base classifier: id, db_id, sample_id.
+ * Automatically removes some IDs from the dataset before training the base classifier: id, db_id, sample_id.<br>
+ * After training, the removal gets compiled into a simple index mapping, which is used for making (batch) predictions.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -92,6 +94,12 @@ public class SpectrumClassifier
   /** whether the base classifier can abstain. */
   protected boolean m_CanAbstain = false;
 
+  /** the indices of the attributes to keep, null if the remove filter has to be used. */
+  protected int[] m_KeepIndices = null;
+
+  /** the header of the data that the base classifier was trained on. */
+  protected Instances m_FilteredHeader = null;
+
   /**
    * Returns a string describing this classifier.
    *
@@ -104,7 +112,9 @@ public class SpectrumClassifier
 	+ "before training the base classifier: "
 	+ ArffUtils.getIDName() + ", "
 	+ ArffUtils.getDBIDName() + ", "
-	+ ArffUtils.getSampleIDName() + ".";
+	+ ArffUtils.getSampleIDName() + ".\n"
+	+ "After training, the removal gets compiled into a simple index mapping, "
+	+ "which is used for making (batch) predictions.";
   }
 
   /**
@@ -173,10 +183,13 @@ public class SpectrumClassifier
     data.deleteWithMissingClass();
 
     m_Remove = ArffUtils.getRemoveFilter(data);
+    m_KeepIndices = null;
     if (m_Remove != null) {
       m_Remove.setInputFormat(data);
+      compile(data, m_Remove.getOutputFormat());
       data = Filter.useFilter(data, m_Remove);
     }
+    m_FilteredHeader = new Instances(data, 0);
 
     // can classifier handle the data?
     getClassifier().getCapabilities().testWithFail(data);
@@ -186,6 +199,85 @@ public class SpectrumClassifier
     m_CanAbstain = (m_Classifier instanceof AbstainingClassifier) && ((AbstainingClassifier) m_Classifier).canAbstain();
   }
 
+  /**
+   * Compiles the remove filter into the indices of the attributes to keep.
+   * Falls back on the filter if string or relational attributes are kept.
+   *
+   * @param data	the training data
+   * @param filtered	the output format of the remove filter
+   */
+  protected void compile(Instances data, Instances filtered) {
+    int		i;
+
+    m_KeepIndices = new int[filtered.numAttributes()];
+    for (i = 0; i < filtered.numAttributes(); i++) {
+      if (filtered.attribute(i).isString() || filtered.attribute(i).isRelationValued()) {
+	m_KeepIndices = null;
+	return;
+      }
+      m_KeepIndices[i] = data.attribute(filtered.attribute(i).name()).index();
+    }
+  }
+
+  /**
+   * Removes the IDs from the instance.
+   *
+   * @param instance	the instance to filter
+   * @return		the filtered instance
+   * @throws Exception	if filtering fails
+   */
+  protected Instance filter(Instance instance) throws Exception {
+    Instance	result;
+    double[]	values;
+    int		i;
+
+    if (m_Remove == null)
+      return instance;
+
+    if (m_KeepIndices == null) {
+      synchronized(m_Remove) {
+	m_Remove.input(instance);
+	m_Remove.batchFinished();
+	return m_Remove.output();
+      }
+    }
+
+    values = new double[m_KeepIndices.length];
+    for (i = 0; i < values.length; i++)
+      values[i] = instance.value(m_KeepIndices[i]);
+    result = new DenseInstance(instance.weight(), values);
+    result.setDataset(m_FilteredHeader);
+
+    return result;
+  }
+
+  /**
+   * Removes the IDs from the instances.
+   *
+   * @param data	the instances to filter
+   * @return		the filtered instances
+   * @throws Exception	if filtering fails
+   */
+  protected Instances filter(Instances data) throws Exception {
+    Instances	result;
+    int		i;
+
+    if (m_Remove == null)
+      return data;
+
+    if (m_KeepIndices == null) {
+      synchronized(m_Remove) {
+	return Filter.useFilter(data, m_Remove);
+      }
+    }
+
+    result = new Instances(m_FilteredHeader, data.numInstances());
+    for (i = 0; i < data.numInstances(); i++)
+      result.add(filter(data.instance(i)));
+
+    return result;
+  }
+
   /**
    * Classifies a given instance after filtering.
    *
@@ -195,13 +287,7 @@ public class SpectrumClassifier
    */
   @Override
   public double[] distributionForInstance(Instance instance) throws Exception {
-    if (m_Remove != null) {
-      m_Remove.input(instance);
-      m_Remove.batchFinished();
-      instance = m_Remove.output();
-    }
-
-    return m_Classifier.distributionForInstance(instance);
+    return m_Classifier.distributionForInstance(filter(instance));
   }
 
   /**
@@ -216,6 +302,7 @@ public class SpectrumClassifier
     double[][]		result;
     int			i;
 
+    insts = filter(insts);
     if (m_Classifier instanceof BatchPredictor) {
       result = ((BatchPredictor) m_Classifier).distributionsForInstances(insts);
     }
@@ -247,18 +334,10 @@ public class SpectrumClassifier
    */
   @Override
   public synchronized double getAbstentionClassification(Instance inst) throws Exception {
-    if (m_CanAbstain) {
-      if (m_Remove != null) {
-	m_Remove.input(inst);
-	m_Remove.batchFinished();
-	inst = m_Remove.output();
-      }
-
-      return ((AbstainingClassifier) m_Classifier).getAbstentionClassification(inst);
-    }
-    else {
+    if (m_CanAbstain)
+      return ((AbstainingClassifier) m_Classifier).getAbstentionClassification(filter(inst));
+    else
       return Utils.missingValue();
-    }
   }
 
   /**
@@ -270,18 +349,10 @@ public class SpectrumClassifier
    */
   @Override
   public synchronized double[] getAbstentionDistribution(Instance inst) throws Exception {
-    if (m_CanAbstain) {
-      if (m_Remove != null) {
-	m_Remove.input(inst);
-	m_Remove.batchFinished();
-	inst = m_Remove.output();
-      }
-
-      return ((AbstainingClassifier) m_Classifier).getAbstentionDistribution(inst);
-    }
-    else {
+    if (m_CanAbstain)
+      return ((AbstainingClassifier) m_Classifier).getAbstentionDistribution(filter(inst));
+    else
       return null;
-    }
   }
 
   /**
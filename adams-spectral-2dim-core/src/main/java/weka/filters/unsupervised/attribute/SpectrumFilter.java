@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Vector;
 
 /**
@@ -104,6 +105,12 @@ public class SpectrumFilter
   /** the multi-filter that does the actual work. */
   protected MultiFilter m_MultiFilter;
 
+  /** the index in the input data for each output attribute (-1 if from the spectral part). */
+  protected int[] m_InputIndices;
+
+  /** the index in the transformed spectral part for each output attribute (-1 if from the input data). */
+  protected int[] m_TransformedIndices;
+
   /**
    * Returns a string describing this classifier.
    *
@@ -506,69 +513,121 @@ public class SpectrumFilter
   }
 
   /**
-   * Transforms the instance (filters spectral part and adds all other data again).
+   * Determines for each output attribute where its values come from,
+   * i.e., from the input data or the transformed spectral part.
    *
-   * @param header	the header to use
-   * @param inst	the instance to transform
-   * @return		the transformed instance
+   * @param original	the original input data
+   * @param transformed	the transformed spectral part of the data
    */
-  protected Instance transformInstance(Instances header, Instance inst) throws Exception {
-    Instance	result;
-    Instance	transformed;
-    double[]	values;
-    int		i;
-    int		n;
-    boolean	first;
-    Attribute	att;
-    int		index;
+  protected void initIndices(Instances original, Instances transformed) {
+    List<Integer>	input;
+    List<Integer>	trans;
+    int			i;
+    int			n;
+    boolean		first;
 
-    // transform the spectral part
-    m_MultiFilter.input(inst);
-    m_MultiFilter.batchFinished();
-    transformed = m_MultiFilter.output();
-
-    values = new double[header.numAttributes()];
-    for (i = 0; i < values.length; i++)
-      values[i] = Utils.missingValue();
-    first  = (transformed != null);
-    index  = 0;
-    for (i = 0; i < inst.numAttributes(); i++) {
-      if (inst.attribute(i).name().startsWith(m_PrefixOld)) {
+    input = new ArrayList<>();
+    trans = new ArrayList<>();
+    first = true;
+    for (i = 0; i < original.numAttributes(); i++) {
+      if (original.attribute(i).name().startsWith(m_PrefixOld)) {
 	if (first) {
 	  first = false;
 	  for (n = 0; n < transformed.numAttributes(); n++) {
 	    if (n == transformed.classIndex())
 	      continue;
-	    att = transformed.attribute(n);
-            if (transformed.isMissing(n))
-              values[index] = Utils.missingValue();
-	    else if (att.isString())
-	      values[index] = header.attribute(index).addStringValue(transformed.stringValue(n));
-	    else if (att.isRelationValued())
-	      values[index] = header.attribute(index).addRelation(transformed.relationalValue(n));
-	    else
-	      values[index] = transformed.value(n);
-	    index++;
+	    input.add(-1);
+	    trans.add(n);
 	  }
 	}
       }
       else {
-	att = inst.attribute(i);
-        if (inst.isMissing(i))
-          values[index] = Utils.missingValue();
-	else if (att.isString())
-	  values[index] = header.attribute(index).addStringValue(inst.stringValue(i));
-	else if (att.isRelationValued())
-	  values[index] = header.attribute(index).addRelation(inst.relationalValue(i));
-	else
-	  values[index] = inst.value(i);
-	index++;
+	input.add(i);
+	trans.add(-1);
       }
     }
 
-    result = new DenseInstance(inst.weight(), values);
+    m_InputIndices       = new int[input.size()];
+    m_TransformedIndices = new int[trans.size()];
+    for (i = 0; i < input.size(); i++) {
+      m_InputIndices[i]       = input.get(i);
+      m_TransformedIndices[i] = trans.get(i);
+    }
+  }
 
-    return result;
+  /**
+   * Initializes the index mapping if not yet available, e.g., for filters
+   * that were serialized before the mapping was introduced.
+   *
+   * @param original	the original input data
+   */
+  protected void checkIndices(Instances original) {
+    if ((m_InputIndices == null) || (m_TransformedIndices == null))
+      initIndices(original, m_MultiFilter.getOutputFormat());
+  }
+
+  /**
+   * Transforms the instance (filters spectral part and adds all other data again).
+   *
+   * @param header	the header to use
+   * @param inst	the instance to transform
+   * @return		the transformed instance
+   */
+  protected Instance transformInstance(Instances header, Instance inst) throws Exception {
+    // transform the spectral part
+    m_MultiFilter.input(inst);
+    m_MultiFilter.batchFinished();
+
+    return transformInstance(header, inst, m_MultiFilter.output());
+  }
+
+  /**
+   * Assembles the output instance from the input instance and its already
+   * transformed spectral part.
+   *
+   * @param header	the header to use
+   * @param inst	the instance to transform
+   * @param transformed	the transformed spectral part, null if none available
+   * @return		the transformed instance
+   */
+  protected Instance transformInstance(Instances header, Instance inst, Instance transformed) throws Exception {
+    double[]	values;
+    double[]	instValues;
+    double[]	transValues;
+    Instance	source;
+    int		index;
+    int		i;
+    Attribute	att;
+
+    checkIndices(getInputFormat());
+    values      = new double[header.numAttributes()];
+    instValues  = inst.toDoubleArray();
+    transValues = (transformed == null) ? null : transformed.toDoubleArray();
+    for (i = 0; i < values.length; i++) {
+      if (m_InputIndices[i] > -1) {
+	source    = inst;
+	index     = m_InputIndices[i];
+	values[i] = instValues[index];
+      }
+      else if (transValues != null) {
+	source    = transformed;
+	index     = m_TransformedIndices[i];
+	values[i] = transValues[index];
+      }
+      else {
+	values[i] = Utils.missingValue();
+	continue;
+      }
+      if (Utils.isMissingValue(values[i]))
+	continue;
+      att = header.attribute(i);
+      if (att.isString())
+	values[i] = att.addStringValue(source.stringValue(index));
+      else if (att.isRelationValued())
+	values[i] = att.addRelation(source.relationalValue(index));
+    }
+
+    return new DenseInstance(inst.weight(), values);
   }
 
   /**
@@ -587,14 +646,24 @@ public class SpectrumFilter
     if (!isFirstBatchDone()) {
       transformed = transformSpectrum(instances);
       result      = createHeader(instances, transformed);
+      initIndices(instances, transformed);
       setOutputFormat(result);
     }
     else {
-      result = getOutputFormat();
+      result      = getOutputFormat();
+      transformed = Filter.useFilter(instances, m_MultiFilter);
+      checkIndices(instances);
     }
 
-    for (i = 0; i < instances.numInstances(); i++)
-      result.add(transformInstance(result, instances.instance(i)));
+    // filters that change the number of rows require row-by-row processing
+    if (transformed.numInstances() == instances.numInstances()) {
+      for (i = 0; i < instances.numInstances(); i++)
+	result.add(transformInstance(result, instances.instance(i), transformed.instance(i)));
+    }
+    else {
+      for (i = 0; i < instances.numInstances(); i++)
+	result.add(transformInstance(result, instances.instance(i)));
+    }
     result.compactify();
 
     return result;
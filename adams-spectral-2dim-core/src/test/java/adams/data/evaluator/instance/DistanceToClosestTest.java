@@ -23,6 +23,11 @@ package adams.data.evaluator.instance;
 import adams.env.Environment;
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import weka.core.Instances;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
 
 /**
  * Test class for the DistanceToClosest evaluator. Run from the command line with: <br><br>
@@ -93,6 +98,41 @@ public class DistanceToClosestTest
     };
   }
 
+  /**
+   * Tests that batch evaluation yields the same evaluations as evaluating
+   * the instances one by one.
+   */
+  public void testEvaluateBatch() {
+    Instances				data;
+    Instances				train;
+    Instances				test;
+    DistanceToClosest			evaluator;
+    List<HashMap<String,Float>>		batch;
+    HashMap<String,Float>		eval;
+    int					numTrain;
+    int					i;
+
+    data = load("bolts.arff", "last");
+    assertNotNull("Could not load data", data);
+    data.randomize(new Random(1));
+    numTrain = (int) Math.round(data.numInstances() * 0.8);
+    train    = new Instances(data, 0, numTrain);
+    test     = new Instances(data, numTrain, data.numInstances() - numTrain);
+
+    for (int numThreads: new int[]{1, 4}) {
+      evaluator = new DistanceToClosest();
+      evaluator.setNumThreads(numThreads);
+      evaluator.build(train);
+      batch = evaluator.evaluateBatch(test);
+      assertEquals("number of evaluations", test.numInstances(), batch.size());
+      for (i = 0; i < test.numInstances(); i++) {
+	eval = evaluator.evaluate(test.instance(i));
+	assertEquals("evaluation #" + i, eval.get(AbstractEvaluator.DEFAULT_METRIC), batch.get(i).get(AbstractEvaluator.DEFAULT_METRIC), 1e-6f);
+      }
+      evaluator.destroy();
+    }
+  }
+
   /**
    * Returns the test suite.
    *
@@ -22,9 +22,17 @@ package adams.data.instances;
 import adams.core.base.BaseString;
 import adams.data.report.DataType;
 import adams.data.report.Field;
+import adams.data.sampledata.SampleData;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
 import adams.env.Environment;
+import adams.test.SpectralTestHelper;
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.util.List;
 
 /**
  * Test class for the SimpleInstanceGenerator generator. Run from the command line with: <br><br>
@@ -95,6 +103,111 @@ public class SimpleInstanceGeneratorTest
     return result;
   }
 
+  /**
+   * Returns a copy of the spectrum, using only the specified range of points.
+   *
+   * @param data	the spectrum to copy
+   * @param from	the first point to copy (incl)
+   * @param to		the last point to copy (excl)
+   * @return		the copy
+   */
+  protected Spectrum subset(Spectrum data, int from, int to) {
+    Spectrum		result;
+    List<SpectrumPoint>	points;
+    int			i;
+
+    points = data.toList();
+    result = new Spectrum();
+    result.setID(data.getID());
+    result.setReport((SampleData) data.getReport().getClone());
+    for (i = from; i < to; i++)
+      result.add(new SpectrumPoint(points.get(i).getWaveNumber(), points.get(i).getAmplitude()));
+
+    return result;
+  }
+
+  /**
+   * Checks that generating a dataset from an array of spectra produces the
+   * same rows as generating the instances one by one.
+   */
+  public void testGenerateArray() {
+    Spectrum[]			data;
+    SimpleInstanceGenerator	generator;
+    Instances			batch;
+    Instance			inst;
+    List<SpectrumPoint>		points;
+    int				i;
+    int				n;
+
+    data      = SpectralTestHelper.generate(10, 50, 3, 1);
+    generator = new SimpleInstanceGenerator();
+    generator.setOffline(true);
+    batch     = generator.generate(data);
+    assertEquals("number of instances", data.length, batch.numInstances());
+
+    generator = new SimpleInstanceGenerator();
+    generator.setOffline(true);
+    for (i = 0; i < data.length; i++) {
+      inst = generator.generate(data[i]);
+      assertEquals("number of attributes", inst.numAttributes(), batch.numAttributes());
+      for (n = 0; n < inst.numAttributes(); n++)
+	assertEquals("row " + i + ", attribute " + n, inst.value(n), batch.instance(i).value(n), 0.0);
+      points = data[i].toList();
+      for (n = 0; n < points.size(); n++)
+	assertEquals("row " + i + ", amplitude " + n, points.get(n).getAmplitude(), batch.instance(i).value(batch.attribute(ArffUtils.getAmplitudeName(n))), 0.0);
+    }
+  }
+
+  /**
+   * Checks that spectra whose wave numbers differ from the compiled plan
+   * get their values placed by name.
+   */
+  public void testPlanMismatch() {
+    Spectrum[]			data;
+    Spectrum			shifted;
+    SimpleInstanceGenerator	generator;
+    Instance			inst;
+    List<SpectrumPoint>		points;
+    int				n;
+
+    data      = SpectralTestHelper.generate(2, 50, 3, 1);
+    generator = new SimpleInstanceGenerator();
+    generator.setOffline(true);
+    generator.setAddWaveNumber(true);
+    generator.setWaveNumberAsSuffix(true);
+    generator.generate(data[0]);
+
+    // wave numbers shifted relative to the plan
+    shifted = subset(data[1], 5, 50);
+    inst    = generator.generate(shifted);
+    points  = shifted.toList();
+    for (n = 0; n < points.size(); n++) {
+      assertEquals("amplitude " + n, points.get(n).getAmplitude(), inst.value(inst.dataset().attribute(ArffUtils.getAmplitudeName(points.get(n).getWaveNumber()))), 0.0);
+      assertEquals("wave number " + n, points.get(n).getWaveNumber(), inst.value(inst.dataset().attribute(ArffUtils.getWaveNumberName(points.get(n).getWaveNumber()))), 0.0);
+    }
+  }
+
+  /**
+   * Checks that spectra longer than the compiled plan do not index beyond
+   * the plan, but fail with a proper error for the unknown attributes.
+   */
+  public void testLongerThanPlan() {
+    Spectrum[]			data;
+    SimpleInstanceGenerator	generator;
+
+    data      = SpectralTestHelper.generate(2, 50, 3, 1);
+    generator = new SimpleInstanceGenerator();
+    generator.setOffline(true);
+    generator.generate(subset(data[0], 0, 40));
+    try {
+      generator.generate(data[1]);
+      fail("Generating instance for spectrum longer than plan should have failed!");
+    }
+    catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
   /**
    * Returns the test suite.
    *
@@ -0,0 +1,98 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * FastLOWESSBasedTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.spectrumbaseline;
+
+import adams.data.baseline.AbstractBaselineCorrection;
+import adams.env.Environment;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Test class for the FastLOWESSBased baseline correction scheme. Run from the command line with: <br><br>
+ * java adams.data.spectrumbaseline.FastLOWESSBasedTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FastLOWESSBasedTest
+  extends AbstractSpectrumBaselineCorrectionTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name 	the name of the test
+   */
+  public FastLOWESSBasedTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the filenames (without path) of the input data files to use
+   * in the regression test.
+   *
+   * @return		the filenames
+   */
+  @Override
+  protected String[] getRegressionInputFiles() {
+    return new String[]{
+	"871564-nir.spec",
+	"871564-nir.spec",
+	"871564-nir.spec"
+    };
+  }
+
+  /**
+   * Returns the setups to use in the regression test.
+   *
+   * @return		the setups
+   */
+  @Override
+  protected AbstractBaselineCorrection[] getRegressionSetups() {
+    FastLOWESSBased[]	result;
+
+    result    = new FastLOWESSBased[3];
+    result[0] = new FastLOWESSBased();
+    result[1] = new FastLOWESSBased();
+    result[1].setWindowSize(40);
+    result[2] = new FastLOWESSBased();
+    result[2].setWindowSize(40);
+    result[2].setRobustnessIterations(2);
+
+    return result;
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(FastLOWESSBasedTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
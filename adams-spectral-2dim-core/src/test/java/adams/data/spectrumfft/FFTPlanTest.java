@@ -0,0 +1,207 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FFTPlanTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumfft;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Random;
+
+/**
+ * Tests the FFTPlan class against a naive discrete Fourier transform.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FFTPlanTest
+  extends AdamsTestCase {
+
+  /** the tolerance for comparing values (relative to the length). */
+  public static final double TOLERANCE = 1e-10;
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public FFTPlanTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Computes the discrete Fourier transform the naive way, in O(n^2).
+   *
+   * @param re		the real parts
+   * @param im		the imaginary parts
+   * @param sign	-1 for exp(-2*pi*i*jk/n), +1 for exp(+2*pi*i*jk/n)
+   * @return		the real (index 0) and imaginary parts (index 1)
+   */
+  public static double[][] dft(double[] re, double[] im, int sign) {
+    double[][]	result;
+    double	angle;
+    int		n;
+    int		j;
+    int		k;
+
+    n      = re.length;
+    result = new double[2][n];
+    for (k = 0; k < n; k++) {
+      for (j = 0; j < n; j++) {
+	angle         = sign * 2.0 * Math.PI * (((long) j * k) % n) / n;
+	result[0][k] += re[j] * Math.cos(angle) - im[j] * Math.sin(angle);
+	result[1][k] += re[j] * Math.sin(angle) + im[j] * Math.cos(angle);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates random values.
+   *
+   * @param n		the number of values
+   * @param random	the random number generator to use
+   * @return		the values
+   */
+  public static double[] newValues(int n, Random random) {
+    double[]	result;
+    int		i;
+
+    result = new double[n];
+    for (i = 0; i < n; i++)
+      result[i] = random.nextDouble() * 2.0 - 1.0;
+
+    return result;
+  }
+
+  /**
+   * Compares the arrays.
+   *
+   * @param msg		the message prefix
+   * @param expected	the expected values
+   * @param actual	the actual values
+   */
+  public static void compare(String msg, double[] expected, double[] actual) {
+    int		i;
+
+    for (i = 0; i < expected.length; i++)
+      assertEquals(msg + " #" + i, expected[i], actual[i], TOLERANCE * expected.length);
+  }
+
+  /**
+   * Tests the forward and the inverse transform against the naive DFT.
+   */
+  public void testTransform() {
+    Random	random;
+    FFTPlan	plan;
+    double[]	re;
+    double[]	im;
+    double[][]	expected;
+    int		n;
+    int		i;
+
+    random = new Random(1);
+    for (n = 1; n <= 512; n *= 2) {
+      plan = FFTPlan.getPlan(n);
+      assertEquals("length", n, plan.getLength());
+
+      re       = newValues(n, random);
+      im       = newValues(n, random);
+      expected = dft(re, im, -1);
+      plan.forward(re, im);
+      compare("forward/re n=" + n, expected[0], re);
+      compare("forward/im n=" + n, expected[1], im);
+
+      re       = newValues(n, random);
+      im       = newValues(n, random);
+      expected = dft(re, im, 1);
+      plan.inverse(re, im);
+      for (i = 0; i < n; i++) {
+	expected[0][i] /= n;
+	expected[1][i] /= n;
+      }
+      compare("inverse/re n=" + n, expected[0], re);
+      compare("inverse/im n=" + n, expected[1], im);
+    }
+  }
+
+  /**
+   * Tests that the inverse transform restores the original data.
+   */
+  public void testRoundTrip() {
+    Random	random;
+    FFTPlan	plan;
+    double[]	re;
+    double[]	im;
+    double[]	origRe;
+    double[]	origIm;
+    int		n;
+
+    random = new Random(2);
+    for (n = 1; n <= 4096; n *= 2) {
+      plan   = FFTPlan.getPlan(n);
+      origRe = newValues(n, random);
+      origIm = newValues(n, random);
+      re     = origRe.clone();
+      im     = origIm.clone();
+      plan.forward(re, im);
+      plan.inverse(re, im);
+      compare("re n=" + n, origRe, re);
+      compare("im n=" + n, origIm, im);
+    }
+  }
+
+  /**
+   * Tests that plans get cached and that invalid lengths get rejected.
+   */
+  public void testPlans() {
+    assertSame("cached", FFTPlan.getPlan(64), FFTPlan.getPlan(64));
+    for (int n: new int[]{0, 3, 100, -8}) {
+      try {
+	FFTPlan.getPlan(n);
+	fail("Length accepted: " + n);
+      }
+      catch (IllegalArgumentException e) {
+	// expected
+      }
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(FFTPlanTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FFTUtilsTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumfft;
+
+import adams.data.padding.PaddingHelper;
+import adams.data.padding.PaddingType;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Random;
+
+/**
+ * Tests the real-valued transform of FFTUtils against a naive discrete
+ * Fourier transform.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FFTUtilsTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public FFTUtilsTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Transforms the data and compares the output with the naive DFT.
+   *
+   * @param msg		the message prefix
+   * @param data	the data to transform, length must be a power of 2
+   */
+  protected void compare(String msg, double[] data) {
+    double[]	re;
+    double[]	im;
+    double[][]	expected;
+
+    re       = new double[data.length];
+    im       = new double[data.length];
+    expected = FFTPlanTest.dft(data, new double[data.length], -1);
+    FFTUtils.realForward(data, re, im);
+    FFTPlanTest.compare(msg + "/re", expected[0], re);
+    FFTPlanTest.compare(msg + "/im", expected[1], im);
+  }
+
+  /**
+   * Tests power of 2 lengths.
+   */
+  public void testPow2() {
+    Random	random;
+    int		n;
+
+    random = new Random(1);
+    for (n = 1; n <= 1024; n *= 2)
+      compare("n=" + n, FFTPlanTest.newValues(n, random));
+  }
+
+  /**
+   * Tests lengths that get padded to the next power of 2, the way the
+   * FFT spectrum filter does.
+   */
+  public void testPadded() {
+    Random	random;
+    float[]	amps;
+    double[]	data;
+    int		i;
+
+    random = new Random(2);
+    for (int n: new int[]{3, 5, 100, 257, 1000}) {
+      for (PaddingType type: new PaddingType[]{PaddingType.ZERO, PaddingType.LAST}) {
+	amps = new float[n];
+	for (i = 0; i < n; i++)
+	  amps[i] = (float) random.nextDouble();
+	amps = PaddingHelper.padPow2(amps, type, false);
+	assertTrue("padded length of " + n, (amps.length >= n) && (Integer.bitCount(amps.length) == 1));
+	data = new double[amps.length];
+	for (i = 0; i < amps.length; i++)
+	  data[i] = amps[i];
+	compare("n=" + n + ", padding=" + type, data);
+      }
+    }
+  }
+
+  /**
+   * Tests that the inverse transform of the real-valued transform restores
+   * the original data, with the spectrum being conjugate-symmetric.
+   */
+  public void testRoundTrip() {
+    Random	random;
+    double[]	data;
+    double[]	re;
+    double[]	im;
+    int		n;
+    int		k;
+
+    random = new Random(3);
+    for (n = 2; n <= 4096; n *= 2) {
+      data = FFTPlanTest.newValues(n, random);
+      re   = new double[n];
+      im   = new double[n];
+      FFTUtils.realForward(data, re, im);
+      assertEquals("im[0] n=" + n, 0.0, im[0], 0.0);
+      assertEquals("im[n/2] n=" + n, 0.0, im[n / 2], 0.0);
+      for (k = 1; k < n / 2; k++) {
+	assertEquals("symmetric re n=" + n + ", k=" + k, re[k], re[n - k], 0.0);
+	assertEquals("symmetric im n=" + n + ", k=" + k, -im[k], im[n - k], 0.0);
+      }
+      FFTPlan.getPlan(n).inverse(re, im);
+      FFTPlanTest.compare("re n=" + n, data, re);
+      FFTPlanTest.compare("im n=" + n, new double[n], im);
+    }
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(FFTUtilsTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * FastLOWESSTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+package adams.data.spectrumfilter;
+
+import adams.data.filter.Filter;
+import adams.data.spectrum.Spectrum;
+import adams.env.Environment;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Test class for the FastLOWESS filter. Run from the command line with: <br><br>
+ * java adams.data.spectrumfilter.FastLOWESSTest
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class FastLOWESSTest
+  extends AbstractSpectrumFilterTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name 	the name of the test
+   */
+  public FastLOWESSTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the configured filter.
+   *
+   * @return		the filter
+   */
+  public Filter<Spectrum> getFilter() {
+    return new FastLOWESS();
+  }
+
+  /**
+   * Returns the filenames (without path) of the input data files to use
+   * in the regression test.
+   *
+   * @return		the filenames
+   */
+  @Override
+  protected String[] getRegressionInputFiles() {
+    return new String[]{
+	"872280-nir.spec",
+	"872280-nir.spec",
+	"872280-nir.spec"
+    };
+  }
+
+  /**
+   * Returns the setups to use in the regression test.
+   *
+   * @return		the setups
+   */
+  @Override
+  protected Filter[] getRegressionSetups() {
+    FastLOWESS[]	result;
+
+    result = new FastLOWESS[3];
+
+    result[0] = new FastLOWESS();
+
+    result[1] = new FastLOWESS();
+    result[1].setWindowSize(5);
+
+    result[2] = new FastLOWESS();
+    result[2].setRobustnessIterations(2);
+
+    return result;
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(FastLOWESSTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
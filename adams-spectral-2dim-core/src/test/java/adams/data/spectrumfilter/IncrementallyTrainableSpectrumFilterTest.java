@@ -0,0 +1,195 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * IncrementallyTrainableSpectrumFilterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumfilter;
+
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
+import adams.data.spectrummatrix.DensePCA;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.SpectralTestHelper;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests that training filters implementing IncrementallyTrainableSpectrumFilter
+ * in chunks yields the same models as training them in a single batch.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class IncrementallyTrainableSpectrumFilterTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public IncrementallyTrainableSpectrumFilterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Compares the amplitudes of the spectra.
+   *
+   * @param expected	the expected spectra
+   * @param actual	the actual spectra
+   * @param tolerance	the tolerance for the amplitudes
+   */
+  protected void assertSpectra(Spectrum[] expected, Spectrum[] actual, double tolerance) {
+    int		i;
+
+    assertEquals("number of spectra", expected.length, actual.length);
+    for (i = 0; i < expected.length; i++)
+      assertSpectrum(expected[i], actual[i], tolerance);
+  }
+
+  /**
+   * Compares the amplitudes of the spectrum.
+   *
+   * @param expected	the expected spectrum
+   * @param actual	the actual spectrum
+   * @param tolerance	the tolerance for the amplitudes
+   */
+  protected void assertSpectrum(Spectrum expected, Spectrum actual, double tolerance) {
+    List<SpectrumPoint>	exp;
+    List<SpectrumPoint>	act;
+    int			n;
+
+    exp = expected.toList();
+    act = actual.toList();
+    assertEquals("number of points", exp.size(), act.size());
+    for (n = 0; n < exp.size(); n++) {
+      assertEquals("wave number #" + n, exp.get(n).getWaveNumber(), act.get(n).getWaveNumber(), 1e-6);
+      assertEquals("amplitude #" + n, exp.get(n).getAmplitude(), act.get(n).getAmplitude(), tolerance);
+    }
+  }
+
+  /**
+   * Tests the reference spectrum of MultiplicativeScatterCorrection.
+   */
+  public void testMultiplicativeScatterCorrection() {
+    Spectrum[]				data;
+    MultiplicativeScatterCorrection	batch;
+    MultiplicativeScatterCorrection	chunked;
+
+    data  = SpectralTestHelper.generate(50, 100, 5, 1);
+    batch = new MultiplicativeScatterCorrection();
+    batch.trainFilter(data);
+    chunked = new MultiplicativeScatterCorrection();
+    chunked.trainFilter(Arrays.asList(data).iterator(), 7);
+
+    assertTrue("batch trained", batch.isTrained());
+    assertTrue("chunks trained", chunked.isTrained());
+    assertSpectrum(
+      (Spectrum) batch.getAdditionalData().get(MultiplicativeScatterCorrection.ADDITIONALDATA_AVERAGE),
+      (Spectrum) chunked.getAdditionalData().get(MultiplicativeScatterCorrection.ADDITIONALDATA_AVERAGE),
+      1e-6);
+    assertSpectra(batch.batchFilter(data), chunked.batchFilter(data), 1e-5);
+  }
+
+  /**
+   * Tests the loadings of DensePCA and the scores of the PCA filter.
+   */
+  public void testPCA() {
+    Spectrum[]	data;
+    DensePCA	batch;
+    DensePCA	chunked;
+    double[][]	expected;
+    double[][]	actual;
+    double	dot;
+    double	sign;
+    PCA		batchFilter;
+    PCA		chunkedFilter;
+    int		i;
+    int		c;
+
+    data  = SpectralTestHelper.generate(50, 100, 5, 1);
+    batch = new DensePCA();
+    batch.setMaxComponents(3);
+    batch.fitTransform(SpectrumMatrixHelper.toMatrix(data));
+    chunked = new DensePCA();
+    chunked.setMaxComponents(3);
+    for (i = 0; i < data.length; i += 7)
+      chunked.update(SpectrumMatrixHelper.toMatrix(Arrays.copyOfRange(data, i, Math.min(i + 7, data.length))));
+    chunked.finish();
+
+    // eigenvalues
+    assertEquals("number of components", batch.getEigenvalues().length, chunked.getEigenvalues().length);
+    for (c = 0; c < batch.getEigenvalues().length; c++)
+      assertEquals("eigenvalue #" + c, batch.getEigenvalues()[c], chunked.getEigenvalues()[c], 1e-6 * Math.max(1.0, batch.getEigenvalues()[c]));
+
+    // loadings (only unique up to their sign)
+    expected = batch.getEigenvectors();
+    actual   = chunked.getEigenvectors();
+    for (c = 0; c < expected[0].length; c++) {
+      dot = 0.0;
+      for (i = 0; i < expected.length; i++)
+	dot += expected[i][c] * actual[i][c];
+      sign = (dot < 0) ? -1.0 : 1.0;
+      for (i = 0; i < expected.length; i++)
+	assertEquals("loading " + i + ", component " + c, expected[i][c], sign * actual[i][c], 1e-6);
+    }
+
+    // filter
+    batchFilter = new PCA();
+    batchFilter.setMaxAttributes(3);
+    batchFilter.trainFilter(data);
+    chunkedFilter = new PCA();
+    chunkedFilter.setMaxAttributes(3);
+    chunkedFilter.trainFilter(Arrays.asList(data).iterator(), 7);
+    assertTrue("batch trained", batchFilter.isTrained());
+    assertTrue("chunks trained", chunkedFilter.isTrained());
+    expected = SpectrumMatrixHelper.toMatrix(batchFilter.batchFilter(data));
+    actual   = SpectrumMatrixHelper.toMatrix(chunkedFilter.batchFilter(data));
+    for (c = 0; c < expected[0].length; c++) {
+      dot = 0.0;
+      for (i = 0; i < expected.length; i++)
+	dot += expected[i][c] * actual[i][c];
+      sign = (dot < 0) ? -1.0 : 1.0;
+      for (i = 0; i < expected.length; i++)
+	assertEquals("score " + i + ", component " + c, expected[i][c], sign * actual[i][c], 1e-4 * Math.max(1.0, Math.abs(expected[i][c])));
+    }
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(IncrementallyTrainableSpectrumFilterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * KennardStoneTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumfilter;
+
+import adams.data.container.DataContainer;
+import adams.data.spectrum.Spectrum;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.SpectralTestHelper;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the KennardStone filter.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class KennardStoneTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public KennardStoneTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Selects the subset and returns the IDs of the selected spectra in order.
+   *
+   * @param data	the spectra to select from
+   * @param memoryLight	whether to use memory-light mode
+   * @param numThreads	the number of threads
+   * @return		the IDs
+   */
+  protected String[] select(Spectrum[] data, boolean memoryLight, int numThreads) {
+    String[]		result;
+    KennardStone	filter;
+    DataContainer[]	selected;
+    int			i;
+
+    filter = new KennardStone();
+    filter.setNumberInSubset(10);
+    filter.setMemoryLight(memoryLight);
+    filter.setNumThreads(numThreads);
+    selected = filter.batchFilter(data.clone());
+    result   = new String[selected.length];
+    for (i = 0; i < selected.length; i++)
+      result[i] = ((Spectrum) selected[i]).getID();
+
+    return result;
+  }
+
+  /**
+   * Tests that memory-light mode selects the same spectra as the default
+   * mode, in the same order.
+   */
+  public void testMemoryLight() {
+    Spectrum[]	data;
+    String[]	expected;
+    int		i;
+
+    data     = SpectralTestHelper.generate(60, 50, 4, 7);
+    expected = select(data, false, 1);
+    assertEquals("number selected", 10, expected.length);
+    for (String[] actual: new String[][]{select(data, true, 1), select(data, false, 4), select(data, true, 4)}) {
+      assertEquals("number selected", expected.length, actual.length);
+      for (i = 0; i < expected.length; i++)
+	assertEquals("spectrum #" + i, expected[i], actual[i]);
+    }
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(KennardStoneTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DensePLSTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrummatrix;
+
+import adams.data.instances.SimpleInstanceGenerator;
+import adams.data.instancesanalysis.pls.PLS1;
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrumfilter.PLS;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.SpectralTestHelper;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the DensePLS class against the Instances-based path of the PLS filter.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DensePLSTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public DensePLSTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Compares the scores, aligning the sign of each component.
+   *
+   * @param expected	the expected scores
+   * @param actual	the actual scores
+   */
+  protected void assertScores(double[][] expected, double[][] actual) {
+    double	dot;
+    double	max;
+    double	sign;
+    int		i;
+    int		c;
+
+    assertEquals("number of rows", expected.length, actual.length);
+    assertEquals("number of components", expected[0].length, actual[0].length);
+    for (c = 0; c < expected[0].length; c++) {
+      dot = 0.0;
+      max = 0.0;
+      for (i = 0; i < expected.length; i++) {
+	dot += expected[i][c] * actual[i][c];
+	max  = Math.max(max, Math.abs(expected[i][c]));
+      }
+      sign = (dot < 0) ? -1.0 : 1.0;
+      for (i = 0; i < expected.length; i++)
+	assertEquals("row " + i + ", component " + c, expected[i][c], sign * actual[i][c], 1e-3 * Math.max(1.0, max));
+    }
+  }
+
+  /**
+   * Creates the PLS filter.
+   *
+   * @param direct	whether to use the direct path
+   * @param numThreads	the number of threads
+   * @return		the filter
+   */
+  protected PLS newFilter(boolean direct, int numThreads) {
+    PLS				result;
+    SimpleInstanceGenerator	generator;
+    PLS1			algorithm;
+
+    generator = new SimpleInstanceGenerator();
+    generator.setOffline(true);
+    algorithm = new PLS1();
+    algorithm.setNumComponents(3);
+    result = new PLS();
+    result.setGenerator(generator);
+    result.setAlgorithm(algorithm);
+    result.setDirect(direct);
+    result.setNumThreads(numThreads);
+
+    return result;
+  }
+
+  /**
+   * Compares the scores of the direct path with the Instances-based one.
+   */
+  public void testDirect() {
+    Spectrum[]	data;
+    double[][]	expected;
+    double[][]	actual;
+
+    data     = SpectralTestHelper.generate(50, 100, 8, 42);
+    expected = SpectrumMatrixHelper.toMatrix(newFilter(false, 1).batchFilter(data));
+    actual   = SpectrumMatrixHelper.toMatrix(newFilter(true, 1).batchFilter(data));
+    assertScores(expected, actual);
+  }
+
+  /**
+   * Checks that sharing the executor across the kernels does not change the
+   * scores.
+   */
+  public void testThreads() {
+    Spectrum[]	data;
+    DensePLS	pls;
+    double[]	target;
+    double[][]	expected;
+    double[][]	actual;
+    int		i;
+    int		c;
+
+    data   = SpectralTestHelper.generate(50, 100, 8, 42);
+    target = SpectrumMatrixHelper.toTarget(data, new SimpleInstanceGenerator().getField());
+    pls    = new DensePLS();
+    pls.setNumComponents(3);
+    pls.setNumThreads(1);
+    expected = pls.fitTransform(SpectrumMatrixHelper.toMatrix(data), target);
+    pls    = new DensePLS();
+    pls.setNumComponents(3);
+    pls.setNumThreads(4);
+    actual = pls.fitTransform(SpectrumMatrixHelper.toMatrix(data), target);
+    assertEquals(expected.length, actual.length);
+    for (i = 0; i < expected.length; i++) {
+      for (c = 0; c < expected[i].length; c++)
+	assertEquals("row " + i + ", component " + c, expected[i][c], actual[i][c], 1e-12);
+    }
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(DensePLSTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PairwiseSimilarityTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrummatrix;
+
+import adams.data.spectrummatrix.PairwiseSimilarity.SimilarityType;
+import adams.data.statistics.StatUtils;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.SpectralTestHelper;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the PairwiseSimilarity class against the per-pair computations
+ * of StatUtils.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PairwiseSimilarityTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public PairwiseSimilarityTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns the matrix to use: more rows than a single tile, with the last
+   * tile only partially filled.
+   *
+   * @return		the matrix
+   */
+  protected double[][] getMatrix() {
+    return SpectrumMatrixHelper.toMatrix(SpectralTestHelper.generate(PairwiseSimilarity.TILE_SIZE * 2 + 17, 60, 5, 3));
+  }
+
+  /**
+   * Computes the similarity the way it was done before, pair by pair.
+   *
+   * @param x1		the first vector
+   * @param x2		the second vector
+   * @param type	the type of similarity
+   * @return		the similarity
+   */
+  protected double perPair(double[] x1, double[] x2, SimilarityType type) {
+    if (type == SimilarityType.CORRELATION)
+      return StatUtils.correlationCoefficient(x1, x2);
+    else
+      return StatUtils.cosineSimilarity(x1, x2);
+  }
+
+  /**
+   * Compares the similarity matrix with the per-pair similarities.
+   */
+  public void testSimilarities() {
+    double[][]	x;
+    double[][]	sims;
+    int		i;
+    int		j;
+
+    x = getMatrix();
+    for (SimilarityType type: SimilarityType.values()) {
+      for (int numThreads: new int[]{1, 4}) {
+	sims = PairwiseSimilarity.similarities(PairwiseSimilarity.normalize(x, type, numThreads), numThreads);
+	assertEquals(type + ": rows", x.length, sims.length);
+	for (i = 0; i < x.length; i++) {
+	  for (j = 0; j < x.length; j++)
+	    assertEquals(type + ": " + i + "/" + j, perPair(x[i], x[j], type), sims[i][j], 1e-9);
+	}
+      }
+    }
+  }
+
+  /**
+   * Compares the single pair similarity with the per-pair similarities.
+   */
+  public void testSimilarity() {
+    double[][]	x;
+    int		i;
+
+    x = getMatrix();
+    for (SimilarityType type: SimilarityType.values()) {
+      for (i = 1; i < x.length; i++)
+	assertEquals(type + ": " + i, perPair(x[0], x[i], type), PairwiseSimilarity.similarity(x[0], x[i], type), 1e-9);
+    }
+  }
+
+  /**
+   * Compares the counts with the ones obtained from the similarity matrix.
+   */
+  public void testCountBelow() {
+    double[][]	x;
+    double[][]	normalized;
+    double[][]	sims;
+    int[]	counts;
+    int		expected;
+    int		i;
+    int		j;
+
+    x = getMatrix();
+    for (SimilarityType type: SimilarityType.values()) {
+      normalized = PairwiseSimilarity.normalize(x, type, 1);
+      sims       = PairwiseSimilarity.similarities(normalized, 1);
+      for (double threshold: new double[]{0.5, 0.9, 0.99}) {
+	for (int numThreads: new int[]{1, 4}) {
+	  counts = PairwiseSimilarity.countBelow(normalized, threshold, numThreads);
+	  for (i = 0; i < x.length; i++) {
+	    expected = 0;
+	    for (j = 0; j < x.length; j++) {
+	      if ((i != j) && (sims[i][j] < threshold))
+		expected++;
+	    }
+	    assertEquals(type + "/" + threshold + ": " + i, expected, counts[i]);
+	  }
+	}
+      }
+    }
+  }
+
+  /**
+   * Compares the similarities with a reference vector with the per-pair
+   * similarities.
+   */
+  public void testReference() {
+    double[][]	x;
+    double[]	mean;
+    double[]	sims;
+    int		i;
+
+    x    = getMatrix();
+    mean = SpectrumMatrixHelper.columnMeans(x, 1);
+    sims = PairwiseSimilarity.similarities(
+      PairwiseSimilarity.normalize(x, SimilarityType.COSINE, 1),
+      PairwiseSimilarity.normalize(mean, SimilarityType.COSINE), 4);
+    for (i = 0; i < x.length; i++)
+      assertEquals("row " + i, StatUtils.cosineSimilarity(x[i], mean), sims[i], 1e-9);
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(PairwiseSimilarityTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectralSearchIndexTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.spectrumsearch;
+
+import adams.data.spectrum.Spectrum;
+import adams.data.spectrumsearch.SpectralSearchIndex.Measure;
+import adams.data.spectrumsearch.SpectralSearchIndex.SearchResult;
+import adams.data.spectrummatrix.PairwiseSimilarity;
+import adams.data.spectrummatrix.PairwiseSimilarity.SimilarityType;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.SpectralTestHelper;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests the SpectralSearchIndex class.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectralSearchIndexTest
+  extends AdamsTestCase {
+
+  /** the number of neighbours to search for. */
+  public final static int K = 5;
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public SpectralSearchIndexTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    new TmpFile("index.ssi").delete();
+
+    super.tearDown();
+  }
+
+  /**
+   * Returns the library to index.
+   *
+   * @return		the library
+   */
+  protected Spectrum[] getLibrary() {
+    return SpectralTestHelper.generate(400, 40, 6, 21);
+  }
+
+  /**
+   * Returns the queries: new spectra and some of the library spectra
+   * themselves (distance close to 0, where acos is least precise).
+   *
+   * @param library	the library
+   * @return		the queries
+   */
+  protected Spectrum[] getQueries(Spectrum[] library) {
+    Spectrum[]	result;
+
+    result = Arrays.copyOf(SpectralTestHelper.generate(20, 40, 6, 22), 25);
+    result[20] = library[0];
+    result[21] = library[7];
+    result[22] = library[99];
+    result[23] = library[200];
+    result[24] = library[399];
+
+    return result;
+  }
+
+  /**
+   * Creates the index.
+   *
+   * @param measure	the measure to use
+   * @param library	the spectra to index
+   * @return		the index
+   */
+  protected SpectralSearchIndex build(Measure measure, Spectrum[] library) {
+    SpectralSearchIndex	result;
+
+    result = new SpectralSearchIndex();
+    result.setMeasure(measure);
+    result.setLeafSize(4);
+    result.build(library);
+
+    return result;
+  }
+
+  /**
+   * Brute-force search using the spectral angle.
+   *
+   * @param library	the library
+   * @param query	the query
+   * @param type	the type of normalization
+   * @return		the indices of the closest spectra, closest first,
+   * 			and their angles
+   */
+  protected double[][] bruteForce(double[][] library, double[] query, SimilarityType type) {
+    double[][]	result;
+    double[]	normQuery;
+    double	dot;
+    int		i;
+
+    normQuery = PairwiseSimilarity.normalize(query, type);
+    result    = new double[library.length][];
+    for (i = 0; i < library.length; i++) {
+      dot       = PairwiseSimilarity.dot(PairwiseSimilarity.normalize(library[i], type), normQuery);
+      result[i] = new double[]{i, Math.acos(Math.max(-1.0, Math.min(1.0, dot)))};
+    }
+    Arrays.sort(result, (a, b) -> Double.compare(a[1], b[1]));
+
+    return Arrays.copyOf(result, K);
+  }
+
+  /**
+   * Compares the search results with the brute-force ones.
+   *
+   * @param msg		the message prefix
+   * @param measure	the measure
+   * @param expected	the brute-force results
+   * @param actual	the results of the index
+   */
+  protected void assertResults(String msg, Measure measure, double[][] expected, List<SearchResult> actual) {
+    int		i;
+    double	value;
+
+    assertEquals(msg + ": number of results", expected.length, actual.size());
+    for (i = 0; i < expected.length; i++) {
+      value = (measure == Measure.SPECTRAL_ANGLE) ? expected[i][1] : Math.cos(expected[i][1]);
+      assertEquals(msg + ": index #" + i, (int) expected[i][0], actual.get(i).getIndex());
+      assertEquals(msg + ": value #" + i, value, actual.get(i).getValue(), 1e-7);
+    }
+  }
+
+  /**
+   * Compares the k-NN search with brute-force search.
+   */
+  public void testBruteForce() {
+    Spectrum[]		library;
+    Spectrum[]		queries;
+    double[][]		matrix;
+    double[][]		queryMatrix;
+    SpectralSearchIndex	index;
+    List<SearchResult>[]	batch;
+    double[][]		expected;
+    int			i;
+
+    library     = getLibrary();
+    queries     = getQueries(library);
+    matrix      = SpectrumMatrixHelper.toMatrix(library);
+    queryMatrix = SpectrumMatrixHelper.toMatrix(queries);
+    for (Measure measure: Measure.values()) {
+      index = build(measure, library);
+      assertEquals(measure + ": size", library.length, index.size());
+      batch = index.search(queries, K, 4);
+      for (i = 0; i < queries.length; i++) {
+	expected = bruteForce(matrix, queryMatrix[i], (measure == Measure.CORRELATION) ? SimilarityType.CORRELATION : SimilarityType.COSINE);
+	assertResults(measure + "/" + i, measure, expected, index.search(queries[i], K));
+	assertResults(measure + "/" + i + " (batch)", measure, expected, batch[i]);
+      }
+    }
+  }
+
+  /**
+   * Tests writing and reading the index.
+   */
+  public void testWriteRead() throws Exception {
+    Spectrum[]		library;
+    Spectrum[]		queries;
+    SpectralSearchIndex	index;
+    SpectralSearchIndex	loaded;
+    TmpFile		file;
+    List<SearchResult>	expected;
+    List<SearchResult>	actual;
+    int			i;
+    int			n;
+
+    library = getLibrary();
+    queries = getQueries(library);
+    index   = build(Measure.SPECTRAL_ANGLE, library);
+    file    = new TmpFile("index.ssi");
+    index.write(file);
+    loaded  = SpectralSearchIndex.read(file);
+
+    assertEquals("measure", index.getMeasure(), loaded.getMeasure());
+    assertEquals("size", index.size(), loaded.size());
+    assertTrue("wave numbers", Arrays.equals(index.getWaveNumbers(), loaded.getWaveNumbers()));
+    for (i = 0; i < queries.length; i++) {
+      expected = index.search(queries[i], K);
+      actual   = loaded.search(queries[i], K);
+      assertEquals("number of results #" + i, expected.size(), actual.size());
+      for (n = 0; n < expected.size(); n++) {
+	assertEquals("index " + i + "/" + n, expected.get(n).getIndex(), actual.get(n).getIndex());
+	assertEquals("ID " + i + "/" + n, expected.get(n).getID(), actual.get(n).getID());
+	assertEquals("value " + i + "/" + n, expected.get(n).getValue(), actual.get(n).getValue(), 0.0);
+      }
+    }
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(SpectralSearchIndexTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
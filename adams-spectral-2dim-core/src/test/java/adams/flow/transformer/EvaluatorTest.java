@@ -20,17 +20,31 @@
 
 package adams.flow.transformer;
 
+import adams.data.evaluator.instance.DistanceToClosest;
 import adams.env.Environment;
 import adams.flow.AbstractSpectrumFlowTest;
+import adams.flow.container.EvaluationContainer;
 import adams.flow.control.Flow;
+import adams.flow.control.StorageName;
+import adams.flow.core.AbstractModelLoader.ModelLoadingType;
 import adams.flow.core.Actor;
+import adams.flow.core.Token;
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 /**
  * Tests the Evaluator actor.
  * <br><br>
- * NB: Dummy test.
+ * NB: Dummy flow test, only the batch evaluation mode gets tested.
  *
  * @author  fracpete (fracpete at waikato dot ac dot nz)
  * @version $Revision: 2242 $
@@ -57,6 +71,118 @@ public class EvaluatorTest
     return new Flow();
   }
 
+  /**
+   * Generates a random dataset with a numeric class.
+   *
+   * @param numInstances	the number of rows
+   * @param seed		the seed for the random number generator
+   * @return			the dataset
+   */
+  protected Instances generate(int numInstances, long seed) {
+    Instances			result;
+    ArrayList<Attribute>	atts;
+    double[]			values;
+    Random			rnd;
+    int				i;
+    int				n;
+
+    atts = new ArrayList<>();
+    for (i = 0; i < 5; i++)
+      atts.add(new Attribute("att" + (i+1)));
+    atts.add(new Attribute("class"));
+    result = new Instances("random", atts, numInstances);
+    result.setClassIndex(result.numAttributes() - 1);
+    rnd = new Random(seed);
+    for (i = 0; i < numInstances; i++) {
+      values = new double[result.numAttributes()];
+      for (n = 0; n < values.length; n++)
+	values[n] = rnd.nextDouble();
+      result.add(new DenseInstance(1.0, values));
+    }
+
+    return result;
+  }
+
+  /**
+   * Evaluates the dataset in batch evaluation mode, using the evaluator
+   * from storage.
+   *
+   * @param evaluator	the built evaluator
+   * @param input	the input payload
+   * @return		the generated containers
+   */
+  protected List<EvaluationContainer> evaluateBatch(DistanceToClosest evaluator, Object input) {
+    List<EvaluationContainer>	result;
+    Flow			flow;
+    Evaluator			actor;
+
+    actor = new Evaluator();
+    actor.setModelLoadingType(ModelLoadingType.STORAGE);
+    actor.setModelStorage(new StorageName("evaluator"));
+    actor.setBatchEvaluation(true);
+    flow = new Flow();
+    flow.setActors(new Actor[]{actor});
+    assertNull("setUp", flow.setUp());
+    flow.getStorage().put(new StorageName("evaluator"), evaluator);
+
+    result = new ArrayList<>();
+    actor.input(new Token(input));
+    assertNull("execute", actor.execute());
+    while (actor.hasPendingOutput())
+      result.add((EvaluationContainer) actor.output().getPayload());
+
+    flow.wrapUp();
+    flow.cleanUp();
+
+    return result;
+  }
+
+  /**
+   * Tests the batch evaluation mode.
+   */
+  public void testBatchEvaluation() {
+    Instances			train;
+    Instances			test;
+    DistanceToClosest		evaluator;
+    List<EvaluationContainer>	conts;
+    EvaluationContainer		cont;
+    Map<String,Object>		evals;
+    int				i;
+
+    train     = generate(40, 1);
+    test      = generate(10, 2);
+    evaluator = new DistanceToClosest();
+    evaluator.build(train);
+
+    // plain dataset
+    conts = evaluateBatch(evaluator, test);
+    assertEquals("number of containers", test.numInstances(), conts.size());
+
+    // container without and with evaluations
+    evals = new HashMap<>();
+    evals.put("Previous", 1.0f);
+    for (Map<String,Object> input: new Map[]{null, evals}) {
+      cont = new EvaluationContainer(test);
+      if (input != null)
+	cont.setValue(EvaluationContainer.VALUE_EVALUATIONS, input);
+      conts = evaluateBatch(evaluator, cont);
+      assertEquals("number of containers", test.numInstances(), conts.size());
+      for (i = 0; i < conts.size(); i++) {
+	cont = conts.get(i);
+	assertFalse("no dataset #" + i, cont.hasValue(EvaluationContainer.VALUE_INSTANCES));
+	assertSame("instance #" + i, test.instance(i), cont.getValue(EvaluationContainer.VALUE_INSTANCE));
+	assertEquals(
+	  "evaluation #" + i,
+	  evaluator.evaluate(test.instance(i)).get(DistanceToClosest.DEFAULT_METRIC),
+	  ((Map<String,Object>) cont.getValue(EvaluationContainer.VALUE_EVALUATIONS)).get("Evaluator"));
+	if (input != null)
+	  assertEquals("previous #" + i, 1.0f, ((Map<String,Object>) cont.getValue(EvaluationContainer.VALUE_EVALUATIONS)).get("Previous"));
+      }
+      if (input != null)
+	assertEquals("input evaluations unchanged", 1, input.size());
+    }
+  }
+
   /**
    * Returns a test suite.
    *
@@ -35,16 +35,23 @@ import adams.core.io.SimpleFixedFilenameGenerator;
 import adams.data.conversion.AnyToString;
 import adams.data.io.input.SimpleSpectrumReader;
 import adams.data.io.output.TextFileWriter;
+import adams.data.spectrum.Spectrum;
 import adams.data.spectrum.SpectrumComparator;
+import adams.data.spectrummatrix.SpectrumMatrixHelper;
+import adams.data.spreadsheet.Row;
+import adams.data.spreadsheet.SpreadSheet;
+import adams.data.statistics.SpectralAngleMapperUtils;
 import adams.flow.control.ArrayProcess;
 import adams.flow.control.StorageName;
 import adams.flow.control.Trigger;
 import adams.flow.control.flowrestart.NullManager;
 import adams.flow.core.Actor;
+import adams.flow.core.Token;
 import adams.flow.execution.NullListener;
 import adams.flow.sink.TextWriter;
 import adams.flow.source.FileSupplier;
 import adams.flow.source.Start;
+import adams.test.SpectralTestHelper;
 
 /**
  * Test for SpectralAngleMapper actor.
@@ -110,6 +117,146 @@ public class SpectralAngleMapperTest
         });
   }
 
+  /**
+   * Processes the inputs with the actor, using the references stored in the
+   * storage of the enclosing flow.
+   *
+   * @param sam		the actor to use
+   * @param references	the reference spectra
+   * @param inputs	the payloads to process
+   * @return		the generated payloads
+   */
+  protected Object[] process(SpectralAngleMapper sam, Spectrum[] references, Object... inputs) {
+    Object[]	result;
+    Flow	flow;
+    int		i;
+
+    sam.setReferences(new StorageName("references"));
+    flow = new Flow();
+    flow.setActors(new Actor[]{sam});
+    assertNull("setUp", flow.setUp());
+    flow.getStorage().put(new StorageName("references"), references);
+
+    result = new Object[inputs.length];
+    for (i = 0; i < inputs.length; i++) {
+      sam.input(new Token(inputs[i]));
+      assertNull("execute #" + i, sam.execute());
+      assertTrue("output #" + i, sam.hasPendingOutput());
+      result[i] = sam.output().getPayload();
+    }
+
+    flow.wrapUp();
+    flow.cleanUp();
+
+    return result;
+  }
+
+  /**
+   * Tests processing an array of spectra, which must yield the same angles as
+   * processing the spectra one by one.
+   */
+  public void testBatch() {
+    Spectrum[]	references;
+    Spectrum[]	input;
+    double[][]	refs;
+    double[][]	expected;
+    Object[]	single;
+    double[][]	batch;
+    int		i;
+    int		n;
+
+    references = SpectralTestHelper.generate(5, 50, 3, 11);
+    input      = SpectralTestHelper.generate(4, 50, 3, 12);
+    refs       = SpectrumMatrixHelper.toMatrix(references);
+    expected   = new double[input.length][];
+    for (i = 0; i < input.length; i++)
+      expected[i] = SpectralAngleMapperUtils.sam(SpectrumMatrixHelper.toMatrix(new Spectrum[]{input[i]})[0], refs, false);
+
+    single = process(new SpectralAngleMapper(), references, (Object[]) input);
+    batch  = (double[][]) process(new SpectralAngleMapper(), references, new Object[]{input})[0];
+    assertEquals("number of rows", input.length, batch.length);
+    for (i = 0; i < input.length; i++) {
+      assertEquals("number of angles #" + i, references.length, batch[i].length);
+      for (n = 0; n < references.length; n++) {
+	assertEquals("single " + i + "/" + n, expected[i][n], ((double[]) single[i])[n], 1e-9);
+	assertEquals("batch " + i + "/" + n, expected[i][n], batch[i][n], 1e-9);
+      }
+    }
+  }
+
+  /**
+   * Tests the modified algorithm against the utility class and that the
+   * angle between identical spectra is 0.
+   */
+  public void testModified() {
+    Spectrum[]		references;
+    Spectrum[]		input;
+    SpectralAngleMapper	sam;
+    double[][]		refs;
+    double[]		expected;
+    double[][]		batch;
+    double[]		same;
+    int			i;
+    int			n;
+
+    references = SpectralTestHelper.generate(5, 50, 3, 11);
+    input      = SpectralTestHelper.generate(4, 50, 3, 12);
+    refs       = SpectrumMatrixHelper.toMatrix(references);
+
+    sam = new SpectralAngleMapper();
+    sam.setModified(true);
+    batch = (double[][]) process(sam, references, new Object[]{input})[0];
+    for (i = 0; i < input.length; i++) {
+      expected = SpectralAngleMapperUtils.sam(SpectrumMatrixHelper.toMatrix(new Spectrum[]{input[i]})[0], refs, true);
+      for (n = 0; n < references.length; n++)
+	assertEquals("modified " + i + "/" + n, expected[n], batch[i][n], 1e-9);
+    }
+
+    same = (double[]) process(new SpectralAngleMapper(), references, references[2])[0];
+    assertEquals("identical", 0.0, same[2], 1e-7);
+  }
+
+  /**
+   * Tests the spreadsheet output with the top-k closest references.
+   */
+  public void testTopK() {
+    Spectrum[]		references;
+    Spectrum[]		input;
+    SpectralAngleMapper	sam;
+    double[][]		angles;
+    SpreadSheet		sheet;
+    Row			row;
+    double		last;
+    int			i;
+    int			n;
+    int			index;
+
+    references = SpectralTestHelper.generate(6, 50, 3, 11);
+    input      = SpectralTestHelper.generate(3, 50, 3, 12);
+    angles     = (double[][]) process(new SpectralAngleMapper(), references, new Object[]{input})[0];
+
+    sam = new SpectralAngleMapper();
+    sam.setTopK(2);
+    sheet = (SpreadSheet) process(sam, references, new Object[]{input})[0];
+    assertEquals("number of rows", input.length * 2, sheet.getRowCount());
+    for (i = 0; i < input.length; i++) {
+      last = -1;
+      for (n = 0; n < 2; n++) {
+	row   = sheet.getRow(i * 2 + n);
+	index = row.getCell(2).toLong().intValue() - 1;
+	assertEquals("input", input[i].getID(), row.getCell(0).getContent());
+	assertEquals("rank", n + 1, row.getCell(1).toLong().intValue());
+	assertEquals("ID", references[index].getID(), row.getCell(3).getContent());
+	assertEquals("angle", angles[i][index], row.getCell(4).toDouble(), 1e-9);
+	assertTrue("sorted", angles[i][index] >= last);
+	last = angles[i][index];
+      }
+      // no other reference is closer than the ones listed
+      for (n = 0; n < references.length; n++)
+	assertTrue("closest", angles[i][n] >= sheet.getRow(i * 2).getCell(4).toDouble() - 1e-9);
+    }
+  }
+
   /**
    * 
    * Returns a test suite.
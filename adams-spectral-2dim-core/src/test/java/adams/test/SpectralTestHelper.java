@@ -24,10 +24,15 @@ import adams.core.base.BasePassword;
 import adams.db.AbstractDatabaseConnection;
 import adams.data.io.input.SimpleSpectrumReader;
 import adams.data.io.output.SimpleSpectrumWriter;
+import adams.data.report.DataType;
+import adams.data.report.Field;
 import adams.data.sampledata.SampleData;
 import adams.data.spectrum.Spectrum;
+import adams.data.spectrum.SpectrumPoint;
 import adams.db.DatabaseConnection;
 
+import java.util.Random;
+
 /**
  * A helper class specific to the project.
  *
@@ -140,4 +145,57 @@ public class SpectralTestHelper
 
     return result;
   }
+
+  /**
+   * Generates synthetic spectra: mixtures of Gaussian bands with random
+   * concentrations plus some noise. The concentration of the first band gets
+   * stored as numeric reference value "ADN1" (the default class field of
+   * the instance generators).
+   *
+   * @param numSpectra	the number of spectra to generate
+   * @param numPoints	the number of wave numbers per spectrum
+   * @param numBands	the number of bands to mix
+   * @param seed	the seed for the random number generator
+   * @return		the spectra
+   */
+  public static Spectrum[] generate(int numSpectra, int numPoints, int numBands, long seed) {
+    Spectrum[]	result;
+    Random	rnd;
+    double[]	centers;
+    double[]	widths;
+    double[]	conc;
+    double	ampl;
+    Field	field;
+    int		i;
+    int		n;
+    int		b;
+
+    rnd     = new Random(seed);
+    centers = new double[numBands];
+    widths  = new double[numBands];
+    for (b = 0; b < numBands; b++) {
+      centers[b] = rnd.nextDouble() * numPoints;
+      widths[b]  = 2.0 + rnd.nextDouble() * numPoints / 10.0;
+    }
+
+    field  = new Field("ADN1", DataType.NUMERIC);
+    result = new Spectrum[numSpectra];
+    conc   = new double[numBands];
+    for (i = 0; i < numSpectra; i++) {
+      for (b = 0; b < numBands; b++)
+	conc[b] = rnd.nextDouble();
+      result[i] = new Spectrum();
+      result[i].setID("synthetic-" + (i+1));
+      for (n = 0; n < numPoints; n++) {
+	ampl = 0.01 * rnd.nextGaussian();
+	for (b = 0; b < numBands; b++)
+	  ampl += conc[b] * Math.exp(-0.5 * Math.pow((n - centers[b]) / widths[b], 2));
+	result[i].add(new SpectrumPoint(1000 + n, (float) ampl));
+      }
+      result[i].getReport().addField(field);
+      result[i].getReport().setValue(field, conc[0]);
+    }
+
+    return result;
+  }
 }
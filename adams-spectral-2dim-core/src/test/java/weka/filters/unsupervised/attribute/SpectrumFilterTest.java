@@ -0,0 +1,178 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SpectrumFilterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package weka.filters.unsupervised.attribute;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+import weka.core.SerializedObject;
+import weka.filters.Filter;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Tests the SpectrumFilter filter.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpectrumFilterTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public SpectrumFilterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates a dataset with an ID, a number of amplitudes and a class.
+   *
+   * @param numRows	the number of rows
+   * @param numAmps	the number of amplitudes
+   * @param seed	the seed for the random number generator
+   * @return		the data
+   */
+  protected Instances generate(int numRows, int numAmps, long seed) {
+    Instances			result;
+    ArrayList<Attribute>	atts;
+    double[]			values;
+    Random			rnd;
+    int				i;
+    int				n;
+
+    atts = new ArrayList<>();
+    atts.add(new Attribute("id"));
+    for (i = 0; i < numAmps; i++)
+      atts.add(new Attribute(SpectrumFilter.PREFIX_AMPLITUDE + (i + 1)));
+    atts.add(new Attribute("class"));
+    result = new Instances("spectra", atts, numRows);
+    result.setClassIndex(result.numAttributes() - 1);
+    rnd = new Random(seed);
+    for (i = 0; i < numRows; i++) {
+      values    = new double[result.numAttributes()];
+      values[0] = i;
+      for (n = 0; n < numAmps; n++)
+	values[n + 1] = 10.0 * rnd.nextDouble() + n;
+      values[values.length - 1] = rnd.nextDouble();
+      result.add(new DenseInstance(1.0, values));
+    }
+
+    return result;
+  }
+
+  /**
+   * Trains a filter that standardizes the spectral part.
+   *
+   * @param train	the training data
+   * @return		the trained filter
+   * @throws Exception	if training fails
+   */
+  protected SpectrumFilter train(Instances train) throws Exception {
+    SpectrumFilter	result;
+
+    result = new SpectrumFilter();
+    result.setFilter(new Standardize());
+    result.setInputFormat(train);
+    Filter.useFilter(train, result);
+
+    return result;
+  }
+
+  /**
+   * Compares the two datasets.
+   *
+   * @param expected	the expected data
+   * @param actual	the actual data
+   */
+  protected void assertData(Instances expected, Instances actual) {
+    int		i;
+    int		n;
+
+    assertNull(expected.equalHeadersMsg(actual), expected.equalHeadersMsg(actual));
+    assertEquals("number of rows", expected.numInstances(), actual.numInstances());
+    for (i = 0; i < expected.numInstances(); i++) {
+      for (n = 0; n < expected.numAttributes(); n++)
+	assertEquals("row " + i + ", attribute " + n, expected.instance(i).value(n), actual.instance(i).value(n), 1e-12);
+    }
+  }
+
+  /**
+   * Checks that a filter without the index mapping (as deserialized from
+   * older models) rebuilds it and still filters the same way.
+   *
+   * @throws Exception	if filtering fails
+   */
+  public void testMissingIndices() throws Exception {
+    SpectrumFilter	filter;
+    SpectrumFilter	copy;
+    Instances		test;
+
+    filter = train(generate(20, 10, 1));
+    test   = generate(5, 10, 2);
+    copy   = (SpectrumFilter) new SerializedObject(filter).getObject();
+    copy.m_InputIndices       = null;
+    copy.m_TransformedIndices = null;
+    assertData(Filter.useFilter(test, filter), Filter.useFilter(test, copy));
+  }
+
+  /**
+   * Checks that a trained filter that was serialized filters the same way.
+   *
+   * @throws Exception	if filtering fails
+   */
+  public void testSerialization() throws Exception {
+    SpectrumFilter	filter;
+    SpectrumFilter	copy;
+    Instances		test;
+
+    filter = train(generate(20, 10, 1));
+    test   = generate(5, 10, 2);
+    copy   = (SpectrumFilter) new SerializedObject(filter).getObject();
+    assertData(Filter.useFilter(test, filter), Filter.useFilter(test, copy));
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(SpectrumFilterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -20,6 +20,7 @@
 
 package adams.flow.webservice;
 
+import adams.core.CleanUpHandler;
 import adams.core.logging.LoggingHelper;
 import adams.core.option.AbstractOptionHandler;
 import adams.data.spectrum.Spectrum;
@@ -37,24 +38,170 @@ import nz.ac.waikato.adams.webservice.spectral.transform.SpectralTransformServic
 import nz.ac.waikato.adams.webservice.spectral.transform.TransformRequest;
 import nz.ac.waikato.adams.webservice.spectral.transform.TransformResponse;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
 /**
- * Class that implements the Spectral web service.  
+ <!-- globalinfo-start -->
+ * Simple implementation of a Spectral transform webservice.<br>
+ * Each callable transformer gets looked up and checked only once. With a pool size larger than 1, additional copies of the callable transformer get set up, allowing concurrent requests to get processed in parallel. Requests wait for a free transformer up to the specified timeout.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-pool-size &lt;int&gt; (property: poolSize)
+ * &nbsp;&nbsp;&nbsp;The number of instances of each callable transformer to use for processing
+ * &nbsp;&nbsp;&nbsp;requests concurrently; 1 uses only the callable transformer itself.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ * <pre>-timeout &lt;int&gt; (property: timeout)
+ * &nbsp;&nbsp;&nbsp;The maximum time in milliseconds that a request waits for a free callable
+ * &nbsp;&nbsp;&nbsp;transformer.
+ * &nbsp;&nbsp;&nbsp;default: 60000
+ * &nbsp;&nbsp;&nbsp;minimum: 1
+ * </pre>
+ *
+ <!-- options-end -->
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class SimpleSpectralTransformService
   extends AbstractOptionHandler
-  implements SpectralTransformService, OwnedBySpectralTransformServiceWS, DatabaseConnectionUser {
+  implements SpectralTransformService, OwnedBySpectralTransformServiceWS, DatabaseConnectionUser, CleanUpHandler {
 
   /** for serialization. */
   private static final long serialVersionUID = -6102580694812360595L;
 
+  /**
+   * Pool of set up instances of a callable transformer.
+   */
+  public static class CallableTransformerPool
+    implements Serializable {
+
+    private static final long serialVersionUID = 1943870525839061752L;
+
+    /** the error message, null if the pool is usable. */
+    protected String m_Error;
+
+    /** the copies that were created for the pool. */
+    protected List<Actor> m_Copies;
+
+    /** the available instances. */
+    protected BlockingQueue<Actor> m_Available;
+
+    /**
+     * Initializes the pool. Copies that fail to set up get logged and left
+     * out, the pool uses the instances that were set up successfully.
+     *
+     * @param callable	the callable transformer
+     * @param size	the number of instances, including the callable transformer
+     * @param logger	for logging copies that failed to set up
+     */
+    public CallableTransformerPool(Actor callable, int size, Logger logger) {
+      Actor	copy;
+      String	msg;
+      int	i;
+
+      m_Copies    = new ArrayList<>();
+      m_Available = new ArrayBlockingQueue<>(size);
+      m_Available.add(callable);
+      for (i = 1; i < size; i++) {
+	copy = callable.shallowCopy();
+	copy.setParent(callable.getParent());
+	msg = copy.setUp();
+	if (msg != null) {
+	  logger.warning("Failed to set up copy #" + i + " of callable transformer '" + callable.getName() + "', skipped: " + msg);
+	  copy.cleanUp();
+	  continue;
+	}
+	m_Copies.add(copy);
+	m_Available.add(copy);
+      }
+    }
+
+    /**
+     * Initializes the pool with an error, e.g., if the callable actor
+     * is not a suitable transformer.
+     *
+     * @param error	the error message
+     */
+    public CallableTransformerPool(String error) {
+      m_Error     = error;
+      m_Copies    = new ArrayList<>();
+      m_Available = new ArrayBlockingQueue<>(1);
+    }
+
+    /**
+     * Returns the error message.
+     *
+     * @return		the error, null if the pool is usable
+     */
+    public String getError() {
+      return m_Error;
+    }
+
+    /**
+     * Obtains a free instance, waiting if necessary.
+     *
+     * @param timeout	the maximum time to wait in milliseconds
+     * @return		the instance, null if none available within the timeout
+     * @throws InterruptedException	if interrupted while waiting
+     */
+    public Actor acquire(int timeout) throws InterruptedException {
+      return m_Available.poll(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Makes the instance available again.
+     *
+     * @param actor	the instance
+     */
+    public void release(Actor actor) {
+      m_Available.add(actor);
+    }
+
+    /**
+     * Wraps up and cleans up the copies. The callable transformer itself is
+     * managed by the flow.
+     */
+    public void cleanUp() {
+      for (Actor copy: m_Copies) {
+	copy.wrapUp();
+	copy.cleanUp();
+      }
+      m_Copies.clear();
+    }
+  }
+
   /** web service object   */
   protected adams.flow.webservice.SpectralTransformServiceWS m_Owner;
 
   /** the database connection. */
   protected adams.db.AbstractDatabaseConnection m_DatabaseConnection;
-  
+
+  /** the number of instances per callable transformer. */
+  protected int m_PoolSize;
+
+  /** the timeout in milliseconds for waiting for a free instance. */
+  protected int m_Timeout;
+
+  /** the pools per callable transformer. */
+  protected transient Map<String,CallableTransformerPool> m_Pools;
+
   /**
    * Default Constructor.
    * <br><br>
@@ -73,7 +220,93 @@ public class SimpleSpectralTransformService
    */
   @Override
   public String globalInfo() {
-    return "Simple implementation of a Spectral transform webservice.";
+    return
+      "Simple implementation of a Spectral transform webservice.\n"
+	+ "Each callable transformer gets looked up and checked only once. "
+	+ "With a pool size larger than 1, additional copies of the callable "
+	+ "transformer get set up, allowing concurrent requests to get processed "
+	+ "in parallel. Requests wait for a free transformer up to the specified "
+	+ "timeout.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "pool-size", "poolSize",
+      1, 1, null);
+
+    m_OptionManager.add(
+      "timeout", "timeout",
+      60000, 1, null);
+  }
+
+  /**
+   * Sets the number of instances per callable transformer.
+   *
+   * @param value	the number of instances
+   */
+  public void setPoolSize(int value) {
+    if (getOptionManager().isValid("poolSize", value)) {
+      m_PoolSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the number of instances per callable transformer.
+   *
+   * @return		the number of instances
+   */
+  public int getPoolSize() {
+    return m_PoolSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String poolSizeTipText() {
+    return
+      "The number of instances of each callable transformer to use for "
+	+ "processing requests concurrently; 1 uses only the callable transformer itself.";
+  }
+
+  /**
+   * Sets the maximum time a request waits for a free callable transformer.
+   *
+   * @param value	the timeout in milliseconds
+   */
+  public void setTimeout(int value) {
+    if (getOptionManager().isValid("timeout", value)) {
+      m_Timeout = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum time a request waits for a free callable transformer.
+   *
+   * @return		the timeout in milliseconds
+   */
+  public int getTimeout() {
+    return m_Timeout;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String timeoutTipText() {
+    return "The maximum time in milliseconds that a request waits for a free callable transformer.";
   }
 
   /**
@@ -94,6 +327,7 @@ public class SimpleSpectralTransformService
    * @param value	the owner
    */
   public void setOwner(SpectralTransformServiceWS value) {
+    cleanUp();
     m_Owner = value;
     
     if ((m_Owner != null) && (m_Owner.getFlowContext() != null))
@@ -111,15 +345,59 @@ public class SimpleSpectralTransformService
     return m_Owner;
   }
 
+  /**
+   * Returns the pool for the callable transformer, looking up and checking
+   * the callable actor the first time. Only usable pools get kept, failed
+   * lookups get retried with the next request.
+   *
+   * @param action	the name of the callable transformer
+   * @return		the pool
+   */
+  protected synchronized CallableTransformerPool getPool(String action) {
+    CallableTransformerPool	result;
+    CallableActorHelper		helper;
+    Actor 			callable;
+    Compatibility		comp;
+
+    if (m_Pools == null)
+      m_Pools = new HashMap<>();
+    if (m_Pools.containsKey(action))
+      return m_Pools.get(action);
+
+    helper   = new CallableActorHelper();
+    callable = helper.findCallableActor(m_Owner.getFlowContext().getRoot(), new CallableActorReference(action));
+    comp     = new Compatibility();
+
+    // not found
+    if (callable == null)
+      result = new CallableTransformerPool("Failed to find callable actor '" + action + "'!");
+    // not a transformer
+    else if (!ActorUtils.isTransformer(callable))
+      result = new CallableTransformerPool("Callable actor '" + action + "' is not a transformer!");
+    // wrong input/output
+    else if (!comp.isCompatible(new Class[]{Spectrum.class}, ((InputConsumer) callable).accepts()))
+      result = new CallableTransformerPool("Callable transformer '" + action + "' does not accept " + Spectrum.class.getName() + "!");
+    else if (!comp.isCompatible(((OutputProducer) callable).generates(), new Class[]{Spectrum.class}))
+      result = new CallableTransformerPool("Callable transformer '" + action + "' does not generate " + Spectrum.class.getName() + "!");
+    else
+      result = new CallableTransformerPool(callable, m_PoolSize, m_Owner.getLogger());
+
+    if (result.getError() != null)
+      m_Owner.getLogger().severe(result.getError());
+    else
+      m_Pools.put(action, result);
+
+    return result;
+  }
+
   /**
    * Transforms a spectrum.
    */
   @Override
   public TransformResponse transform(TransformRequest parameters) {
     TransformResponse		result;
-    CallableActorHelper		helper;
+    CallableTransformerPool	pool;
     Actor 			callable;
-    Compatibility		comp;
     String			msg;
     Token			output;
     Spectrum			sp;
@@ -130,65 +408,67 @@ public class SimpleSpectralTransformService
     result.setId(parameters.getId());
     result.setFormat(parameters.getFormat());
 
-    helper   = new CallableActorHelper();
-    callable = helper.findCallableActor(m_Owner.getFlowContext().getRoot(), new CallableActorReference(parameters.getAction()));
-
-    // not found
-    if (callable == null) {
+    pool = getPool(parameters.getAction());
+    if (pool.getError() != null) {
       result.setSuccess(false);
-      result.setMessage("Failed to find callable actor '" + parameters.getAction() + "'!");
+      result.setMessage(pool.getError());
       return result;
     }
-    
-    // not a transformer
-    if (!ActorUtils.isTransformer(callable)) {
-      result.setSuccess(false);
-      result.setMessage("Callable actor '" + parameters.getAction() + "' is not a transformer!");
-      return result;
+
+    try {
+      callable = pool.acquire(m_Timeout);
     }
-    
-    // wrong input/output
-    comp = new Compatibility();
-    if (!comp.isCompatible(new Class[]{Spectrum.class}, ((InputConsumer) callable).accepts())) {
-      result.setSuccess(false);
-      result.setMessage("Callable transformer '" + parameters.getAction() + "' does not accept " + Spectrum.class.getName() + "!");
-      return result;
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      callable = null;
     }
-    if (!comp.isCompatible(((OutputProducer) callable).generates(), new Class[]{Spectrum.class})) {
+    if (callable == null) {
       result.setSuccess(false);
-      result.setMessage("Callable transformer '" + parameters.getAction() + "' does not generate " + Spectrum.class.getName() + "!");
+      result.setMessage("No callable transformer '" + parameters.getAction() + "' available within " + m_Timeout + "msec!");
       return result;
     }
-    
+
     try {
+      // the callable transformer itself may also be used elsewhere in the flow
       synchronized(callable) {
 	((InputConsumer) callable).input(new Token(TransformSpectrumHelper.webserviceToKnir(parameters.getSpectrum())));
 	msg = callable.execute();
 	if (msg != null) {
 	  result.setSuccess(false);
 	  result.setMessage(msg);
-	  return result;
+	}
+	else if (((OutputProducer) callable).hasPendingOutput()) {
+	  output = ((OutputProducer) callable).output();
+	  sp     = (Spectrum) output.getPayload();
+	  result.setSuccess(true);
+	  result.setSpectrum(TransformSpectrumHelper.knirToWebservice(sp));
 	}
 	else {
-	  if (((OutputProducer) callable).hasPendingOutput()) {
-	    output = ((OutputProducer) callable).output();
-	    sp     = (Spectrum) output.getPayload();
-	    result.setSuccess(true);
-	    result.setSpectrum(TransformSpectrumHelper.knirToWebservice(sp));
-	  }
-	  else {
-	    result.setSuccess(false);
-	    result.setMessage("Callable transformer '" + parameters.getAction() + "' did not produce any output!");
-	    return result;
-	  }
+	  result.setSuccess(false);
+	  result.setMessage("Callable transformer '" + parameters.getAction() + "' did not produce any output!");
 	}
       }
-    } 
+    }
     catch (java.lang.Exception ex) {
       result.setSuccess(false);
       result.setMessage(LoggingHelper.handleException(m_Owner, "Failed to transform data using callable transformer '" + parameters.getAction() + "'!", ex));
     }
+    finally {
+      pool.release(callable);
+    }
     
     return result;
   }
-}
\ No newline at end of file
+
+  /**
+   * Cleans up the copies of the callable transformers and discards the pools.
+   */
+  @Override
+  public synchronized void cleanUp() {
+    if (m_Pools != null) {
+      for (CallableTransformerPool pool: m_Pools.values())
+	pool.cleanUp();
+      m_Pools = null;
+    }
+  }
+}
@@ -20,6 +20,7 @@
 
 package adams.flow.webservice;
 
+import adams.core.CleanUpHandler;
 import nz.ac.waikato.adams.webservice.spectral.transform.SpectralTransformService;
 import org.apache.cxf.jaxws.EndpointImpl;
 
@@ -135,6 +136,8 @@ public class SpectralTransformServiceWS
   protected void doStop() throws Exception {
     if (m_Endpoint != null) {
       m_Endpoint.getServer().stop();
+      if (m_Endpoint.getImplementor() instanceof CleanUpHandler)
+	((CleanUpHandler) m_Endpoint.getImplementor()).cleanUp();
       m_Endpoint = null;
     }
   }
@@ -0,0 +1,237 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DenseThreeWayDataToHeatmap.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.conversion;
+
+import adams.data.heatmap.Heatmap;
+import adams.data.threeway.DenseThreeWayData;
+
+/**
+ <!-- globalinfo-start -->
+ * Turns a adams.data.threeway.DenseThreeWayData data structure into a heatmap, using the Y and Z axes of the grid.<br>
+ * Sums up the data values of the X layers that fall into the specified min&#47;max, like adams.data.conversion.ThreeWayDataToHeatmap.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-min-x &lt;double&gt; (property: minX)
+ * &nbsp;&nbsp;&nbsp;The minimum X layer to include.
+ * &nbsp;&nbsp;&nbsp;default: 0.0
+ * </pre>
+ *
+ * <pre>-max-x &lt;double&gt; (property: maxX)
+ * &nbsp;&nbsp;&nbsp;The maximum X layer to include.
+ * &nbsp;&nbsp;&nbsp;default: 0.0
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DenseThreeWayDataToHeatmap
+  extends AbstractConversion {
+
+  private static final long serialVersionUID = -4520387164211783145L;
+
+  /** the minimum x to use. */
+  protected double m_MinX;
+
+  /** the maximum x to use. */
+  protected double m_MaxX;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Turns a " + DenseThreeWayData.class.getName() + " data structure into a heatmap, "
+	+ "using the Y and Z axes of the grid.\n"
+	+ "Sums up the data values of the X layers that fall into the specified min/max, "
+	+ "like " + ThreeWayDataToHeatmap.class.getName() + ".";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "min-x", "minX",
+      0.0);
+
+    m_OptionManager.add(
+      "max-x", "maxX",
+      0.0);
+  }
+
+  /**
+   * Sets the minimum X layer to use.
+   *
+   * @param value 	the minimum X
+   */
+  public void setMinX(double value) {
+    m_MinX = value;
+    reset();
+  }
+
+  /**
+   * Returns the minimum X layer to use.
+   *
+   * @return 		the minimum X
+   */
+  public double getMinX() {
+    return m_MinX;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String minXTipText() {
+    return "The minimum X layer to include.";
+  }
+
+  /**
+   * Sets the maximum X layer to use.
+   *
+   * @param value 	the maximum X
+   */
+  public void setMaxX(double value) {
+    m_MaxX = value;
+    reset();
+  }
+
+  /**
+   * Returns the maximum X layer to use.
+   *
+   * @return 		the maximum X
+   */
+  public double getMaxX() {
+    return m_MaxX;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String maxXTipText() {
+    return "The maximum X layer to include.";
+  }
+
+  /**
+   * Returns the class that is accepted as input.
+   *
+   * @return		the class
+   */
+  @Override
+  public Class accepts() {
+    return DenseThreeWayData.class;
+  }
+
+  /**
+   * Returns the class that is generated as output.
+   *
+   * @return		the class
+   */
+  @Override
+  public Class generates() {
+    return Heatmap.class;
+  }
+
+  /**
+   * Checks whether the data can be processed.
+   *
+   * @return		null if checks passed, otherwise error message
+   */
+  @Override
+  protected String checkData() {
+    String	result;
+
+    result = super.checkData();
+
+    if (result == null) {
+      if (m_MaxX < m_MinX)
+        result = "MaxX must be smaller than MinX: MinX=" + m_MinX + ", MaxX=" + m_MaxX;
+    }
+
+    return result;
+  }
+
+  /**
+   * Sums up the X layers within the limits into a heatmap.
+   *
+   * @param data	the data to convert
+   * @param minX	the minimum X layer to include
+   * @param maxX	the maximum X layer to include
+   * @return		the heatmap
+   */
+  public static Heatmap toHeatmap(DenseThreeWayData data, double minX, double maxX) {
+    Heatmap	result;
+    double[]	values;
+    int		offset;
+    int		ix;
+    int		iy;
+    int		iz;
+
+    result = new Heatmap(data.numZ(), data.numY());
+    if (data.getReport() != null)
+      result.setReport(data.getReport().getClone());
+
+    values = data.getValues();
+    for (ix = 0; ix < data.numX(); ix++) {
+      if ((data.getX()[ix] < minX) || (data.getX()[ix] > maxX))
+	continue;
+      for (iy = 0; iy < data.numY(); iy++) {
+	offset = data.index(ix, iy, 0);
+	for (iz = 0; iz < data.numZ(); iz++) {
+	  if (data.isOccupied(offset + iz))
+	    result.set(iz, iy, result.get(iz, iy) + values[offset + iz]);
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Performs the actual conversion.
+   *
+   * @return		the converted data
+   * @throws Exception	if something goes wrong with the conversion
+   */
+  @Override
+  protected Object doConvert() throws Exception {
+    return toHeatmap((DenseThreeWayData) m_Input, m_MinX, m_MaxX);
+  }
+}
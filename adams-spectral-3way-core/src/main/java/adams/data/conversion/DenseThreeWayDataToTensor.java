@@ -0,0 +1,118 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DenseThreeWayDataToTensor.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.conversion;
+
+import adams.data.container.TensorContainer;
+import adams.data.threeway.DenseThreeWayData;
+import nz.ac.waikato.cms.adams.multiway.data.tensor.Tensor;
+
+/**
+ <!-- globalinfo-start -->
+ * Converts dense 3-way data into the Tensor data structure, using the axes of the grid.<br>
+ * Cells without a value are set to 0, as with adams.data.conversion.ThreeWayDataToTensor.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DenseThreeWayDataToTensor
+  extends AbstractConversion {
+
+  private static final long serialVersionUID = 7781234961735270317L;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Converts dense 3-way data into the Tensor data structure, using the axes of the grid.\n"
+	+ "Cells without a value are set to 0, as with " + ThreeWayDataToTensor.class.getName() + ".";
+  }
+
+  /**
+   * Returns the class that is accepted as input.
+   *
+   * @return		the class
+   */
+  @Override
+  public Class accepts() {
+    return DenseThreeWayData.class;
+  }
+
+  /**
+   * Returns the class that is generated as output.
+   *
+   * @return		the class
+   */
+  @Override
+  public Class generates() {
+    return TensorContainer.class;
+  }
+
+  /**
+   * Performs the actual conversion.
+   *
+   * @return		the converted data
+   * @throws Exception	if something goes wrong with the conversion
+   */
+  @Override
+  protected Object doConvert() throws Exception {
+    TensorContainer	result;
+    DenseThreeWayData	data;
+    double[][][]	tdata;
+    double[]		values;
+    int			offset;
+    int			ix;
+    int			iy;
+    int			iz;
+
+    data   = (DenseThreeWayData) m_Input;
+    values = data.getValues();
+    tdata  = new double[data.numX()][data.numY()][data.numZ()];
+    for (ix = 0; ix < data.numX(); ix++) {
+      for (iy = 0; iy < data.numY(); iy++) {
+	offset = data.index(ix, iy, 0);
+	for (iz = 0; iz < data.numZ(); iz++) {
+	  if (data.isOccupied(offset + iz))
+	    tdata[ix][iy][iz] = values[offset + iz];
+	}
+      }
+    }
+    result = new TensorContainer();
+    if (data.getReport() != null)
+      result.setReport(data.getReport().getClone());
+    result.getNotes().addProcessInformation(this);
+    result.setContent(Tensor.create(tdata));
+
+    return result;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ThreeWayDataToDenseThreeWayData.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.conversion;
+
+import adams.data.threeway.DenseThreeWayData;
+import adams.data.threeway.ThreeWayData;
+
+/**
+ <!-- globalinfo-start -->
+ * Turns point-based 3-way data into dense storage on the grid spanned by the X, Y and Z values.<br>
+ * Fails if the data occupies less of the grid than the specified minimum fill ratio.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-min-fill-ratio &lt;double&gt; (property: minFillRatio)
+ * &nbsp;&nbsp;&nbsp;The minimum fraction of grid cells (0-1) that the data must occupy.
+ * &nbsp;&nbsp;&nbsp;default: 0.0
+ * &nbsp;&nbsp;&nbsp;minimum: 0.0
+ * &nbsp;&nbsp;&nbsp;maximum: 1.0
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ThreeWayDataToDenseThreeWayData
+  extends AbstractConversion {
+
+  private static final long serialVersionUID = 2216370925437617820L;
+
+  /** the minimum fill ratio. */
+  protected double m_MinFillRatio;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Turns point-based 3-way data into dense storage on the grid spanned by the X, Y and Z values.\n"
+	+ "Fails if the data occupies less of the grid than the specified minimum fill ratio.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "min-fill-ratio", "minFillRatio",
+      0.0, 0.0, 1.0);
+  }
+
+  /**
+   * Sets the minimum fraction of grid cells that the data must occupy.
+   *
+   * @param value 	the ratio (0-1)
+   */
+  public void setMinFillRatio(double value) {
+    if (getOptionManager().isValid("minFillRatio", value)) {
+      m_MinFillRatio = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the minimum fraction of grid cells that the data must occupy.
+   *
+   * @return 		the ratio (0-1)
+   */
+  public double getMinFillRatio() {
+    return m_MinFillRatio;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String minFillRatioTipText() {
+    return "The minimum fraction of grid cells (0-1) that the data must occupy.";
+  }
+
+  /**
+   * Returns the class that is accepted as input.
+   *
+   * @return		the class
+   */
+  @Override
+  public Class accepts() {
+    return ThreeWayData.class;
+  }
+
+  /**
+   * Returns the class that is generated as output.
+   *
+   * @return		the class
+   */
+  @Override
+  public Class generates() {
+    return DenseThreeWayData.class;
+  }
+
+  /**
+   * Performs the actual conversion.
+   *
+   * @return		the converted data
+   * @throws Exception	if something goes wrong with the conversion
+   */
+  @Override
+  protected Object doConvert() throws Exception {
+    DenseThreeWayData	result;
+    ThreeWayData	data;
+
+    data   = (ThreeWayData) m_Input;
+    result = DenseThreeWayData.fromThreeWayData(data, m_MinFillRatio);
+    if (result == null)
+      throw new IllegalStateException(
+	"Data too sparse for dense storage: fill ratio=" + DenseThreeWayData.fillRatio(data) + ", minimum=" + m_MinFillRatio);
+
+    return result;
+  }
+}
@@ -24,8 +24,7 @@ import adams.data.heatmap.Heatmap;
 import adams.data.threeway.L1Point;
 import adams.data.threeway.L2Point;
 import adams.data.threeway.ThreeWayData;
-import gnu.trove.list.TDoubleList;
-import gnu.trove.list.array.TDoubleArrayList;
+import adams.data.threeway.ThreeWayDataUtils;
 import gnu.trove.set.TDoubleSet;
 import gnu.trove.set.hash.TDoubleHashSet;
 
@@ -206,8 +205,8 @@ public class ThreeWayDataToHeatmap
     int			y;
     TDoubleSet 		setY;
     TDoubleSet 		setZ;
-    TDoubleList 	listY;
-    TDoubleList 	listZ;
+    double[] 		axisY;
+    double[] 		axisZ;
 
     input = (ThreeWayData) m_Input;
     setY  = new TDoubleHashSet();
@@ -220,15 +219,13 @@ public class ThreeWayDataToHeatmap
     result = new Heatmap(setZ.size(), setY.size());
     result.setReport(input.getReport().getClone());
 
-    listY = new TDoubleArrayList(setY);
-    listY.sort();
-    listZ = new TDoubleArrayList(setZ);
-    listZ.sort();
+    axisY = ThreeWayDataUtils.toAxis(setY);
+    axisZ = ThreeWayDataUtils.toAxis(setZ);
     for (L1Point l1: input.toList()) {
       if ((l1.getX() >= m_MinX) && (l1.getX() <= m_MaxX)) {
-	x = listY.indexOf(l1.getY());
+	x = ThreeWayDataUtils.indexOf(axisY, l1.getY());
 	for (L2Point l2: l1.toList()) {
-	  y = listZ.indexOf(l2.getZ());
+	  y = ThreeWayDataUtils.indexOf(axisZ, l2.getZ());
 	  result.set(y, x, result.get(y, x) + l2.getData());
 	}
       }
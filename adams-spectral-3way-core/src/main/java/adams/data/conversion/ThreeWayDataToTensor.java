@@ -20,12 +20,13 @@
 
 package adams.data.conversion;
 
+import adams.core.Performance;
+import adams.core.ThreadLimiter;
 import adams.data.container.TensorContainer;
 import adams.data.threeway.L1Point;
 import adams.data.threeway.L2Point;
 import adams.data.threeway.ThreeWayData;
-import gnu.trove.list.TDoubleList;
-import gnu.trove.list.array.TDoubleArrayList;
+import adams.data.threeway.ThreeWayDataUtils;
 import gnu.trove.set.TDoubleSet;
 import gnu.trove.set.hash.TDoubleHashSet;
 import nz.ac.waikato.cms.adams.multiway.data.tensor.Tensor;
@@ -42,15 +43,25 @@ import nz.ac.waikato.cms.adams.multiway.data.tensor.Tensor;
  * &nbsp;&nbsp;&nbsp;default: WARNING
  * </pre>
  *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for filling the tensor; -1 = number of CPUs&#47;cores;
+ * &nbsp;&nbsp;&nbsp; 0 or 1 = sequential execution.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ *
  <!-- options-end -->
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class ThreeWayDataToTensor
-  extends AbstractConversion {
+  extends AbstractConversion
+  implements ThreadLimiter {
 
   private static final long serialVersionUID = -2098679748781880163L;
 
+  /** the number of threads to use for filling the tensor. */
+  protected int m_NumThreads;
+
   /**
    * Returns a string describing the object.
    *
@@ -61,6 +72,47 @@ public class ThreeWayDataToTensor
     return "Converts 3-way data into the Tensor data structure.";
   }
 
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1);
+  }
+
+  /**
+   * Sets the number of threads to use for filling the tensor.
+   *
+   * @param value 	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for filling the tensor.
+   *
+   * @return 		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp();
+  }
+
   /**
    * Returns the class that is accepted as input.
    *
@@ -89,18 +141,16 @@ public class ThreeWayDataToTensor
    */
   @Override
   protected Object doConvert() throws Exception {
-    TensorContainer	result;
-    ThreeWayData	data;
-    TDoubleSet 		setX;
-    TDoubleSet 		setY;
-    TDoubleSet 		setZ;
-    TDoubleList		listX;
-    TDoubleList		listY;
-    TDoubleList		listZ;
-    double[][][]	tdata;
-    int			x;
-    int			y;
-    int			z;
+    TensorContainer		result;
+    ThreeWayData		data;
+    final L1Point[]		points;
+    TDoubleSet 			setX;
+    TDoubleSet 			setY;
+    TDoubleSet 			setZ;
+    final double[]		axisX;
+    final double[]		axisY;
+    final double[]		axisZ;
+    final double[][][]		tdata;
 
     data = (ThreeWayData) m_Input;
     setX = new TDoubleHashSet();
@@ -113,22 +163,18 @@ public class ThreeWayDataToTensor
         setZ.add(l2.getZ());
     }
 
-    listX = new TDoubleArrayList(setX);
-    listX.sort();
-    listY = new TDoubleArrayList(setY);
-    listY.sort();
-    listZ = new TDoubleArrayList(setZ);
-    listZ.sort();
+    axisX = ThreeWayDataUtils.toAxis(setX);
+    axisY = ThreeWayDataUtils.toAxis(setY);
+    axisZ = ThreeWayDataUtils.toAxis(setZ);
 
-    tdata = new double[listX.size()][listY.size()][listZ.size()];
-    for (L1Point l1: data) {
-      x = listX.indexOf(l1.getX());
-      y = listY.indexOf(l1.getY());
-      for (L2Point l2: l1) {
-        z              = listZ.indexOf(l2.getZ());
-        tdata[x][y][z] = l2.getData();
-      }
-    }
+    // each L1 point fills its own row of the tensor
+    tdata  = new double[axisX.length][axisY.length][axisZ.length];
+    points = data.toList().toArray(new L1Point[0]);
+    ThreeWayDataUtils.parallel(m_NumThreads, points.length, (i) -> {
+      double[] row = tdata[ThreeWayDataUtils.indexOf(axisX, points[i].getX())][ThreeWayDataUtils.indexOf(axisY, points[i].getY())];
+      for (L2Point l2: points[i])
+        row[ThreeWayDataUtils.indexOf(axisZ, l2.getZ())] = l2.getData();
+    });
     result = new TensorContainer();
     result.setReport(data.getReport().getClone());
     result.getNotes().addProcessInformation(this);
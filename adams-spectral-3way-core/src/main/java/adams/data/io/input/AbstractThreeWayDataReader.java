@@ -24,13 +24,21 @@ import adams.core.ClassLister;
 import adams.core.DateFormat;
 import adams.core.DateUtils;
 import adams.core.Stoppable;
+import adams.core.io.GzipUtils;
 import adams.data.report.DataType;
 import adams.data.report.Field;
 import adams.data.report.Report;
 import adams.data.threeway.ThreeWayData;
 import adams.data.threewayreport.ThreeWayReport;
 
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.zip.GZIPInputStream;
 import java.util.logging.Level;
 
 /**
@@ -277,41 +285,158 @@ public abstract class AbstractThreeWayDataReader
    */
   @Override
   protected void postProcessData() {
-    DateFormat 		dateformat;
-    ThreeWayReport 	report;
-
     if (m_Stopped)
       m_ReadData = null;
 
     super.postProcessData();
 
     if (m_ReadData != null){
-      dateformat = DateUtils.getTimestampFormatter();
       for (ThreeWayData spc: m_ReadData) {
-	if (spc.hasReport()) {
-	  report = spc.getReport();
-	  if (!m_KeepFormat)
-	    report.addParameter(ThreeWayReport.FORMAT, m_Format);
-	  if (m_UseAbsoluteSource)
-	    report.addParameter(ThreeWayReport.SOURCE, m_Input.getAbsolutePath());
-	  else
-	    report.addParameter(ThreeWayReport.SOURCE, m_Input.getName());
-	  if (!report.hasValue(new Field(ThreeWayReport.INSTRUMENT, DataType.STRING)))
-	    report.addParameter(ThreeWayReport.INSTRUMENT, m_Instrument);
-	  if (!report.hasValue(new Field(ThreeWayReport.SAMPLE_ID, DataType.STRING)))
-	    report.addParameter(ThreeWayReport.SAMPLE_ID, spc.getID());
-	  try {
-	    if (!report.hasValue(new Field(ThreeWayReport.INSERT_TIMESTAMP, DataType.STRING)))
-	      report.addParameter(ThreeWayReport.INSERT_TIMESTAMP, dateformat.format(new Date()));
-	  }
-	  catch (Exception e) {
-	    getLogger().log(Level.SEVERE, "Failed to add insert timestamp", e);
-	  }
-	}
+	if (spc.hasReport())
+	  updateReport(spc.getReport(), spc.getID());
       }
     }
   }
 
+  /**
+   * Adds the format, source, instrument, sample ID and insert timestamp
+   * to the report, unless already present.
+   *
+   * @param report	the report to update
+   * @param id		the ID of the data
+   */
+  protected void updateReport(ThreeWayReport report, String id) {
+    DateFormat 		dateformat;
+
+    dateformat = DateUtils.getTimestampFormatter();
+    if (!m_KeepFormat)
+      report.addParameter(ThreeWayReport.FORMAT, m_Format);
+    if (m_UseAbsoluteSource)
+      report.addParameter(ThreeWayReport.SOURCE, m_Input.getAbsolutePath());
+    else
+      report.addParameter(ThreeWayReport.SOURCE, m_Input.getName());
+    if (!report.hasValue(new Field(ThreeWayReport.INSTRUMENT, DataType.STRING)))
+      report.addParameter(ThreeWayReport.INSTRUMENT, m_Instrument);
+    if (!report.hasValue(new Field(ThreeWayReport.SAMPLE_ID, DataType.STRING)))
+      report.addParameter(ThreeWayReport.SAMPLE_ID, id);
+    try {
+      if (!report.hasValue(new Field(ThreeWayReport.INSERT_TIMESTAMP, DataType.STRING)))
+	report.addParameter(ThreeWayReport.INSERT_TIMESTAMP, dateformat.format(new Date()));
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to add insert timestamp", e);
+    }
+  }
+
+  /**
+   * Opens the current input file for reading line by line, decompressing
+   * it on the fly if it ends with ".gz".
+   *
+   * @return		the reader
+   * @throws IOException	if opening fails
+   */
+  protected BufferedReader openInput() throws IOException {
+    if (m_Input.getName().endsWith(".gz"))
+      return new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(m_Input.getAbsoluteFile()), GzipUtils.BUFFER_SIZE_GZIPSTREAMS)));
+    else
+      return new BufferedReader(new FileReader(m_Input.getAbsoluteFile()));
+  }
+
+  /**
+   * Returns the number of tokens in the line.
+   *
+   * @param line	the line to inspect
+   * @param separator	the separator between tokens
+   * @return		the number of tokens
+   */
+  protected static int numTokens(String line, String separator) {
+    int		result;
+    int		pos;
+
+    result = 1;
+    pos    = line.indexOf(separator);
+    while (pos > -1) {
+      result++;
+      pos = line.indexOf(separator, pos + separator.length());
+    }
+
+    return result;
+  }
+
+  /**
+   * Turns the values into a sorted grid axis.
+   *
+   * @param values	the values to sort
+   * @return		the axis, null if the values contain duplicates or NaN
+   */
+  protected static double[] toGridAxis(double[] values) {
+    double[]	result;
+    int		i;
+
+    result = values.clone();
+    Arrays.sort(result);
+    for (i = 0; i < result.length; i++) {
+      if (Double.isNaN(result[i]))
+	return null;
+      if ((i > 0) && (result[i - 1] == result[i]))
+	return null;
+    }
+
+    return result;
+  }
+
+  /**
+   * Parses the number between the two positions in the line. Surrounding
+   * single or double quotes get removed, as spreadsheet applications quote
+   * cells when exporting CSV.
+   *
+   * @param line	the line to parse
+   * @param start	the start position (incl)
+   * @param end		the end position (excl)
+   * @return		the number, NaN if empty or not numeric
+   */
+  protected static double parseDouble(String line, int start, int end) {
+    String	value;
+    char	quote;
+
+    if (start >= end)
+      return Double.NaN;
+    value = line.substring(start, end).trim();
+    if (value.length() >= 2) {
+      quote = value.charAt(0);
+      if (((quote == '"') || (quote == '\'')) && (value.charAt(value.length() - 1) == quote))
+	value = value.substring(1, value.length() - 1).trim();
+    }
+    if (value.isEmpty())
+      return Double.NaN;
+    try {
+      return Double.parseDouble(value);
+    }
+    catch (NumberFormatException e) {
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * Returns the end of the token that starts at the given position.
+   *
+   * @param line	the line to tokenize
+   * @param start	the start of the token
+   * @param separator	the separator between tokens
+   * @return		the end of the token (excl)
+   */
+  protected static int tokenEnd(String line, int start, String separator) {
+    int		result;
+
+    if (start >= line.length())
+      return line.length();
+    result = line.indexOf(separator, start);
+    if (result == -1)
+      result = line.length();
+
+    return result;
+  }
+
   /**
    * Stops the execution.
    */
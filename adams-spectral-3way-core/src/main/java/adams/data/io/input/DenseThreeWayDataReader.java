@@ -0,0 +1,85 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DenseThreeWayDataReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.input;
+
+import adams.core.io.PlaceholderFile;
+import adams.data.threeway.DenseThreeWayData;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Interface for readers that can read their data directly into a
+ * {@link DenseThreeWayData} grid, without creating L1/L2 points.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface DenseThreeWayDataReader {
+
+  /**
+   * Sets the file to read from.
+   *
+   * @param value	the file
+   */
+  public void setInput(PlaceholderFile value);
+
+  /**
+   * Reads the current input file into a dense grid.
+   *
+   * @return		the data, null if not on a regular grid or stopped
+   * @throws Exception	if reading fails
+   */
+  public DenseThreeWayData readDense() throws Exception;
+
+  /**
+   * Reads the files one at a time, only when requested from the iterator.
+   *
+   * @param files	the files to read
+   * @return		the iterator over the data, see {@link #readDense()}
+   */
+  public default Iterator<DenseThreeWayData> readDense(final File[] files) {
+    return new Iterator<DenseThreeWayData>() {
+      protected int m_Index = 0;
+
+      @Override
+      public boolean hasNext() {
+	return (m_Index < files.length);
+      }
+
+      @Override
+      public DenseThreeWayData next() {
+	File	file;
+
+	if (!hasNext())
+	  throw new NoSuchElementException();
+	file = files[m_Index++];
+	setInput(new PlaceholderFile(file));
+	try {
+	  return readDense();
+	}
+	catch (Exception e) {
+	  throw new IllegalStateException("Failed to read: " + file, e);
+	}
+      }
+    };
+  }
+}
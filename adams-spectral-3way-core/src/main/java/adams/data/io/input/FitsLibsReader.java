@@ -20,13 +20,14 @@
 
 package adams.data.io.input;
 
+import adams.core.Range;
 import adams.core.Utils;
 import adams.data.report.DataType;
 import adams.data.report.Field;
 import adams.data.report.Report;
-import adams.data.threeway.L1Point;
-import adams.data.threeway.L2Point;
-import adams.data.threeway.ThreeWayData;
+import adams.data.threeway.DenseThreeWayData;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 import nom.tam.fits.BasicHDU;
 import nom.tam.fits.Data;
 import nom.tam.fits.Fits;
@@ -48,13 +49,23 @@ import java.util.logging.Level;
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class FitsLibsReader
-  extends AbstractThreeWayDataReader {
+  extends AbstractThreeWayDataReader
+  implements DenseThreeWayDataReader {
 
   private static final long serialVersionUID = 1863004313666024729L;
 
   /** whether the data is unsigned. */
   protected boolean m_Unsigned;
 
+  /** the HDUs to read. */
+  protected Range m_HDUs;
+
+  /** the rows to read. */
+  protected Range m_Rows;
+
+  /** the columns to read. */
+  protected Range m_Columns;
+
   /**
    * Returns a string describing the object.
    *
@@ -62,7 +73,11 @@ public class FitsLibsReader
    */
   @Override
   public String globalInfo() {
-    return "Reads LIBS data in FITS format.";
+    return
+      "Reads LIBS data in FITS format.\n"
+      + "The compressed images get decompressed one HDU at a time and stored "
+      + "in a dense grid, with X the HDU index, Y the row and Z the column. "
+      + "HDUs, rows and columns can be restricted to reduce the memory footprint.";
   }
 
   /**
@@ -75,6 +90,18 @@ public class FitsLibsReader
     m_OptionManager.add(
       "unsigned", "unsigned",
       false);
+
+    m_OptionManager.add(
+      "hdus", "HDUs",
+      new Range(Range.ALL));
+
+    m_OptionManager.add(
+      "rows", "rows",
+      new Range(Range.ALL));
+
+    m_OptionManager.add(
+      "columns", "columns",
+      new Range(Range.ALL));
   }
 
   /**
@@ -106,6 +133,93 @@ public class FitsLibsReader
     return "If enabled, the numbers are interpreted as unsigned, adding half of their maximum value (eg for short this is 32768).";
   }
 
+  /**
+   * Sets the HDUs to read.
+   *
+   * @param value	the HDUs
+   */
+  public void setHDUs(Range value) {
+    m_HDUs = value;
+    reset();
+  }
+
+  /**
+   * Returns the HDUs to read.
+   *
+   * @return		the HDUs
+   */
+  public Range getHDUs() {
+    return m_HDUs;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String HDUsTipText() {
+    return "The HDUs to read; HDUs without compressed image data get skipped.";
+  }
+
+  /**
+   * Sets the rows of the images to read.
+   *
+   * @param value	the rows
+   */
+  public void setRows(Range value) {
+    m_Rows = value;
+    reset();
+  }
+
+  /**
+   * Returns the rows of the images to read.
+   *
+   * @return		the rows
+   */
+  public Range getRows() {
+    return m_Rows;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String rowsTipText() {
+    return "The rows of the images to read.";
+  }
+
+  /**
+   * Sets the columns of the images to read.
+   *
+   * @param value	the columns
+   */
+  public void setColumns(Range value) {
+    m_Columns = value;
+    reset();
+  }
+
+  /**
+   * Returns the columns of the images to read.
+   *
+   * @return		the columns
+   */
+  public Range getColumns() {
+    return m_Columns;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String columnsTipText() {
+    return "The columns of the images to read.";
+  }
+
   /**
    * Returns a string describing the format (used in the file chooser).
    *
@@ -136,6 +250,19 @@ public class FitsLibsReader
    */
   protected double arrayToDouble(Object array, int index) {
     Object	value;
+    double	offset;
+
+    offset = m_Unsigned ? 128 : 0;
+
+    // avoid boxing for the common primitive arrays
+    if (array instanceof byte[])
+      return ((byte[]) array)[index] + offset;
+    else if (array instanceof short[])
+      return ((short[]) array)[index] + offset;
+    else if (array instanceof int[])
+      return ((int[]) array)[index] + offset;
+    else if (array instanceof long[])
+      return ((long[]) array)[index] + offset;
 
     value = Array.get(array, index);
     if (value instanceof Byte) {
@@ -169,91 +296,156 @@ public class FitsLibsReader
   }
 
   /**
-   * Performs the actual reading.
+   * Turns the indices into axis values.
+   *
+   * @param indices	the indices
+   * @return		the axis
    */
-  @Override
-  protected void readData() {
-    Fits 			fits;
-    int 			x;
-    int 			y;
-    int 			z;
-    ThreeWayData 		twd;
-    Report 			report;
-    Field			field;
-    BasicHDU<?>			hdu;
-    CompressedImageHDU		chdu;
-    Data			data;
-    int				rows;
-    int				cols;
-    Object 			array;
+  protected double[] toAxis(int[] indices) {
+    double[]	result;
+    int		i;
+
+    result = new double[indices.length];
+    for (i = 0; i < indices.length; i++)
+      result[i] = indices[i];
+
+    return result;
+  }
+
+  /**
+   * Adds the header of the HDU to the report.
+   *
+   * @param hdu		the HDU to get the header from
+   * @param index	the index of the HDU
+   * @param report	the report to add the header to
+   */
+  protected void addMetaData(BasicHDU<?> hdu, int index, Report report) {
     Cursor<String, HeaderCard>	iter;
     HeaderCard			card;
-    L1Point			l1;
-    L2Point			l2;
+    Field			field;
+
+    iter = hdu.getHeader().iterator();
+    while (iter.hasNext()) {
+      card = iter.next();
+      if ((card.getKey() != null) && (card.getValue() != null)) {
+	if (Utils.isDouble(card.getValue()))
+	  field = new Field(index + "." + card.getKey(), DataType.NUMERIC);
+	else if (Utils.isBoolean(card.getValue()))
+	  field = new Field(index + "." + card.getKey(), DataType.BOOLEAN);
+	else
+	  field = new Field(index + "." + card.getKey(), DataType.STRING);
+	report.addField(field);
+	report.setValue(field, card.getValue());
+      }
+    }
+  }
 
+  /**
+   * Reads the selected HDUs, rows and columns of the current input file into
+   * a dense grid. Only the headers get read up-front, the compressed image
+   * data gets read and decompressed one HDU at a time.
+   *
+   * @return		the data, null if stopped
+   * @throws Exception	if reading fails
+   */
+  @Override
+  public DenseThreeWayData readDense() throws Exception {
+    DenseThreeWayData	result;
+    Fits 		fits;
+    TIntList		hdus;
+    BasicHDU<?>		hdu;
+    Data		data;
+    Object 		array;
+    int[]		rows;
+    int[]		cols;
+    int			numRows;
+    int			numCols;
+    int			width;
+    int			height;
+    int			offset;
+    int			x;
+    int			y;
+    int			z;
+
+    fits = new Fits(m_Input.getAbsolutePath());
     try {
-      fits = new Fits(m_Input.getAbsolutePath());
+      // only reads the headers, data of file-based HDUs is deferred
       fits.read();
       if (isLoggingEnabled())
-        getLogger().info("#HDU: " + fits.getNumberOfHDUs());
-
-      twd    = new ThreeWayData();
-      report = twd.getReport();
-      m_ReadData.add(twd);
-
-      for (x = 0; x < fits.getNumberOfHDUs(); x++) {
-        hdu  = fits.getHDU(x);
-        data = hdu.getData();
-        if (data == null) {
-          if (isLoggingEnabled())
-	    getLogger().info("HDU #" + x + ": no data");
-          continue;
+	getLogger().info("#HDU: " + fits.getNumberOfHDUs());
+
+      // determine HDUs and dimensions
+      m_HDUs.setMax(fits.getNumberOfHDUs());
+      hdus    = new TIntArrayList();
+      numRows = 0;
+      numCols = 0;
+      for (int index: m_HDUs.getIntIndices()) {
+	hdu  = fits.getHDU(index);
+	data = hdu.getData();
+	if (data == null) {
+	  if (isLoggingEnabled())
+	    getLogger().info("HDU #" + index + ": no data");
+	  continue;
 	}
-        if (data instanceof CompressedImageData) {
+	if (data instanceof CompressedImageData) {
 	  if (isLoggingEnabled())
-	    getLogger().info("HDU #" + x + ": compressed image data");
-
-	  chdu = (CompressedImageHDU) hdu;
-	  twd.setID(m_Input.getName() + "-" + x);
-
-	  // add meta-data
-	  iter = hdu.getHeader().iterator();
-	  rows = 1;
-	  cols = 1;
-	  while (iter.hasNext()) {
-	    card = iter.next();
-	    if ((card.getKey() != null) && (card.getValue() != null)) {
-	      if (Utils.isDouble(card.getValue()))
-	        field = new Field(x + "." + card.getKey(), DataType.NUMERIC);
-	      else if (Utils.isBoolean(card.getValue()))
-	        field = new Field(x + "." + card.getKey(), DataType.BOOLEAN);
-	      else
-	        field = new Field(x + "." + card.getKey(), DataType.STRING);
-	      report.addField(field);
-	      report.setValue(field, card.getValue());
-	      if (card.getKey().equals("ZNAXIS1"))
-	        rows = Integer.parseInt(card.getValue());
-	      else if (card.getKey().equals("ZNAXIS2"))
-	        cols = Integer.parseInt(card.getValue());
-	    }
-	  }
-
-	  // add data points
-          array = chdu.getUncompressedData().array();
-	  for (y = 0; y < rows; y++) {
-	    l1 = new L1Point(x, y);
-	    twd.add(l1);
-	    for (z = 0; z < cols; z++) {
-	      l2 = new L2Point(z, arrayToDouble(array, y*rows + z));
-	      l1.add(l2);
-	    }
-	  }
+	    getLogger().info("HDU #" + index + ": compressed image data");
+	  hdus.add(index);
+	  numRows = Math.max(numRows, hdu.getHeader().getIntValue("ZNAXIS2", 1));
+	  numCols = Math.max(numCols, hdu.getHeader().getIntValue("ZNAXIS1", 1));
 	}
 	else {
-	  getLogger().warning("HDU #" + x + ": unhandled data type: " + Utils.classToString(data));
+	  getLogger().warning("HDU #" + index + ": unhandled data type: " + Utils.classToString(data));
+	}
+      }
+      m_Rows.setMax(numRows);
+      m_Columns.setMax(numCols);
+      rows = m_Rows.getIntIndices();
+      cols = m_Columns.getIntIndices();
+
+      result = new DenseThreeWayData(
+	hdus.isEmpty() ? m_Input.getName() : m_Input.getName() + "-" + hdus.get(hdus.size() - 1),
+	toAxis(hdus.toArray()), toAxis(rows), toAxis(cols));
+
+      // decompress one HDU at a time
+      for (x = 0; x < hdus.size(); x++) {
+	if (m_Stopped)
+	  return null;
+	hdu    = fits.getHDU(hdus.get(x));
+	width  = hdu.getHeader().getIntValue("ZNAXIS1", 1);
+	height = hdu.getHeader().getIntValue("ZNAXIS2", 1);
+	addMetaData(hdu, hdus.get(x), result.getReport());
+	array = ((CompressedImageHDU) hdu).getUncompressedData().array();
+	for (y = 0; y < rows.length; y++) {
+	  if (rows[y] >= height)
+	    continue;
+	  offset = rows[y] * width;
+	  for (z = 0; z < cols.length; z++) {
+	    if (cols[z] < width)
+	      result.set(x, y, z, arrayToDouble(array, offset + cols[z]));
+	  }
 	}
       }
     }
+    finally {
+      fits.close();
+    }
+
+    return result;
+  }
+
+  /**
+   * Performs the actual reading.
+   */
+  @Override
+  protected void readData() {
+    DenseThreeWayData	data;
+
+    try {
+      data = readDense();
+      if (data != null)
+	m_ReadData.add(data.toThreeWayData());
+    }
     catch (Exception e) {
       getLogger().log(Level.SEVERE, "Failed to read FITS: " + m_Input, e);
     }
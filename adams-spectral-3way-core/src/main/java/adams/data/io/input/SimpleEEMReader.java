@@ -23,13 +23,21 @@ package adams.data.io.input;
 import adams.core.io.FileUtils;
 import adams.data.spreadsheet.Row;
 import adams.data.spreadsheet.SpreadSheet;
+import adams.data.threeway.DenseThreeWayData;
 import adams.data.threeway.L1Point;
 import adams.data.threeway.L2Point;
 import adams.data.threeway.ThreeWayData;
+import adams.data.threeway.ThreeWayDataUtils;
+import adams.data.threewayreport.ThreeWayReport;
+import gnu.trove.list.array.TDoubleArrayList;
+
+import java.io.BufferedReader;
+import java.util.logging.Level;
 
 /**
  <!-- globalinfo-start -->
- * Reads EEM data in spreadsheet format (tab-separated columns).
+ * Reads EEM data in spreadsheet format (tab-separated columns).<br>
+ * The file gets parsed line by line directly into a dense grid, unless the wave numbers are not unique.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -93,7 +101,8 @@ import adams.data.threeway.ThreeWayData;
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class SimpleEEMReader
-  extends AbstractThreeWayDataReader {
+  extends AbstractThreeWayDataReader
+  implements DenseThreeWayDataReader {
 
   private static final long serialVersionUID = 3881844348241663649L;
 
@@ -101,6 +110,9 @@ public class SimpleEEMReader
 
   public static final String PREFIX_NORMALIZED_BY = "Normalized by ";
 
+  /** the column separator. */
+  public static final String SEPARATOR = "\t";
+
   /** the X value to use for the 3-way data. */
   protected double m_X;
 
@@ -117,7 +129,10 @@ public class SimpleEEMReader
    */
   @Override
   public String globalInfo() {
-    return "Reads EEM data in spreadsheet format (tab-separated columns).";
+    return
+      "Reads EEM data in spreadsheet format (tab-separated columns).\n"
+	+ "The file gets parsed line by line directly into a dense grid, unless "
+	+ "the wave numbers are not unique.";
   }
 
   /**
@@ -249,10 +264,127 @@ public class SimpleEEMReader
   }
 
   /**
-   * Performs the actual reading.
+   * Reads the current input file line by line directly into a dense grid,
+   * using the header for the Z axis and the first column for the Y axis.
+   *
+   * @return		the data, null if the wave numbers are not unique or stopped
+   * @throws Exception	if reading fails
    */
   @Override
-  protected void readData() {
+  public DenseThreeWayData readDense() throws Exception {
+    DenseThreeWayData	result;
+    BufferedReader	reader;
+    ThreeWayReport	report;
+    TDoubleArrayList	ys;
+    TDoubleArrayList	values;
+    double[]		zs;
+    double[]		axisY;
+    double[]		axisZ;
+    int[]		posZ;
+    String		line;
+    boolean		header;
+    int			info;
+    int			start;
+    int			end;
+    int			i;
+    int			n;
+    int			offset;
+    double		first;
+    double		denorm;
+    double		value;
+
+    report = new ThreeWayReport();
+    ys     = new TDoubleArrayList();
+    values = new TDoubleArrayList();
+    zs     = null;
+    header = true;
+    info   = 0;
+    denorm = 1.0;
+    reader = openInput();
+    try {
+      while ((line = reader.readLine()) != null) {
+	if (m_Stopped)
+	  return null;
+	if (line.trim().isEmpty())
+	  continue;
+
+	// Z axis
+	if (zs == null) {
+	  zs    = new double[numTokens(line, SEPARATOR) - 1];
+	  start = tokenEnd(line, 0, SEPARATOR) + 1;
+	  for (i = 0; i < zs.length; i++) {
+	    end   = tokenEnd(line, start, SEPARATOR);
+	    zs[i] = m_IgnoreWaveNumbers ? (i + 1) : parseDouble(line, start, end);
+	    start = end + 1;
+	  }
+	  continue;
+	}
+
+	end   = tokenEnd(line, 0, SEPARATOR);
+	first = parseDouble(line, 0, end);
+
+	// "nm" and "Normalized by ..."
+	if (header && Double.isNaN(first)) {
+	  info++;
+	  if (line.startsWith(PREFIX_NORMALIZED_BY)) {
+	    denorm = Double.parseDouble(line.substring(PREFIX_NORMALIZED_BY.length(), end).trim());
+	    report.setNumericValue(PREFIX_NORMALIZED_BY.trim(), denorm);
+	    if (isLoggingEnabled())
+	      getLogger().info("Denormalizing factor: " + denorm);
+	  }
+	  else {
+	    report.setStringValue(PREFIX_INFO + info, line.substring(0, end));
+	  }
+	  continue;
+	}
+	header = false;
+
+	// Y and values
+	ys.add(m_IgnoreWaveNumbers ? ys.size() : first);
+	start = end + 1;
+	for (i = 0; i < zs.length; i++) {
+	  end   = tokenEnd(line, start, SEPARATOR);
+	  value = parseDouble(line, start, end);
+	  if (m_Denormalize)
+	    value = value * denorm;
+	  values.add(value);
+	  start = end + 1;
+	}
+      }
+    }
+    finally {
+      FileUtils.closeQuietly(reader);
+    }
+
+    if (zs == null)
+      zs = new double[0];
+    axisY = toGridAxis(ys.toArray());
+    axisZ = toGridAxis(zs);
+    if ((axisY == null) || (axisZ == null)) {
+      if (isLoggingEnabled())
+	getLogger().info("Wave numbers not unique, cannot use dense grid: " + m_Input);
+      return null;
+    }
+
+    result = new DenseThreeWayData(FileUtils.replaceExtension(m_Input.getName(), ""), new double[]{m_X}, axisY, axisZ);
+    result.setReport(report);
+    posZ = new int[zs.length];
+    for (i = 0; i < zs.length; i++)
+      posZ[i] = ThreeWayDataUtils.indexOf(axisZ, zs[i]);
+    for (n = 0; n < ys.size(); n++) {
+      offset = result.index(0, ThreeWayDataUtils.indexOf(axisY, ys.get(n)), 0);
+      for (i = 0; i < zs.length; i++)
+	result.set(offset + posZ[i], values.get(n * zs.length + i));
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads the current input file as spreadsheet, used if the wave numbers
+   * do not form a regular grid.
+   */
+  protected void readSpreadSheet() {
     CsvSpreadSheetReader	reader;
     SpreadSheet			sheet;
     ThreeWayData		data;
@@ -268,7 +400,7 @@ public class SimpleEEMReader
     data   = new ThreeWayData();
     data.setID(FileUtils.replaceExtension(m_Input.getName(), ""));
     reader = new CsvSpreadSheetReader();
-    reader.setSeparator("\\t");
+    reader.setSeparator(SEPARATOR);
     sheet  = reader.read(m_Input);
 
     // remove "nm" and "Normalized by ..." -- TODO in report?
@@ -310,4 +442,25 @@ public class SimpleEEMReader
 
     m_ReadData.add(data);
   }
+
+  /**
+   * Performs the actual reading.
+   */
+  @Override
+  protected void readData() {
+    DenseThreeWayData	data;
+
+    try {
+      data = readDense();
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to read: " + m_Input, e);
+      return;
+    }
+
+    if (data != null)
+      m_ReadData.add(data.toThreeWayData());
+    else if (!m_Stopped)
+      readSpreadSheet();
+  }
 }
@@ -24,20 +24,25 @@ import adams.core.Properties;
 import adams.core.Utils;
 import adams.core.io.FileUtils;
 import adams.data.report.Report;
-import adams.data.spreadsheet.Row;
-import adams.data.spreadsheet.SpreadSheet;
+import adams.data.threeway.DenseThreeWayData;
 import adams.data.threeway.L1Point;
 import adams.data.threeway.L2Point;
 import adams.data.threeway.ThreeWayData;
+import adams.data.threeway.ThreeWayDataUtils;
+import adams.data.threewayreport.ThreeWayReport;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.map.TDoubleObjectMap;
+import gnu.trove.map.hash.TDoubleObjectHashMap;
+import gnu.trove.set.hash.TDoubleHashSet;
 
+import java.io.BufferedReader;
 import java.io.StringReader;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.logging.Level;
 
 /**
  <!-- globalinfo-start -->
- * Reads 3-day data in CSV format with X, Y, Z and data columns.
+ * Reads 3-day data in CSV format with X, Y, Z and data columns.<br>
+ * The file gets parsed line by line, lines starting with '#' are treated as comments.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -90,10 +95,14 @@ import java.util.logging.Level;
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class SimpleXYZReader
-  extends AbstractThreeWayDataReader {
+  extends AbstractThreeWayDataReader
+  implements DenseThreeWayDataReader {
 
   private static final long serialVersionUID = 3881844348241663649L;
 
+  /** the comment prefix. */
+  public static final String COMMENT = "#";
+
   /** the column separator. */
   protected String m_Separator;
 
@@ -104,7 +113,10 @@ public class SimpleXYZReader
    */
   @Override
   public String globalInfo() {
-    return "Reads 3-day data in CSV format with X, Y, Z and data columns.";
+    return
+      "Reads 3-day data in CSV format with X, Y, Z and data columns.\n"
+	+ "The file gets parsed line by line, lines starting with '" + COMMENT + "' "
+	+ "are treated as comments.";
   }
 
   /**
@@ -175,69 +187,197 @@ public class SimpleXYZReader
   }
 
   /**
-   * Performs the actual reading.
+   * Parses the current input file line by line into the X, Y, Z and data
+   * columns. The comments get parsed as properties and merged into the report.
+   *
+   * @param columns	the lists for the X, Y, Z and data columns
+   * @param report	the report to add the meta-data to
+   * @return		true if successfully parsed, false if not four columns or stopped
+   * @throws Exception	if reading fails
    */
-  @Override
-  protected void readData() {
-    CsvSpreadSheetReader	reader;
-    SpreadSheet			sheet;
-    ThreeWayData		data;
-    L1Point 			l1;
-    L2Point 			l2;
-    Map<Double,Map<Double,L1Point>> cache;
-    double			x;
-    double			y;
-    double			z;
-    double			d;
-    Report			report;
-    StringReader		sreader;
-    Properties			props;
-
-    data   = new ThreeWayData();
-    data.setID(FileUtils.replaceExtension(m_Input.getName(), ""));
-    cache = new HashMap<>();
-    reader = new CsvSpreadSheetReader();
-    reader.setSeparator(m_Separator);
-    sheet  = reader.read(m_Input);
-    if (sheet.getColumnCount() != 4) {
-      getLogger().severe("Requires four columns (x/y/z/data), found: " + sheet.getColumnCount());
-      return;
+  protected boolean parse(TDoubleArrayList[] columns, Report report) throws Exception {
+    BufferedReader	reader;
+    StringBuilder	comments;
+    String		line;
+    boolean		header;
+    int			start;
+    int			end;
+    int			i;
+    Properties		props;
+
+    comments = new StringBuilder();
+    header   = true;
+    reader   = openInput();
+    try {
+      while ((line = reader.readLine()) != null) {
+	if (m_Stopped)
+	  return false;
+	if (line.startsWith(COMMENT)) {
+	  comments.append(line.substring(COMMENT.length())).append("\n");
+	  continue;
+	}
+	if (line.trim().isEmpty())
+	  continue;
+	if (header) {
+	  if (numTokens(line, m_Separator) != 4) {
+	    getLogger().severe("Requires four columns (x/y/z/data), found: " + numTokens(line, m_Separator));
+	    return false;
+	  }
+	  header = false;
+	  continue;
+	}
+	start = 0;
+	for (i = 0; i < 4; i++) {
+	  end = tokenEnd(line, start, m_Separator);
+	  columns[i].add(parseDouble(line, start, end));
+	  start = end + 1;
+	}
+      }
+    }
+    finally {
+      FileUtils.closeQuietly(reader);
     }
 
     // report from comments
-    if (sheet.getComments().size() > 0) {
-      sreader = new StringReader(Utils.flatten(sheet.getComments(), "\n"));
-      props   = new Properties();
+    if (comments.length() > 0) {
+      props = new Properties();
       try {
-	props.load(sreader);
-	report = Report.parseProperties(props);
+	props.load(new StringReader(comments.toString()));
+	report.mergeWith(Report.parseProperties(props));
       }
       catch (Exception e) {
-        getLogger().log(Level.SEVERE, "Failed to read sample data from: " + m_Input, e);
-        report = null;
+	getLogger().log(Level.SEVERE, "Failed to read sample data from: " + m_Input, e);
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Creates the lists for the X, Y, Z and data columns.
+   *
+   * @return		the lists
+   */
+  protected TDoubleArrayList[] newColumns() {
+    TDoubleArrayList[]	result;
+    int			i;
+
+    result = new TDoubleArrayList[4];
+    for (i = 0; i < result.length; i++)
+      result[i] = new TDoubleArrayList();
+
+    return result;
+  }
+
+  /**
+   * Checks whether the sorted axis contains NaN, which gets sorted to the end.
+   *
+   * @param axis	the sorted axis
+   * @return		true if NaN present
+   */
+  protected static boolean hasNaN(double[] axis) {
+    return (axis.length > 0) && Double.isNaN(axis[axis.length - 1]);
+  }
+
+  /**
+   * Reads the current input file into a dense grid, if every combination
+   * of the X, Y and Z values occurs exactly once.
+   *
+   * @return		the data, null if not a regular grid or stopped
+   * @throws Exception	if reading fails
+   */
+  @Override
+  public DenseThreeWayData readDense() throws Exception {
+    DenseThreeWayData	result;
+    TDoubleArrayList[]	columns;
+    ThreeWayReport	report;
+    double[]		axisX;
+    double[]		axisY;
+    double[]		axisZ;
+    int			index;
+    int			i;
+    int			n;
+
+    columns = newColumns();
+    report  = new ThreeWayReport();
+    if (!parse(columns, report))
+      return null;
+
+    n     = columns[0].size();
+    axisX = ThreeWayDataUtils.toAxis(new TDoubleHashSet(columns[0]));
+    axisY = ThreeWayDataUtils.toAxis(new TDoubleHashSet(columns[1]));
+    axisZ = ThreeWayDataUtils.toAxis(new TDoubleHashSet(columns[2]));
+    if ((long) axisX.length * axisY.length * axisZ.length != n) {
+      if (isLoggingEnabled())
+	getLogger().info("Not a regular grid: " + m_Input);
+      return null;
+    }
+    if (hasNaN(axisX) || hasNaN(axisY) || hasNaN(axisZ)) {
+      if (isLoggingEnabled())
+	getLogger().info("Missing coordinates, cannot use dense grid: " + m_Input);
+      return null;
+    }
+
+    result = new DenseThreeWayData(FileUtils.replaceExtension(m_Input.getName(), ""), axisX, axisY, axisZ);
+    result.setReport(report);
+    for (i = 0; i < n; i++) {
+      index = result.index(
+	ThreeWayDataUtils.indexOf(axisX, columns[0].get(i)),
+	ThreeWayDataUtils.indexOf(axisY, columns[1].get(i)),
+	ThreeWayDataUtils.indexOf(axisZ, columns[2].get(i)));
+      if (result.isOccupied(index)) {
+	if (isLoggingEnabled())
+	  getLogger().info("Duplicate coordinates, not a regular grid: " + m_Input);
+	return null;
       }
-      if (report != null)
-        data.getReport().mergeWith(report);
+      result.set(index, columns[3].get(i));
     }
 
-    for (Row row: sheet.rows()) {
-      x = row.getCell(0).toDouble();
-      y = row.getCell(1).toDouble();
-      z = row.getCell(2).toDouble();
-      d = row.getCell(3).toDouble();
+    return result;
+  }
+
+  /**
+   * Performs the actual reading.
+   */
+  @Override
+  protected void readData() {
+    ThreeWayData				data;
+    TDoubleArrayList[]				columns;
+    TDoubleObjectMap<TDoubleObjectMap<L1Point>>	cache;
+    TDoubleObjectMap<L1Point>			ys;
+    L1Point 					l1;
+    double					x;
+    double					y;
+    int						i;
+
+    data    = new ThreeWayData();
+    data.setID(FileUtils.replaceExtension(m_Input.getName(), ""));
+    columns = newColumns();
+    try {
+      if (!parse(columns, data.getReport()))
+	return;
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to read: " + m_Input, e);
+      return;
+    }
 
-      if (cache.containsKey(x) && cache.get(x).containsKey(y)) {
-        l1 = cache.get(x).get(y);
+    cache = new TDoubleObjectHashMap<>();
+    for (i = 0; i < columns[0].size(); i++) {
+      x  = columns[0].get(i);
+      y  = columns[1].get(i);
+      ys = cache.get(x);
+      if (ys == null) {
+	ys = new TDoubleObjectHashMap<>();
+	cache.put(x, ys);
       }
-      else {
+      l1 = ys.get(y);
+      if (l1 == null) {
 	l1 = new L1Point(x, y);
-	if (!cache.containsKey(x))
-	  cache.put(x, new HashMap<>());
-	cache.get(x).put(y, l1);
+	ys.put(y, l1);
 	data.add(l1);
       }
-      l2 = new L2Point(z, d);
-      l1.add(l2);
+      l1.add(new L2Point(columns[2].get(i), columns[3].get(i)));
     }
 
     m_ReadData.add(data);
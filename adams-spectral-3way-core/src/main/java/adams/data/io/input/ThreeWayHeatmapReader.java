@@ -20,15 +20,19 @@
 
 package adams.data.io.input;
 
+import adams.data.conversion.DenseThreeWayDataToHeatmap;
 import adams.data.conversion.ThreeWayDataToHeatmap;
 import adams.data.heatmap.Heatmap;
+import adams.data.threeway.DenseThreeWayData;
 import adams.data.threeway.ThreeWayData;
 
 import java.util.List;
+import java.util.logging.Level;
 
 /**
  <!-- globalinfo-start -->
- * Uses the specified reader to load 3-way data and turns it into a heatmap.
+ * Uses the specified reader to load 3-way data and turns it into a heatmap.<br>
+ * Readers that can read into a dense grid get used without creating the intermediate 3-way data.
  * <br><br>
  <!-- globalinfo-end -->
  *
@@ -79,7 +83,10 @@ public class ThreeWayHeatmapReader
    */
   @Override
   public String globalInfo() {
-    return "Uses the specified reader to load 3-way data and turns it into a heatmap.";
+    return
+      "Uses the specified reader to load 3-way data and turns it into a heatmap.\n"
+	+ "Readers that can read into a dense grid get used without creating "
+	+ "the intermediate 3-way data.";
   }
 
   /**
@@ -153,6 +160,45 @@ public class ThreeWayHeatmapReader
     return new String[]{"*"};
   }
 
+  /**
+   * Turns the dense data into a heatmap, summing up the values of the
+   * layers with X=0 (like {@link ThreeWayDataToHeatmap} with its defaults).
+   * NaN values get summed up as well, only empty cells get skipped.
+   *
+   * @param data	the data to convert
+   * @return		the heatmap
+   * @see		DenseThreeWayDataToHeatmap#toHeatmap(DenseThreeWayData, double, double)
+   */
+  protected Heatmap toHeatmap(DenseThreeWayData data) {
+    m_Reader.updateReport(data.getReport(), data.getID());
+    return DenseThreeWayDataToHeatmap.toHeatmap(data, 0.0, 0.0);
+  }
+
+  /**
+   * Reads the data via the dense grid of the reader, avoiding the creation
+   * of L1/L2 points.
+   *
+   * @return		true if read, false if the data needs reading via points
+   */
+  protected boolean readDense() {
+    DenseThreeWayData	data;
+
+    m_Reader.setInput(m_Input);
+    try {
+      data = ((DenseThreeWayDataReader) m_Reader).readDense();
+    }
+    catch (Exception e) {
+      getLogger().log(Level.SEVERE, "Failed to read dense data: " + m_Input, e);
+      return false;
+    }
+    if (data == null)
+      return false;
+
+    m_ReadData.add(toHeatmap(data));
+
+    return true;
+  }
+
   /**
    * Performs the actual reading.
    */
@@ -164,6 +210,9 @@ public class ThreeWayHeatmapReader
     int				i;
     String			msg;
 
+    if ((m_Reader instanceof DenseThreeWayDataReader) && readDense())
+      return;
+
     m_Reader.setInput(m_Input);
     list = m_Reader.read();
     conv = new ThreeWayDataToHeatmap();
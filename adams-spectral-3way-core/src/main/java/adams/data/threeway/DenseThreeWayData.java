@@ -0,0 +1,538 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DenseThreeWayData.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threeway;
+
+import adams.core.Constants;
+import adams.data.Notes;
+import adams.data.threewayreport.ThreeWayReport;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Dense storage for 3-way data on a regular grid: sorted X, Y and Z axes
+ * and a single flat array of values, laid out X-major, then Y, then Z.
+ * Which cells hold a value is tracked separately, so that NaN can be stored
+ * as a value as well. Cells without a value read as NaN.
+ * <br>
+ * Regular grids (e.g., EEM or image cubes) take up a fraction of the memory
+ * of the point-based {@link ThreeWayData} this way. Irregular data, where only
+ * few cells of the grid are occupied, is better kept as {@link ThreeWayData},
+ * see {@link #fromThreeWayData(ThreeWayData, double)}. The L1/L2 point API
+ * is available via {@link #toL1Point(int, int)} and {@link #toThreeWayData()}.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DenseThreeWayData
+  implements Serializable {
+
+  private static final long serialVersionUID = -3402281694627612541L;
+
+  /** the ID. */
+  protected String m_ID;
+
+  /** database id. */
+  protected int m_DatabaseID;
+
+  /** the report. */
+  protected ThreeWayReport m_Report;
+
+  /** the notes. */
+  protected Notes m_Notes;
+
+  /** the X axis (sorted). */
+  protected double[] m_X;
+
+  /** the Y axis (sorted). */
+  protected double[] m_Y;
+
+  /** the Z axis (sorted). */
+  protected double[] m_Z;
+
+  /** the values. */
+  protected double[] m_Values;
+
+  /** the cells that hold a value. */
+  protected BitSet m_Occupied;
+
+  /**
+   * Initializes the storage with all values missing.
+   *
+   * @param id		the ID of the data
+   * @param x		the X axis, strictly ascending
+   * @param y		the Y axis, strictly ascending
+   * @param z		the Z axis, strictly ascending
+   */
+  public DenseThreeWayData(String id, double[] x, double[] y, double[] z) {
+    check(x, "X");
+    check(y, "Y");
+    check(z, "Z");
+    if ((long) x.length * y.length * z.length > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Grid too large: " + x.length + "x" + y.length + "x" + z.length);
+
+    m_ID         = id;
+    m_DatabaseID = Constants.NO_ID;
+    m_Report     = new ThreeWayReport();
+    m_Notes      = new Notes();
+    m_X          = x.clone();
+    m_Y          = y.clone();
+    m_Z          = z.clone();
+    m_Values     = new double[x.length * y.length * z.length];
+    m_Occupied   = new BitSet(m_Values.length);
+    Arrays.fill(m_Values, Double.NaN);
+  }
+
+  /**
+   * Ensures that the axis is strictly ascending.
+   *
+   * @param axis	the axis to check
+   * @param name	the name of the axis, used in the error message
+   */
+  protected static void check(double[] axis, String name) {
+    int		i;
+
+    for (i = 1; i < axis.length; i++) {
+      if (!(axis[i - 1] < axis[i]))
+	throw new IllegalArgumentException(name + " axis not strictly ascending at index " + i + ": " + axis[i - 1] + " >= " + axis[i]);
+    }
+  }
+
+  /**
+   * Sets the ID.
+   *
+   * @param value	the ID
+   */
+  public void setID(String value) {
+    m_ID = value;
+  }
+
+  /**
+   * Returns the ID.
+   *
+   * @return		the ID
+   */
+  public String getID() {
+    return m_ID;
+  }
+
+  /**
+   * Sets the database ID.
+   *
+   * @param value	the database ID
+   */
+  public void setDatabaseID(int value) {
+    m_DatabaseID = value;
+  }
+
+  /**
+   * Returns the database ID.
+   *
+   * @return		the database ID
+   */
+  public int getDatabaseID() {
+    return m_DatabaseID;
+  }
+
+  /**
+   * Sets the report.
+   *
+   * @param value	the report
+   */
+  public void setReport(ThreeWayReport value) {
+    m_Report = value;
+  }
+
+  /**
+   * Returns the report.
+   *
+   * @return		the report
+   */
+  public ThreeWayReport getReport() {
+    return m_Report;
+  }
+
+  /**
+   * Returns the notes.
+   *
+   * @return		the notes
+   */
+  public Notes getNotes() {
+    return m_Notes;
+  }
+
+  /**
+   * Returns the X axis. Must not be modified.
+   *
+   * @return		the sorted Xs
+   */
+  public double[] getX() {
+    return m_X;
+  }
+
+  /**
+   * Returns the Y axis. Must not be modified.
+   *
+   * @return		the sorted Ys
+   */
+  public double[] getY() {
+    return m_Y;
+  }
+
+  /**
+   * Returns the Z axis. Must not be modified.
+   *
+   * @return		the sorted Zs
+   */
+  public double[] getZ() {
+    return m_Z;
+  }
+
+  /**
+   * Returns the underlying values, see {@link #index(int, int, int)} for
+   * the layout. Must not be modified, use {@link #set(int, double)} instead.
+   * Use {@link #isOccupied(int)} to tell empty cells and NaN values apart.
+   *
+   * @return		the values
+   */
+  public double[] getValues() {
+    return m_Values;
+  }
+
+  /**
+   * Returns the number of Xs.
+   *
+   * @return		the number
+   */
+  public int numX() {
+    return m_X.length;
+  }
+
+  /**
+   * Returns the number of Ys.
+   *
+   * @return		the number
+   */
+  public int numY() {
+    return m_Y.length;
+  }
+
+  /**
+   * Returns the number of Zs.
+   *
+   * @return		the number
+   */
+  public int numZ() {
+    return m_Z.length;
+  }
+
+  /**
+   * Returns the position in the values array for the grid indices.
+   *
+   * @param ix		the X index
+   * @param iy		the Y index
+   * @param iz		the Z index
+   * @return		the position
+   */
+  public int index(int ix, int iy, int iz) {
+    return (ix * m_Y.length + iy) * m_Z.length + iz;
+  }
+
+  /**
+   * Returns the index of the X value.
+   *
+   * @param x		the X to look for
+   * @return		the index, -1 if not on the grid
+   */
+  public int indexOfX(double x) {
+    return ThreeWayDataUtils.indexOf(m_X, x);
+  }
+
+  /**
+   * Returns the index of the Y value.
+   *
+   * @param y		the Y to look for
+   * @return		the index, -1 if not on the grid
+   */
+  public int indexOfY(double y) {
+    return ThreeWayDataUtils.indexOf(m_Y, y);
+  }
+
+  /**
+   * Returns the index of the Z value.
+   *
+   * @param z		the Z to look for
+   * @return		the index, -1 if not on the grid
+   */
+  public int indexOfZ(double z) {
+    return ThreeWayDataUtils.indexOf(m_Z, z);
+  }
+
+  /**
+   * Returns whether the cell at the position in the values array holds a value.
+   *
+   * @param index	the position, see {@link #index(int, int, int)}
+   * @return		true if a value is present
+   */
+  public boolean isOccupied(int index) {
+    return m_Occupied.get(index);
+  }
+
+  /**
+   * Returns whether the cell at the grid indices holds a value.
+   *
+   * @param ix		the X index
+   * @param iy		the Y index
+   * @param iz		the Z index
+   * @return		true if a value is present
+   */
+  public boolean isOccupied(int ix, int iy, int iz) {
+    return m_Occupied.get(index(ix, iy, iz));
+  }
+
+  /**
+   * Sets the value at the position in the values array.
+   *
+   * @param index	the position, see {@link #index(int, int, int)}
+   * @param value	the value, can be NaN
+   */
+  public void set(int index, double value) {
+    m_Values[index] = value;
+    m_Occupied.set(index);
+  }
+
+  /**
+   * Removes the value at the grid indices.
+   *
+   * @param ix		the X index
+   * @param iy		the Y index
+   * @param iz		the Z index
+   */
+  public void remove(int ix, int iy, int iz) {
+    int		index;
+
+    index           = index(ix, iy, iz);
+    m_Values[index] = Double.NaN;
+    m_Occupied.clear(index);
+  }
+
+  /**
+   * Returns the value at the grid indices.
+   *
+   * @param ix		the X index
+   * @param iy		the Y index
+   * @param iz		the Z index
+   * @return		the value, NaN if missing
+   */
+  public double get(int ix, int iy, int iz) {
+    return m_Values[index(ix, iy, iz)];
+  }
+
+  /**
+   * Sets the value at the grid indices.
+   *
+   * @param ix		the X index
+   * @param iy		the Y index
+   * @param iz		the Z index
+   * @param value	the value, can be NaN
+   */
+  public void set(int ix, int iy, int iz, double value) {
+    set(index(ix, iy, iz), value);
+  }
+
+  /**
+   * Returns the value at the coordinates.
+   *
+   * @param x		the X
+   * @param y		the Y
+   * @param z		the Z
+   * @return		the value, NaN if missing or not on the grid
+   */
+  public double get(double x, double y, double z) {
+    int		ix;
+    int		iy;
+    int		iz;
+
+    ix = indexOfX(x);
+    iy = indexOfY(y);
+    iz = indexOfZ(z);
+    if ((ix == -1) || (iy == -1) || (iz == -1))
+      return Double.NaN;
+
+    return get(ix, iy, iz);
+  }
+
+  /**
+   * Sets the value at the coordinates.
+   *
+   * @param x		the X
+   * @param y		the Y
+   * @param z		the Z
+   * @param value	the value, can be NaN
+   * @throws IllegalArgumentException	if the coordinates are not on the grid
+   */
+  public void set(double x, double y, double z, double value) {
+    int		ix;
+    int		iy;
+    int		iz;
+
+    ix = indexOfX(x);
+    iy = indexOfY(y);
+    iz = indexOfZ(z);
+    if ((ix == -1) || (iy == -1) || (iz == -1))
+      throw new IllegalArgumentException("Coordinates not on grid: x=" + x + ", y=" + y + ", z=" + z);
+
+    set(ix, iy, iz, value);
+  }
+
+  /**
+   * Returns the number of cells that hold a value.
+   *
+   * @return		the number of values
+   */
+  public int numValues() {
+    return m_Occupied.cardinality();
+  }
+
+  /**
+   * Creates an L1 point for the grid position, containing an L2 point for
+   * each cell that holds a value.
+   *
+   * @param ix		the X index
+   * @param iy		the Y index
+   * @return		the point
+   */
+  public L1Point toL1Point(int ix, int iy) {
+    L1Point	result;
+    int		offset;
+    int		iz;
+
+    result = new L1Point(m_X[ix], m_Y[iy]);
+    offset = index(ix, iy, 0);
+    for (iz = 0; iz < m_Z.length; iz++) {
+      if (m_Occupied.get(offset + iz))
+	result.add(new L2Point(m_Z[iz], m_Values[offset + iz]));
+    }
+
+    return result;
+  }
+
+  /**
+   * Turns the dense storage back into point-based 3-way data. Grid
+   * positions without any values are omitted.
+   *
+   * @return		the data
+   */
+  public ThreeWayData toThreeWayData() {
+    ThreeWayData	result;
+    L1Point		l1;
+    int			ix;
+    int			iy;
+
+    result = new ThreeWayData(m_ID);
+    result.setDatabaseID(m_DatabaseID);
+    if (m_Report != null)
+      result.setReport((ThreeWayReport) m_Report.getClone());
+    result.getNotes().mergeWith(m_Notes);
+    for (ix = 0; ix < m_X.length; ix++) {
+      for (iy = 0; iy < m_Y.length; iy++) {
+	l1 = toL1Point(ix, iy);
+	if (l1.size() > 0)
+	  result.add(l1);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the fraction of grid cells, spanned by the unique X/Y/Z values,
+   * that the data occupies.
+   *
+   * @param data	the data to inspect
+   * @return		the fill ratio (0-1)
+   */
+  public static double fillRatio(ThreeWayData data) {
+    long	cells;
+    int		count;
+
+    cells = (long) data.getAllX().size() * data.getAllY().size() * data.getAllZ().size();
+    if (cells == 0)
+      return 1.0;
+    count = 0;
+    for (L1Point l1: data)
+      count += l1.size();
+
+    return (double) count / cells;
+  }
+
+  /**
+   * Converts the point-based data into dense storage.
+   *
+   * @param data	the data to convert
+   * @return		the dense data
+   */
+  public static DenseThreeWayData fromThreeWayData(ThreeWayData data) {
+    DenseThreeWayData	result;
+    int			ix;
+    int			iy;
+
+    result = new DenseThreeWayData(
+      data.getID(), data.getAllX().toArray(), data.getAllY().toArray(), data.getAllZ().toArray());
+    result.setDatabaseID(data.getDatabaseID());
+    if (data.hasReport())
+      result.setReport((ThreeWayReport) data.getReport().getClone());
+    result.getNotes().mergeWith(data.getNotes());
+    for (L1Point l1: data) {
+      ix = result.indexOfX(l1.getX());
+      iy = result.indexOfY(l1.getY());
+      for (L2Point l2: l1)
+	result.set(ix, iy, result.indexOfZ(l2.getZ()), l2.getData());
+    }
+
+    return result;
+  }
+
+  /**
+   * Converts the point-based data into dense storage, but only if the data
+   * occupies enough of the grid. Irregular data should stay point-based.
+   *
+   * @param data	the data to convert
+   * @param minFillRatio	the minimum fraction of occupied grid cells (0-1)
+   * @return		the dense data, null if too sparse
+   * @see		#fillRatio(ThreeWayData)
+   */
+  public static DenseThreeWayData fromThreeWayData(ThreeWayData data, double minFillRatio) {
+    if (fillRatio(data) < minFillRatio)
+      return null;
+    return fromThreeWayData(data);
+  }
+
+  /**
+   * Returns a short description of the data.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return m_ID + ": " + m_X.length + "x" + m_Y.length + "x" + m_Z.length;
+  }
+}
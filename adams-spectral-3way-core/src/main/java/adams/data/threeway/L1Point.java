@@ -27,7 +27,7 @@ import adams.data.container.DataPoint;
 import adams.data.container.DataPointComparator;
 import adams.data.statistics.L1PointStatistic;
 
-import java.util.Collections;
+import java.util.Arrays;
 
 /**
  * Level 1 data point.
@@ -65,6 +65,9 @@ public class L1Point
   /** the default comparator. */
   protected static DataPointComparator<L2Point> m_Comparator;
 
+  /** the Zs of the points, in the same order (built on demand). */
+  protected transient double[] m_Zs;
+
   /**
    * Constructor.
    */
@@ -155,8 +158,10 @@ public class L1Point
    */
   @Override
   protected boolean modifiedListener(boolean modified) {
-    if (modified)
+    if (modified) {
       invalidateMinMax();
+      invalidateZs();
+    }
 
     return modified;
   }
@@ -222,6 +227,32 @@ public class L1Point
     m_MaxX = null;
   }
 
+  /**
+   * Invalidates the lookup of Zs.
+   */
+  protected synchronized void invalidateZs() {
+    m_Zs = null;
+  }
+
+  /**
+   * Returns the sorted Zs of the points, builds them if necessary.
+   * Must get invalidated when the Z of a contained point changes.
+   *
+   * @return		the Zs
+   * @see		#invalidateZs()
+   */
+  protected synchronized double[] getZs() {
+    int		i;
+
+    if (m_Zs == null) {
+      m_Zs = new double[m_Points.size()];
+      for (i = 0; i < m_Zs.length; i++)
+	m_Zs[i] = m_Points.get(i).getZ();
+    }
+
+    return m_Zs;
+  }
+
   /**
    * Initializes the min/max abundance/timestmap points.
    */
@@ -302,13 +333,13 @@ public class L1Point
    * @return		the L2Point or null if not found
    */
   public L2Point find(double z) {
-    L2Point result;
+    int		index;
 
-    result = findClosest(z);
-    if ((result != null) && (result.getZ() != z))
-      result = null;
+    index = Arrays.binarySearch(getZs(), z);
+    if (index < 0)
+      return null;
 
-    return result;
+    return m_Points.get(index);
   }
 
   /**
@@ -318,45 +349,27 @@ public class L1Point
    * @return		the L2Point
    */
   public L2Point findClosest(double z) {
-    L2Point result;
-    int			index;
-    L2Point currPoint;
-    double		currDist;
-    double		dist;
-    int			i;
-
-    result = null;
-
-    if (m_Points.size() == 0)
-      return result;
-
-    index = Collections.binarySearch(m_Points, new L2Point(z, 0), m_Comparator);
-
-    // no exact match -> find closest
-    if (index < 0) {
-      index = -index;
-      if (index >= m_Points.size())
-	index = m_Points.size() - 1;
-      result = m_Points.get(index);
-      dist   = Math.abs(z - result.getZ());
-
-      for (i = index - 2; i <= index + 2; i++) {
-	if ((i >= 0) && (i < m_Points.size())) {
-	  currPoint = m_Points.get(i);
-	  currDist  = Math.abs(z - currPoint.getZ());
-
-	  if (currDist < dist) {
-	    dist   = currDist;
-	    result = currPoint;
-	  }
-	}
-      }
-    }
-    else {
-      result = m_Points.get(index);
-    }
-
-    return result;
+    double[]	zs;
+    int		index;
+
+    zs = getZs();
+    if (zs.length == 0)
+      return null;
+
+    index = Arrays.binarySearch(zs, z);
+    if (index >= 0)
+      return m_Points.get(index);
+
+    // no exact match -> compare neighbors of insertion point
+    index = -index - 1;
+    if (index == 0)
+      return m_Points.get(0);
+    if (index == zs.length)
+      return m_Points.get(zs.length - 1);
+    if (z - zs[index - 1] <= zs[index] - z)
+      return m_Points.get(index - 1);
+    else
+      return m_Points.get(index);
   }
 
   /**
@@ -38,6 +38,8 @@ import adams.data.statistics.ThreeWayDataStatistic;
 import adams.data.threewayreport.ThreeWayReport;
 import gnu.trove.list.TDoubleList;
 import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.map.TDoubleObjectMap;
+import gnu.trove.map.hash.TDoubleObjectHashMap;
 import gnu.trove.set.TDoubleSet;
 import gnu.trove.set.hash.TDoubleHashSet;
 
@@ -78,6 +80,9 @@ public class ThreeWayData
   /** the notes for the data structure. */
   protected Notes m_Notes;
 
+  /** the lookup of level 1 points by X and Y (built on demand). */
+  protected transient TDoubleObjectMap<TDoubleObjectMap<L1Point>> m_Index;
+
   /** the default comparator. */
   protected static DataPointComparator<L1Point> m_Comparator;
 
@@ -142,6 +147,39 @@ public class ThreeWayData
     m_MaxX = null;
   }
 
+  /**
+   * Invalidates the lookup of level 1 points.
+   */
+  protected synchronized void invalidateIndex() {
+    m_Index = null;
+  }
+
+  /**
+   * Returns the lookup of level 1 points by X and Y, builds it if necessary.
+   * Must get invalidated when the X or Y of a contained point changes.
+   *
+   * @return		the lookup
+   * @see		#invalidateIndex()
+   */
+  protected synchronized TDoubleObjectMap<TDoubleObjectMap<L1Point>> getIndex() {
+    TDoubleObjectMap<L1Point>	ys;
+
+    if (m_Index == null) {
+      m_Index = new TDoubleObjectHashMap<>();
+      for (L1Point point: this) {
+	ys = m_Index.get(point.getX());
+	if (ys == null) {
+	  ys = new TDoubleObjectHashMap<>();
+	  m_Index.put(point.getX(), ys);
+	}
+	if (!ys.containsKey(point.getY()))
+	  ys.put(point.getY(), point);
+      }
+    }
+
+    return m_Index;
+  }
+
   /**
    * Initializes the min/max abundance/timestmap points.
    */
@@ -282,8 +320,10 @@ public class ThreeWayData
    */
   @Override
   protected boolean modifiedListener(boolean modified) {
-    if (modified)
+    if (modified) {
       invalidateMinMax();
+      invalidateIndex();
+    }
 
     return modified;
   }
@@ -297,34 +337,73 @@ public class ThreeWayData
    * @see		#findClosest(double,double)
    */
   public L1Point find(double x, double y) {
-    L1Point result;
-    int		index;
+    TDoubleObjectMap<L1Point>	ys;
 
-    result = null;
-
-    index = ThreeWayDataUtils.findXY(m_Points, x, y);
-    if (index > -1)
-      result = m_Points.get(index);
+    ys = getIndex().get(x);
+    if (ys == null)
+      return null;
 
-    return result;
+    return ys.get(y);
   }
 
   /**
-   * Returns the level 1 point with a X closest to the one provided.
+   * Returns the level 1 point closest to the X/Y provided: the point with
+   * the closest X and, among the points with that X, the closest Y.
+   * Ties get resolved in favor of the smaller X/Y.
    *
    * @param x		the X to look for
-   * @return		the level 1 point
+   * @param y		the Y to look for
+   * @return		the level 1 point, null if no points present
    * @see		#find(double,double)
    */
   public L1Point findClosest(double x, double y) {
-    L1Point result;
-    int		index;
+    L1Point			result;
+    TDoubleObjectMap<L1Point>	ys;
+    double			closestX;
+    double			below;
+    double			above;
+    double			dist;
+    double			currDist;
+    int				low;
+    int				high;
+    int				mid;
+
+    result = find(x, y);
+    if ((result != null) || (m_Points.size() == 0))
+      return result;
 
-    result = null;
+    // first point with X >= x (points are sorted by X, then Y)
+    low  = 0;
+    high = m_Points.size();
+    while (low < high) {
+      mid = (low + high) >>> 1;
+      if (m_Points.get(mid).getX() < x)
+	low = mid + 1;
+      else
+	high = mid;
+    }
+    if (low == 0) {
+      closestX = m_Points.get(0).getX();
+    }
+    else if (low == m_Points.size()) {
+      closestX = m_Points.get(low - 1).getX();
+    }
+    else {
+      below    = m_Points.get(low - 1).getX();
+      above    = m_Points.get(low).getX();
+      closestX = (x - below <= above - x) ? below : above;
+    }
 
-    index = ThreeWayDataUtils.findClosestXY(m_Points, x, y);
-    if (index > -1)
-      result = m_Points.get(index);
+    // closest Y
+    ys   = getIndex().get(closestX);
+    dist = Double.POSITIVE_INFINITY;
+    for (L1Point point: ys.valueCollection()) {
+      currDist = Math.abs(point.getY() - y);
+      if ((result == null) || (currDist < dist) || ((currDist == dist) && (point.getY() < result.getY()))) {
+	dist   = currDist;
+	result = point;
+      }
+    }
 
     return result;
   }
@@ -20,10 +20,20 @@
 
 package adams.data.threeway;
 
+import adams.core.Performance;
 import adams.data.container.DataContainerUtils;
+import gnu.trove.set.TDoubleSet;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 /**
  * Utility class for ThreeWayData objects.
@@ -34,12 +44,21 @@ import java.util.List;
 public class ThreeWayDataUtils
   extends DataContainerUtils {
 
-  /** comparator for finding timestamps. */
+  /** comparator for finding points (by X, then Y, like ThreeWayData sorts them). */
   protected static L1PointComparator m_Comparator;
   static {
-    m_Comparator = new L1PointComparator(false, true);
+    m_Comparator = new L1PointComparator(true, true);
   }
 
+  /** the executor shared by all parallel computations. */
+  protected static ExecutorService m_Executor;
+
+  /** the number of threads of the shared executor. */
+  protected static int m_ExecutorThreads;
+
+  /** whether the current thread belongs to the shared executor. */
+  protected static final ThreadLocal<Boolean> m_InExecutor = ThreadLocal.withInitial(() -> false);
+
   /**
    * Returns the comparator used for finding timestamps.
    *
@@ -174,4 +193,114 @@ public class ThreeWayDataUtils
 
     return result;
   }
+
+  /**
+   * Turns the unique values into a sorted axis.
+   *
+   * @param values	the unique values
+   * @return		the sorted axis
+   */
+  public static double[] toAxis(TDoubleSet values) {
+    double[]	result;
+
+    result = values.toArray();
+    Arrays.sort(result);
+
+    return result;
+  }
+
+  /**
+   * Returns the position of the value on the sorted axis, using binary search.
+   *
+   * @param axis	the sorted axis
+   * @param value	the value to locate
+   * @return		the index, -1 if not on the axis
+   */
+  public static int indexOf(double[] axis, double value) {
+    int		result;
+
+    result = Arrays.binarySearch(axis, value);
+    if (result < 0)
+      result = -1;
+
+    return result;
+  }
+
+  /**
+   * Returns the executor shared by all parallel computations, bounded by the
+   * number of CPUs/cores. Its threads are daemon threads, i.e., the executor
+   * does not need shutting down.
+   *
+   * @return		the executor
+   */
+  protected static synchronized ExecutorService getExecutor() {
+    final AtomicInteger	count;
+
+    if (m_Executor == null) {
+      count             = new AtomicInteger();
+      m_ExecutorThreads = Performance.determineNumThreads(-1);
+      m_Executor        = Executors.newFixedThreadPool(m_ExecutorThreads, (Runnable r) -> {
+	Thread thread = new Thread(() -> {
+	  m_InExecutor.set(true);
+	  r.run();
+	}, ThreeWayDataUtils.class.getSimpleName() + "-" + count.incrementAndGet());
+	thread.setDaemon(true);
+	return thread;
+      });
+    }
+
+    return m_Executor;
+  }
+
+  /**
+   * Executes the task for the indices 0 to num-1, distributing the indices
+   * across the specified number of threads in round-robin fashion.
+   * The threads get taken from an executor shared by all calls, rather than
+   * creating a new thread pool each time. Calls from within a task of the
+   * shared executor get executed sequentially.
+   *
+   * @param numThreads	the number of threads, see Performance.determineNumThreads(int)
+   * @param num		the number of indices
+   * @param task	the task to execute for each index
+   */
+  public static void parallel(int numThreads, int num, IntConsumer task) {
+    ExecutorService	executor;
+    List<Future<?>>	futures;
+    int			threads;
+    int			i;
+
+    threads = Math.min(Performance.determineNumThreads(numThreads), num);
+    if ((threads <= 1) || m_InExecutor.get()) {
+      for (i = 0; i < num; i++)
+	task.accept(i);
+      return;
+    }
+
+    executor = getExecutor();
+    threads  = Math.min(threads, m_ExecutorThreads);
+    futures  = new ArrayList<>();
+    try {
+      for (i = 0; i < threads; i++) {
+	final int offset = i;
+	final int step   = threads;
+	futures.add(executor.submit(() -> {
+	  for (int n = offset; n < num; n += step)
+	    task.accept(n);
+	}));
+      }
+      for (Future<?> future: futures)
+	future.get();
+    }
+    catch (InterruptedException e) {
+      for (Future<?> future: futures)
+	future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for parallel computation!", e);
+    }
+    catch (ExecutionException e) {
+      for (Future<?> future: futures)
+	future.cancel(true);
+      throw new IllegalStateException("Failed to perform parallel computation!", e.getCause());
+    }
+  }
 }
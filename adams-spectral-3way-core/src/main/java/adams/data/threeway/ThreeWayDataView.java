@@ -0,0 +1,394 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ThreeWayDataView.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threeway;
+
+import adams.core.base.BaseInterval;
+import adams.data.threewayreport.ThreeWayReport;
+
+import java.io.Serializable;
+
+/**
+ * Read-only view on {@link DenseThreeWayData}, described by a start index,
+ * a stride and a length per axis, plus an offset that gets added to the
+ * axis values. Cropping, shifting and down-sampling a view only creates a
+ * new view on the same storage, no values get copied until
+ * {@link #materialize()} or {@link #toThreeWayData()} get called.
+ * <br>
+ * Cropping and shifting follow the semantics of the
+ * {@link adams.data.threewayfilter.Crop} and {@link adams.data.threewayfilter.Shift}
+ * filters, down-sampling gets applied per axis.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ThreeWayDataView
+  implements Serializable {
+
+  private static final long serialVersionUID = 8516366624357853108L;
+
+  /** the X axis. */
+  public final static int AXIS_X = 0;
+
+  /** the Y axis. */
+  public final static int AXIS_Y = 1;
+
+  /** the Z axis. */
+  public final static int AXIS_Z = 2;
+
+  /** the underlying storage. */
+  protected DenseThreeWayData m_Source;
+
+  /** the start indices in the storage per axis. */
+  protected int[] m_Start;
+
+  /** the strides per axis. */
+  protected int[] m_Stride;
+
+  /** the number of elements per axis. */
+  protected int[] m_Length;
+
+  /** the offsets to add to the axis values. */
+  protected double[] m_Offset;
+
+  /**
+   * Initializes the view with all of the data.
+   *
+   * @param source	the underlying storage
+   */
+  public ThreeWayDataView(DenseThreeWayData source) {
+    this(
+      source,
+      new int[3],
+      new int[]{1, 1, 1},
+      new int[]{source.numX(), source.numY(), source.numZ()},
+      new double[3]);
+  }
+
+  /**
+   * Initializes the view.
+   *
+   * @param source	the underlying storage
+   * @param start	the start indices per axis
+   * @param stride	the strides per axis
+   * @param length	the number of elements per axis
+   * @param offset	the offsets per axis
+   */
+  protected ThreeWayDataView(DenseThreeWayData source, int[] start, int[] stride, int[] length, double[] offset) {
+    m_Source = source;
+    m_Start  = start;
+    m_Stride = stride;
+    m_Length = length;
+    m_Offset = offset;
+  }
+
+  /**
+   * Returns the underlying storage.
+   *
+   * @return		the storage
+   */
+  public DenseThreeWayData getSource() {
+    return m_Source;
+  }
+
+  /**
+   * Returns the number of elements along the axis.
+   *
+   * @param axis	the axis, see AXIS_* constants
+   * @return		the number of elements
+   */
+  public int size(int axis) {
+    return m_Length[axis];
+  }
+
+  /**
+   * Returns the number of Xs.
+   *
+   * @return		the number
+   */
+  public int numX() {
+    return m_Length[AXIS_X];
+  }
+
+  /**
+   * Returns the number of Ys.
+   *
+   * @return		the number
+   */
+  public int numY() {
+    return m_Length[AXIS_Y];
+  }
+
+  /**
+   * Returns the number of Zs.
+   *
+   * @return		the number
+   */
+  public int numZ() {
+    return m_Length[AXIS_Z];
+  }
+
+  /**
+   * Returns the index in the storage for the view index along the axis.
+   *
+   * @param axis	the axis, see AXIS_* constants
+   * @param index	the index in the view
+   * @return		the index in the storage
+   */
+  protected int sourceIndex(int axis, int index) {
+    if ((index < 0) || (index >= m_Length[axis]))
+      throw new IndexOutOfBoundsException("Index " + index + " outside of view (axis " + axis + "): " + m_Length[axis]);
+    return m_Start[axis] + index * m_Stride[axis];
+  }
+
+  /**
+   * Returns the axis value for the view index.
+   *
+   * @param axis	the axis, see AXIS_* constants
+   * @param index	the index in the view
+   * @return		the axis value
+   */
+  public double getAxisValue(int axis, int index) {
+    double[]	values;
+
+    switch (axis) {
+      case AXIS_X:
+	values = m_Source.getX();
+	break;
+      case AXIS_Y:
+	values = m_Source.getY();
+	break;
+      case AXIS_Z:
+	values = m_Source.getZ();
+	break;
+      default:
+	throw new IllegalArgumentException("Unknown axis: " + axis);
+    }
+
+    return values[sourceIndex(axis, index)] + m_Offset[axis];
+  }
+
+  /**
+   * Returns the X at the view index.
+   *
+   * @param index	the index in the view
+   * @return		the X
+   */
+  public double getX(int index) {
+    return getAxisValue(AXIS_X, index);
+  }
+
+  /**
+   * Returns the Y at the view index.
+   *
+   * @param index	the index in the view
+   * @return		the Y
+   */
+  public double getY(int index) {
+    return getAxisValue(AXIS_Y, index);
+  }
+
+  /**
+   * Returns the Z at the view index.
+   *
+   * @param index	the index in the view
+   * @return		the Z
+   */
+  public double getZ(int index) {
+    return getAxisValue(AXIS_Z, index);
+  }
+
+  /**
+   * Returns the value at the view indices.
+   *
+   * @param ix		the X index
+   * @param iy		the Y index
+   * @param iz		the Z index
+   * @return		the value, NaN if missing
+   */
+  public double get(int ix, int iy, int iz) {
+    return m_Source.get(sourceIndex(AXIS_X, ix), sourceIndex(AXIS_Y, iy), sourceIndex(AXIS_Z, iz));
+  }
+
+  /**
+   * Returns whether the cell at the view indices holds a value.
+   *
+   * @param ix		the X index
+   * @param iy		the Y index
+   * @param iz		the Z index
+   * @return		true if a value is present
+   */
+  public boolean isOccupied(int ix, int iy, int iz) {
+    return m_Source.isOccupied(sourceIndex(AXIS_X, ix), sourceIndex(AXIS_Y, iy), sourceIndex(AXIS_Z, iz));
+  }
+
+  /**
+   * Returns a view on the specified index ranges of this view.
+   *
+   * @param from	the first index per axis (incl)
+   * @param to		the last index per axis (excl)
+   * @return		the view
+   */
+  public ThreeWayDataView crop(int[] from, int[] to) {
+    int[]	start;
+    int[]	length;
+    int		i;
+
+    start  = new int[3];
+    length = new int[3];
+    for (i = 0; i < 3; i++) {
+      if ((from[i] < 0) || (to[i] > m_Length[i]) || (from[i] > to[i]))
+	throw new IndexOutOfBoundsException("Invalid range for axis " + i + ": [" + from[i] + "," + to[i] + ") for length " + m_Length[i]);
+      start[i]  = m_Start[i] + from[i] * m_Stride[i];
+      length[i] = to[i] - from[i];
+    }
+
+    return new ThreeWayDataView(m_Source, start, m_Stride.clone(), length, m_Offset.clone());
+  }
+
+  /**
+   * Returns a view with only the axis values that fall into the intervals.
+   *
+   * @param x		the X interval
+   * @param y		the Y interval
+   * @param z		the Z interval
+   * @return		the view
+   */
+  public ThreeWayDataView crop(BaseInterval x, BaseInterval y, BaseInterval z) {
+    BaseInterval[]	intervals;
+    int[]		from;
+    int[]		to;
+    int			i;
+
+    intervals = new BaseInterval[]{x, y, z};
+    from      = new int[3];
+    to        = new int[3];
+    for (i = 0; i < 3; i++) {
+      from[i] = 0;
+      to[i]   = m_Length[i];
+      if (intervals[i].isInfinite())
+	continue;
+      // axis values are sorted, i.e., the ones inside an interval are contiguous
+      while ((from[i] < to[i]) && !intervals[i].isInside(getAxisValue(i, from[i])))
+	from[i]++;
+      while ((to[i] > from[i]) && !intervals[i].isInside(getAxisValue(i, to[i] - 1)))
+	to[i]--;
+    }
+
+    return crop(from, to);
+  }
+
+  /**
+   * Returns a view with the offsets added to the axis values.
+   *
+   * @param x		the X offset
+   * @param y		the Y offset
+   * @param z		the Z offset
+   * @return		the view
+   */
+  public ThreeWayDataView shift(double x, double y, double z) {
+    return new ThreeWayDataView(
+      m_Source, m_Start.clone(), m_Stride.clone(), m_Length.clone(),
+      new double[]{m_Offset[AXIS_X] + x, m_Offset[AXIS_Y] + y, m_Offset[AXIS_Z] + z});
+  }
+
+  /**
+   * Returns a view with only every n-th element per axis, starting with
+   * the n-th one.
+   *
+   * @param nth		the n per axis, 1 to keep all
+   * @return		the view
+   */
+  public ThreeWayDataView downSample(int[] nth) {
+    int[]	start;
+    int[]	stride;
+    int[]	length;
+    int		i;
+
+    start  = new int[3];
+    stride = new int[3];
+    length = new int[3];
+    for (i = 0; i < 3; i++) {
+      if (nth[i] < 1)
+	throw new IllegalArgumentException("n must be at least 1 for axis " + i + ", provided: " + nth[i]);
+      start[i]  = m_Start[i] + (nth[i] - 1) * m_Stride[i];
+      stride[i] = m_Stride[i] * nth[i];
+      length[i] = m_Length[i] / nth[i];
+    }
+
+    return new ThreeWayDataView(m_Source, start, stride, length, m_Offset.clone());
+  }
+
+  /**
+   * Copies the values of the view into new dense storage.
+   *
+   * @return		the copy
+   */
+  public DenseThreeWayData materialize() {
+    DenseThreeWayData	result;
+    double[][]		axes;
+    int			a;
+    int			i;
+    int			ix;
+    int			iy;
+    int			iz;
+
+    axes = new double[3][];
+    for (a = 0; a < 3; a++) {
+      axes[a] = new double[m_Length[a]];
+      for (i = 0; i < m_Length[a]; i++)
+	axes[a][i] = getAxisValue(a, i);
+    }
+
+    result = new DenseThreeWayData(m_Source.getID(), axes[AXIS_X], axes[AXIS_Y], axes[AXIS_Z]);
+    result.setDatabaseID(m_Source.getDatabaseID());
+    if (m_Source.getReport() != null)
+      result.setReport((ThreeWayReport) m_Source.getReport().getClone());
+    result.getNotes().mergeWith(m_Source.getNotes());
+    for (ix = 0; ix < m_Length[AXIS_X]; ix++) {
+      for (iy = 0; iy < m_Length[AXIS_Y]; iy++) {
+	for (iz = 0; iz < m_Length[AXIS_Z]; iz++) {
+	  if (isOccupied(ix, iy, iz))
+	    result.set(ix, iy, iz, get(ix, iy, iz));
+	}
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Turns the view into point-based 3-way data.
+   *
+   * @return		the data
+   */
+  public ThreeWayData toThreeWayData() {
+    return materialize().toThreeWayData();
+  }
+
+  /**
+   * Returns a short description of the view.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return m_Source.getID() + ": " + numX() + "x" + numY() + "x" + numZ() + " (view)";
+  }
+}
@@ -0,0 +1,549 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Statistics.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threewayfeatures;
+
+import adams.core.Performance;
+import adams.core.ThreadLimiter;
+import adams.data.featureconverter.HeaderDefinition;
+import adams.data.report.DataType;
+import adams.data.statistics.AbstractArrayStatistic.StatisticContainer;
+import adams.data.statistics.ArrayHistogram;
+import adams.data.threeway.L1Point;
+import adams.data.threeway.L2Point;
+import adams.data.threeway.ThreeWayData;
+import adams.data.threeway.ThreeWayDataUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ <!-- globalinfo-start -->
+ * Computes several statistics of all the data values in a single pass over the data, rather than one pass per statistic like the Min, Max, Mean, Median, StdDev and Histogram generators.<br>
+ * The points get processed in parallel, with the partial results getting merged afterwards. The median gets determined via selection rather than sorting.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-converter &lt;adams.data.featureconverter.AbstractFeatureConverter&gt; (property: converter)
+ * &nbsp;&nbsp;&nbsp;The feature converter to use to produce the output data.
+ * &nbsp;&nbsp;&nbsp;default: adams.data.featureconverter.SpreadSheet -data-row-type adams.data.spreadsheet.DenseDataRow -spreadsheet-type adams.data.spreadsheet.DefaultSpreadSheet
+ * </pre>
+ *
+ * <pre>-prefix &lt;java.lang.String&gt; (property: prefix)
+ * &nbsp;&nbsp;&nbsp;The (optional) prefix to use for the feature names.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-field &lt;adams.data.report.Field&gt; [-field ...] (property: fields)
+ * &nbsp;&nbsp;&nbsp;The fields to add to the output.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-notes &lt;adams.core.base.BaseString&gt; [-notes ...] (property: notes)
+ * &nbsp;&nbsp;&nbsp;The notes to add as attributes to the generated data, eg 'PROCESS INFORMATION'.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-statistic &lt;MIN|MAX|MEAN|MEDIAN|STDEV|HISTOGRAM&gt; [-statistic ...] (property: statistics)
+ * &nbsp;&nbsp;&nbsp;The statistics to compute, output in the order specified.
+ * &nbsp;&nbsp;&nbsp;default: MIN, MAX, MEAN, MEDIAN, STDEV
+ * </pre>
+ *
+ * <pre>-histogram &lt;adams.data.statistics.ArrayHistogram&gt; (property: histogram)
+ * &nbsp;&nbsp;&nbsp;The histogram generator to use for the HISTOGRAM statistic.
+ * &nbsp;&nbsp;&nbsp;default: adams.data.statistics.ArrayHistogram
+ * </pre>
+ *
+ * <pre>-num-threads &lt;int&gt; (property: numThreads)
+ * &nbsp;&nbsp;&nbsp;The number of threads to use for processing the points; -1 = number of CPUs&#47;cores;
+ * &nbsp;&nbsp;&nbsp; 0 or 1 = sequential execution.
+ * &nbsp;&nbsp;&nbsp;default: 1
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class Statistics
+  extends AbstractThreeWayDataFeatureGenerator
+  implements ThreadLimiter {
+
+  private static final long serialVersionUID = 5403838180402913735L;
+
+  /** the statistics that can be computed. */
+  public enum Statistic {
+    MIN,
+    MAX,
+    MEAN,
+    MEDIAN,
+    STDEV,
+    HISTOGRAM,
+  }
+
+  /** the statistics to compute. */
+  protected Statistic[] m_Statistics;
+
+  /** the histogram generator. */
+  protected ArrayHistogram m_Histogram;
+
+  /** the number of threads to use. */
+  protected int m_NumThreads;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+      "Computes several statistics of all the data values in a single pass "
+	+ "over the data, rather than one pass per statistic like the "
+	+ Min.class.getSimpleName() + ", " + Max.class.getSimpleName() + ", "
+	+ Mean.class.getSimpleName() + ", " + Median.class.getSimpleName() + ", "
+	+ StdDev.class.getSimpleName() + " and " + Histogram.class.getSimpleName() + " generators.\n"
+	+ "The points get processed in parallel, with the partial results "
+	+ "getting merged afterwards. The median gets determined via selection "
+	+ "rather than sorting.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "statistic", "statistics",
+      new Statistic[]{Statistic.MIN, Statistic.MAX, Statistic.MEAN, Statistic.MEDIAN, Statistic.STDEV});
+
+    m_OptionManager.add(
+      "histogram", "histogram",
+      new ArrayHistogram());
+
+    m_OptionManager.add(
+      "num-threads", "numThreads",
+      1);
+  }
+
+  /**
+   * Sets the statistics to compute.
+   *
+   * @param value	the statistics
+   */
+  public void setStatistics(Statistic[] value) {
+    m_Statistics = value;
+    reset();
+  }
+
+  /**
+   * Returns the statistics to compute.
+   *
+   * @return		the statistics
+   */
+  public Statistic[] getStatistics() {
+    return m_Statistics;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String statisticsTipText() {
+    return "The statistics to compute, output in the order specified.";
+  }
+
+  /**
+   * Sets the histogram generator.
+   *
+   * @param value	the generator
+   */
+  public void setHistogram(ArrayHistogram value) {
+    m_Histogram = value;
+    reset();
+  }
+
+  /**
+   * Returns the histogram generator.
+   *
+   * @return		the generator
+   */
+  public ArrayHistogram getHistogram() {
+    return m_Histogram;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String histogramTipText() {
+    return "The histogram generator to use for the " + Statistic.HISTOGRAM + " statistic.";
+  }
+
+  /**
+   * Sets the number of threads to use for processing the points.
+   *
+   * @param value 	the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public void setNumThreads(int value) {
+    m_NumThreads = value;
+    reset();
+  }
+
+  /**
+   * Returns the number of threads to use for processing the points.
+   *
+   * @return 		the number of threads: -1 = # of CPUs/cores; 0/1 = sequential execution
+   */
+  public int getNumThreads() {
+    return m_NumThreads;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String numThreadsTipText() {
+    return Performance.getNumThreadsHelp();
+  }
+
+  /**
+   * Generates the histogram for the values. The histogram generator only
+   * accepts arrays of objects, hence the values need to be boxed.
+   *
+   * @param values	the values
+   * @return		the histogram
+   */
+  protected StatisticContainer histogram(Double[] values) {
+    ArrayHistogram	generator;
+
+    generator = (ArrayHistogram) m_Histogram.shallowCopy();
+    generator.clear();
+    generator.add(values);
+
+    return generator.calculate();
+  }
+
+  /**
+   * Boxes the values for the histogram generator.
+   *
+   * @param values	the values to box
+   * @return		the boxed values
+   */
+  protected Double[] box(double[] values) {
+    Double[]	result;
+    int		i;
+
+    result = new Double[values.length];
+    for (i = 0; i < values.length; i++)
+      result[i] = values[i];
+
+    return result;
+  }
+
+  /**
+   * Collects all the data values as boxed values, for the histogram generator.
+   *
+   * @param data	the data to get the values from
+   * @return		the boxed values
+   */
+  protected Double[] boxedValues(ThreeWayData data) {
+    Double[]	result;
+    int		n;
+
+    result = new Double[countValues(data)];
+    n      = 0;
+    for (L1Point l1: data) {
+      for (L2Point l2: l1)
+	result[n++] = l2.getData();
+    }
+
+    return result;
+  }
+
+  /**
+   * Counts the data values.
+   *
+   * @param data	the data to count
+   * @return		the number of values
+   */
+  protected int countValues(ThreeWayData data) {
+    int		result;
+
+    result = 0;
+    for (L1Point l1: data)
+      result += l1.size();
+
+    return result;
+  }
+
+  /**
+   * Creates the header from template data.
+   *
+   * @param data	the data to act as a template
+   * @return		the generated header
+   */
+  @Override
+  public HeaderDefinition createHeader(ThreeWayData data) {
+    HeaderDefinition	result;
+    StatisticContainer	cont;
+    int			i;
+
+    result = new HeaderDefinition();
+    for (Statistic stat: m_Statistics) {
+      switch (stat) {
+	case MIN:
+	  result.add("min", DataType.NUMERIC);
+	  break;
+	case MAX:
+	  result.add("max", DataType.NUMERIC);
+	  break;
+	case MEAN:
+	  result.add("mean", DataType.NUMERIC);
+	  break;
+	case MEDIAN:
+	  result.add("median", DataType.NUMERIC);
+	  break;
+	case STDEV:
+	  result.add("stdev", DataType.NUMERIC);
+	  break;
+	case HISTOGRAM:
+	  cont = histogram(boxedValues(data));
+	  for (i = 0; i < cont.getColumnCount(); i++)
+	    result.add(cont.getHeader(i), DataType.NUMERIC);
+	  break;
+	default:
+	  throw new IllegalStateException("Unhandled statistic: " + stat);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the k-th smallest value, partially reordering the array.
+   *
+   * @param values	the values to select from, get reordered
+   * @param k		the 0-based rank of the value to return
+   * @return		the value
+   */
+  protected static double select(double[] values, int k) {
+    int		left;
+    int		right;
+    int		i;
+    int		j;
+    double	pivot;
+    double	tmp;
+
+    left  = 0;
+    right = values.length - 1;
+    while (left < right) {
+      pivot = values[(left + right) >>> 1];
+      i     = left;
+      j     = right;
+      while (i <= j) {
+	while (values[i] < pivot)
+	  i++;
+	while (values[j] > pivot)
+	  j--;
+	if (i <= j) {
+	  tmp       = values[i];
+	  values[i] = values[j];
+	  values[j] = tmp;
+	  i++;
+	  j--;
+	}
+      }
+      if (k <= j)
+	right = j;
+      else if (k >= i)
+	left = i;
+      else
+	break;
+    }
+
+    return values[k];
+  }
+
+  /**
+   * Determines the median via selection, partially reordering the array.
+   * For an even number of values, the mean of the two middle values is used.
+   *
+   * @param values	the values, get reordered
+   * @return		the median, NaN if no values
+   */
+  public static double median(double[] values) {
+    double	upper;
+    double	lower;
+    int		i;
+    int		half;
+
+    if (values.length == 0)
+      return Double.NaN;
+
+    half  = values.length / 2;
+    upper = select(values, half);
+    if (values.length % 2 == 1)
+      return upper;
+
+    // after the selection, the lower middle value is the largest on the left
+    lower = values[0];
+    for (i = 1; i < half; i++)
+      lower = Math.max(lower, values[i]);
+
+    return (lower + upper) / 2;
+  }
+
+  /**
+   * Performs the actual feature generation.
+   *
+   * @param data	the data to process
+   * @return		the generated features
+   */
+  @Override
+  public List<Object>[] generateRows(ThreeWayData data) {
+    List<Object>[]	result;
+    Set<Statistic>	stats;
+    final L1Point[]	points;
+    final int[]		offsets;
+    final double[]	values;
+    final boolean	keep;
+    final int[]		count;
+    final double[]	mean;
+    final double[]	m2;
+    final double[]	min;
+    final double[]	max;
+    double		totalMean;
+    double		totalM2;
+    double		totalMin;
+    double		totalMax;
+    double		delta;
+    int			total;
+    int			n;
+    int			i;
+    StatisticContainer	cont;
+
+    stats = new HashSet<>();
+    for (Statistic stat: m_Statistics)
+      stats.add(stat);
+    keep = stats.contains(Statistic.MEDIAN) || stats.contains(Statistic.HISTOGRAM);
+
+    points  = data.toList().toArray(new L1Point[0]);
+    offsets = new int[points.length + 1];
+    for (i = 0; i < points.length; i++)
+      offsets[i + 1] = offsets[i] + points[i].size();
+    values = keep ? new double[offsets[points.length]] : null;
+    count  = new int[points.length];
+    mean   = new double[points.length];
+    m2     = new double[points.length];
+    min    = new double[points.length];
+    max    = new double[points.length];
+
+    // single pass: partial moments per point, values only if required
+    ThreeWayDataUtils.parallel(m_NumThreads, points.length, (p) -> {
+      int c = 0;
+      double mu = 0.0;
+      double s = 0.0;
+      double lo = Double.POSITIVE_INFINITY;
+      double hi = Double.NEGATIVE_INFINITY;
+      for (L2Point l2: points[p]) {
+	double v = l2.getData();
+	double d = v - mu;
+	if (keep)
+	  values[offsets[p] + c] = v;
+	c++;
+	mu += d / c;
+	s  += d * (v - mu);
+	lo  = Math.min(lo, v);
+	hi  = Math.max(hi, v);
+      }
+      count[p] = c;
+      mean[p]  = mu;
+      m2[p]    = s;
+      min[p]   = lo;
+      max[p]   = hi;
+    });
+
+    // merge partial moments
+    total     = 0;
+    totalMean = 0.0;
+    totalM2   = 0.0;
+    totalMin  = Double.POSITIVE_INFINITY;
+    totalMax  = Double.NEGATIVE_INFINITY;
+    for (i = 0; i < points.length; i++) {
+      if (count[i] == 0)
+	continue;
+      n          = total + count[i];
+      delta      = mean[i] - totalMean;
+      totalMean += delta * count[i] / n;
+      totalM2   += m2[i] + delta * delta * ((double) total * count[i] / n);
+      totalMin   = Math.min(totalMin, min[i]);
+      totalMax   = Math.max(totalMax, max[i]);
+      total      = n;
+    }
+
+    result    = new List[1];
+    result[0] = new ArrayList<>();
+    for (Statistic stat: m_Statistics) {
+      switch (stat) {
+	case MIN:
+	  result[0].add(totalMin);
+	  break;
+	case MAX:
+	  result[0].add(totalMax);
+	  break;
+	case MEAN:
+	  result[0].add((total > 0) ? totalMean : Double.NaN);
+	  break;
+	case MEDIAN:
+	  // reordering the values does not affect the histogram
+	  result[0].add(median(values));
+	  break;
+	case STDEV:
+	  result[0].add((total > 1) ? Math.sqrt(totalM2 / (total - 1)) : Double.NaN);
+	  break;
+	case HISTOGRAM:
+	  cont = histogram(box(values));
+	  for (i = 0; i < cont.getColumnCount(); i++)
+	    result[0].add(cont.getCell(0, i));
+	  break;
+	default:
+	  throw new IllegalStateException("Unhandled statistic: " + stat);
+      }
+    }
+
+    return result;
+  }
+}
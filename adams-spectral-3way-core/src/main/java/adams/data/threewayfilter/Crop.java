@@ -22,9 +22,11 @@ package adams.data.threewayfilter;
 
 import adams.core.base.BaseInterval;
 import adams.data.filter.AbstractFilter;
+import adams.data.threeway.DenseThreeWayData;
 import adams.data.threeway.L1Point;
 import adams.data.threeway.L2Point;
 import adams.data.threeway.ThreeWayData;
+import adams.data.threeway.ThreeWayDataView;
 
 /**
  <!-- globalinfo-start -->
@@ -56,7 +58,12 @@ public class Crop
    */
   @Override
   public String globalInfo() {
-    return "Crops the data to the specified ranges for X, Y and Z.";
+    return
+      "Crops the data to the specified ranges for X, Y and Z.\n"
+	+ "Data held in dense storage can be cropped without copying any values "
+	+ "via the crop methods for dense data and views, which locate the ranges "
+	+ "on the sorted axes. The filter itself crops the points directly, as "
+	+ "turning them into dense storage first would copy all the values.";
   }
 
   /**
@@ -166,6 +173,26 @@ public class Crop
     return "The range to use for Z.";
   }
 
+  /**
+   * Returns a view on the dense data, restricted to the ranges.
+   *
+   * @param data	the data to crop
+   * @return		the view
+   */
+  public ThreeWayDataView crop(DenseThreeWayData data) {
+    return crop(new ThreeWayDataView(data));
+  }
+
+  /**
+   * Restricts the view to the ranges.
+   *
+   * @param view	the view to crop
+   * @return		the cropped view
+   */
+  public ThreeWayDataView crop(ThreeWayDataView view) {
+    return view.crop(m_RangeX, m_RangeY, m_RangeZ);
+  }
+
   /**
    * Performs the actual filtering.
    *
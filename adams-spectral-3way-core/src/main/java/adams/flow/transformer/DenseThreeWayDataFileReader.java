@@ -0,0 +1,360 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DenseThreeWayDataFileReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer;
+
+import adams.core.QuickInfoHelper;
+import adams.core.io.PlaceholderFile;
+import adams.data.io.input.AbstractThreeWayDataReader;
+import adams.data.io.input.DenseThreeWayDataReader;
+import adams.data.io.input.SimpleEEMReader;
+import adams.data.threeway.DenseThreeWayData;
+import adams.data.threeway.ThreeWayData;
+import adams.flow.core.Token;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ <!-- globalinfo-start -->
+ * Loads a file containing 3-way data from disk with the specified reader and passes it on as dense grid.<br>
+ * Readers that implement adams.data.io.input.DenseThreeWayDataReader read straight into the grid, without creating L1&#47;L2 points. For other readers or data that does not form a regular grid, the points get read and then turned into a grid.
+ * <br><br>
+ <!-- globalinfo-end -->
+ *
+ <!-- flow-summary-start -->
+ * Input&#47;output:<br>
+ * - accepts:<br>
+ * &nbsp;&nbsp;&nbsp;java.lang.String<br>
+ * &nbsp;&nbsp;&nbsp;java.io.File<br>
+ * - generates:<br>
+ * &nbsp;&nbsp;&nbsp;adams.data.threeway.DenseThreeWayData<br>
+ * <br><br>
+ <!-- flow-summary-end -->
+ *
+ <!-- options-start -->
+ * <pre>-logging-level &lt;OFF|SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST&gt; (property: loggingLevel)
+ * &nbsp;&nbsp;&nbsp;The logging level for outputting errors and debugging output.
+ * &nbsp;&nbsp;&nbsp;default: WARNING
+ * </pre>
+ *
+ * <pre>-name &lt;java.lang.String&gt; (property: name)
+ * &nbsp;&nbsp;&nbsp;The name of the actor.
+ * &nbsp;&nbsp;&nbsp;default: DenseThreeWayDataFileReader
+ * </pre>
+ *
+ * <pre>-annotation &lt;adams.core.base.BaseAnnotation&gt; (property: annotations)
+ * &nbsp;&nbsp;&nbsp;The annotations to attach to this actor.
+ * &nbsp;&nbsp;&nbsp;default:
+ * </pre>
+ *
+ * <pre>-skip &lt;boolean&gt; (property: skip)
+ * &nbsp;&nbsp;&nbsp;If set to true, transformation is skipped and the input token is just forwarded
+ * &nbsp;&nbsp;&nbsp;as it is.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-stop-flow-on-error &lt;boolean&gt; (property: stopFlowOnError)
+ * &nbsp;&nbsp;&nbsp;If set to true, the flow execution at this level gets stopped in case this
+ * &nbsp;&nbsp;&nbsp;actor encounters an error; the error gets propagated; useful for critical
+ * &nbsp;&nbsp;&nbsp;actors.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-silent &lt;boolean&gt; (property: silent)
+ * &nbsp;&nbsp;&nbsp;If enabled, then no errors are output in the console; Note: the enclosing
+ * &nbsp;&nbsp;&nbsp;actor handler must have this enabled as well.
+ * &nbsp;&nbsp;&nbsp;default: false
+ * </pre>
+ *
+ * <pre>-reader &lt;adams.data.io.input.AbstractThreeWayDataReader&gt; (property: reader)
+ * &nbsp;&nbsp;&nbsp;The reader to use for reading the data.
+ * &nbsp;&nbsp;&nbsp;default: adams.data.io.input.SimpleEEMReader
+ * </pre>
+ *
+ * <pre>-min-fill-ratio &lt;double&gt; (property: minFillRatio)
+ * &nbsp;&nbsp;&nbsp;The minimum fraction of grid cells (0-1) that data read as points must occupy
+ * &nbsp;&nbsp;&nbsp;in order to get turned into a grid; sparser data results in an error.
+ * &nbsp;&nbsp;&nbsp;default: 0.0
+ * &nbsp;&nbsp;&nbsp;minimum: 0.0
+ * &nbsp;&nbsp;&nbsp;maximum: 1.0
+ * </pre>
+ *
+ <!-- options-end -->
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DenseThreeWayDataFileReader
+  extends AbstractTransformer {
+
+  /** for serialization. */
+  private static final long serialVersionUID = 4479621985031652037L;
+
+  /** the reader to use. */
+  protected AbstractThreeWayDataReader m_Reader;
+
+  /** the minimum fill ratio for data read as points. */
+  protected double m_MinFillRatio;
+
+  /** the data read. */
+  protected List<DenseThreeWayData> m_Queue;
+
+  /**
+   * Returns a string describing the object.
+   *
+   * @return 			a description suitable for displaying in the gui
+   */
+  @Override
+  public String globalInfo() {
+    return
+        "Loads a file containing 3-way data from disk with the specified reader "
+      + "and passes it on as dense grid.\n"
+      + "Readers that implement " + DenseThreeWayDataReader.class.getName() + " "
+      + "read straight into the grid, without creating L1/L2 points. For other "
+      + "readers or data that does not form a regular grid, the points get read "
+      + "and then turned into a grid.";
+  }
+
+  /**
+   * Adds options to the internal list of options.
+   */
+  @Override
+  public void defineOptions() {
+    super.defineOptions();
+
+    m_OptionManager.add(
+      "reader", "reader",
+      new SimpleEEMReader());
+
+    m_OptionManager.add(
+      "min-fill-ratio", "minFillRatio",
+      0.0, 0.0, 1.0);
+  }
+
+  /**
+   * Initializes the members.
+   */
+  @Override
+  protected void initialize() {
+    super.initialize();
+
+    m_Queue = new ArrayList<>();
+  }
+
+  /**
+   * Resets the scheme.
+   */
+  @Override
+  protected void reset() {
+    super.reset();
+
+    m_Queue.clear();
+  }
+
+  /**
+   * Sets the reader to use.
+   *
+   * @param value	the reader
+   */
+  public void setReader(AbstractThreeWayDataReader value) {
+    m_Reader = value;
+    reset();
+  }
+
+  /**
+   * Returns the reader in use.
+   *
+   * @return		the reader
+   */
+  public AbstractThreeWayDataReader getReader() {
+    return m_Reader;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String readerTipText() {
+    return "The reader to use for reading the data.";
+  }
+
+  /**
+   * Sets the minimum fraction of grid cells that data read as points must occupy.
+   *
+   * @param value 	the ratio (0-1)
+   */
+  public void setMinFillRatio(double value) {
+    if (getOptionManager().isValid("minFillRatio", value)) {
+      m_MinFillRatio = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the minimum fraction of grid cells that data read as points must occupy.
+   *
+   * @return 		the ratio (0-1)
+   */
+  public double getMinFillRatio() {
+    return m_MinFillRatio;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String minFillRatioTipText() {
+    return
+        "The minimum fraction of grid cells (0-1) that data read as points must "
+      + "occupy in order to get turned into a grid; sparser data results in an error.";
+  }
+
+  /**
+   * Returns a quick info about the actor, which will be displayed in the GUI.
+   *
+   * @return		null if no info available, otherwise short string
+   */
+  @Override
+  public String getQuickInfo() {
+    String	result;
+
+    result = QuickInfoHelper.toString(this, "reader", m_Reader, "reader: ");
+    result += QuickInfoHelper.toString(this, "minFillRatio", m_MinFillRatio, ", min fill: ");
+
+    return result;
+  }
+
+  /**
+   * Returns the class that the consumer accepts.
+   *
+   * @return		<!-- flow-accepts-start -->java.lang.String.class, java.io.File.class<!-- flow-accepts-end -->
+   */
+  public Class[] accepts() {
+    return new Class[]{String.class, File.class};
+  }
+
+  /**
+   * Returns the class of objects that it generates.
+   *
+   * @return		<!-- flow-generates-start -->adams.data.threeway.DenseThreeWayData.class<!-- flow-generates-end -->
+   */
+  public Class[] generates() {
+    return new Class[]{DenseThreeWayData.class};
+  }
+
+  /**
+   * Executes the flow item.
+   *
+   * @return		null if everything is fine, otherwise error message
+   */
+  @Override
+  protected String doExecute() {
+    String		result;
+    PlaceholderFile	file;
+    DenseThreeWayData	dense;
+    List<ThreeWayData>	list;
+
+    result = null;
+
+    m_Queue.clear();
+    if (m_InputToken.getPayload() instanceof File)
+      file = new PlaceholderFile((File) m_InputToken.getPayload());
+    else
+      file = new PlaceholderFile((String) m_InputToken.getPayload());
+
+    try {
+      dense = null;
+      if (m_Reader instanceof DenseThreeWayDataReader) {
+	m_Reader.setInput(file);
+	dense = ((DenseThreeWayDataReader) m_Reader).readDense();
+      }
+      if (dense != null) {
+	m_Queue.add(dense);
+      }
+      else if (!isStopped()) {
+	if (isLoggingEnabled())
+	  getLogger().info("Reading points: " + file);
+	m_Reader.setInput(file);
+	list = m_Reader.read();
+	for (ThreeWayData data: list) {
+	  dense = DenseThreeWayData.fromThreeWayData(data, m_MinFillRatio);
+	  if (dense == null) {
+	    result = "Data too sparse for dense storage: " + data.getID()
+	      + " (fill ratio=" + DenseThreeWayData.fillRatio(data) + ", minimum=" + m_MinFillRatio + ")";
+	    m_Queue.clear();
+	    break;
+	  }
+	  m_Queue.add(dense);
+	}
+      }
+    }
+    catch (Exception e) {
+      result = handleException("Failed to read data: " + file, e);
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether there is pending output to be collected after
+   * executing the flow item.
+   *
+   * @return		true if there is pending output
+   */
+  @Override
+  public boolean hasPendingOutput() {
+    return (m_Queue.size() > 0);
+  }
+
+  /**
+   * Returns the generated token.
+   *
+   * @return		the generated token
+   */
+  @Override
+  public Token output() {
+    return new Token(m_Queue.remove(0));
+  }
+
+  /**
+   * Stops the execution. No message set.
+   */
+  @Override
+  public void stopExecution() {
+    if (m_Reader != null)
+      m_Reader.stopExecution();
+    super.stopExecution();
+  }
+
+  /**
+   * Cleans up after the execution has finished.
+   */
+  @Override
+  public void wrapUp() {
+    m_Queue.clear();
+
+    super.wrapUp();
+  }
+}
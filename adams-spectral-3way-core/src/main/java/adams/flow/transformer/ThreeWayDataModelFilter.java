@@ -39,6 +39,7 @@ import nz.ac.waikato.cms.adams.multiway.algorithm.api.AbstractAlgorithm;
 import nz.ac.waikato.cms.adams.multiway.algorithm.api.Filter;
 import nz.ac.waikato.cms.adams.multiway.data.tensor.Tensor;
 
+import java.util.Arrays;
 import java.util.Hashtable;
 
 /**
@@ -77,6 +78,9 @@ public class ThreeWayDataModelFilter
   /** the model used for training/evaluating. */
   protected AbstractAlgorithm m_ActualModel;
 
+  /** the maximum number of tensors to filter at once. */
+  protected int m_BatchSize;
+
   /**
    * Returns a string describing the object.
    *
@@ -84,7 +88,15 @@ public class ThreeWayDataModelFilter
    */
   @Override
   public String globalInfo() {
-    return "Applies a built multi-way algorithm to the incoming data, acting as a filter.";
+    return
+      "Applies a built multi-way algorithm to the incoming data, acting as a filter.\n"
+	+ "Arrays of tensors get stacked along the first mode and filtered in "
+	+ "batches, with the results getting split up again.\n"
+	+ "NB: batching only produces the same output as filtering the tensors "
+	+ "one by one if the model treats the slices of the first mode "
+	+ "independently (e.g., PARAFAC projecting onto its fixed loadings). "
+	+ "For models that use statistics across the first mode, use a "
+	+ "batch size of 1.";
   }
 
   /**
@@ -117,6 +129,10 @@ public class ThreeWayDataModelFilter
     m_OptionManager.add(
       "model-reset-variable", "modelResetVariable",
       new VariableName());
+
+    m_OptionManager.add(
+      "batch-size", "batchSize",
+      100, 1, null);
   }
 
   /**
@@ -323,6 +339,39 @@ public class ThreeWayDataModelFilter
 	  + "when a storage model changed.";
   }
 
+  /**
+   * Sets the maximum number of tensors to stack and filter at once.
+   *
+   * @param value	the batch size
+   */
+  public void setBatchSize(int value) {
+    if (getOptionManager().isValid("batchSize", value)) {
+      m_BatchSize = value;
+      reset();
+    }
+  }
+
+  /**
+   * Returns the maximum number of tensors to stack and filter at once.
+   *
+   * @return		the batch size
+   */
+  public int getBatchSize() {
+    return m_BatchSize;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return 		tip text for this property suitable for
+   * 			displaying in the GUI or for listing the options.
+   */
+  public String batchSizeTipText() {
+    return
+      "The maximum number of tensors to stack and filter at once when "
+	+ "receiving an array of tensors, limits the memory consumption.";
+  }
+
   /**
    * Returns the class that the consumer accepts.
    *
@@ -330,7 +379,7 @@ public class ThreeWayDataModelFilter
    */
   @Override
   public Class[] accepts() {
-    return new Class[]{TensorContainer.class};
+    return new Class[]{TensorContainer.class, TensorContainer[].class};
   }
 
   /**
@@ -340,7 +389,7 @@ public class ThreeWayDataModelFilter
    */
   @Override
   public Class[] generates() {
-    return new Class[]{TensorContainer.class};
+    return new Class[]{TensorContainer.class, TensorContainer[].class};
   }
 
   /**
@@ -354,6 +403,7 @@ public class ThreeWayDataModelFilter
 
     result  = m_ModelLoader.getQuickInfo(this);
     result += QuickInfoHelper.toString(this, "modelResetVariable", m_ModelResetVariable, ", reset: ");
+    result += QuickInfoHelper.toString(this, "batchSize", m_BatchSize, ", batch: ");
 
     return result;
   }
@@ -456,6 +506,159 @@ public class ThreeWayDataModelFilter
     }
   }
 
+  /**
+   * Checks whether the dimensions of the tensors, apart from the first mode,
+   * are the same.
+   *
+   * @param dims	the dimensions of the first tensor
+   * @param other	the dimensions of the tensor to compare with
+   * @return		true if compatible
+   */
+  protected boolean isCompatible(int[] dims, int[] other) {
+    int		i;
+
+    if (dims.length != other.length)
+      return false;
+    for (i = 1; i < dims.length; i++) {
+      if (dims[i] != other[i])
+	return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Stacks the tensors along the first mode, filters them in one go and
+   * splits the result along the first mode again.
+   *
+   * @param filter	the filter to apply
+   * @param tensors	the tensors to filter
+   * @return		the filtered tensors, null if the filter returned no result
+   * @throws Exception	if filtering fails or tensors are incompatible
+   */
+  protected Tensor[] filterBatch(Filter filter, Tensor[] tensors) throws Exception {
+    Tensor[]		result;
+    Tensor		filtered;
+    Object[]		arrays;
+    double[][]		data2;
+    double[][]		stacked2;
+    double[][][]	data3;
+    double[][][]	stacked3;
+    int[]		dims;
+    int[]		current;
+    int[]		offsets;
+    int			i;
+    int			n;
+
+    arrays  = new Object[tensors.length];
+    offsets = new int[tensors.length + 1];
+    dims    = null;
+    for (i = 0; i < tensors.length; i++) {
+      switch (tensors[i].order()) {
+	case 2:
+	  data2   = tensors[i].toArray2d();
+	  current = new int[]{data2.length, (data2.length > 0) ? data2[0].length : 0};
+	  arrays[i]      = data2;
+	  offsets[i + 1] = offsets[i] + data2.length;
+	  if (i == 0)
+	    dims = current;
+	  else if (!isCompatible(dims, current))
+	    throw new IllegalStateException("Tensor #" + (i+1) + " differs in dimensions from first tensor!");
+	  break;
+	case 3:
+	  data3   = tensors[i].toArray3d();
+	  current = new int[]{data3.length, (data3.length > 0) ? data3[0].length : 0, (data3.length > 0) && (data3[0].length > 0) ? data3[0][0].length : 0};
+	  arrays[i]      = data3;
+	  offsets[i + 1] = offsets[i] + data3.length;
+	  if (i == 0)
+	    dims = current;
+	  else if (!isCompatible(dims, current))
+	    throw new IllegalStateException("Tensor #" + (i+1) + " differs in dimensions from first tensor!");
+	  break;
+	default:
+	  throw new IllegalStateException("Only 2-way and 3-way tensors can be stacked, tensor #" + (i+1) + " has order: " + tensors[i].order());
+      }
+    }
+
+    // stack
+    if (dims.length == 2) {
+      stacked2 = new double[offsets[tensors.length]][];
+      for (i = 0; i < tensors.length; i++)
+	System.arraycopy(arrays[i], 0, stacked2, offsets[i], offsets[i + 1] - offsets[i]);
+      filtered = filter.filter(Tensor.create(stacked2));
+    }
+    else {
+      stacked3 = new double[offsets[tensors.length]][][];
+      for (i = 0; i < tensors.length; i++)
+	System.arraycopy(arrays[i], 0, stacked3, offsets[i], offsets[i + 1] - offsets[i]);
+      filtered = filter.filter(Tensor.create(stacked3));
+    }
+    if (filtered == null)
+      return null;
+
+    // split
+    result = new Tensor[tensors.length];
+    switch (filtered.order()) {
+      case 2:
+	data2 = filtered.toArray2d();
+	if (data2.length != offsets[tensors.length])
+	  throw new IllegalStateException("Cannot split filtered data, expected " + offsets[tensors.length] + " rows in first mode, but got: " + data2.length);
+	for (n = 0; n < tensors.length; n++)
+	  result[n] = Tensor.create(Arrays.copyOfRange(data2, offsets[n], offsets[n + 1]));
+	break;
+      case 3:
+	data3 = filtered.toArray3d();
+	if (data3.length != offsets[tensors.length])
+	  throw new IllegalStateException("Cannot split filtered data, expected " + offsets[tensors.length] + " rows in first mode, but got: " + data3.length);
+	for (n = 0; n < tensors.length; n++)
+	  result[n] = Tensor.create(Arrays.copyOfRange(data3, offsets[n], offsets[n + 1]));
+	break;
+      default:
+	throw new IllegalStateException("Cannot split filtered data of order: " + filtered.order());
+    }
+
+    return result;
+  }
+
+  /**
+   * Filters the array of tensors in batches.
+   *
+   * @param filter	the filter to apply
+   * @param data	the tensors to filter
+   * @return		the filtered containers
+   * @throws Exception	if filtering fails
+   */
+  protected TensorContainer[] filterBatches(Filter filter, TensorContainer[] data) throws Exception {
+    TensorContainer[]	result;
+    Tensor[]		tensors;
+    Tensor[]		filtered;
+    int			start;
+    int			end;
+    int			i;
+
+    result = new TensorContainer[data.length];
+    for (start = 0; start < data.length; start += m_BatchSize) {
+      if (isStopped())
+	return null;
+      end     = Math.min(data.length, start + m_BatchSize);
+      tensors = new Tensor[end - start];
+      for (i = start; i < end; i++)
+	tensors[i - start] = data[i].getContent();
+      filtered = filterBatch(filter, tensors);
+      if (filtered == null)
+	throw new IllegalStateException("Filter returned no data for batch starting at #" + (start + 1) + "!");
+      for (i = start; i < end; i++) {
+	result[i] = (TensorContainer) data[i].getHeader();
+	result[i].setContent(filtered[i - start]);
+	result[i].getNotes().addProcessInformation(this);
+      }
+      if (isLoggingEnabled())
+	getLogger().info("Filtered " + end + "/" + data.length);
+    }
+
+    return result;
+  }
+
   /**
    * Executes the flow item.
    *
@@ -465,6 +668,8 @@ public class ThreeWayDataModelFilter
   protected String doExecute() {
     String		result;
     TensorContainer	data;
+    TensorContainer[]	batch;
+    TensorContainer[]	filteredBatch;
     Filter		filter;
     Tensor		filtered;
     TensorContainer	cont;
@@ -474,13 +679,26 @@ public class ThreeWayDataModelFilter
     if ((m_ActualModel == null) || m_ResetModel)
       result = setUpModel();
 
-    data = null;
+    data  = null;
+    batch = null;
     if (m_InputToken.hasPayload(TensorContainer.class))
       data = m_InputToken.getPayload(TensorContainer.class);
+    else if (m_InputToken.hasPayload(TensorContainer[].class))
+      batch = m_InputToken.getPayload(TensorContainer[].class);
     else
       result = m_InputToken.unhandledData();
 
-    if (result == null) {
+    if ((result == null) && (batch != null)) {
+      try {
+	filteredBatch = filterBatches((Filter) m_ActualModel, batch);
+	if (filteredBatch != null)
+	  m_OutputToken = new Token(filteredBatch);
+      }
+      catch (Exception e) {
+	result = handleException("Failed to filter data!", e);
+      }
+    }
+    else if (result == null) {
       try {
         filter   = (Filter) m_ActualModel;
         filtered = filter.filter(data.getContent());
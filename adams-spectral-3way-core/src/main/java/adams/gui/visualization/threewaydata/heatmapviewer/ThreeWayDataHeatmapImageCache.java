@@ -0,0 +1,203 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ThreeWayDataHeatmapImageCache.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.gui.visualization.threewaydata.heatmapviewer;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache for the rendered heatmap images, shared by all the pages of the
+ * viewer. Limits the memory of browsing many data structures, rather than
+ * each page holding on to all its images.
+ * <br>
+ * The panels are only referenced weakly, i.e., the images of panels that
+ * were discarded without removing their images get dropped once the panels
+ * have been garbage collected.
+ *
+ * @author  fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ThreeWayDataHeatmapImageCache {
+
+  /**
+   * The key for a cached image, referencing the panel only weakly.
+   */
+  protected static class Key
+    extends WeakReference<ThreeWayDataHeatmapPanel> {
+
+    /** the X layer. */
+    protected double m_X;
+
+    /** the hash code of the panel. */
+    protected int m_OwnerHash;
+
+    /**
+     * Initializes the key for lookups.
+     *
+     * @param owner	the panel that generated the image
+     * @param x		the X layer
+     */
+    public Key(ThreeWayDataHeatmapPanel owner, double x) {
+      this(owner, x, null);
+    }
+
+    /**
+     * Initializes the key.
+     *
+     * @param owner	the panel that generated the image
+     * @param x		the X layer
+     * @param queue	the queue to register with, can be null
+     */
+    public Key(ThreeWayDataHeatmapPanel owner, double x, ReferenceQueue<ThreeWayDataHeatmapPanel> queue) {
+      super(owner, queue);
+      m_X         = x;
+      m_OwnerHash = System.identityHashCode(owner);
+    }
+
+    /**
+     * Checks whether the object is the same key.
+     *
+     * @param obj	the object to compare with
+     * @return		true if the same
+     */
+    @Override
+    public boolean equals(Object obj) {
+      Key	other;
+
+      if (obj == this)
+	return true;
+      if (!(obj instanceof Key))
+	return false;
+      other = (Key) obj;
+      return (get() != null) && (get() == other.get()) && (Double.compare(m_X, other.m_X) == 0);
+    }
+
+    /**
+     * Returns the hash code of the key.
+     *
+     * @return		the hash code
+     */
+    @Override
+    public int hashCode() {
+      return 31 * m_OwnerHash + Double.hashCode(m_X);
+    }
+  }
+
+  /** the singleton. */
+  protected static ThreeWayDataHeatmapImageCache m_Singleton;
+
+  /** the images. */
+  protected Map<Key,BufferedImage> m_Images;
+
+  /** the queue for the keys of panels that got garbage collected. */
+  protected ReferenceQueue<ThreeWayDataHeatmapPanel> m_Queue;
+
+  /**
+   * Initializes the cache.
+   *
+   * @param maxSize	the maximum number of images to keep
+   */
+  public ThreeWayDataHeatmapImageCache(final int maxSize) {
+    m_Images = new LinkedHashMap<Key,BufferedImage>(16, 0.75f, true) {
+      private static final long serialVersionUID = 6062919394018867553L;
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key,BufferedImage> eldest) {
+	return size() > maxSize;
+      }
+    };
+    m_Queue = new ReferenceQueue<>();
+  }
+
+  /**
+   * Removes the images of panels that got garbage collected.
+   */
+  protected void expunge() {
+    Reference<? extends ThreeWayDataHeatmapPanel>	ref;
+
+    while ((ref = m_Queue.poll()) != null)
+      m_Images.remove(ref);
+  }
+
+  /**
+   * Returns the cached image.
+   *
+   * @param owner	the panel that generated the image
+   * @param x		the X layer
+   * @return		the image, null if not cached
+   */
+  public synchronized BufferedImage get(ThreeWayDataHeatmapPanel owner, double x) {
+    expunge();
+    return m_Images.get(new Key(owner, x));
+  }
+
+  /**
+   * Caches the image.
+   *
+   * @param owner	the panel that generated the image
+   * @param x		the X layer
+   * @param image	the image
+   */
+  public synchronized void put(ThreeWayDataHeatmapPanel owner, double x, BufferedImage image) {
+    expunge();
+    m_Images.put(new Key(owner, x, m_Queue), image);
+  }
+
+  /**
+   * Removes all the images of the panel.
+   *
+   * @param owner	the panel to remove the images for
+   */
+  public synchronized void remove(ThreeWayDataHeatmapPanel owner) {
+    Iterator<Key>	iter;
+
+    expunge();
+    iter = m_Images.keySet().iterator();
+    while (iter.hasNext()) {
+      if (iter.next().get() == owner)
+	iter.remove();
+    }
+  }
+
+  /**
+   * Returns the number of cached images.
+   *
+   * @return		the number of images
+   */
+  public synchronized int size() {
+    expunge();
+    return m_Images.size();
+  }
+
+  /**
+   * Returns the singleton, sized via "Image.CacheSize" of the viewer's properties.
+   *
+   * @return		the cache
+   */
+  public static synchronized ThreeWayDataHeatmapImageCache getSingleton() {
+    if (m_Singleton == null)
+      m_Singleton = new ThreeWayDataHeatmapImageCache(ThreeWayDataHeatmapPanel.getProperties().getInteger("Image.CacheSize", 100));
+    return m_Singleton;
+  }
+}
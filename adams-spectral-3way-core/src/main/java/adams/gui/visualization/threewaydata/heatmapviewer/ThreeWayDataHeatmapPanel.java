@@ -54,6 +54,7 @@ import javax.swing.BorderFactory;
 import javax.swing.DefaultListModel;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingWorker;
 import javax.swing.event.ListSelectionEvent;
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -61,9 +62,7 @@ import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Panel for displaying a single 3-way data structure.
@@ -113,8 +112,8 @@ public class ThreeWayDataHeatmapPanel
   /** the current file. */
   protected File m_CurrentFile;
 
-  /** for caching the generated images. */
-  protected Map<Double,BufferedImage> m_ImageCache;
+  /** the counter for image requests, to discard outdated images. */
+  protected long m_Generation;
 
   /**
    * Initializes the panel.
@@ -141,7 +140,7 @@ public class ThreeWayDataHeatmapPanel
     m_CurrentFile        = null;
     m_ColorGenerator     = AbstractColorGradientGenerator.forCommandLine(props.getProperty("Image.GradientColorGenerator", new BiColorGenerator().toCommandLine()));
     m_MissingValueColor  = props.getColor("Image.MissingValueColor", ColorHelper.valueOf("#88ff0000"));
-    m_ImageCache         = new HashMap<>();
+    m_Generation         = 0;
   }
 
   /**
@@ -219,24 +218,33 @@ public class ThreeWayDataHeatmapPanel
   }
 
   /**
-   * Regenerates the image of the current heatmap and redisplays it.
+   * Displays the image.
    *
-   * @return		null if everything OK, otherwise error message
+   * @param image	the image, can be null
    */
-  protected String refresh() {
-    String			result;
-    Properties			props;
-    StringBuilder		errors;
-    String			error;
-    ThreeWayDataToHeatmap	tw2hm;
-    HeatmapToBufferedImage	hm2bi;
-    MultiConversion		multi;
-    double			key;
-
-    if (m_Data.size() == 0)
-      return null;
+  protected void display(BufferedImage image) {
+    m_DataImage.setCurrentImage(image);
+    if (image != null)
+      m_DataImage.setScale(getProperties().getDouble("Image.Scale", -1.0));
+  }
+
+  /**
+   * Regenerates the image of the current heatmap and redisplays it.
+   * Images get generated in the background, errors get displayed once
+   * the image generation has finished.
+   */
+  protected void refresh() {
+    SwingWorker				worker;
+    BufferedImage			image;
+    final ThreeWayDataToHeatmap		tw2hm;
+    final HeatmapToBufferedImage	hm2bi;
+    final ThreeWayData			data;
+    final double			key;
+    final long				generation;
+
+    if ((m_Data == null) || (m_Data.size() == 0))
+      return;
 
-    props = getProperties();
     tw2hm = new ThreeWayDataToHeatmap();
     if (m_ListX.getSelectedIndex() > -1) {
       key = (Double) m_ListX.getSelectedValue();
@@ -249,41 +257,53 @@ public class ThreeWayDataHeatmapPanel
       tw2hm.setMaxX(Double.POSITIVE_INFINITY);
     }
 
-    if (m_ImageCache.containsKey(key)) {
-      m_DataImage.setCurrentImage(m_ImageCache.get(key));
-      m_DataImage.setScale(props.getDouble("Image.Scale", -1.0));
-      return null;
+    image = ThreeWayDataHeatmapImageCache.getSingleton().get(this, key);
+    if (image != null) {
+      m_Generation++;
+      display(image);
+      return;
     }
-    else {
-      errors = new StringBuilder();
-
-      hm2bi = new HeatmapToBufferedImage();
-      hm2bi.setGenerator(m_ColorGenerator);
-      hm2bi.setMissingValueColor(m_MissingValueColor);
-
-      multi = new MultiConversion();
-      multi.setSubConversions(new Conversion[]{tw2hm, hm2bi});
-      multi.setInput(m_Data);
-      result = multi.convert();
-      if (result != null) {
-	error = "Failed to generate image: " + result;
-	if (errors.length() > 0)
-	  errors.append("\n");
-	errors.append(error);
-	GUIHelper.showErrorMessage(this, error);
-	m_DataImage.setCurrentImage((BufferedImage) null);
-      }
-      else {
-        m_ImageCache.put(key, ((AbstractImageContainer) hm2bi.getOutput()).toBufferedImage());
-	m_DataImage.setCurrentImage(m_ImageCache.get(key));
-	m_DataImage.setScale(props.getDouble("Image.Scale", -1.0));
-      }
 
-      if (errors.length() == 0)
+    hm2bi = new HeatmapToBufferedImage();
+    hm2bi.setGenerator(m_ColorGenerator);
+    hm2bi.setMissingValueColor(m_MissingValueColor);
+
+    data       = m_Data;
+    generation = ++m_Generation;
+    worker     = new SwingWorker() {
+      protected String m_Error;
+      protected BufferedImage m_Image;
+      @Override
+      protected Object doInBackground() throws Exception {
+	MultiConversion multi = new MultiConversion();
+	multi.setSubConversions(new Conversion[]{tw2hm, hm2bi});
+	multi.setInput(data);
+	String msg = multi.convert();
+	if (msg != null)
+	  m_Error = "Failed to generate image: " + msg;
+	else
+	  m_Image = ((AbstractImageContainer) hm2bi.getOutput()).toBufferedImage();
 	return null;
-      else
-	return errors.toString();
-    }
+      }
+      @Override
+      protected void done() {
+	super.done();
+	// data or layer changed in the meantime?
+	if ((generation != m_Generation) || (data != m_Data))
+	  return;
+	if (m_Error != null) {
+	  GUIHelper.showErrorMessage(ThreeWayDataHeatmapPanel.this, m_Error);
+	  display(null);
+	  if (m_Owner != null)
+	    m_Owner.showStatus(m_Error);
+	}
+	else {
+	  ThreeWayDataHeatmapImageCache.getSingleton().put(ThreeWayDataHeatmapPanel.this, key, m_Image);
+	  display(m_Image);
+	}
+      }
+    };
+    worker.execute();
   }
 
   /**
@@ -292,8 +312,6 @@ public class ThreeWayDataHeatmapPanel
    * @param value	the data to display
    */
   public void setData(ThreeWayData value) {
-    StringBuilder		errors;
-    String			error;
     TDoubleSet 			setX;
     TDoubleList 		listX;
     List<Object> 		valuesX;
@@ -306,7 +324,6 @@ public class ThreeWayDataHeatmapPanel
 
     m_CurrentFile = null;
     m_Data = (ThreeWayData) value.getClone();
-    errors = new StringBuilder();
 
     // x values
     valuesX = new ArrayList<>();
@@ -322,17 +339,11 @@ public class ThreeWayDataHeatmapPanel
     m_ListX.setModel(model);
     m_ListX.setSelectedIndex(0);
 
-    // image
-    error = refresh();
-    if (error != null)
-      errors.append(error);
+    // image (errors get displayed once generated)
+    refresh();
 
     // report
     m_ReportTable.setModel(new ReportFactory.Model(m_Data.getReport()));
-
-    // display errors in owner's statusbar
-    if ((errors.length() > 0) && (m_Owner != null))
-      m_Owner.showStatus(errors.toString());
   }
 
   /**
@@ -369,6 +380,7 @@ public class ThreeWayDataHeatmapPanel
    */
   public void setColorGenerator(ColorGradientGenerator value) {
     m_ColorGenerator = value;
+    clearImageCache();
     refresh();
   }
   
@@ -406,6 +418,7 @@ public class ThreeWayDataHeatmapPanel
    */
   public void setMissingValueColor(Color value) {
     m_MissingValueColor = value;
+    clearImageCache();
     refresh();
   }
 
@@ -525,7 +538,7 @@ public class ThreeWayDataHeatmapPanel
    * Clears the image cache.
    */
   protected void clearImageCache() {
-    m_ImageCache.clear();
+    ThreeWayDataHeatmapImageCache.getSingleton().remove(this);
   }
 
   /**
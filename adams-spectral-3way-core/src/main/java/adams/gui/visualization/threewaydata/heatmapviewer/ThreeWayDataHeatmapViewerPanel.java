@@ -662,14 +662,23 @@ public class ThreeWayDataHeatmapViewerPanel
    * Removes the current tab.
    */
   public void closeCurrent() {
-    if (m_MultiPagePane.getSelectedIndex() != -1)
-      m_MultiPagePane.removePageAt(m_MultiPagePane.getSelectedIndex());
+    int		index;
+
+    index = m_MultiPagePane.getSelectedIndex();
+    if (index != -1) {
+      getPanelAt(index).cleanUp();
+      m_MultiPagePane.removePageAt(index);
+    }
   }
 
   /**
    * Removes all the data.
    */
   public void closeAll() {
+    int		i;
+
+    for (i = 0; i < m_MultiPagePane.getPageCount(); i++)
+      getPanelAt(i).cleanUp();
     m_MultiPagePane.removeAllPages();
   }
 
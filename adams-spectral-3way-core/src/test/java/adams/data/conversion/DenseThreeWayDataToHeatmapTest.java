@@ -0,0 +1,136 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DenseThreeWayDataToHeatmapTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.conversion;
+
+import adams.data.heatmap.Heatmap;
+import adams.data.threeway.DenseThreeWayData;
+import adams.data.threeway.DenseThreeWayDataTest;
+import adams.data.threeway.ThreeWayData;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the DenseThreeWayDataToHeatmap conversion against the point-based
+ * ThreeWayDataToHeatmap one.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DenseThreeWayDataToHeatmapTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public DenseThreeWayDataToHeatmapTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Converts the data.
+   *
+   * @param conversion	the conversion to use
+   * @param input	the data to convert
+   * @return		the heatmap
+   */
+  protected Heatmap convert(Conversion conversion, Object input) {
+    String	msg;
+    Heatmap	result;
+
+    conversion.setInput(input);
+    msg = conversion.convert();
+    assertNull(msg, msg);
+    result = (Heatmap) conversion.getOutput();
+    conversion.cleanUp();
+
+    return result;
+  }
+
+  /**
+   * Compares the heatmaps of the dense and the point-based conversion.
+   *
+   * @param minX	the minimum X layer
+   * @param maxX	the maximum X layer
+   */
+  protected void compare(double minX, double maxX) {
+    ThreeWayData		points;
+    ThreeWayDataToHeatmap	conv;
+    DenseThreeWayDataToHeatmap	dense;
+    Heatmap			expected;
+    Heatmap			actual;
+    int				y;
+    int				z;
+
+    points = DenseThreeWayDataTest.generate(3, 4, 5, 1);
+    conv   = new ThreeWayDataToHeatmap();
+    conv.setMinX(minX);
+    conv.setMaxX(maxX);
+    expected = convert(conv, points);
+    dense = new DenseThreeWayDataToHeatmap();
+    dense.setMinX(minX);
+    dense.setMaxX(maxX);
+    actual = convert(dense, DenseThreeWayData.fromThreeWayData(points));
+    for (z = 0; z < 5; z++) {
+      for (y = 0; y < 4; y++) {
+	if (Double.isNaN(expected.get(z, y)))
+	  assertTrue("z=" + z + ", y=" + y, Double.isNaN(actual.get(z, y)));
+	else
+	  assertEquals("z=" + z + ", y=" + y, expected.get(z, y), actual.get(z, y), 1e-12);
+      }
+    }
+  }
+
+  /**
+   * Tests the default layer.
+   */
+  public void testDefault() {
+    compare(0.0, 0.0);
+  }
+
+  /**
+   * Tests summing up several layers, including a NaN value.
+   */
+  public void testRange() {
+    compare(0.0, 1.0);
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return the suite
+   */
+  public static Test suite() {
+    return new TestSuite(DenseThreeWayDataToHeatmapTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
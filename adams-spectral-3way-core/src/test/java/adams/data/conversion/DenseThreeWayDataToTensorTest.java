@@ -0,0 +1,117 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DenseThreeWayDataToTensorTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.conversion;
+
+import adams.data.container.TensorContainer;
+import adams.data.threeway.DenseThreeWayData;
+import adams.data.threeway.DenseThreeWayDataTest;
+import adams.data.threeway.ThreeWayData;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the DenseThreeWayDataToTensor conversion against the point-based
+ * ThreeWayDataToTensor one.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DenseThreeWayDataToTensorTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public DenseThreeWayDataToTensorTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Converts the data.
+   *
+   * @param conversion	the conversion to use
+   * @param input	the data to convert
+   * @return		the tensor data
+   */
+  protected double[][][] convert(Conversion conversion, Object input) {
+    double[][][]	result;
+    String		msg;
+
+    conversion.setInput(input);
+    msg = conversion.convert();
+    assertNull(msg, msg);
+    result = ((TensorContainer) conversion.getOutput()).getContent().toArray3d();
+    conversion.cleanUp();
+
+    return result;
+  }
+
+  /**
+   * Compares the tensors of the dense and the point-based conversion.
+   */
+  public void testConvert() {
+    ThreeWayData	points;
+    double[][][]	expected;
+    double[][][]	actual;
+    int			x;
+    int			y;
+    int			z;
+
+    points   = DenseThreeWayDataTest.generate(3, 4, 5, 1);
+    expected = convert(new ThreeWayDataToTensor(), points);
+    actual   = convert(new DenseThreeWayDataToTensor(), DenseThreeWayData.fromThreeWayData(points));
+    assertEquals(expected.length, actual.length);
+    for (x = 0; x < expected.length; x++) {
+      assertEquals(expected[x].length, actual[x].length);
+      for (y = 0; y < expected[x].length; y++) {
+	assertEquals(expected[x][y].length, actual[x][y].length);
+	for (z = 0; z < expected[x][y].length; z++) {
+	  if (Double.isNaN(expected[x][y][z]))
+	    assertTrue("x=" + x + ", y=" + y + ", z=" + z, Double.isNaN(actual[x][y][z]));
+	  else
+	    assertEquals("x=" + x + ", y=" + y + ", z=" + z, expected[x][y][z], actual[x][y][z], 0.0);
+	}
+      }
+    }
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return the suite
+   */
+  public static Test suite() {
+    return new TestSuite(DenseThreeWayDataToTensorTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
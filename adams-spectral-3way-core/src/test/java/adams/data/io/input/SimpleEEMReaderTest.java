@@ -0,0 +1,200 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SimpleEEMReaderTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.input;
+
+import adams.core.io.FileUtils;
+import adams.data.conversion.ThreeWayDataToHeatmap;
+import adams.data.heatmap.Heatmap;
+import adams.data.threeway.DenseThreeWayData;
+import adams.data.threeway.DenseThreeWayDataTest;
+import adams.data.threeway.L2Point;
+import adams.data.threeway.ThreeWayData;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.List;
+
+/**
+ * Tests the SimpleEEMReader class, in particular that NaN values in the
+ * file get read as points rather than being treated as empty cells.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SimpleEEMReaderTest
+  extends AdamsTestCase {
+
+  /** the name of the temporary file. */
+  public final static String FILENAME = "eem.dat";
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public SimpleEEMReaderTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception	if an error occurs
+   */
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    FileUtils.writeToFile(
+      new TmpFile(FILENAME).getAbsolutePath(),
+      "nm\t250\t260\t270\n"
+	+ "300\t1.0\tNaN\t3.0\n"
+	+ "310\t4.0\t5.0\t\n",
+      false);
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    new TmpFile(FILENAME).delete();
+
+    super.tearDown();
+  }
+
+  /**
+   * Returns the reader to use.
+   *
+   * @return		the reader
+   */
+  protected SimpleEEMReader newReader() {
+    SimpleEEMReader	result;
+
+    result = new SimpleEEMReader();
+    result.setInput(new TmpFile(FILENAME));
+
+    return result;
+  }
+
+  /**
+   * Tests reading into the dense grid.
+   *
+   * @throws Exception	if reading fails
+   */
+  public void testReadDense() throws Exception {
+    DenseThreeWayData	data;
+
+    data = newReader().readDense();
+    assertNotNull(data);
+    assertEquals(1, data.numX());
+    assertEquals(2, data.numY());
+    assertEquals(3, data.numZ());
+    assertEquals(6, data.numValues());
+    assertTrue(data.isOccupied(0, 0, 1));
+    assertTrue(Double.isNaN(data.get(0, 0, 1)));
+    assertEquals(3.0, data.get(0.0, 300.0, 270.0), 0.0);
+    assertEquals(5.0, data.get(0.0, 310.0, 260.0), 0.0);
+  }
+
+  /**
+   * Tests that NaN values end up as points.
+   */
+  public void testReadNaN() {
+    List<ThreeWayData>	list;
+    ThreeWayData	data;
+    L2Point		l2;
+
+    list = newReader().read();
+    assertEquals(1, list.size());
+    data = list.get(0);
+    assertEquals(6, DenseThreeWayDataTest.numPoints(data));
+    l2 = data.get(0.0, 300.0, 260.0);
+    assertNotNull(l2);
+    assertTrue(Double.isNaN(l2.getData()));
+    l2 = data.get(0.0, 310.0, 270.0);
+    assertNotNull(l2);
+    assertTrue(Double.isNaN(l2.getData()));
+    assertEquals(4.0, data.get(0.0, 310.0, 250.0).getData(), 0.0);
+  }
+
+  /**
+   * Tests that the heatmap reader produces the same heatmap as the
+   * conversion of the points, including the NaN cells.
+   */
+  public void testHeatmap() {
+    ThreeWayHeatmapReader	reader;
+    ThreeWayDataToHeatmap	conv;
+    List<Heatmap>		list;
+    Heatmap			expected;
+    Heatmap			actual;
+    String			msg;
+    int				y;
+    int				z;
+
+    reader = new ThreeWayHeatmapReader();
+    reader.setReader(new SimpleEEMReader());
+    reader.setInput(new TmpFile(FILENAME));
+    list = reader.read();
+    assertEquals(1, list.size());
+    actual = list.get(0);
+
+    conv = new ThreeWayDataToHeatmap();
+    conv.setInput(newReader().read().get(0));
+    msg = conv.convert();
+    assertNull(msg, msg);
+    expected = (Heatmap) conv.getOutput();
+    conv.cleanUp();
+
+    for (z = 0; z < 3; z++) {
+      for (y = 0; y < 2; y++) {
+	if (Double.isNaN(expected.get(z, y)))
+	  assertTrue("z=" + z + ", y=" + y, Double.isNaN(actual.get(z, y)));
+	else
+	  assertEquals("z=" + z + ", y=" + y, expected.get(z, y), actual.get(z, y), 0.0);
+      }
+    }
+    assertTrue(Double.isNaN(actual.get(1, 0)));
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return the suite
+   */
+  public static Test suite() {
+    return new TestSuite(SimpleEEMReaderTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
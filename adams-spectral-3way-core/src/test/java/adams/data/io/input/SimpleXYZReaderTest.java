@@ -0,0 +1,195 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SimpleXYZReaderTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.io.input;
+
+import adams.core.io.FileUtils;
+import adams.data.threeway.DenseThreeWayData;
+import adams.data.threeway.DenseThreeWayDataTest;
+import adams.data.threeway.ThreeWayData;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import adams.test.TmpFile;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.List;
+
+/**
+ * Tests the SimpleXYZReader class, in particular the detection of regular
+ * grids and the parsing of quoted values.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SimpleXYZReaderTest
+  extends AdamsTestCase {
+
+  /** the name of the temporary file. */
+  public final static String FILENAME = "xyz.csv";
+
+  /** the header of the files. */
+  public final static String HEADER = "\"x\",\"y\",\"z\",\"data\"\n";
+
+  /** a complete 2x2x2 grid, partially quoted. */
+  public final static String GRID =
+    HEADER
+      + "1,10,100,1.5\n"
+      + "1,10,200,\"2.5\"\n"
+      + "1,20,100,3.5\n"
+      + "\"1\",\"20\",\"200\",\"4.5\"\n"
+      + "2,10,100,'5.5'\n"
+      + "2,10,200,6.5\n"
+      + "2,20,100,7.5\n"
+      + "2,20,200,8.5\n";
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public SimpleXYZReaderTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception	if tear-down fails
+   */
+  @Override
+  protected void tearDown() throws Exception {
+    new TmpFile(FILENAME).delete();
+
+    super.tearDown();
+  }
+
+  /**
+   * Writes the content to the temporary file and returns a reader for it.
+   *
+   * @param content	the content of the file
+   * @return		the reader
+   */
+  protected SimpleXYZReader newReader(String content) {
+    SimpleXYZReader	result;
+
+    FileUtils.writeToFile(new TmpFile(FILENAME).getAbsolutePath(), content, false);
+    result = new SimpleXYZReader();
+    result.setSeparator(",");
+    result.setInput(new TmpFile(FILENAME));
+
+    return result;
+  }
+
+  /**
+   * Tests reading a regular grid into the dense grid.
+   *
+   * @throws Exception	if reading fails
+   */
+  public void testReadDense() throws Exception {
+    DenseThreeWayData	data;
+
+    data = newReader("# comment\n" + GRID).readDense();
+    assertNotNull(data);
+    assertEquals(2, data.numX());
+    assertEquals(2, data.numY());
+    assertEquals(2, data.numZ());
+    assertEquals(8, data.numValues());
+    assertEquals(1.5, data.get(1.0, 10.0, 100.0), 0.0);
+    assertEquals(2.5, data.get(1.0, 10.0, 200.0), 0.0);
+    assertEquals(4.5, data.get(1.0, 20.0, 200.0), 0.0);
+    assertEquals(5.5, data.get(2.0, 10.0, 100.0), 0.0);
+    assertEquals(8.5, data.get(2.0, 20.0, 200.0), 0.0);
+  }
+
+  /**
+   * Tests that the dense grid and the points contain the same values.
+   *
+   * @throws Exception	if reading fails
+   */
+  public void testReadPoints() throws Exception {
+    List<ThreeWayData>	list;
+    ThreeWayData	data;
+    DenseThreeWayData	dense;
+    double		x;
+    double		y;
+    double		z;
+
+    list = newReader(GRID).read();
+    assertEquals(1, list.size());
+    data = list.get(0);
+    assertEquals(8, DenseThreeWayDataTest.numPoints(data));
+    dense = newReader(GRID).readDense();
+    assertNotNull(dense);
+    for (x = 1; x <= 2; x++) {
+      for (y = 10; y <= 20; y += 10) {
+	for (z = 100; z <= 200; z += 100) {
+	  assertNotNull(x + "/" + y + "/" + z, data.get(x, y, z));
+	  assertEquals(x + "/" + y + "/" + z, dense.get(x, y, z), data.get(x, y, z).getData(), 0.0);
+	}
+      }
+    }
+  }
+
+  /**
+   * Tests that duplicate coordinates are not accepted as grid, even if the
+   * number of rows matches the number of grid cells.
+   *
+   * @throws Exception	if reading fails
+   */
+  public void testDuplicates() throws Exception {
+    String	content;
+
+    content = GRID.replace("2,20,200,8.5", "2,20,100,8.5");
+    assertNull(newReader(content).readDense());
+    assertEquals(1, newReader(content).read().size());
+  }
+
+  /**
+   * Tests that incomplete grids are not accepted as grid.
+   *
+   * @throws Exception	if reading fails
+   */
+  public void testIncomplete() throws Exception {
+    String	content;
+
+    content = GRID.replace("2,20,200,8.5\n", "");
+    assertNull(newReader(content).readDense());
+    assertEquals(7, DenseThreeWayDataTest.numPoints(newReader(content).read().get(0)));
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return the suite
+   */
+  public static Test suite() {
+    return new TestSuite(SimpleXYZReaderTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
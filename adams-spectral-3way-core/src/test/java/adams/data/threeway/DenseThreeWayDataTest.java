@@ -0,0 +1,232 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DenseThreeWayDataTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threeway;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Random;
+
+/**
+ * Tests the DenseThreeWayData class.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DenseThreeWayDataTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public DenseThreeWayDataTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates point-based data on a regular grid, with one cell left empty
+   * and one cell holding NaN.
+   *
+   * @param numX	the number of Xs
+   * @param numY	the number of Ys
+   * @param numZ	the number of Zs
+   * @param seed	the seed for the random number generator
+   * @return		the data
+   */
+  public static ThreeWayData generate(int numX, int numY, int numZ, long seed) {
+    ThreeWayData	result;
+    L1Point		l1;
+    Random		rnd;
+    int			x;
+    int			y;
+    int			z;
+
+    rnd    = new Random(seed);
+    result = new ThreeWayData("grid");
+    for (x = 0; x < numX; x++) {
+      for (y = 0; y < numY; y++) {
+	l1 = new L1Point(x * 0.5, 100 + y * 2);
+	for (z = 0; z < numZ; z++) {
+	  if ((x == 0) && (y == 0) && (z == 1))
+	    continue;
+	  if ((x == numX - 1) && (y == numY - 1) && (z == 0))
+	    l1.add(new L2Point(200 + z * 5, Double.NaN));
+	  else
+	    l1.add(new L2Point(200 + z * 5, rnd.nextDouble()));
+	}
+	result.add(l1);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the number of L2 points.
+   *
+   * @param data	the data to inspect
+   * @return		the number of points
+   */
+  public static int numPoints(ThreeWayData data) {
+    int		result;
+
+    result = 0;
+    for (L1Point l1: data)
+      result += l1.size();
+
+    return result;
+  }
+
+  /**
+   * Tests the layout of the values array and the axis lookups.
+   */
+  public void testIndex() {
+    DenseThreeWayData	data;
+    int			ix;
+    int			iy;
+    int			iz;
+
+    data = new DenseThreeWayData("test", new double[]{1, 2}, new double[]{10, 20, 30}, new double[]{0.1, 0.2, 0.3, 0.4});
+    assertEquals(2, data.numX());
+    assertEquals(3, data.numY());
+    assertEquals(4, data.numZ());
+    assertEquals(24, data.getValues().length);
+    for (ix = 0; ix < data.numX(); ix++) {
+      for (iy = 0; iy < data.numY(); iy++) {
+	for (iz = 0; iz < data.numZ(); iz++)
+	  assertEquals((ix * 3 + iy) * 4 + iz, data.index(ix, iy, iz));
+      }
+    }
+    assertEquals(1, data.indexOfX(2));
+    assertEquals(2, data.indexOfY(30));
+    assertEquals(0, data.indexOfZ(0.1));
+    assertEquals(-1, data.indexOfY(15));
+
+    data.set(2.0, 20.0, 0.3, 42.0);
+    assertEquals(42.0, data.get(1, 1, 2), 0.0);
+    assertEquals(42.0, data.getValues()[data.index(1, 1, 2)], 0.0);
+    assertTrue(Double.isNaN(data.get(2.0, 15.0, 0.3)));
+    try {
+      data.set(2.0, 15.0, 0.3, 1.0);
+      fail("Setting value off the grid should have failed!");
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests that empty cells and NaN values are told apart.
+   */
+  public void testOccupancy() {
+    DenseThreeWayData	data;
+    ThreeWayData	points;
+
+    data = new DenseThreeWayData("test", new double[]{1}, new double[]{10, 20}, new double[]{0.1, 0.2});
+    assertEquals(0, data.numValues());
+    assertFalse(data.isOccupied(0, 1, 1));
+    assertTrue(Double.isNaN(data.get(0, 1, 1)));
+
+    data.set(0, 1, 1, Double.NaN);
+    data.set(0, 0, 0, 1.0);
+    assertTrue(data.isOccupied(0, 1, 1));
+    assertEquals(2, data.numValues());
+    points = data.toThreeWayData();
+    assertEquals(2, numPoints(points));
+    assertNotNull(points.get(1, 20, 0.2));
+    assertTrue(Double.isNaN(points.get(1, 20, 0.2).getData()));
+
+    data.remove(0, 1, 1);
+    assertFalse(data.isOccupied(0, 1, 1));
+    assertEquals(1, data.numValues());
+  }
+
+  /**
+   * Tests the conversion from and to point-based data.
+   */
+  public void testRoundTrip() {
+    ThreeWayData	points;
+    ThreeWayData	copy;
+    DenseThreeWayData	data;
+    L2Point		l2;
+
+    points = generate(3, 4, 5, 1);
+    data   = DenseThreeWayData.fromThreeWayData(points);
+    assertEquals(3, data.numX());
+    assertEquals(4, data.numY());
+    assertEquals(5, data.numZ());
+    assertEquals(3 * 4 * 5 - 1, data.numValues());
+    assertFalse(data.isOccupied(0, 0, 1));
+    assertTrue(data.isOccupied(2, 3, 0));
+
+    copy = data.toThreeWayData();
+    assertEquals(numPoints(points), numPoints(copy));
+    for (L1Point l1: points) {
+      for (L2Point expected: l1) {
+	l2 = copy.get(l1.getX(), l1.getY(), expected.getZ());
+	assertNotNull("x=" + l1.getX() + ", y=" + l1.getY() + ", z=" + expected.getZ(), l2);
+	assertEquals(expected.getData(), l2.getData(), 0.0);
+      }
+    }
+    assertNull(copy.get(0, 100, 205));
+  }
+
+  /**
+   * Tests the fill ratio check.
+   */
+  public void testFillRatio() {
+    ThreeWayData	points;
+    L1Point		l1;
+
+    points = new ThreeWayData("sparse");
+    l1     = new L1Point(0, 0);
+    l1.add(new L2Point(0, 1));
+    points.add(l1);
+    l1     = new L1Point(1, 1);
+    l1.add(new L2Point(1, 1));
+    points.add(l1);
+    assertEquals(0.25, DenseThreeWayData.fillRatio(points), 1e-12);
+    assertNull(DenseThreeWayData.fromThreeWayData(points, 0.5));
+    assertNotNull(DenseThreeWayData.fromThreeWayData(points, 0.25));
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return the suite
+   */
+  public static Test suite() {
+    return new TestSuite(DenseThreeWayDataTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
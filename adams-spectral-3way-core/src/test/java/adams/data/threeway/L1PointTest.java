@@ -0,0 +1,134 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * L1PointTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threeway;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the lookups of the L1Point class.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class L1PointTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public L1PointTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates a point with Zs 10, 20, 30 and 40.
+   *
+   * @return		the point
+   */
+  protected L1Point newPoint() {
+    L1Point	result;
+    int		i;
+
+    result = new L1Point(1.0, 2.0);
+    // added in reverse order to check sorting
+    for (i = 4; i >= 1; i--)
+      result.add(new L2Point(i * 10.0, i));
+
+    return result;
+  }
+
+  /**
+   * Tests the exact lookup of Z.
+   */
+  public void testFind() {
+    L1Point	l1;
+    int		i;
+
+    l1 = newPoint();
+    for (i = 1; i <= 4; i++)
+      assertEquals(i, l1.find(i * 10.0).getData(), 0.0);
+    assertNull(l1.find(15.0));
+    assertNull(l1.find(5.0));
+    assertNull(l1.find(45.0));
+    assertNull(new L1Point(1.0, 2.0).find(10.0));
+  }
+
+  /**
+   * Tests that the lookup gets updated when points get added or removed.
+   */
+  public void testFindModified() {
+    L1Point	l1;
+    L2Point	l2;
+
+    l1 = newPoint();
+    assertNull(l1.find(25.0));
+    l1.add(new L2Point(25.0, 2.5));
+    assertEquals(2.5, l1.find(25.0).getData(), 0.0);
+    assertEquals(3.0, l1.find(30.0).getData(), 0.0);
+    l2 = l1.find(20.0);
+    l1.remove(l2);
+    assertNull(l1.find(20.0));
+    assertEquals(2.5, l1.findClosest(20.0).getData(), 0.0);
+  }
+
+  /**
+   * Tests the lookup of the closest Z, including ties and values outside
+   * the range.
+   */
+  public void testFindClosest() {
+    L1Point	l1;
+
+    l1 = newPoint();
+    assertEquals(2.0, l1.findClosest(20.0).getData(), 0.0);
+    assertEquals(2.0, l1.findClosest(22.0).getData(), 0.0);
+    assertEquals(3.0, l1.findClosest(28.0).getData(), 0.0);
+    // tie: smaller Z
+    assertEquals(2.0, l1.findClosest(25.0).getData(), 0.0);
+    // below/above the range
+    assertEquals(1.0, l1.findClosest(-100.0).getData(), 0.0);
+    assertEquals(4.0, l1.findClosest(1000.0).getData(), 0.0);
+    // empty
+    assertNull(new L1Point(1.0, 2.0).findClosest(10.0));
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(L1PointTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
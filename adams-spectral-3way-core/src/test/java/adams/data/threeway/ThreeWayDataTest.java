@@ -0,0 +1,178 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ThreeWayDataTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threeway;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the lookups of the ThreeWayData class.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ThreeWayDataTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public ThreeWayDataTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates data with several Ys per X, one L2 point each.
+   *
+   * @return		the data
+   */
+  protected ThreeWayData newData() {
+    ThreeWayData	result;
+    L1Point		l1;
+    int			x;
+    int			y;
+
+    result = new ThreeWayData("lookup");
+    for (x = 0; x < 5; x++) {
+      for (y = 0; y < 4; y++) {
+	l1 = new L1Point(x * 2.0, y * 10.0);
+	l1.add(new L2Point(1.0, x * 100 + y));
+	result.add(l1);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Asserts the X/Y of the point.
+   *
+   * @param x		the expected X
+   * @param y		the expected Y
+   * @param point	the point to check
+   */
+  protected void assertXY(double x, double y, L1Point point) {
+    assertNotNull("x=" + x + ", y=" + y, point);
+    assertEquals("x", x, point.getX(), 0.0);
+    assertEquals("y", y, point.getY(), 0.0);
+  }
+
+  /**
+   * Tests the exact lookup of X/Y, which must not return a point with the
+   * same X but a different Y.
+   */
+  public void testFind() {
+    ThreeWayData	data;
+    int			x;
+    int			y;
+
+    data = newData();
+    for (x = 0; x < 5; x++) {
+      for (y = 0; y < 4; y++)
+	assertXY(x * 2.0, y * 10.0, data.find(x * 2.0, y * 10.0));
+    }
+    assertNull(data.find(2.0, 5.0));
+    assertNull(data.find(3.0, 10.0));
+    assertNull(data.find(-1.0, 0.0));
+    assertNull(new ThreeWayData().find(0.0, 0.0));
+  }
+
+  /**
+   * Tests that the lookup gets updated when points get added or removed.
+   */
+  public void testFindModified() {
+    ThreeWayData	data;
+    L1Point		l1;
+
+    data = newData();
+    assertNull(data.find(3.0, 15.0));
+    l1 = new L1Point(3.0, 15.0);
+    data.add(l1);
+    assertSame(l1, data.find(3.0, 15.0));
+    l1 = data.find(4.0, 20.0);
+    assertNotNull(l1);
+    data.remove(l1);
+    assertNull(data.find(4.0, 20.0));
+    assertXY(4.0, 10.0, data.find(4.0, 10.0));
+    data.clear();
+    assertNull(data.find(3.0, 15.0));
+  }
+
+  /**
+   * Tests the lookup of the closest X/Y, including ties and values outside
+   * the range of the data.
+   */
+  public void testFindClosest() {
+    ThreeWayData	data;
+
+    data = newData();
+    // exact
+    assertXY(4.0, 20.0, data.findClosest(4.0, 20.0));
+    // closest X, then closest Y of that X
+    assertXY(4.0, 20.0, data.findClosest(4.4, 21.0));
+    assertXY(6.0, 30.0, data.findClosest(5.6, 29.0));
+    // ties: smaller X/Y
+    assertXY(4.0, 10.0, data.findClosest(5.0, 15.0));
+    // below/above the range
+    assertXY(0.0, 0.0, data.findClosest(-3.0, -5.0));
+    assertXY(8.0, 30.0, data.findClosest(100.0, 100.0));
+    assertXY(0.0, 30.0, data.findClosest(-3.0, 100.0));
+    // empty
+    assertNull(new ThreeWayData().findClosest(1.0, 1.0));
+  }
+
+  /**
+   * Tests the lookup of level 2 points via X/Y/Z.
+   */
+  public void testGet() {
+    ThreeWayData	data;
+    L2Point		l2;
+
+    data = newData();
+    l2   = data.get(6.0, 20.0, 1.0);
+    assertNotNull(l2);
+    assertEquals(302.0, l2.getData(), 0.0);
+    assertNull(data.get(6.0, 25.0, 1.0));
+    assertNull(data.get(6.0, 20.0, 2.0));
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(ThreeWayDataTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ThreeWayDataUtilsTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threeway;
+
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Tests the ThreeWayDataUtils class.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ThreeWayDataUtilsTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public ThreeWayDataUtilsTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Tests the binary search on the axis.
+   */
+  public void testIndexOf() {
+    double[]	axis;
+
+    axis = new double[]{1.0, 2.5, 4.0, 10.0};
+    assertEquals(0, ThreeWayDataUtils.indexOf(axis, 1.0));
+    assertEquals(3, ThreeWayDataUtils.indexOf(axis, 10.0));
+    assertEquals(-1, ThreeWayDataUtils.indexOf(axis, 3.0));
+    assertEquals(-1, ThreeWayDataUtils.indexOf(axis, 11.0));
+  }
+
+  /**
+   * Tests that every index gets processed exactly once and that the executor
+   * gets reused across calls.
+   */
+  public void testParallel() {
+    AtomicIntegerArray	counts;
+    ExecutorService	executor;
+    int			threads;
+    int			i;
+
+    executor = null;
+    for (threads = 1; threads <= 4; threads++) {
+      counts = new AtomicIntegerArray(1001);
+      ThreeWayDataUtils.parallel(threads, counts.length(), counts::incrementAndGet);
+      for (i = 0; i < counts.length(); i++)
+	assertEquals("threads=" + threads + ", index=" + i, 1, counts.get(i));
+      if (threads > 1) {
+	if (executor == null)
+	  executor = ThreeWayDataUtils.getExecutor();
+	else
+	  assertSame(executor, ThreeWayDataUtils.getExecutor());
+      }
+    }
+  }
+
+  /**
+   * Tests that nested calls do not block the shared executor.
+   */
+  public void testNested() {
+    final AtomicIntegerArray	counts;
+    int				i;
+
+    counts = new AtomicIntegerArray(20 * 30);
+    ThreeWayDataUtils.parallel(-1, 20, (outer) ->
+      ThreeWayDataUtils.parallel(-1, 30, (inner) -> counts.incrementAndGet(outer * 30 + inner)));
+    for (i = 0; i < counts.length(); i++)
+      assertEquals("index=" + i, 1, counts.get(i));
+  }
+
+  /**
+   * Tests that exceptions in the tasks get passed on.
+   */
+  public void testException() {
+    try {
+      ThreeWayDataUtils.parallel(4, 100, (i) -> {
+	if (i == 42)
+	  throw new IllegalArgumentException("failed: " + i);
+      });
+      fail("Exception in task should have been passed on!");
+    }
+    catch (IllegalStateException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return the suite
+   */
+  public static Test suite() {
+    return new TestSuite(ThreeWayDataUtilsTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ThreeWayDataViewTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threeway;
+
+import adams.core.base.BaseInterval;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the ThreeWayDataView class.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ThreeWayDataViewTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public ThreeWayDataViewTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a grid whose values encode the indices: ix*10000 + iy*100 + iz.
+   * The axis values are 10*index for X, 100+index for Y and 0.5*index for Z.
+   *
+   * @param numX	the number of Xs
+   * @param numY	the number of Ys
+   * @param numZ	the number of Zs
+   * @return		the grid
+   */
+  protected DenseThreeWayData newGrid(int numX, int numY, int numZ) {
+    DenseThreeWayData	result;
+    double[]		x;
+    double[]		y;
+    double[]		z;
+    int			i;
+    int			ix;
+    int			iy;
+    int			iz;
+
+    x = new double[numX];
+    for (i = 0; i < numX; i++)
+      x[i] = 10 * i;
+    y = new double[numY];
+    for (i = 0; i < numY; i++)
+      y[i] = 100 + i;
+    z = new double[numZ];
+    for (i = 0; i < numZ; i++)
+      z[i] = 0.5 * i;
+    result = new DenseThreeWayData("grid", x, y, z);
+    for (ix = 0; ix < numX; ix++) {
+      for (iy = 0; iy < numY; iy++) {
+	for (iz = 0; iz < numZ; iz++)
+	  result.set(ix, iy, iz, ix * 10000 + iy * 100 + iz);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks that the view maps its indices onto the given source indices.
+   *
+   * @param view	the view to check
+   * @param sourceX	the expected source indices along X
+   * @param sourceY	the expected source indices along Y
+   * @param sourceZ	the expected source indices along Z
+   */
+  protected void assertView(ThreeWayDataView view, int[] sourceX, int[] sourceY, int[] sourceZ) {
+    DenseThreeWayData	source;
+    int			ix;
+    int			iy;
+    int			iz;
+
+    source = view.getSource();
+    assertEquals("numX", sourceX.length, view.numX());
+    assertEquals("numY", sourceY.length, view.numY());
+    assertEquals("numZ", sourceZ.length, view.numZ());
+    for (ix = 0; ix < sourceX.length; ix++)
+      assertEquals("x #" + ix, source.getX()[sourceX[ix]], view.getX(ix), 0.0);
+    for (iy = 0; iy < sourceY.length; iy++)
+      assertEquals("y #" + iy, source.getY()[sourceY[iy]], view.getY(iy), 0.0);
+    for (iz = 0; iz < sourceZ.length; iz++)
+      assertEquals("z #" + iz, source.getZ()[sourceZ[iz]], view.getZ(iz), 0.0);
+    for (ix = 0; ix < sourceX.length; ix++) {
+      for (iy = 0; iy < sourceY.length; iy++) {
+	for (iz = 0; iz < sourceZ.length; iz++)
+	  assertEquals(
+	    "x=" + ix + ", y=" + iy + ", z=" + iz,
+	    sourceX[ix] * 10000 + sourceY[iy] * 100 + sourceZ[iz], view.get(ix, iy, iz), 0.0);
+      }
+    }
+  }
+
+  /**
+   * Tests cropping by index ranges, including cropping a cropped view.
+   */
+  public void testCropIndices() {
+    ThreeWayDataView	view;
+
+    view = new ThreeWayDataView(newGrid(5, 6, 7));
+    assertView(view, new int[]{0, 1, 2, 3, 4}, new int[]{0, 1, 2, 3, 4, 5}, new int[]{0, 1, 2, 3, 4, 5, 6});
+
+    view = view.crop(new int[]{1, 2, 0}, new int[]{4, 5, 7});
+    assertView(view, new int[]{1, 2, 3}, new int[]{2, 3, 4}, new int[]{0, 1, 2, 3, 4, 5, 6});
+
+    view = view.crop(new int[]{1, 0, 3}, new int[]{3, 1, 5});
+    assertView(view, new int[]{2, 3}, new int[]{2}, new int[]{3, 4});
+
+    try {
+      view.crop(new int[]{0, 0, 0}, new int[]{3, 1, 2});
+      fail("Cropping beyond the view should have failed!");
+    }
+    catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    try {
+      view.get(2, 0, 0);
+      fail("Accessing beyond the view should have failed!");
+    }
+    catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests cropping by intervals on the axis values.
+   */
+  public void testCropIntervals() {
+    ThreeWayDataView	view;
+
+    view = new ThreeWayDataView(newGrid(5, 6, 7));
+    view = view.crop(
+      new BaseInterval("[10.0;30.0]"),
+      new BaseInterval(BaseInterval.ALL),
+      new BaseInterval("(0.5;2.5)"));
+    assertView(view, new int[]{1, 2, 3}, new int[]{0, 1, 2, 3, 4, 5}, new int[]{2, 3, 4});
+
+    view = view.crop(
+      new BaseInterval("[100.0;100.0]"),
+      new BaseInterval(BaseInterval.ALL),
+      new BaseInterval(BaseInterval.ALL));
+    assertEquals(0, view.numX());
+  }
+
+  /**
+   * Tests that shifting only adds offsets to the axis values.
+   */
+  public void testShift() {
+    DenseThreeWayData	grid;
+    ThreeWayDataView	view;
+    ThreeWayDataView	shifted;
+    int			i;
+
+    grid    = newGrid(3, 4, 5);
+    view    = new ThreeWayDataView(grid).crop(new int[]{1, 1, 1}, new int[]{3, 4, 5});
+    shifted = view.shift(1.0, -2.0, 0.25).shift(1.0, 0.0, 0.0);
+    for (i = 0; i < view.numX(); i++)
+      assertEquals(view.getX(i) + 2.0, shifted.getX(i), 1e-12);
+    for (i = 0; i < view.numY(); i++)
+      assertEquals(view.getY(i) - 2.0, shifted.getY(i), 1e-12);
+    for (i = 0; i < view.numZ(); i++)
+      assertEquals(view.getZ(i) + 0.25, shifted.getZ(i), 1e-12);
+    assertView(shifted.shift(-2.0, 2.0, -0.25), new int[]{1, 2}, new int[]{1, 2, 3}, new int[]{1, 2, 3, 4});
+    assertSame(grid, shifted.getSource());
+  }
+
+  /**
+   * Tests that down-sampling keeps the elements where (i+1) % n == 0.
+   */
+  public void testDownSample() {
+    ThreeWayDataView	view;
+
+    view = new ThreeWayDataView(newGrid(5, 7, 10));
+
+    // n=1 keeps everything
+    assertView(view.downSample(new int[]{1, 1, 1}), new int[]{0, 1, 2, 3, 4}, new int[]{0, 1, 2, 3, 4, 5, 6}, new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+    // (i+1) % n == 0
+    assertView(view.downSample(new int[]{2, 3, 4}), new int[]{1, 3}, new int[]{2, 5}, new int[]{3, 7});
+
+    // n larger than the axis
+    assertEquals(0, view.downSample(new int[]{6, 1, 1}).numX());
+
+    // strides multiply when down-sampling twice
+    assertView(view.downSample(new int[]{1, 1, 2}).downSample(new int[]{1, 1, 2}), new int[]{0, 1, 2, 3, 4}, new int[]{0, 1, 2, 3, 4, 5, 6}, new int[]{3, 7});
+
+    // down-sampling a cropped view is relative to the crop
+    assertView(
+      view.crop(new int[]{1, 1, 1}, new int[]{5, 7, 10}).downSample(new int[]{2, 2, 3}),
+      new int[]{2, 4}, new int[]{2, 4, 6}, new int[]{3, 6, 9});
+
+    // cropping a down-sampled view uses the stride
+    assertView(
+      view.downSample(new int[]{1, 1, 2}).crop(new int[]{0, 0, 1}, new int[]{5, 7, 4}),
+      new int[]{0, 1, 2, 3, 4}, new int[]{0, 1, 2, 3, 4, 5, 6}, new int[]{3, 5, 7});
+
+    try {
+      view.downSample(new int[]{0, 1, 1});
+      fail("n=0 should have failed!");
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests copying the view into new storage, keeping empty cells empty.
+   */
+  public void testMaterialize() {
+    DenseThreeWayData	grid;
+    DenseThreeWayData	copy;
+    ThreeWayDataView	view;
+
+    grid = newGrid(3, 4, 5);
+    grid.remove(1, 1, 1);
+    grid.set(2, 3, 4, Double.NaN);
+    view = new ThreeWayDataView(grid).crop(new int[]{1, 1, 1}, new int[]{3, 4, 5}).shift(5.0, 0.0, 0.0);
+    copy = view.materialize();
+    assertEquals(2, copy.numX());
+    assertEquals(3, copy.numY());
+    assertEquals(4, copy.numZ());
+    assertEquals(15.0, copy.getX()[0], 1e-12);
+    assertEquals(2 * 3 * 4 - 1, copy.numValues());
+    assertFalse(copy.isOccupied(0, 0, 0));
+    assertTrue(copy.isOccupied(1, 2, 3));
+    assertTrue(Double.isNaN(copy.get(1, 2, 3)));
+    assertEquals(10000 + 200 + 3, copy.get(0, 1, 2), 0.0);
+    assertEquals(2 * 3 * 4 - 1, DenseThreeWayDataTest.numPoints(view.toThreeWayData()));
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return the suite
+   */
+  public static Test suite() {
+    return new TestSuite(ThreeWayDataViewTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
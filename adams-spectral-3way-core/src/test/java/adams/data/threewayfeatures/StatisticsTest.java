@@ -0,0 +1,210 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * StatisticsTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threewayfeatures;
+
+import adams.data.threeway.L1Point;
+import adams.data.threeway.L2Point;
+import adams.data.threeway.ThreeWayData;
+import adams.data.threewayfeatures.Statistics.Statistic;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the Statistics generator against the generators for the individual
+ * statistics.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StatisticsTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public StatisticsTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates data with duplicate values and some empty level 1 points.
+   *
+   * @param numValues	the total number of values
+   * @param seed	the seed for the random number generator
+   * @return		the data
+   */
+  protected ThreeWayData newData(int numValues, long seed) {
+    ThreeWayData	result;
+    L1Point		l1;
+    Random		rnd;
+    int			count;
+    int			num;
+    int			x;
+    int			z;
+
+    result = new ThreeWayData("stats");
+    rnd    = new Random(seed);
+    count  = 0;
+    x      = 0;
+    while (count < numValues) {
+      l1 = new L1Point(x, x % 3);
+      // every fifth point stays empty
+      if (x % 5 != 4) {
+	num = 1 + rnd.nextInt(7);
+	for (z = 0; (z < num) && (count < numValues); z++) {
+	  // rounding introduces duplicates
+	  l1.add(new L2Point(z, Math.round(rnd.nextGaussian() * 20) / 4.0));
+	  count++;
+	}
+      }
+      result.add(l1);
+      x++;
+    }
+    // empty point at the end
+    result.add(new L1Point(x, 0));
+
+    return result;
+  }
+
+  /**
+   * Returns the numeric values of the first row generated.
+   *
+   * @param generator	the generator to use
+   * @param data	the data to generate the features for
+   * @return		the values
+   */
+  protected List<Double> generate(AbstractThreeWayDataFeatureGenerator generator, ThreeWayData data) {
+    List<Double>	result;
+
+    result = new ArrayList<>();
+    for (Object value: generator.generateRows(data)[0])
+      result.add(((Number) value).doubleValue());
+
+    return result;
+  }
+
+  /**
+   * Compares the Statistics generator with the individual generators.
+   *
+   * @param data	the data to use
+   * @param numThreads	the number of threads to use
+   */
+  protected void compare(ThreeWayData data, int numThreads) {
+    Statistics		stats;
+    List<Double>	actual;
+    List<Double>	expected;
+    int			i;
+
+    stats = new Statistics();
+    stats.setStatistics(Statistic.values());
+    stats.setNumThreads(numThreads);
+    actual = generate(stats, data);
+
+    expected = new ArrayList<>();
+    expected.addAll(generate(new Min(), data));
+    expected.addAll(generate(new Max(), data));
+    expected.addAll(generate(new Mean(), data));
+    expected.addAll(generate(new Median(), data));
+    expected.addAll(generate(new StdDev(), data));
+    expected.addAll(generate(new Histogram(), data));
+
+    assertEquals("number of features", expected.size(), actual.size());
+    for (i = 0; i < expected.size(); i++)
+      assertEquals("feature " + i + ", threads=" + numThreads, expected.get(i), actual.get(i), 1e-9 * Math.max(1.0, Math.abs(expected.get(i))));
+  }
+
+  /**
+   * Tests an odd number of values.
+   */
+  public void testOdd() {
+    ThreeWayData	data;
+
+    data = newData(101, 1);
+    compare(data, 1);
+    compare(data, 4);
+  }
+
+  /**
+   * Tests an even number of values.
+   */
+  public void testEven() {
+    ThreeWayData	data;
+
+    data = newData(200, 2);
+    compare(data, 1);
+    compare(data, 4);
+  }
+
+  /**
+   * Tests the median via selection against sorting, for odd and even
+   * numbers of values with duplicates.
+   */
+  public void testMedian() {
+    Random	rnd;
+    double[]	values;
+    double[]	sorted;
+    double	expected;
+    int		n;
+    int		i;
+
+    rnd = new Random(3);
+    for (n = 1; n <= 50; n++) {
+      values = new double[n];
+      for (i = 0; i < n; i++)
+	values[i] = rnd.nextInt(10);
+      sorted = values.clone();
+      Arrays.sort(sorted);
+      if (n % 2 == 1)
+	expected = sorted[n / 2];
+      else
+	expected = (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+      assertEquals("n=" + n, expected, Statistics.median(values), 0.0);
+    }
+    assertTrue(Double.isNaN(Statistics.median(new double[0])));
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the suite
+   */
+  public static Test suite() {
+    return new TestSuite(StatisticsTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
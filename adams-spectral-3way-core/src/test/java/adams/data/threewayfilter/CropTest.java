@@ -0,0 +1,179 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CropTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.data.threewayfilter;
+
+import adams.core.base.BaseInterval;
+import adams.data.threeway.DenseThreeWayData;
+import adams.data.threeway.DenseThreeWayDataTest;
+import adams.data.threeway.L1Point;
+import adams.data.threeway.L2Point;
+import adams.data.threeway.ThreeWayData;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import java.util.Random;
+
+/**
+ * Tests the Crop filter, comparing the point-based cropping with the
+ * view-based one for dense data.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CropTest
+  extends AdamsTestCase {
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public CropTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates data that forms a complete regular grid, using the same axes
+   * as {@link DenseThreeWayDataTest#generate(int, int, int, long)}.
+   *
+   * @return		the data
+   */
+  protected ThreeWayData newGrid() {
+    ThreeWayData	result;
+    L1Point		l1;
+    Random		rnd;
+    int			x;
+    int			y;
+    int			z;
+
+    rnd    = new Random(1);
+    result = new ThreeWayData("grid");
+    for (x = 0; x < 4; x++) {
+      for (y = 0; y < 6; y++) {
+	l1 = new L1Point(x * 0.5, 100 + y * 2);
+	for (z = 0; z < 8; z++)
+	  l1.add(new L2Point(200 + z * 5, rnd.nextDouble()));
+	result.add(l1);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates the crop filter.
+   *
+   * @return		the filter
+   */
+  protected Crop newCrop() {
+    Crop	result;
+
+    result = new Crop();
+    result.setRangeX(new BaseInterval("[0.5;1.0]"));
+    result.setRangeY(new BaseInterval("(102.0;+inf)"));
+    result.setRangeZ(new BaseInterval("[205.0;225.0)"));
+
+    return result;
+  }
+
+  /**
+   * Compares the cropped data.
+   *
+   * @param expected	the expected data
+   * @param actual	the actual data
+   */
+  protected void compare(ThreeWayData expected, ThreeWayData actual) {
+    L2Point		l2;
+
+    assertEquals(DenseThreeWayDataTest.numPoints(expected), DenseThreeWayDataTest.numPoints(actual));
+    for (L1Point l1: expected) {
+      for (L2Point exp: l1) {
+	l2 = actual.get(l1.getX(), l1.getY(), exp.getZ());
+	assertNotNull("x=" + l1.getX() + ", y=" + l1.getY() + ", z=" + exp.getZ(), l2);
+	assertEquals(exp.getData(), l2.getData(), 0.0);
+      }
+    }
+  }
+
+  /**
+   * Checks that cropping a view on the dense data yields the same points as
+   * filtering the points.
+   */
+  public void testGrid() {
+    ThreeWayData	data;
+    ThreeWayData	filtered;
+    Crop		crop;
+
+    data     = newGrid();
+    crop     = newCrop();
+    filtered = crop.filter(data);
+    compare(filtered, crop.crop(DenseThreeWayData.fromThreeWayData(data)).toThreeWayData());
+    // 2 Xs, 4 Ys, 4 Zs
+    assertEquals(2 * 4 * 4, DenseThreeWayDataTest.numPoints(filtered));
+  }
+
+  /**
+   * Checks that the filter keeps exactly the points within the ranges.
+   */
+  public void testGaps() {
+    ThreeWayData	data;
+    ThreeWayData	filtered;
+    ThreeWayData	expected;
+    Crop		crop;
+    L1Point		l1new;
+
+    data     = DenseThreeWayDataTest.generate(4, 6, 8, 2);
+    crop     = newCrop();
+    filtered = crop.filter(data);
+    expected = new ThreeWayData();
+    for (L1Point l1: data) {
+      if (!crop.getRangeX().isInside(l1.getX()) || !crop.getRangeY().isInside(l1.getY()))
+	continue;
+      l1new = new L1Point(l1.getX(), l1.getY());
+      for (L2Point l2: l1) {
+	if (crop.getRangeZ().isInside(l2.getZ()))
+	  l1new.add(new L2Point(l2.getZ(), l2.getData()));
+      }
+      expected.add(l1new);
+    }
+    compare(expected, filtered);
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return the suite
+   */
+  public static Test suite() {
+    return new TestSuite(CropTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ThreeWayDataModelFilterTest.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package adams.flow.transformer;
+
+import adams.data.container.TensorContainer;
+import adams.env.Environment;
+import adams.test.AdamsTestCase;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import nz.ac.waikato.cms.adams.multiway.algorithm.PARAFAC;
+import nz.ac.waikato.cms.adams.multiway.data.tensor.Tensor;
+
+import java.util.Random;
+
+/**
+ * Tests the batched filtering of the ThreeWayDataModelFilter transformer,
+ * comparing it with filtering the tensors one by one.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ThreeWayDataModelFilterTest
+  extends AdamsTestCase {
+
+  /** the tolerance for comparing values. */
+  public static final double TOLERANCE = 1e-6;
+
+  /**
+   * Constructs the test case. Called by subclasses.
+   *
+   * @param name the name of the test
+   */
+  public ThreeWayDataModelFilterTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Generates random 3-way data.
+   *
+   * @param numRows	the size of the first mode
+   * @param random	the random number generator to use
+   * @return		the data
+   */
+  protected double[][][] newData(int numRows, Random random) {
+    double[][][]	result;
+    int			i;
+    int			j;
+    int			k;
+
+    result = new double[numRows][5][4];
+    for (i = 0; i < result.length; i++) {
+      for (j = 0; j < result[i].length; j++) {
+	for (k = 0; k < result[i][j].length; k++)
+	  result[i][j][k] = random.nextDouble() * (j + 1) + (k + 1);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates the containers to filter.
+   *
+   * @param num		the number of containers
+   * @param random	the random number generator to use
+   * @return		the containers
+   */
+  protected TensorContainer[] newContainers(int num, Random random) {
+    TensorContainer[]	result;
+    int			i;
+
+    result = new TensorContainer[num];
+    for (i = 0; i < num; i++) {
+      result[i] = new TensorContainer();
+      result[i].setContent(Tensor.create(newData(2 + (i % 3), random)));
+    }
+
+    return result;
+  }
+
+  /**
+   * Trains a PARAFAC model.
+   *
+   * @param random	the random number generator to use
+   * @return		the model
+   * @throws Exception	if training fails
+   */
+  protected PARAFAC newModel(Random random) throws Exception {
+    PARAFAC	result;
+
+    result = new PARAFAC();
+    result.setNumComponents(2);
+    result.build(Tensor.create(newData(30, random)));
+
+    return result;
+  }
+
+  /**
+   * Filters the containers in batches and compares the output with filtering
+   * each container separately.
+   *
+   * @param num		the number of containers
+   * @param batchSize	the batch size to use
+   * @throws Exception	if filtering fails
+   */
+  protected void compare(int num, int batchSize) throws Exception {
+    Random			random;
+    PARAFAC			model;
+    TensorContainer[]		data;
+    TensorContainer[]		filtered;
+    ThreeWayDataModelFilter	actor;
+    double[][]			expected;
+    double[][]			actual;
+    int				i;
+    int				n;
+    int				m;
+
+    random = new Random(42);
+    model  = newModel(random);
+    data   = newContainers(num, random);
+    actor  = new ThreeWayDataModelFilter();
+    actor.setBatchSize(batchSize);
+    filtered = actor.filterBatches(model, data);
+
+    assertEquals("number of containers", data.length, filtered.length);
+    for (i = 0; i < data.length; i++) {
+      expected = model.filter(data[i].getContent()).toArray2d();
+      actual   = filtered[i].getContent().toArray2d();
+      assertEquals("rows of container #" + (i+1), expected.length, actual.length);
+      for (n = 0; n < expected.length; n++) {
+	assertEquals("columns of container #" + (i+1) + ", row #" + (n+1), expected[n].length, actual[n].length);
+	for (m = 0; m < expected[n].length; m++)
+	  assertEquals("container #" + (i+1) + ", row #" + (n+1) + ", col #" + (m+1), expected[n][m], actual[n][m], TOLERANCE);
+      }
+    }
+  }
+
+  /**
+   * Tests a number of containers that is a multiple of the batch size.
+   *
+   * @throws Exception	if filtering fails
+   */
+  public void testMultiple() throws Exception {
+    compare(6, 3);
+  }
+
+  /**
+   * Tests a number of containers that is not a multiple of the batch size,
+   * resulting in a smaller last batch.
+   *
+   * @throws Exception	if filtering fails
+   */
+  public void testRemainder() throws Exception {
+    compare(7, 3);
+  }
+
+  /**
+   * Tests a batch size larger than the number of containers.
+   *
+   * @throws Exception	if filtering fails
+   */
+  public void testSingleBatch() throws Exception {
+    compare(4, 100);
+  }
+
+  /**
+   * Tests a batch size of 1, i.e., no stacking.
+   *
+   * @throws Exception	if filtering fails
+   */
+  public void testNoStacking() throws Exception {
+    compare(3, 1);
+  }
+
+  /**
+   * Returns a test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ThreeWayDataModelFilterTest.class);
+  }
+
+  /**
+   * Runs the test from commandline.
+   *
+   * @param args	ignored
+   */
+  public static void main(String[] args) {
+    Environment.setEnvironmentClass(Environment.class);
+    runTest(suite());
+  }
+}